@@ -163,6 +163,22 @@ CREATE TABLE grades (
     INDEX idx_enrollment (enrollment_id)
 ) ENGINE=InnoDB;
 
+-- ============================================================================
+-- TABLE: grades_staging
+-- Landing table for bulk grade loads; rows are validated and merged into
+-- grades in one statement per load, then deleted
+-- ============================================================================
+CREATE TABLE grades_staging (
+    staging_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    load_id BIGINT NOT NULL,
+    section_id INT NOT NULL,
+    enrollment_id INT NOT NULL,
+    component_id INT NOT NULL,
+    score DECIMAL(8,2) NOT NULL,
+
+    INDEX idx_load (load_id)
+) ENGINE=InnoDB;
+
 -- ============================================================================
 -- TABLE: settings
 -- System configuration (maintenance mode, current semester, etc.)
@@ -175,7 +191,9 @@ CREATE TABLE settings (
 
 -- ============================================================================
 -- TABLE: notifications
--- User notifications and system announcements (Bonus feature +2 points)
+-- Notifications addressed to a single user (Bonus feature +2 points).
+-- Role-wide announcements live in broadcast_notifications; target_role is
+-- kept only for rows written by older clients.
 -- ============================================================================
 CREATE TABLE notifications (
     notification_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -188,7 +206,67 @@ CREATE TABLE notifications (
     FOREIGN KEY (user_id) REFERENCES university_auth.users_auth(user_id) ON DELETE CASCADE,
 
     INDEX idx_user_read (user_id, is_read),
-    INDEX idx_role (target_role)
+    INDEX idx_role (target_role),
+    INDEX idx_created (created_at)
+) ENGINE=InnoDB;
+
+-- ============================================================================
+-- TABLE: notifications_archive
+-- Notifications past retention, moved here in small id-ranged chunks by the
+-- retention job. Partitioned by month (the job adds the partitions) so whole
+-- months can be dropped without a DELETE. No foreign keys: partitioned InnoDB
+-- tables do not support them.
+-- ============================================================================
+CREATE TABLE notifications_archive (
+    notification_id INT NOT NULL,
+    user_id INT NULL,
+    target_role ENUM('student', 'instructor', 'admin') NULL,
+    message TEXT NOT NULL,
+    is_read BOOLEAN NOT NULL,
+    created_at DATETIME NOT NULL,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (notification_id, created_at),
+    INDEX idx_user (user_id)
+) ENGINE=InnoDB
+PARTITION BY RANGE (TO_DAYS(created_at)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+-- ============================================================================
+-- TABLE: broadcast_notifications
+-- Role-wide announcements, stored once and fanned out on read. role_seq
+-- numbers each role's broadcasts 1, 2, 3, ... without gaps.
+-- ============================================================================
+CREATE TABLE broadcast_notifications (
+    broadcast_id INT AUTO_INCREMENT PRIMARY KEY,
+    target_role ENUM('student', 'instructor', 'admin') NOT NULL,
+    role_seq INT NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_role_seq (target_role, role_seq)
+) ENGINE=InnoDB;
+
+-- ============================================================================
+-- TABLE: broadcast_sequences
+-- Last role_seq handed out per role; allocated with LAST_INSERT_ID()
+-- ============================================================================
+CREATE TABLE broadcast_sequences (
+    target_role ENUM('student', 'instructor', 'admin') PRIMARY KEY,
+    last_seq INT NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+-- ============================================================================
+-- TABLE: notification_cursors
+-- Per-user read cursor: broadcasts with role_seq <= last_seen_seq are read
+-- ============================================================================
+CREATE TABLE notification_cursors (
+    user_id INT PRIMARY KEY,
+    last_seen_seq INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (user_id) REFERENCES university_auth.users_auth(user_id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
 -- ============================================================================
@@ -314,9 +392,15 @@ INSERT INTO settings (setting_key, setting_value) VALUES
 -- ============================================================================
 -- SAMPLE DATA: Welcome Notifications
 -- ============================================================================
+INSERT INTO broadcast_notifications (target_role, role_seq, message) VALUES
+('student', 1, 'Welcome to the new semester! Course registration is now open.'),
+('instructor', 1, 'Reminder: Please set up your grade components for all sections.');
+
+INSERT INTO broadcast_sequences (target_role, last_seq) VALUES
+('student', 1),
+('instructor', 1);
+
 INSERT INTO notifications (user_id, target_role, message) VALUES
-(NULL, 'student', 'Welcome to the new semester! Course registration is now open.'),
-(NULL, 'instructor', 'Reminder: Please set up your grade components for all sections.'),
 (3, NULL, 'You have been successfully enrolled in CS101 - Section A.');
 
 -- ============================================================================
@@ -0,0 +1,111 @@
+-- ============================================================================
+-- UNIVERSITY ERP - UPGRADE SCRIPT FOR EXISTING DATABASES
+-- ============================================================================
+-- erp_setup.sql recreates the database from scratch; this script applies the
+-- same schema additions to an existing university_erp database in place.
+-- Statements are written to be safe to re-run.
+-- ============================================================================
+USE university_erp;
+
+-- ----------------------------------------------------------------------------
+-- grades_staging: landing table for bulk grade loads
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS grades_staging (
+    staging_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    load_id BIGINT NOT NULL,
+    section_id INT NOT NULL,
+    enrollment_id INT NOT NULL,
+    component_id INT NOT NULL,
+    score DECIMAL(8,2) NOT NULL,
+
+    INDEX idx_load (load_id)
+) ENGINE=InnoDB;
+
+-- ----------------------------------------------------------------------------
+-- Fan-out-on-read broadcasts with per-user read cursors
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS broadcast_notifications (
+    broadcast_id INT AUTO_INCREMENT PRIMARY KEY,
+    target_role ENUM('student', 'instructor', 'admin') NOT NULL,
+    role_seq INT NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_role_seq (target_role, role_seq)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS broadcast_sequences (
+    target_role ENUM('student', 'instructor', 'admin') PRIMARY KEY,
+    last_seq INT NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS notification_cursors (
+    user_id INT PRIMARY KEY,
+    last_seen_seq INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (user_id) REFERENCES university_auth.users_auth(user_id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Move role broadcasts out of notifications, numbering them per role after any
+-- broadcasts already migrated. The old is_read flag on a broadcast was shared
+-- by the whole role, so each user's cursor starts at the newest broadcast of
+-- their role that had been marked read.
+START TRANSACTION;
+
+DROP TEMPORARY TABLE IF EXISTS broadcast_migration;
+CREATE TEMPORARY TABLE broadcast_migration AS
+SELECT n.notification_id, n.target_role, n.message, n.is_read, n.created_at,
+       COALESCE(q.last_seq, 0) + ROW_NUMBER() OVER (PARTITION BY n.target_role ORDER BY n.notification_id) AS role_seq
+FROM notifications n
+LEFT JOIN broadcast_sequences q ON q.target_role = n.target_role
+WHERE n.user_id IS NULL AND n.target_role IS NOT NULL;
+
+INSERT INTO broadcast_notifications (target_role, role_seq, message, created_at)
+SELECT target_role, role_seq, message, created_at FROM broadcast_migration ORDER BY target_role, role_seq;
+
+INSERT INTO broadcast_sequences (target_role, last_seq)
+SELECT target_role, MAX(role_seq) FROM broadcast_migration GROUP BY target_role
+ON DUPLICATE KEY UPDATE last_seq = GREATEST(last_seq, VALUES(last_seq));
+
+INSERT INTO notification_cursors (user_id, last_seen_seq)
+SELECT u.user_id, r.read_seq
+FROM university_auth.users_auth u
+JOIN (SELECT target_role, MAX(role_seq) AS read_seq FROM broadcast_migration
+      WHERE is_read = TRUE GROUP BY target_role) r ON r.target_role = u.role
+ON DUPLICATE KEY UPDATE last_seen_seq = GREATEST(last_seen_seq, VALUES(last_seen_seq));
+
+DELETE n FROM notifications n JOIN broadcast_migration m ON m.notification_id = n.notification_id;
+
+DROP TEMPORARY TABLE broadcast_migration;
+
+COMMIT;
+
+-- ----------------------------------------------------------------------------
+-- Notification retention: created_at index and the partitioned archive
+-- ----------------------------------------------------------------------------
+SET @has_idx_created = (SELECT COUNT(*) FROM information_schema.statistics
+                        WHERE table_schema = DATABASE() AND table_name = 'notifications'
+                          AND index_name = 'idx_created');
+SET @ddl = IF(@has_idx_created = 0,
+              'ALTER TABLE notifications ADD INDEX idx_created (created_at)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    notification_id INT NOT NULL,
+    user_id INT NULL,
+    target_role ENUM('student', 'instructor', 'admin') NULL,
+    message TEXT NOT NULL,
+    is_read BOOLEAN NOT NULL,
+    created_at DATETIME NOT NULL,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (notification_id, created_at),
+    INDEX idx_user (user_id)
+) ENGINE=InnoDB
+PARTITION BY RANGE (TO_DAYS(created_at)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
@@ -0,0 +1,152 @@
+-- ============================================================================
+-- UNIVERSITY ERP - NOTIFICATION STORE BENCHMARK
+-- ============================================================================
+-- Compares the old shared-row notification query with the broadcast table +
+-- read cursor model on 100,000 broadcast-eligible students. Runs in its own
+-- scratch database and never touches university_erp. Requires MySQL 8.0.18+
+-- for EXPLAIN ANALYZE. Run with:  mysql -u root -p < notification_benchmark.sql
+-- ============================================================================
+DROP DATABASE IF EXISTS university_erp_notification_bench;
+CREATE DATABASE university_erp_notification_bench;
+USE university_erp_notification_bench;
+
+SET SESSION cte_max_recursion_depth = 200000;
+
+CREATE TABLE users (
+    user_id INT PRIMARY KEY,
+    role ENUM('student', 'instructor', 'admin') NOT NULL
+) ENGINE=InnoDB;
+
+-- Old model: broadcasts and personal rows share one table and one is_read flag.
+CREATE TABLE legacy_notifications (
+    notification_id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NULL,
+    target_role ENUM('student', 'instructor', 'admin') NULL,
+    message TEXT NOT NULL,
+    is_read BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_user_read (user_id, is_read),
+    INDEX idx_role (target_role)
+) ENGINE=InnoDB;
+
+-- New model, same definitions as erp_setup.sql.
+CREATE TABLE notifications LIKE legacy_notifications;
+
+CREATE TABLE broadcast_notifications (
+    broadcast_id INT AUTO_INCREMENT PRIMARY KEY,
+    target_role ENUM('student', 'instructor', 'admin') NOT NULL,
+    role_seq INT NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_role_seq (target_role, role_seq)
+) ENGINE=InnoDB;
+
+CREATE TABLE broadcast_sequences (
+    target_role ENUM('student', 'instructor', 'admin') PRIMARY KEY,
+    last_seq INT NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+CREATE TABLE notification_cursors (
+    user_id INT PRIMARY KEY,
+    last_seen_seq INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- ----------------------------------------------------------------------------
+-- Data: 100,000 students, 3 personal notifications each (1 unread),
+-- 2,000 student broadcasts. Every student has read the first 1,990.
+-- ----------------------------------------------------------------------------
+INSERT INTO users (user_id, role)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100000)
+SELECT n, 'student' FROM seq;
+
+INSERT INTO notifications (user_id, message, is_read)
+SELECT u.user_id, CONCAT('Personal notification ', k.k, ' for ', u.user_id), k.k < 3
+FROM users u CROSS JOIN (SELECT 1 AS k UNION ALL SELECT 2 UNION ALL SELECT 3) k;
+
+INSERT INTO legacy_notifications (user_id, target_role, message, is_read)
+SELECT user_id, NULL, message, is_read FROM notifications;
+
+INSERT INTO broadcast_notifications (target_role, role_seq, message)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2000)
+SELECT 'student', n, CONCAT('Announcement ', n) FROM seq;
+
+INSERT INTO broadcast_sequences (target_role, last_seq) VALUES ('student', 2000);
+
+INSERT INTO notification_cursors (user_id, last_seen_seq)
+SELECT user_id, 1990 FROM users;
+
+-- In the old model the shared is_read flag means "read by someone", so the
+-- closest equivalent state has the same 1,990 broadcasts marked read.
+INSERT INTO legacy_notifications (user_id, target_role, message, is_read)
+SELECT NULL, target_role, message, role_seq <= 1990 FROM broadcast_notifications ORDER BY role_seq;
+
+ANALYZE TABLE legacy_notifications, notifications, broadcast_notifications,
+              broadcast_sequences, notification_cursors;
+
+SET @user = 54321;
+
+-- ----------------------------------------------------------------------------
+-- 1. Inbox query
+-- ----------------------------------------------------------------------------
+-- Old: the OR predicate cannot use one index range (index merge at best).
+EXPLAIN ANALYZE
+SELECT * FROM legacy_notifications
+WHERE (user_id = @user OR target_role = 'student') AND is_read = false
+ORDER BY created_at DESC LIMIT 50;
+
+-- New: NotificationService.getNotificationsForUser
+EXPLAIN ANALYZE
+(SELECT n.notification_id, n.user_id, NULL AS target_role, n.message, n.created_at
+ FROM notifications n WHERE n.user_id = @user AND n.is_read = false
+ ORDER BY n.notification_id DESC LIMIT 50)
+UNION ALL
+(SELECT b.broadcast_id, NULL, b.target_role, b.message, b.created_at
+ FROM broadcast_notifications b WHERE b.target_role = 'student' AND b.role_seq >
+   (SELECT COALESCE(MAX(c.last_seen_seq), 0) FROM notification_cursors c WHERE c.user_id = @user)
+ ORDER BY b.role_seq DESC LIMIT 50)
+ORDER BY created_at DESC LIMIT 50;
+
+-- ----------------------------------------------------------------------------
+-- 2. Unread count
+-- ----------------------------------------------------------------------------
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM legacy_notifications
+WHERE (user_id = @user OR target_role = 'student') AND is_read = false;
+
+-- New: NotificationService.countUnread
+EXPLAIN ANALYZE
+SELECT (SELECT COUNT(*) FROM notifications WHERE user_id = @user AND is_read = false) +
+       GREATEST(0, COALESCE((SELECT last_seq FROM broadcast_sequences WHERE target_role = 'student'), 0) -
+                   COALESCE((SELECT last_seen_seq FROM notification_cursors WHERE user_id = @user), 0)) AS unread;
+
+-- ----------------------------------------------------------------------------
+-- 3. "Clear all" for one user
+-- ----------------------------------------------------------------------------
+-- Old: flips the shared flag, so every student loses the broadcasts.
+START TRANSACTION;
+SET @started = NOW(6);
+UPDATE legacy_notifications SET is_read = true
+WHERE (user_id = @user OR target_role = 'student') AND is_read = false;
+SELECT ROW_COUNT() AS rows_changed, TIMESTAMPDIFF(MICROSECOND, @started, NOW(6)) AS legacy_clear_all_us;
+ROLLBACK;
+
+-- New: NotificationService.markAllAsRead touches one row per table.
+START TRANSACTION;
+SET @started = NOW(6);
+UPDATE notifications SET is_read = true WHERE user_id = @user AND is_read = false;
+INSERT INTO notification_cursors (user_id, last_seen_seq)
+SELECT @user, last_seq FROM broadcast_sequences WHERE target_role = 'student'
+ON DUPLICATE KEY UPDATE last_seen_seq = GREATEST(last_seen_seq, VALUES(last_seen_seq));
+SELECT TIMESTAMPDIFF(MICROSECOND, @started, NOW(6)) AS cursor_clear_all_us;
+ROLLBACK;
+
+-- ----------------------------------------------------------------------------
+-- 4. Storage per broadcast: one row, no per-user fan-out
+-- ----------------------------------------------------------------------------
+SELECT table_name, table_rows, ROUND((data_length + index_length) / 1024 / 1024, 1) AS size_mb
+FROM information_schema.tables
+WHERE table_schema = 'university_erp_notification_bench'
+ORDER BY table_name;
+
+DROP DATABASE university_erp_notification_bench;
@@ -0,0 +1,151 @@
+-- ============================================================================
+-- UNIVERSITY ERP - USER DIRECTORY BENCHMARK
+-- ============================================================================
+-- Compares the old section/roster queries, which join university_auth.users_auth
+-- for display names, with the ERP-only queries that now fill names in from the
+-- in-memory UserDirectory. Uses a 100,000-user auth database. Runs in scratch
+-- databases and never touches university_auth or university_erp. Requires
+-- MySQL 8.0.18+ for EXPLAIN ANALYZE ("rows=" in each plan line is the number
+-- of rows that step examined). Run with:
+--     mysql -u root -p < user_directory_benchmark.sql
+-- ============================================================================
+DROP DATABASE IF EXISTS university_auth_directory_bench;
+DROP DATABASE IF EXISTS university_erp_directory_bench;
+CREATE DATABASE university_auth_directory_bench;
+CREATE DATABASE university_erp_directory_bench;
+
+SET SESSION cte_max_recursion_depth = 200000;
+
+-- Same definition as auth_setup.sql.
+CREATE TABLE university_auth_directory_bench.users_auth (
+    user_id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    full_name VARCHAR(100) NOT NULL,
+    role ENUM('student', 'instructor', 'admin') NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    status ENUM('active', 'locked') DEFAULT 'active',
+    failed_attempts INT DEFAULT 0,
+    locked_until DATETIME NULL,
+    last_login DATETIME NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_username (username),
+    INDEX idx_role (role),
+    INDEX idx_status (status)
+) ENGINE=InnoDB;
+
+USE university_erp_directory_bench;
+
+CREATE TABLE courses (
+    course_id INT AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(20) UNIQUE NOT NULL,
+    title VARCHAR(200) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE TABLE sections (
+    section_id INT AUTO_INCREMENT PRIMARY KEY,
+    course_id INT NOT NULL,
+    instructor_id INT NOT NULL,
+    section_code VARCHAR(10) NOT NULL,
+    semester VARCHAR(20) NOT NULL,
+    year INT NOT NULL,
+    INDEX idx_instructor (instructor_id),
+    INDEX idx_course (course_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE enrollments (
+    enrollment_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    section_id INT NOT NULL,
+    status ENUM('registered', 'dropped', 'completed') NOT NULL DEFAULT 'registered',
+    UNIQUE KEY uk_student_section (student_id, section_id),
+    INDEX idx_section_status (section_id, status)
+) ENGINE=InnoDB;
+
+-- ----------------------------------------------------------------------------
+-- Data: 98,000 students and 2,000 instructors; 500 courses with 4 sections
+-- each; every student in 5 sections (about 245 students per section).
+-- ----------------------------------------------------------------------------
+INSERT INTO university_auth_directory_bench.users_auth (user_id, username, full_name, role, password_hash)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100000)
+SELECT n, CONCAT('user', n), CONCAT('Person ', LPAD(MOD(n * 7919, 100000), 6, '0')),
+       IF(n <= 2000, 'instructor', 'student'), 'x'
+FROM seq;
+
+INSERT INTO courses (course_id, code, title)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 500)
+SELECT n, CONCAT('CSE', LPAD(n, 3, '0')), CONCAT('Course ', n) FROM seq;
+
+INSERT INTO sections (course_id, instructor_id, section_code, semester, year)
+SELECT c.course_id, 1 + MOD(c.course_id * 4 + k.k, 2000), CONCAT('S', k.k), 'Monsoon', 2025
+FROM courses c CROSS JOIN (SELECT 1 AS k UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4) k;
+
+INSERT INTO enrollments (student_id, section_id)
+SELECT u.user_id, 1 + MOD(u.user_id * 5 + k.k * 397, 2000)
+FROM university_auth_directory_bench.users_auth u
+CROSS JOIN (SELECT 0 AS k UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4) k
+WHERE u.role = 'student';
+
+ANALYZE TABLE university_auth_directory_bench.users_auth, courses, sections, enrollments;
+
+SET @section = 1234;
+SET @instructor = 617;
+
+-- ----------------------------------------------------------------------------
+-- 1. All sections (SectionDAO.findAll, AdminService.getAllSections)
+-- ----------------------------------------------------------------------------
+EXPLAIN ANALYZE
+SELECT s.*, c.code AS course_code, c.title AS course_title, u.full_name AS instructor_name
+FROM sections s
+JOIN courses c ON s.course_id = c.course_id
+JOIN university_auth_directory_bench.users_auth u ON s.instructor_id = u.user_id
+ORDER BY s.semester, s.year DESC, c.code, s.section_code;
+
+EXPLAIN ANALYZE
+SELECT s.*, c.code AS course_code, c.title AS course_title
+FROM sections s
+JOIN courses c ON s.course_id = c.course_id
+ORDER BY s.semester, s.year DESC, c.code, s.section_code;
+
+-- ----------------------------------------------------------------------------
+-- 2. Section roster sorted by name (EnrollmentDAO.findBySection)
+-- ----------------------------------------------------------------------------
+EXPLAIN ANALYZE
+SELECT e.*, u.full_name AS student_name FROM enrollments e
+JOIN university_auth_directory_bench.users_auth u ON e.student_id = u.user_id
+WHERE e.section_id = @section AND e.status = 'registered'
+ORDER BY u.full_name;
+
+-- New: names and the sort come from the directory.
+EXPLAIN ANALYZE
+SELECT e.* FROM enrollments e WHERE e.section_id = @section AND e.status = 'registered';
+
+-- ----------------------------------------------------------------------------
+-- 3. Instructor's sections (SectionDAO.findByInstructor)
+-- ----------------------------------------------------------------------------
+EXPLAIN ANALYZE
+SELECT s.*, c.code AS course_code, c.title AS course_title, u.full_name AS instructor_name
+FROM sections s
+JOIN courses c ON s.course_id = c.course_id
+JOIN university_auth_directory_bench.users_auth u ON s.instructor_id = u.user_id
+WHERE s.instructor_id = @instructor ORDER BY c.code, s.section_code;
+
+EXPLAIN ANALYZE
+SELECT s.*, c.code AS course_code, c.title AS course_title
+FROM sections s
+JOIN courses c ON s.course_id = c.course_id
+WHERE s.instructor_id = @instructor ORDER BY c.code, s.section_code;
+
+-- ----------------------------------------------------------------------------
+-- 4. One-time cost: the directory's bulk load (UserDAO.findAllDirectoryEntries)
+-- ----------------------------------------------------------------------------
+EXPLAIN ANALYZE
+SELECT user_id, full_name, role, status FROM university_auth_directory_bench.users_auth;
+
+SELECT table_name, table_rows, ROUND((data_length + index_length) / 1024 / 1024, 1) AS size_mb
+FROM information_schema.tables
+WHERE table_schema IN ('university_auth_directory_bench', 'university_erp_directory_bench')
+ORDER BY table_name;
+
+DROP DATABASE university_erp_directory_bench;
+DROP DATABASE university_auth_directory_bench;
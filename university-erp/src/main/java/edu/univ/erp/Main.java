@@ -1,5 +1,13 @@
 package edu.univ.erp;
 
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.SettingsCache;
+import edu.univ.erp.data.UserDirectory;
+import edu.univ.erp.service.DashboardCounters;
+import edu.univ.erp.service.ErpEventBus;
+import edu.univ.erp.service.NotificationRetentionJob;
+import edu.univ.erp.service.RegistrationQueue;
 import edu.univ.erp.ui.MainFrame;
 import edu.univ.erp.ui.ThemeManager;
 import edu.univ.erp.util.DatabaseConfig;
@@ -28,7 +36,19 @@ public class Main {
             }
         });
         
+        DashboardCounters.getInstance().startReconciliation();
+        NotificationRetentionJob.getInstance().startSchedule();
+
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            RegistrationQueue.shutdownIfStarted();
+            DashboardCounters.shutdownIfStarted();
+            NotificationRetentionJob.shutdownIfStarted();
+            SettingsCache.getInstance().logStats();
+            GradebookCache.getInstance().logStats();
+            UserDirectory.getInstance().logStats();
+            CatalogCache.getInstance().logStats();
+            ErpEventBus.getInstance().logStats();
+            DatabaseConfig.logStats();
             DatabaseConfig.closeDataSources();
             System.out.println("Application shutdown complete");
         }));
@@ -1,5 +1,6 @@
 package edu.univ.erp.auth;
 
+import edu.univ.erp.data.UserDirectory;
 import edu.univ.erp.domain.User;
 import edu.univ.erp.util.DatabaseConfig;
 import edu.univ.erp.access.AccessControlService;
@@ -94,6 +95,7 @@ public class AuthService {
                 stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES)));
                 stmt.setInt(3, userId);
                 stmt.executeUpdate();
+                UserDirectory.getInstance().updateStatus(userId, "locked");
                 logger.warn("User account locked due to excessive failed attempts: user_id={}", userId);
                 throw new AuthException("Account locked due to too many failed attempts.");
             }
@@ -113,6 +115,7 @@ public class AuthService {
             stmt.setInt(1, userId);
             stmt.executeUpdate();
         }
+        UserDirectory.getInstance().updateStatus(userId, "active");
     }
 
     private void resetFailedAttempts(Connection conn, int userId) throws SQLException {
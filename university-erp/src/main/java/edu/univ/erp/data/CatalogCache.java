@@ -0,0 +1,354 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.Section;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Per-semester snapshot of the course catalog (sections with their course and instructor),
+ * shared by every student. The offerings are immutable and versioned. An admin edit to one
+ * section publishes the next version with only that section patched. The search index is the
+ * exception: it is handed from version to version and patched in place, so it always reflects
+ * the newest version. Course, deadline and bulk changes drop the snapshot, and a TTL covers
+ * edits made from another client. Seat counts are the only live part: register and drop paths apply their
+ * deltas in place, and a seat-count-only query refreshes them every few seconds, which also
+ * notices sections added or removed elsewhere. Each student's view is the snapshot filtered
+ * in memory against their registered sections and courses.
+ */
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+    private static final long DEFAULT_SNAPSHOT_TTL_MS = 5 * 60 * 1000;
+    private static final long DEFAULT_SEAT_CHECK_INTERVAL_MS = 5000;
+    private static final CatalogCache INSTANCE = new CatalogCache(new SectionDAO(), new EnrollmentDAO(),
+        DEFAULT_SNAPSHOT_TTL_MS, DEFAULT_SEAT_CHECK_INTERVAL_MS);
+
+    /** Everything about a section that only changes through an admin edit. */
+    public record Offering(int sectionId, int courseId, int instructorId, String courseCode, String courseTitle,
+                           String courseDescription, String instructorName, String sectionCode, String dayTime,
+                           String room, int capacity, String semester, int year,
+                           LocalDate addDeadline, LocalDate dropDeadline) {
+
+        public static Offering of(Section section) {
+            return new Offering(section.getSectionId(), section.getCourseId(), section.getInstructorId(),
+                section.getCourseCode(), section.getCourseTitle(), section.getCourseDescription(),
+                section.getInstructorName(), section.getSectionCode(), section.getDayTime(), section.getRoom(),
+                section.getCapacity(), section.getSemester(), section.getYear(),
+                section.getAddDeadline(), section.getDropDeadline());
+        }
+
+        Section toSection(int enrollmentCount) {
+            Section section = new Section(sectionId, courseId, instructorId, sectionCode, dayTime, room,
+                capacity, semester, year, enrollmentCount);
+            section.setCourseCode(courseCode);
+            section.setCourseTitle(courseTitle);
+            section.setCourseDescription(courseDescription);
+            section.setInstructorName(instructorName);
+            section.setAddDeadline(addDeadline);
+            section.setDropDeadline(dropDeadline);
+            return section;
+        }
+    }
+
+    private static final Comparator<Offering> CATALOG_ORDER = Comparator
+        .comparing(Offering::courseCode, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(Offering::sectionCode, String.CASE_INSENSITIVE_ORDER);
+
+    private static final class Snapshot {
+        final String semester;
+        final int year;
+        final long version;
+        final List<Offering> offerings;
+        final Map<Integer, AtomicInteger> enrolled;
+        final long loadedAt;
+        volatile long seatsCheckedAt;
+        /**
+         * Built on the first search and shared with every later version rather than copied:
+         * withSection patches it in place, so it always matches the newest version, and a search
+         * through an older snapshot can name a section that version does not hold. Callers keep
+         * to the sections they hold through search's include predicate.
+         */
+        private CatalogSearchIndex searchIndex;
+
+        Snapshot(String semester, int year, long version, List<Section> sections, long loadedAt) {
+            this.semester = semester;
+            this.year = year;
+            this.version = version;
+            List<Offering> offerings = new ArrayList<>(sections.size());
+            Map<Integer, AtomicInteger> enrolled = new HashMap<>();
+            for (Section section : sections) {
+                offerings.add(Offering.of(section));
+                enrolled.put(section.getSectionId(), new AtomicInteger(section.getEnrollmentCount()));
+            }
+            this.offerings = List.copyOf(offerings);
+            this.enrolled = enrolled;
+            this.loadedAt = loadedAt;
+            this.seatsCheckedAt = loadedAt;
+        }
+
+        private Snapshot(Snapshot previous, long version, List<Offering> offerings, Map<Integer, AtomicInteger> enrolled,
+                         CatalogSearchIndex searchIndex) {
+            this.semester = previous.semester;
+            this.year = previous.year;
+            this.version = version;
+            this.offerings = List.copyOf(offerings);
+            this.enrolled = enrolled;
+            this.loadedAt = previous.loadedAt;
+            this.seatsCheckedAt = previous.seatsCheckedAt;
+            this.searchIndex = searchIndex;
+        }
+
+        boolean isFor(String semester, int year) {
+            return this.year == year && this.semester.equals(semester);
+        }
+
+        synchronized CatalogSearchIndex searchIndex() {
+            if (searchIndex == null) {
+                searchIndex = new CatalogSearchIndex(offerings);
+            }
+            return searchIndex;
+        }
+
+        /**
+         * The next version with one section replaced, added or (when section is null) removed.
+         * The offerings are copied; the shared search index is patched in place.
+         */
+        synchronized Snapshot withSection(int sectionId, Section section, long nextVersion) {
+            List<Offering> nextOfferings = new ArrayList<>(offerings);
+            nextOfferings.removeIf(offering -> offering.sectionId() == sectionId);
+            Map<Integer, AtomicInteger> nextEnrolled = new HashMap<>(enrolled);
+            nextEnrolled.remove(sectionId);
+            if (searchIndex != null) {
+                searchIndex.remove(sectionId);
+            }
+            if (section != null && isFor(section.getSemester(), section.getYear())) {
+                Offering offering = Offering.of(section);
+                int position = 0;
+                while (position < nextOfferings.size() && CATALOG_ORDER.compare(nextOfferings.get(position), offering) <= 0) {
+                    position++;
+                }
+                nextOfferings.add(position, offering);
+                nextEnrolled.put(sectionId, new AtomicInteger(section.getEnrollmentCount()));
+                if (searchIndex != null) {
+                    searchIndex.add(offering);
+                }
+            }
+            return new Snapshot(this, nextVersion, nextOfferings, nextEnrolled, searchIndex);
+        }
+    }
+
+    private final SectionDAO sectionDAO;
+    private final EnrollmentDAO enrollmentDAO;
+    private final long snapshotTtlMs;
+    private final long seatCheckIntervalMs;
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong versions = new AtomicLong();
+    /** Bumped by every local seat change, so a seat refresh that raced one is not applied. */
+    private final AtomicLong seatChanges = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong snapshotLoads = new AtomicLong();
+    private final AtomicLong seatRefreshes = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+
+    public CatalogCache(SectionDAO sectionDAO, EnrollmentDAO enrollmentDAO, long snapshotTtlMs, long seatCheckIntervalMs) {
+        this.sectionDAO = sectionDAO;
+        this.enrollmentDAO = enrollmentDAO;
+        this.snapshotTtlMs = snapshotTtlMs;
+        this.seatCheckIntervalMs = seatCheckIntervalMs;
+    }
+
+    public static CatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sections of the semester that still have seats, in course code order. For a student
+     * (studentId > 0) it leaves out sections they are registered in and every section of a
+     * course they are already taking.
+     */
+    public List<Section> getAvailableSections(String semester, int year, int studentId) throws SQLException {
+        requests.incrementAndGet();
+        Snapshot current = current(semester, year);
+
+        Map<Integer, Integer> registered = studentId > 0
+            ? enrollmentDAO.findRegisteredCourseIdsBySection(studentId) : Map.of();
+        Set<Integer> registeredCourses = new HashSet<>(registered.values());
+
+        List<Section> sections = new ArrayList<>();
+        for (Offering offering : current.offerings) {
+            int enrolled = current.enrolled.get(offering.sectionId()).get();
+            if (enrolled >= offering.capacity()
+                || registered.containsKey(offering.sectionId())
+                || registeredCourses.contains(offering.courseId())) {
+                continue;
+            }
+            sections.add(offering.toSection(enrolled));
+        }
+        return sections;
+    }
+
+    /** Applies a committed register (+1) or drop (-1) to the live seat count. */
+    public void seatsChanged(int sectionId, int delta) {
+        seatChanges.incrementAndGet();
+        Snapshot current = snapshot;
+        AtomicInteger enrolled = current != null ? current.enrolled.get(sectionId) : null;
+        if (enrolled != null) {
+            enrolled.updateAndGet(count -> Math.max(0, count + delta));
+        }
+    }
+
+    /** Sets the live seat count to a value read under the section's row lock. */
+    public void seatsReconciled(int sectionId, int enrollmentCount) {
+        seatChanges.incrementAndGet();
+        Snapshot current = snapshot;
+        AtomicInteger enrolled = current != null ? current.enrolled.get(sectionId) : null;
+        if (enrolled != null) {
+            enrolled.set(enrollmentCount);
+        }
+    }
+
+    /**
+     * Section ids matching the search query, best first, among sections accepted by include.
+     * Uses the current snapshot's search index, built on the first search of each snapshot.
+     * This can load the snapshot and build the index, so call it off the EDT.
+     */
+    public List<Integer> search(String semester, int year, String query, int limit, IntPredicate include) throws SQLException {
+        searches.incrementAndGet();
+        Snapshot current = snapshot;
+        if (current == null || !current.isFor(semester, year)) {
+            current = current(semester, year);
+        }
+        return current.searchIndex().search(query, limit, include);
+    }
+
+    /** Loads the semester's snapshot and builds its search index ahead of the first search. */
+    public void warmSearch(String semester, int year) throws SQLException {
+        current(semester, year).searchIndex();
+    }
+
+    /**
+     * Re-reads one section after an admin created, edited or deleted it and publishes the next
+     * snapshot version with only that section changed; the search index is patched in place.
+     */
+    public void sectionChanged(int sectionId) {
+        generation.incrementAndGet();
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Section section = sectionDAO.findCatalogEntry(sectionId);
+            synchronized (loadLock) {
+                Snapshot current = snapshot;
+                if (current != null) {
+                    snapshot = current.withSection(sectionId, section, versions.incrementAndGet());
+                    incrementalUpdates.incrementAndGet();
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error re-reading section {} for the catalog, dropping the snapshot", sectionId, e);
+            invalidate();
+        }
+    }
+
+    /** Called after changes to courses or to many sections at once; the next read builds a new version. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        synchronized (loadLock) {
+            if (snapshot != null) {
+                invalidations.incrementAndGet();
+            }
+            snapshot = null;
+        }
+    }
+
+    /** Version of the current snapshot, or 0 when none is loaded. */
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current != null ? current.version : 0;
+    }
+
+    public long getRequestCount() { return requests.get(); }
+    public long getSnapshotLoadCount() { return snapshotLoads.get(); }
+    public long getSeatRefreshCount() { return seatRefreshes.get(); }
+    public long getInvalidationCount() { return invalidations.get(); }
+    public long getIncrementalUpdateCount() { return incrementalUpdates.get(); }
+
+    public void logStats() {
+        logger.info("Catalog cache: {} requests, {} searches, {} snapshot loads, {} incremental section updates, {} seat refreshes, {} invalidations, {} local seat changes",
+            requests.get(), searches.get(), snapshotLoads.get(), incrementalUpdates.get(), seatRefreshes.get(),
+            invalidations.get(), seatChanges.get());
+    }
+
+    private Snapshot current(String semester, int year) throws SQLException {
+        long now = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (current != null && current.isFor(semester, year) && now - current.loadedAt < snapshotTtlMs) {
+            if (now - current.seatsCheckedAt >= seatCheckIntervalMs) {
+                refreshSeats(current, now);
+            }
+            return current;
+        }
+        synchronized (loadLock) {
+            current = snapshot;
+            if (current != null && current.isFor(semester, year) && now - current.loadedAt < snapshotTtlMs) {
+                return current;
+            }
+            long startGeneration = generation.get();
+            current = new Snapshot(semester, year, versions.incrementAndGet(), sectionDAO.findBySemester(semester, year), now);
+            snapshotLoads.incrementAndGet();
+            // An admin edit that landed while loading may not be reflected; serve this copy but do not keep it.
+            if (generation.get() == startGeneration) {
+                snapshot = current;
+            }
+            logger.debug("Catalog snapshot v{} for {} {} loaded: {} sections", current.version, semester, year, current.offerings.size());
+            return current;
+        }
+    }
+
+    private void refreshSeats(Snapshot current, long now) throws SQLException {
+        synchronized (current) {
+            if (now - current.seatsCheckedAt < seatCheckIntervalMs) {
+                return;
+            }
+            long startChanges = seatChanges.get();
+            Map<Integer, Integer> counts = sectionDAO.findEnrollmentCounts(current.semester, current.year);
+            seatRefreshes.incrementAndGet();
+            current.seatsCheckedAt = now;
+
+            if (!counts.keySet().equals(current.enrolled.keySet())) {
+                // Sections were added or deleted by another client: rebuild on the next read.
+                logger.debug("Catalog for {} {} changed elsewhere, dropping snapshot v{}", current.semester, current.year, current.version);
+                synchronized (loadLock) {
+                    if (snapshot == current) {
+                        snapshot = null;
+                        invalidations.incrementAndGet();
+                    }
+                }
+                return;
+            }
+            // A local change that raced this read is newer than it; the next refresh catches up.
+            if (seatChanges.get() == startChanges) {
+                for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                    current.enrolled.get(entry.getKey()).set(entry.getValue());
+                }
+            }
+        }
+    }
+}
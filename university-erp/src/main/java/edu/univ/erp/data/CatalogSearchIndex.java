@@ -0,0 +1,344 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.data.CatalogCache.Offering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted index over each section's course code, title, description and instructor name.
+ * Every term points at the sections it occurs in, tagged with the field so matches can be
+ * weighted. The sorted term dictionary answers prefix matches, and a trigram index over terms
+ * answers matches inside a word. A section matches when every query token matches one of its
+ * terms. Results rank by field (code, title, instructor, description) and match kind (whole
+ * word, prefix, inside a word), with ties in catalog order. Sections are added and removed one
+ * at a time; removed documents are skipped until enough pile up to compact.
+ */
+public class CatalogSearchIndex {
+    private static final int FIELD_CODE = 0;
+    private static final int FIELD_TITLE = 1;
+    private static final int FIELD_INSTRUCTOR = 2;
+    private static final int FIELD_DESCRIPTION = 3;
+    private static final int[] FIELD_WEIGHTS = {8, 4, 2, 1};
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+    private static final int GRAM = 3;
+    private static final int MIN_REMOVED_TO_COMPACT = 64;
+
+    /** Growable list of postings; each entry packs docId * 4 + field. */
+    private static final class Postings {
+        int[] entries = new int[4];
+        int size;
+
+        void add(int entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+            entries[size++] = entry;
+        }
+    }
+
+    private Offering[] docs = new Offering[16];
+    private String[] sortKeys = new String[16];
+    private int docCount;
+    /** Catalog position of each document, recomputed on the first search after an add. */
+    private int[] rankOf = new int[0];
+    private int[] docByRank = new int[0];
+    private boolean ranksStale = true;
+    /** Per-query scratch, reused between searches; only first-token candidates are ever dirtied. */
+    private int[] score = new int[0];
+    private int[] matched = new int[0];
+    private int[] best = new int[0];
+    private int[] touched = new int[0];
+    private final Map<Integer, Integer> docBySection = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, List<String>> termsByGram = new HashMap<>();
+
+    public CatalogSearchIndex(Collection<Offering> offerings) {
+        for (Offering offering : offerings) {
+            add(offering);
+        }
+    }
+
+    public synchronized void add(Offering offering) {
+        remove(offering.sectionId());
+        int doc = docCount++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, doc * 2);
+            sortKeys = Arrays.copyOf(sortKeys, doc * 2);
+        }
+        docs[doc] = offering;
+        sortKeys[doc] = (offering.courseCode() + " " + offering.sectionCode()).toLowerCase(Locale.ROOT);
+        docBySection.put(offering.sectionId(), doc);
+        ranksStale = true;
+
+        // One posting per distinct term, tagged with the heaviest field it appears in.
+        Map<String, Integer> fieldByTerm = new HashMap<>();
+        addTerms(fieldByTerm, offering.courseCode(), FIELD_CODE);
+        addTerms(fieldByTerm, offering.courseTitle(), FIELD_TITLE);
+        addTerms(fieldByTerm, offering.instructorName(), FIELD_INSTRUCTOR);
+        addTerms(fieldByTerm, offering.courseDescription(), FIELD_DESCRIPTION);
+        for (Map.Entry<String, Integer> entry : fieldByTerm.entrySet()) {
+            postingsFor(entry.getKey()).add(doc * 4 + entry.getValue());
+        }
+    }
+
+    public synchronized void remove(int sectionId) {
+        Integer doc = docBySection.remove(sectionId);
+        if (doc == null) {
+            return;
+        }
+        removed.set(doc);
+        docs[doc] = null;
+        removedCount++;
+        if (removedCount >= MIN_REMOVED_TO_COMPACT && removedCount * 2 > docCount) {
+            compact();
+        }
+    }
+
+    public synchronized int size() {
+        return docBySection.size();
+    }
+
+    /**
+     * Section ids of the best {@code limit} matches for the query, best first. Only sections
+     * accepted by {@code include} are considered. A blank query matches nothing.
+     */
+    public synchronized List<Integer> search(String query, int limit, IntPredicate include) {
+        List<String> tokens = queryTokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        prepareScratch();
+        int[] candidates = touched;
+        int candidateCount = 0;
+
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            int touchedCount = 0;
+            for (Map.Entry<String, Postings> entry : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                int kind = entry.getKey().length() == token.length() ? EXACT : PREFIX;
+                touchedCount = collect(entry.getValue(), kind, touchedCount);
+            }
+            if (token.length() >= GRAM) {
+                for (String term : termsContaining(token)) {
+                    if (!term.startsWith(token)) {
+                        touchedCount = collect(terms.get(term), INFIX, touchedCount);
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                // Only documents that matched every earlier token keep scoring.
+                if (matched[doc] == t) {
+                    matched[doc]++;
+                    score[doc] += best[doc];
+                }
+                best[doc] = 0;
+            }
+            if (t == 0) {
+                // A match must contain the first token, so only its documents need checking at the end.
+                candidates = Arrays.copyOf(touched, touchedCount);
+                candidateCount = touchedCount;
+            }
+        }
+
+        // Min-heap of the best results so far; a key packs score over catalog position, so higher is better.
+        long[] heap = new long[Math.min(limit, candidateCount)];
+        int heapSize = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int doc = candidates[i];
+            boolean match = matched[doc] == tokens.size();
+            long key = ((long) score[doc] << 32) | (Integer.MAX_VALUE - rankOf[doc]);
+            score[doc] = 0;
+            matched[doc] = 0;
+            if (!match || removed.get(doc) || (heapSize == heap.length && key <= heap[0])
+                || !include.test(docs[doc].sectionId())) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+        Integer[] ranked = new Integer[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            long key = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i);
+            ranked[i] = docs[docByRank[Integer.MAX_VALUE - (int) key]].sectionId();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private void prepareScratch() {
+        if (score.length < docCount) {
+            score = new int[docCount];
+            matched = new int[docCount];
+            best = new int[docCount];
+            touched = new int[docCount];
+        }
+        if (ranksStale) {
+            Integer[] order = new Integer[docCount];
+            for (int doc = 0; doc < docCount; doc++) order[doc] = doc;
+            Arrays.sort(order, (a, b) -> sortKeys[a].compareTo(sortKeys[b]));
+            rankOf = new int[docCount];
+            docByRank = new int[docCount];
+            for (int rank = 0; rank < docCount; rank++) {
+                rankOf[order[rank]] = rank;
+                docByRank[rank] = order[rank];
+            }
+            ranksStale = false;
+        }
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long swap = heap[parent]; heap[parent] = heap[i]; heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) smallest = left;
+            if (right < size && heap[right] < heap[smallest]) smallest = right;
+            if (smallest == i) return;
+            long swap = heap[smallest]; heap[smallest] = heap[i]; heap[i] = swap;
+            i = smallest;
+        }
+    }
+
+    private int collect(Postings postings, int kind, int touchedCount) {
+        for (int i = 0; i < postings.size; i++) {
+            int entry = postings.entries[i];
+            int doc = entry >>> 2;
+            int points = FIELD_WEIGHTS[entry & 3] * kind;
+            if (best[doc] == 0) {
+                touched[touchedCount++] = doc;
+            }
+            if (points > best[doc]) {
+                best[doc] = points;
+            }
+        }
+        return touchedCount;
+    }
+
+    /** Terms containing the token, found through the rarest of its trigrams. */
+    private List<String> termsContaining(String token) {
+        List<String> smallest = null;
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            List<String> withGram = termsByGram.get(token.substring(i, i + GRAM));
+            if (withGram == null) {
+                return List.of();
+            }
+            if (smallest == null || withGram.size() < smallest.size()) {
+                smallest = withGram;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String term : smallest) {
+            if (term.contains(token)) result.add(term);
+        }
+        return result;
+    }
+
+    private Postings postingsFor(String term) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            postings = new Postings();
+            terms.put(term, postings);
+            Set<String> grams = new LinkedHashSet<>();
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                grams.add(term.substring(i, i + GRAM));
+            }
+            for (String gram : grams) {
+                termsByGram.computeIfAbsent(gram, g -> new ArrayList<>()).add(term);
+            }
+        }
+        return postings;
+    }
+
+    private void compact() {
+        List<Offering> live = new ArrayList<>(docBySection.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] != null) live.add(docs[doc]);
+        }
+        docs = new Offering[Math.max(16, live.size())];
+        sortKeys = new String[docs.length];
+        docCount = 0;
+        docBySection.clear();
+        removed.clear();
+        removedCount = 0;
+        ranksStale = true;
+        terms.clear();
+        termsByGram.clear();
+        for (Offering offering : live) {
+            add(offering);
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> fieldByTerm, String text, int field) {
+        if (text == null) {
+            return;
+        }
+        for (String word : words(text)) {
+            fieldByTerm.merge(word, field, Math::min);
+            // "CSE201" is also indexed as "cse" and "201" so either half finds it.
+            int split = letterDigitBoundary(word);
+            if (split > 0) {
+                fieldByTerm.merge(word.substring(0, split), field, Math::min);
+                fieldByTerm.merge(word.substring(split), field, Math::min);
+            }
+        }
+    }
+
+    private static List<String> queryTokens(String query) {
+        return query == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(words(query)));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static int letterDigitBoundary(String word) {
+        for (int i = 1; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i)) != Character.isDigit(word.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
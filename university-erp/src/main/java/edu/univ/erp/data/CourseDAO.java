@@ -1,12 +1,14 @@
 package edu.univ.erp.data;
 
 import edu.univ.erp.domain.Course;
+import edu.univ.erp.domain.PrerequisiteLink;
 import edu.univ.erp.util.DatabaseConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 
@@ -108,7 +110,10 @@ public class CourseDAO {
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, courseId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            // Deleting a course cascades to its prerequisite rows.
+            PrerequisiteGraph.getInstance().invalidate();
+            return deleted;
         }
     }
 
@@ -151,7 +156,9 @@ public class CourseDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, courseId);
             stmt.setInt(2, prerequisiteCourseId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            PrerequisiteGraph.getInstance().invalidate();
+            return changed;
         }
     }
 
@@ -162,34 +169,46 @@ public class CourseDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, courseId);
             stmt.setInt(2, prerequisiteCourseId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            PrerequisiteGraph.getInstance().invalidate();
+            return changed;
+        }
+    }
+
+    
+    public List<PrerequisiteLink> findAllPrerequisiteLinks() throws SQLException {
+        List<PrerequisiteLink> links = new ArrayList<>();
+        String sql = "SELECT cp.course_id, cp.requires_course_id, c.code FROM course_prerequisites cp " +
+                     "JOIN courses c ON c.course_id = cp.requires_course_id";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                links.add(new PrerequisiteLink(rs.getInt("course_id"), rs.getInt("requires_course_id"), rs.getString("code")));
+            }
         }
+        return links;
     }
 
     
-    public boolean hasCompletedPrerequisites(int studentId, int courseId) throws SQLException {
-        String sql = "SELECT COUNT(*) as missing FROM course_prerequisites cp " +
-                     "WHERE cp.course_id = ? " +
-                     "AND NOT EXISTS (" +
-                     "    SELECT 1 FROM enrollments e " +
-                     "    JOIN sections s ON e.section_id = s.section_id " +
-                     "    WHERE e.student_id = ? " +
-                     "    AND s.course_id = cp.requires_course_id " +
-                     "    AND (e.status = 'completed' OR e.status = 'registered') " +
-                     "    AND e.final_grade IS NOT NULL " +
-                     "    AND e.final_grade NOT IN ('F', 'W', 'I', '')" +
-                     ")";
+    public BitSet findCompletedCourseIds(int studentId) throws SQLException {
+        BitSet completed = new BitSet();
+        String sql = "SELECT DISTINCT s.course_id FROM enrollments e " +
+                     "JOIN sections s ON e.section_id = s.section_id " +
+                     "WHERE e.student_id = ? " +
+                     "AND (e.status = 'completed' OR e.status = 'registered') " +
+                     "AND e.final_grade IS NOT NULL " +
+                     "AND e.final_grade NOT IN ('F', 'W', 'I', '')";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
-            stmt.setInt(2, studentId);
+            stmt.setInt(1, studentId);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("missing") == 0;
+                while (rs.next()) {
+                    completed.set(rs.getInt("course_id"));
                 }
             }
         }
-        return false;
+        return completed;
     }
 
     private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
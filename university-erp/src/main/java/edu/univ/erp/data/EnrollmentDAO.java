@@ -8,18 +8,20 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EnrollmentDAO {
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentDAO.class);
 
     public Enrollment findById(int enrollmentId) throws SQLException {
         
-        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, u.full_name as instructor_name " +
+        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, s.instructor_id " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE e.enrollment_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -36,11 +38,10 @@ public class EnrollmentDAO {
     public List<Enrollment> findByStudent(int studentId) throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
         
-        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, u.full_name as instructor_name " +
+        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, s.instructor_id " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE e.student_id = ? " +
                      "ORDER BY e.enrolled_at DESC";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -58,11 +59,10 @@ public class EnrollmentDAO {
     public List<Enrollment> findActiveByStudent(int studentId) throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
         
-        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, u.full_name as instructor_name " +
+        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, s.instructor_id " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE e.student_id = ? AND e.status = 'registered' " +
                      "ORDER BY c.code";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -80,21 +80,21 @@ public class EnrollmentDAO {
     public List<Enrollment> findBySection(int sectionId) throws SQLException {
         List<Enrollment> enrollments = new ArrayList<>();
         
-        String sql = "SELECT e.*, u.full_name as student_name FROM enrollments e " +
-                     "JOIN university_auth.users_auth u ON e.student_id = u.user_id " +
-                     "WHERE e.section_id = ? AND e.status = 'registered' " +
-                     "ORDER BY u.full_name";
+        String sql = "SELECT e.* FROM enrollments e WHERE e.section_id = ? AND e.status = 'registered'";
+        UserDirectory directory = UserDirectory.getInstance();
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, sectionId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Enrollment enrollment = mapResultSetToEnrollment(rs, false);
-                    enrollment.setStudentName(rs.getString("student_name"));
+                    enrollment.setStudentName(directory.nameOf(enrollment.getStudentId()));
                     enrollments.add(enrollment);
                 }
             }
         }
+        enrollments.sort(Comparator.comparing(Enrollment::getStudentName,
+            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
         return enrollments;
     }
 
@@ -159,7 +159,10 @@ public class EnrollmentDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, finalGrade);
             stmt.setInt(2, enrollmentId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            PrerequisiteGraph.getInstance().invalidateCompletedCourses();
+            GradebookCache.getInstance().invalidateEnrollments(enrollmentId);
+            return updated;
         }
     }
 
@@ -169,7 +172,9 @@ public class EnrollmentDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, status);
             stmt.setInt(2, enrollmentId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            GradebookCache.getInstance().invalidateEnrollments(enrollmentId);
+            return updated;
         }
     }
 
@@ -190,11 +195,10 @@ public class EnrollmentDAO {
 
     public Enrollment findByStudentAndSection(int studentId, int sectionId) throws SQLException {
         
-        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, u.full_name as instructor_name " +
+        String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, s.instructor_id " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE e.student_id = ? AND e.section_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -223,6 +227,24 @@ public class EnrollmentDAO {
         return 0;
     }
 
+    /** The student's registered sections in any semester, mapped to their course ids. */
+    public Map<Integer, Integer> findRegisteredCourseIdsBySection(int studentId) throws SQLException {
+        Map<Integer, Integer> courseIds = new HashMap<>();
+        String sql = "SELECT e.section_id, s.course_id FROM enrollments e " +
+                     "JOIN sections s ON e.section_id = s.section_id " +
+                     "WHERE e.student_id = ? AND e.status = 'registered'";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    courseIds.put(rs.getInt("section_id"), rs.getInt("course_id"));
+                }
+            }
+        }
+        return courseIds;
+    }
+
     public int getSectionIdByEnrollmentId(int enrollmentId) throws SQLException {
         String sql = "SELECT section_id FROM enrollments WHERE enrollment_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -256,7 +278,7 @@ public class EnrollmentDAO {
                 sectionCode != null ? sectionCode : "N/A",
                 dayTime != null ? dayTime : "N/A",
                 room != null ? room : "N/A"));
-            enrollment.setStudentName(rs.getString("instructor_name")); 
+            enrollment.setStudentName(UserDirectory.getInstance().nameOf(rs.getInt("instructor_id")));
         }
 
         return enrollment;
@@ -3,13 +3,14 @@ package edu.univ.erp.data;
 import edu.univ.erp.domain.Grade;
 import edu.univ.erp.domain.GradeComponent;
 import edu.univ.erp.domain.GradeInfo;
-import edu.univ.erp.domain.StudentGradeEntry;
+import edu.univ.erp.domain.Gradebook;
 import edu.univ.erp.util.DatabaseConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -158,49 +159,69 @@ public class GradeDAO {
         }
     }
 
-    public List<StudentGradeEntry> getGradesForSection(int sectionId) throws SQLException {
-        List<StudentGradeEntry> studentGrades = new ArrayList<>();
-        Map<Integer, StudentGradeEntry> studentMap = new HashMap<>();
+    /**
+     * Loads a section's gradebook with students in name order. Names come from the
+     * UserDirectory, so the roster query stays inside the ERP schema and the sort happens here.
+     */
+    public Gradebook getGradebook(int sectionId) throws SQLException {
+        String componentSql = "SELECT * FROM grade_components WHERE section_id = ? ORDER BY component_id";
+        String rosterSql = "SELECT s.user_id as student_id, e.enrollment_id, s.roll_no, e.final_grade " +
+                           "FROM enrollments e " +
+                           "JOIN students s ON e.student_id = s.user_id " +
+                           "WHERE e.section_id = ? AND e.status = 'registered'";
+        String scoreSql = "SELECT g.enrollment_id, g.component_id, g.score " +
+                          "FROM grades g " +
+                          "JOIN enrollments e ON e.enrollment_id = g.enrollment_id " +
+                          "WHERE e.section_id = ? AND e.status = 'registered'";
 
-        
-        String sql = "SELECT s.user_id as student_id, e.enrollment_id, u.full_name as student_name, " +
-                     "st.roll_no, e.final_grade, g.component_id, g.score " +
-                     "FROM enrollments e " +
-                     "JOIN students s ON e.student_id = s.user_id " +
-                     "JOIN university_auth.users_auth u ON s.user_id = u.user_id " +
-                     "LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id " +
-                     "JOIN students st ON e.student_id = st.user_id " +
-                     "WHERE e.section_id = ? AND e.status = 'registered' " +
-                     "ORDER BY u.full_name, g.component_id";
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    int studentId = rs.getInt("student_id");
-                    StudentGradeEntry entry = studentMap.get(studentId);
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            List<GradeComponent> components = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(componentSql)) {
+                stmt.setInt(1, sectionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        components.add(mapResultSetToComponent(rs));
+                    }
+                }
+            }
 
-                    if (entry == null) {
-                        entry = new StudentGradeEntry(
-                            studentId,
-                            rs.getInt("enrollment_id"),
-                            rs.getString("student_name"),
-                            rs.getString("roll_no"),
-                            rs.getString("final_grade")
-                        );
-                        studentMap.put(studentId, entry);
-                        studentGrades.add(entry);
+            record RosterRow(int studentId, int enrollmentId, String name, String rollNo, String finalGrade) {}
+            List<RosterRow> roster = new ArrayList<>();
+            UserDirectory directory = UserDirectory.getInstance();
+            try (PreparedStatement stmt = conn.prepareStatement(rosterSql)) {
+                stmt.setInt(1, sectionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int studentId = rs.getInt("student_id");
+                        roster.add(new RosterRow(studentId, rs.getInt("enrollment_id"), directory.nameOf(studentId),
+                            rs.getString("roll_no"), rs.getString("final_grade")));
                     }
+                }
+            }
+            roster.sort(Comparator.comparing(RosterRow::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparingInt(RosterRow::enrollmentId));
 
-                    int componentId = rs.getInt("component_id");
-                    if (!rs.wasNull()) {
-                        entry.addScore(componentId, rs.getDouble("score"));
+            Gradebook gradebook = new Gradebook(components, roster.size());
+            Map<Integer, Integer> rowByEnrollment = new HashMap<>();
+            for (RosterRow student : roster) {
+                rowByEnrollment.put(student.enrollmentId(), gradebook.addStudent(student.studentId(),
+                    student.enrollmentId(), student.name(), student.rollNo(), student.finalGrade()));
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(scoreSql)) {
+                stmt.setInt(1, sectionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Integer row = rowByEnrollment.get(rs.getInt("enrollment_id"));
+                        int column = gradebook.columnOf(rs.getInt("component_id"));
+                        if (row != null && column >= 0) {
+                            gradebook.setScore(row, column, rs.getDouble("score"));
+                        }
                     }
                 }
             }
+            return gradebook;
         }
-        return studentGrades;
     }
 
     public List<GradeInfo> getGradesForStudent(int studentId) throws SQLException {
@@ -240,25 +261,6 @@ public class GradeDAO {
         return grades;
     }
 
-    public Map<String, Double> getComponentStatistics(int componentId) throws SQLException {
-        Map<String, Double> stats = new HashMap<>();
-        String sql = "SELECT AVG(score) as average, MAX(score) as highest, MIN(score) as lowest, COUNT(*) as count " +
-                     "FROM grades WHERE component_id = ?";
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, componentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    stats.put("average", rs.getDouble("average"));
-                    stats.put("highest", rs.getDouble("highest"));
-                    stats.put("lowest", rs.getDouble("lowest"));
-                    stats.put("count", (double) rs.getInt("count"));
-                }
-            }
-        }
-        return stats;
-    }
-
     private GradeComponent mapResultSetToComponent(ResultSet rs) throws SQLException {
         return new GradeComponent(
             rs.getInt("component_id"),
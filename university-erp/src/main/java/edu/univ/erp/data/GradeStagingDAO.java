@@ -0,0 +1,145 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.GradeCellBuffer;
+import edu.univ.erp.util.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+
+/**
+ * Set-based access to grades_staging. Cells are landed with batched inserts (rewritten into
+ * multi-row INSERTs by the driver), checked against grade_components and enrollments in one
+ * aggregate query, and merged into grades with a single INSERT ... SELECT.
+ */
+public class GradeStagingDAO {
+    private static final Logger logger = LoggerFactory.getLogger(GradeStagingDAO.class);
+    private static final int INSERT_BATCH_SIZE = 5_000;
+    private static final int COMMIT_EVERY_ROWS = 50_000;
+
+    // Scores beyond DECIMAL(8,2) cannot be staged at all; they are counted as out of range up front.
+    static final double MAX_STAGEABLE_SCORE = 999_999.99;
+
+    private static final String VALID_ROW =
+        "gc.section_id = st.section_id AND e.section_id = st.section_id AND e.status = 'registered' " +
+        "AND st.score >= 0 AND st.score <= gc.max_score";
+
+    public record Validation(int staged, int valid, int unknownComponent, int notEnrolled, int outOfRange) {
+        public int rejected() {
+            return staged - valid;
+        }
+    }
+
+    public long newLoadId() throws SQLException {
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT UUID_SHORT()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /** Inserts every stageable cell under loadId and returns how many rows were written. */
+    public int stage(long loadId, GradeCellBuffer cells) throws SQLException {
+        String sql = "INSERT INTO grades_staging (load_id, section_id, enrollment_id, component_id, score) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+        int staged = 0;
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (int i = 0; i < cells.size(); i++) {
+                    double score = cells.getScore(i);
+                    if (!isStageable(score)) continue;
+                    stmt.setLong(1, loadId);
+                    stmt.setInt(2, cells.getSectionId(i));
+                    stmt.setInt(3, cells.getEnrollmentId(i));
+                    stmt.setInt(4, cells.getComponentId(i));
+                    stmt.setDouble(5, score);
+                    stmt.addBatch();
+                    staged++;
+                    if (++pending == INSERT_BATCH_SIZE) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                    if (staged % COMMIT_EVERY_ROWS == 0) {
+                        conn.commit();
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        logger.debug("Staged {} grade cells for load {}", staged, loadId);
+        return staged;
+    }
+
+    public Validation validate(long loadId) throws SQLException {
+        String sql = "SELECT COUNT(*) AS staged, " +
+                     "COALESCE(SUM(" + VALID_ROW + "), 0) AS valid, " +
+                     "COALESCE(SUM(gc.component_id IS NULL OR gc.section_id <> st.section_id), 0) AS unknown_component, " +
+                     "COALESCE(SUM(e.enrollment_id IS NULL OR e.section_id <> st.section_id " +
+                     "    OR e.status <> 'registered'), 0) AS not_enrolled, " +
+                     "COALESCE(SUM(gc.section_id = st.section_id " +
+                     "    AND (st.score < 0 OR st.score > gc.max_score)), 0) AS out_of_range " +
+                     "FROM grades_staging st " +
+                     "LEFT JOIN grade_components gc ON gc.component_id = st.component_id " +
+                     "LEFT JOIN enrollments e ON e.enrollment_id = st.enrollment_id " +
+                     "WHERE st.load_id = ?";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, loadId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return new Validation(rs.getInt("staged"), rs.getInt("valid"), rs.getInt("unknown_component"),
+                    rs.getInt("not_enrolled"), rs.getInt("out_of_range"));
+            }
+        }
+    }
+
+    /** Upserts every valid staged row into grades; when a cell is staged twice the later row wins. */
+    public int merge(long loadId) throws SQLException {
+        String sql = "INSERT INTO grades (enrollment_id, component_id, score) " +
+                     "SELECT st.enrollment_id, st.component_id, st.score " +
+                     "FROM grades_staging st " +
+                     "JOIN grade_components gc ON gc.component_id = st.component_id " +
+                     "JOIN enrollments e ON e.enrollment_id = st.enrollment_id " +
+                     "WHERE st.load_id = ? AND " + VALID_ROW + " " +
+                     "ORDER BY st.staging_id " +
+                     "ON DUPLICATE KEY UPDATE score = VALUES(score)";
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, loadId);
+                int affected = stmt.executeUpdate();
+                conn.commit();
+                return affected;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    public int clear(long loadId) throws SQLException {
+        String sql = "DELETE FROM grades_staging WHERE load_id = ?";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, loadId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    static boolean isStageable(double score) {
+        return !Double.isNaN(score) && Math.abs(score) <= MAX_STAGEABLE_SCORE;
+    }
+}
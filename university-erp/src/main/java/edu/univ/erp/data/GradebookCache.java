@@ -0,0 +1,179 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of per-section gradebooks (components plus roster rows). Readers get deep
+ * copies, which for the columnar Gradebook are a handful of array copies, so panels can edit
+ * scores freely. Every write path that touches grades, components or the roster invalidates
+ * the affected section; entries also expire after a short TTL so changes made from another
+ * client are picked up.
+ */
+public class GradebookCache {
+    private static final Logger logger = LoggerFactory.getLogger(GradebookCache.class);
+    private static final int DEFAULT_MAX_SECTIONS = 64;
+    private static final long DEFAULT_TTL_MS = 60_000;
+    private static final GradebookCache INSTANCE = new GradebookCache(new GradeDAO(), DEFAULT_MAX_SECTIONS, DEFAULT_TTL_MS);
+
+    private final GradeDAO gradeDAO;
+    private final long ttlMs;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Integer, CachedGradebook> sections;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static final class CachedGradebook {
+        final Gradebook gradebook;
+        final int[] enrollmentIds;
+        final int[] componentIds;
+        final long loadedAt;
+
+        CachedGradebook(Gradebook gradebook, long loadedAt) {
+            this.gradebook = gradebook;
+            this.enrollmentIds = gradebook.getEnrollmentIds();
+            this.componentIds = gradebook.getComponentIds();
+            Arrays.sort(enrollmentIds);
+            Arrays.sort(componentIds);
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    public GradebookCache(GradeDAO gradeDAO, int maxSections, long ttlMs) {
+        this.gradeDAO = gradeDAO;
+        this.ttlMs = ttlMs;
+        this.sections = new LinkedHashMap<>(maxSections, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedGradebook> eldest) {
+                if (size() > maxSections) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static GradebookCache getInstance() {
+        return INSTANCE;
+    }
+
+    public List<GradeComponent> getComponents(int sectionId) throws SQLException {
+        // GradeComponent is immutable, so a fresh list is a deep enough copy.
+        return new ArrayList<>(get(sectionId).gradebook.getComponents());
+    }
+
+    public Gradebook getGradebook(int sectionId) throws SQLException {
+        return get(sectionId).gradebook.copy();
+    }
+
+    public void invalidateSection(int sectionId) {
+        generation.incrementAndGet();
+        synchronized (sections) {
+            if (sections.remove(sectionId) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidateComponent(int componentId) {
+        invalidateMatching(book -> Arrays.binarySearch(book.componentIds, componentId) >= 0);
+    }
+
+    public void invalidateEnrollments(int... enrollmentIds) {
+        invalidateMatching(book -> {
+            for (int enrollmentId : enrollmentIds) {
+                if (Arrays.binarySearch(book.enrollmentIds, enrollmentId) >= 0) return true;
+            }
+            return false;
+        });
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (sections) {
+            invalidations.addAndGet(sections.size());
+            sections.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public void logStats() {
+        logger.info("Gradebook cache: {} hits, {} misses (hit rate {}%), {} evictions, {} invalidations",
+            hits.get(), misses.get(), String.format("%.1f", getHitRate() * 100), evictions.get(), invalidations.get());
+    }
+
+    private interface GradebookFilter {
+        boolean matches(CachedGradebook book);
+    }
+
+    private void invalidateMatching(GradebookFilter filter) {
+        generation.incrementAndGet();
+        synchronized (sections) {
+            Iterator<CachedGradebook> it = sections.values().iterator();
+            while (it.hasNext()) {
+                if (filter.matches(it.next())) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private CachedGradebook get(int sectionId) throws SQLException {
+        long now = System.currentTimeMillis();
+        synchronized (sections) {
+            CachedGradebook cached = sections.get(sectionId);
+            if (cached != null && now - cached.loadedAt < ttlMs) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long startGeneration = generation.get();
+        CachedGradebook loaded = new CachedGradebook(gradeDAO.getGradebook(sectionId), now);
+        synchronized (sections) {
+            // A write that landed while loading may not be reflected; serve this copy but do not keep it.
+            if (generation.get() == startGeneration) {
+                sections.put(sectionId, loaded);
+            }
+        }
+        logger.debug("Gradebook for section {} loaded: {} components, {} students",
+            sectionId, loaded.gradebook.getComponentCount(), loaded.gradebook.getStudentCount());
+        return loaded;
+    }
+}
@@ -6,12 +6,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class NotificationDAO {
     private static final Logger logger = LoggerFactory.getLogger(NotificationDAO.class);
+    private static final int MULTI_ROW_INSERT_SIZE = 500;
 
     public List<Notification> findByUser(int userId) throws SQLException {
         List<Notification> notifications = new ArrayList<>();
@@ -45,7 +50,9 @@ public class NotificationDAO {
 
     public List<Notification> findByRole(String role) throws SQLException {
         List<Notification> notifications = new ArrayList<>();
-        String sql = "SELECT * FROM notifications WHERE target_role = ? ORDER BY created_at DESC LIMIT 50";
+        String sql = "SELECT broadcast_id AS notification_id, NULL AS user_id, target_role, message, " +
+                     "FALSE AS is_read, created_at FROM broadcast_notifications " +
+                     "WHERE target_role = ? ORDER BY role_seq DESC LIMIT 50";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, role);
@@ -90,6 +97,127 @@ public class NotificationDAO {
         return false;
     }
 
+    /**
+     * Writes a batch from the notification outbox with multi-row INSERTs of up to
+     * {@value #MULTI_ROW_INSERT_SIZE} rows, keeping each notification's own created_at. Rows with a
+     * user go to notifications; role broadcasts go to broadcast_notifications, numbered per role
+     * from broadcast_sequences. Returns the number of notifications written.
+     */
+    public int createBatch(List<Notification> notifications) throws SQLException {
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            return createBatch(conn, notifications);
+        }
+    }
+
+    /**
+     * Writes the whole batch in one transaction on conn: either every row is committed or none is,
+     * so a batch the outbox spools after a failure is never partly in the tables already. Holding
+     * the broadcast_sequences row lock until commit orders concurrent writers, and a rollback
+     * leaves no gap in role_seq.
+     */
+    public int createBatch(Connection conn, List<Notification> notifications) throws SQLException {
+        List<Notification> direct = new ArrayList<>();
+        Map<String, List<Notification>> broadcasts = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            if (notification.getUserId() == null && notification.getTargetRole() != null) {
+                broadcasts.computeIfAbsent(notification.getTargetRole(), role -> new ArrayList<>()).add(notification);
+            } else {
+                direct.add(notification);
+            }
+        }
+        conn.setAutoCommit(false);
+        try {
+            int inserted = insertDirect(conn, direct);
+            for (Map.Entry<String, List<Notification>> entry : broadcasts.entrySet()) {
+                inserted += insertBroadcasts(conn, entry.getKey(), entry.getValue());
+            }
+            conn.commit();
+            return inserted;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private int insertDirect(Connection conn, List<Notification> notifications) throws SQLException {
+        int inserted = 0;
+        for (int from = 0; from < notifications.size(); from += MULTI_ROW_INSERT_SIZE) {
+            int rows = Math.min(MULTI_ROW_INSERT_SIZE, notifications.size() - from);
+            String sql = "INSERT INTO notifications (user_id, target_role, message, created_at) VALUES " +
+                         placeholders("(?, ?, ?, ?)", rows);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int param = 1;
+                for (int i = from; i < from + rows; i++) {
+                    Notification notification = notifications.get(i);
+                    if (notification.getUserId() != null) {
+                        stmt.setInt(param++, notification.getUserId());
+                    } else {
+                        stmt.setNull(param++, Types.INTEGER);
+                    }
+                    if (notification.getTargetRole() != null) {
+                        stmt.setString(param++, notification.getTargetRole());
+                    } else {
+                        stmt.setNull(param++, Types.VARCHAR);
+                    }
+                    stmt.setString(param++, notification.getMessage());
+                    stmt.setTimestamp(param++, Timestamp.valueOf(notification.getCreatedAt()));
+                }
+                inserted += stmt.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    /** Reserves a block of role_seq values for the role and inserts its broadcasts; the caller commits. */
+    private int insertBroadcasts(Connection conn, String role, List<Notification> broadcasts) throws SQLException {
+        String reserveSql = "INSERT INTO broadcast_sequences (target_role, last_seq) VALUES (?, LAST_INSERT_ID(?)) " +
+                            "ON DUPLICATE KEY UPDATE last_seq = LAST_INSERT_ID(last_seq + ?)";
+        int count = broadcasts.size();
+        try (PreparedStatement stmt = conn.prepareStatement(reserveSql)) {
+            stmt.setString(1, role);
+            stmt.setInt(2, count);
+            stmt.setInt(3, count);
+            stmt.executeUpdate();
+        }
+        int lastSeq;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+            rs.next();
+            lastSeq = rs.getInt(1);
+        }
+        int seq = lastSeq - count + 1;
+
+        int inserted = 0;
+        for (int from = 0; from < count; from += MULTI_ROW_INSERT_SIZE) {
+            int rows = Math.min(MULTI_ROW_INSERT_SIZE, count - from);
+            String sql = "INSERT INTO broadcast_notifications (target_role, role_seq, message, created_at) VALUES " +
+                         placeholders("(?, ?, ?, ?)", rows);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int param = 1;
+                for (int i = from; i < from + rows; i++) {
+                    Notification notification = broadcasts.get(i);
+                    stmt.setString(param++, role);
+                    stmt.setInt(param++, seq++);
+                    stmt.setString(param++, notification.getMessage());
+                    stmt.setTimestamp(param++, Timestamp.valueOf(notification.getCreatedAt()));
+                }
+                inserted += stmt.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    private static String placeholders(String row, int rows) {
+        StringBuilder sql = new StringBuilder(row.length() * rows + 2 * rows);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
     public boolean markAsRead(int notificationId) throws SQLException {
         String sql = "UPDATE notifications SET is_read = true WHERE notification_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -122,15 +250,121 @@ public class NotificationDAO {
         return 0;
     }
 
-    public boolean deleteOldNotifications(int daysOld) throws SQLException {
-        String sql = "DELETE FROM notifications WHERE created_at < DATE_SUB(NOW(), INTERVAL ? DAY)";
+    /**
+     * Returns the lowest and highest notification_id of personal notifications created before the
+     * cutoff, or null if there are none. Ids grow with created_at, so the retention job walks this
+     * range in fixed-size chunks instead of issuing one large DELETE.
+     */
+    public long[] findIdRangeCreatedBefore(LocalDateTime cutoff) throws SQLException {
+        String sql = "SELECT MIN(notification_id), MAX(notification_id) FROM notifications WHERE created_at < ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, daysOld);
-            return stmt.executeUpdate() > 0;
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long min = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        return new long[]{min, rs.getLong(2)};
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies notifications with ids in [fromId, toId) created before the cutoff into
+     * notifications_archive and deletes them, in one short transaction. Returns the rows moved.
+     */
+    public int archiveChunk(long fromId, long toId, LocalDateTime cutoff) throws SQLException {
+        String copySql = "INSERT INTO notifications_archive " +
+                         "(notification_id, user_id, target_role, message, is_read, created_at) " +
+                         "SELECT notification_id, user_id, target_role, message, is_read, created_at " +
+                         "FROM notifications WHERE notification_id >= ? AND notification_id < ? AND created_at < ?";
+        String deleteSql = "DELETE FROM notifications " +
+                           "WHERE notification_id >= ? AND notification_id < ? AND created_at < ?";
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(copySql)) {
+                    setChunkRange(stmt, fromId, toId, cutoff);
+                    stmt.executeUpdate();
+                }
+                int deleted;
+                try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+                    setChunkRange(stmt, fromId, toId, cutoff);
+                    deleted = stmt.executeUpdate();
+                }
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void setChunkRange(PreparedStatement stmt, long fromId, long toId, LocalDateTime cutoff) throws SQLException {
+        stmt.setLong(1, fromId);
+        stmt.setLong(2, toId);
+        stmt.setTimestamp(3, Timestamp.valueOf(cutoff));
+    }
+
+    /** Names of the partitions of notifications_archive, in partition order. */
+    public List<String> findArchivePartitions() throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        String sql = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notifications_archive' " +
+                     "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Splits the catch-all pmax partition into one partition per month. pmax is kept empty by
+     * adding months ahead of the data, so the split does not copy rows.
+     */
+    public void addArchivePartitions(List<YearMonth> months) throws SQLException {
+        if (months.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE notifications_archive REORGANIZE PARTITION pmax INTO (");
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(archivePartitionName(month))
+               .append(" VALUES LESS THAN (TO_DAYS('").append(month.plusMonths(1).atDay(1)).append("')), ");
+        }
+        sql.append("PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql.toString());
         }
     }
 
+    /** Drops whole months of archived notifications; a metadata operation, not a row-by-row delete. */
+    public void dropArchivePartitions(List<String> partitions) throws SQLException {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String sql = "ALTER TABLE notifications_archive DROP PARTITION " + String.join(", ", partitions);
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    /** Monthly archive partitions are named pYYYYMM and hold rows created in that month. */
+    public static String archivePartitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
     private Notification mapResultSetToNotification(ResultSet rs) throws SQLException {
         int userId = rs.getInt("user_id");
         Integer userIdObj = rs.wasNull() ? null : userId;
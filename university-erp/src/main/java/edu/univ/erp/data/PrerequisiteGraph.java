@@ -0,0 +1,221 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.PrerequisiteLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the course_prerequisites DAG. The graph is loaded in one query and replaced
+ * whenever CourseDAO changes a prerequisite; registration checks compare a course's required set
+ * against a per-student bitset of passed courses instead of running a correlated subquery.
+ * Transitive closures are computed on demand and memoized per snapshot.
+ */
+public class PrerequisiteGraph {
+    private static final Logger logger = LoggerFactory.getLogger(PrerequisiteGraph.class);
+    private static final long COMPLETED_TTL_MS = 60_000;
+    private static final int MAX_CACHED_STUDENTS = 2048;
+    private static final PrerequisiteGraph INSTANCE = new PrerequisiteGraph(new CourseDAO());
+
+    private final CourseDAO courseDAO;
+    private volatile Graph graph;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Integer, CompletedCourses> completedByStudent = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CompletedCourses> eldest) {
+                return size() > MAX_CACHED_STUDENTS;
+            }
+        });
+
+    private static final class Graph {
+        final Map<Integer, int[]> direct;
+        final Map<Integer, String> codes;
+        final Map<Integer, BitSet> closures = new ConcurrentHashMap<>();
+
+        Graph(Map<Integer, int[]> direct, Map<Integer, String> codes) {
+            this.direct = direct;
+            this.codes = codes;
+        }
+    }
+
+    private record CompletedCourses(BitSet courses, long loadedAt) {
+    }
+
+    public PrerequisiteGraph(CourseDAO courseDAO) {
+        this.courseDAO = courseDAO;
+    }
+
+    public static PrerequisiteGraph getInstance() {
+        return INSTANCE;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        graph = null;
+    }
+
+    public void invalidateCompletedCourses() {
+        completedByStudent.clear();
+    }
+
+    public boolean hasCompletedPrerequisites(int studentId, int courseId) throws SQLException {
+        int[] required = current().direct.get(courseId);
+        if (required == null) {
+            return true;
+        }
+        BitSet completed = completedCourses(studentId);
+        for (int prerequisite : required) {
+            if (!completed.get(prerequisite)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int[] getDirectPrerequisites(int courseId) throws SQLException {
+        int[] required = current().direct.get(courseId);
+        return required != null ? required.clone() : new int[0];
+    }
+
+    /** Every course reachable through prerequisite links, excluding the course itself unless it lies on a cycle. */
+    public BitSet getTransitivePrerequisites(int courseId) throws SQLException {
+        return (BitSet) closure(current(), courseId).clone();
+    }
+
+    public List<String> getPrerequisiteChainCodes(int courseId) throws SQLException {
+        Graph current = current();
+        BitSet closure = closure(current, courseId);
+        List<String> codes = new ArrayList<>();
+        for (int id = closure.nextSetBit(0); id >= 0; id = closure.nextSetBit(id + 1)) {
+            codes.add(current.codes.getOrDefault(id, String.valueOf(id)));
+        }
+        Collections.sort(codes);
+        return codes;
+    }
+
+    /** True when making courseId require requiresCourseId would close a loop in the graph. */
+    public boolean wouldCreateCycle(int courseId, int requiresCourseId) throws SQLException {
+        return courseId == requiresCourseId || closure(current(), requiresCourseId).get(courseId);
+    }
+
+    /** Returns one cycle as a list of course ids (first id repeated at the end), or an empty list. */
+    public List<Integer> findCycle() throws SQLException {
+        return findCycle(current());
+    }
+
+    private List<Integer> findCycle(Graph current) {
+        Map<Integer, Integer> state = new HashMap<>();
+        for (Integer start : current.direct.keySet()) {
+            if (state.containsKey(start)) continue;
+            Deque<Integer> path = new ArrayDeque<>();
+            List<Integer> cycle = findCycle(current, start, state, path);
+            if (!cycle.isEmpty()) {
+                return cycle;
+            }
+        }
+        return List.of();
+    }
+
+    private List<Integer> findCycle(Graph current, int course, Map<Integer, Integer> state, Deque<Integer> path) {
+        state.put(course, 1);
+        path.addLast(course);
+        for (int next : current.direct.getOrDefault(course, new int[0])) {
+            Integer nextState = state.get(next);
+            if (nextState == null) {
+                List<Integer> cycle = findCycle(current, next, state, path);
+                if (!cycle.isEmpty()) return cycle;
+            } else if (nextState == 1) {
+                List<Integer> cycle = new ArrayList<>();
+                boolean onCycle = false;
+                for (Integer id : path) {
+                    if (id == next) onCycle = true;
+                    if (onCycle) cycle.add(id);
+                }
+                cycle.add(next);
+                return cycle;
+            }
+        }
+        path.removeLast();
+        state.put(course, 2);
+        return List.of();
+    }
+
+    private BitSet closure(Graph current, int courseId) {
+        BitSet cached = current.closures.get(courseId);
+        if (cached != null) {
+            return cached;
+        }
+        BitSet reached = new BitSet();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(courseId);
+        while (!pending.isEmpty()) {
+            int[] required = current.direct.get(pending.pop());
+            if (required == null) continue;
+            for (int prerequisite : required) {
+                if (!reached.get(prerequisite)) {
+                    reached.set(prerequisite);
+                    pending.push(prerequisite);
+                }
+            }
+        }
+        current.closures.put(courseId, reached);
+        return reached;
+    }
+
+    private BitSet completedCourses(int studentId) throws SQLException {
+        long now = System.currentTimeMillis();
+        CompletedCourses cached = completedByStudent.get(studentId);
+        if (cached != null && now - cached.loadedAt() < COMPLETED_TTL_MS) {
+            return cached.courses();
+        }
+        BitSet courses = courseDAO.findCompletedCourseIds(studentId);
+        completedByStudent.put(studentId, new CompletedCourses(courses, now));
+        return courses;
+    }
+
+    private Graph current() throws SQLException {
+        Graph current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (graph == null) {
+                long startGeneration = generation.get();
+                Map<Integer, List<Integer>> edges = new HashMap<>();
+                Map<Integer, String> codes = new HashMap<>();
+                for (PrerequisiteLink link : courseDAO.findAllPrerequisiteLinks()) {
+                    edges.computeIfAbsent(link.courseId(), id -> new ArrayList<>()).add(link.requiresCourseId());
+                    codes.put(link.requiresCourseId(), link.requiresCode());
+                }
+                Map<Integer, int[]> direct = new HashMap<>();
+                edges.forEach((course, required) ->
+                    direct.put(course, required.stream().mapToInt(Integer::intValue).toArray()));
+                Graph loaded = new Graph(direct, codes);
+                List<Integer> cycle = findCycle(loaded);
+                if (!cycle.isEmpty()) {
+                    logger.warn("Prerequisite graph contains a cycle: {}", cycle);
+                }
+                logger.debug("Prerequisite graph loaded: {} courses with prerequisites", direct.size());
+                if (generation.get() != startGeneration) {
+                    // A prerequisite changed while loading; serve this copy once but do not keep it.
+                    return loaded;
+                }
+                graph = loaded;
+            }
+            return graph;
+        }
+    }
+}
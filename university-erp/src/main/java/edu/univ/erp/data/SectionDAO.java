@@ -1,6 +1,7 @@
 package edu.univ.erp.data;
 
 import edu.univ.erp.domain.Section;
+import edu.univ.erp.domain.WeeklySchedule;
 import edu.univ.erp.util.DatabaseConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,17 +9,22 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SectionDAO {
     private static final Logger logger = LoggerFactory.getLogger(SectionDAO.class);
+    private static final String CATALOG_SELECT =
+        "SELECT s.*, c.code as course_code, c.title as course_title, c.description as course_description " +
+        "FROM sections s " +
+        "JOIN courses c ON s.course_id = c.course_id ";
 
     public Section findById(int sectionId) throws SQLException {
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE s.section_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -34,10 +40,9 @@ public class SectionDAO {
 
     public Section findByIdWithLock(Connection conn, int sectionId) throws SQLException {
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE s.section_id = ? FOR UPDATE";
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, sectionId);
@@ -50,13 +55,28 @@ public class SectionDAO {
         return null;
     }
 
+    public Section findById(Connection conn, int sectionId) throws SQLException {
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
+                     "FROM sections s " +
+                     "JOIN courses c ON s.course_id = c.course_id " +
+                     "WHERE s.section_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToSection(rs, true);
+                }
+            }
+        }
+        return null;
+    }
+
     public List<Section> findAll() throws SQLException {
         List<Section> sections = new ArrayList<>();
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "ORDER BY s.semester, s.year DESC, c.code, s.section_code";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -71,10 +91,9 @@ public class SectionDAO {
     public List<Section> findAvailableSections() throws SQLException {
         List<Section> sections = new ArrayList<>();
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE s.enrollment_count < s.capacity " +
                      "ORDER BY c.code, s.section_code";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -90,10 +109,9 @@ public class SectionDAO {
     public List<Section> findByInstructor(int instructorId) throws SQLException {
         List<Section> sections = new ArrayList<>();
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE s.instructor_id = ? " +
                      "ORDER BY c.code, s.section_code";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -108,13 +126,87 @@ public class SectionDAO {
         return sections;
     }
 
+    /** Every section offered in a semester, full or not, in catalog order, with the course description. */
+    public List<Section> findBySemester(String semester, int year) throws SQLException {
+        List<Section> sections = new ArrayList<>();
+
+        String sql = CATALOG_SELECT +
+                     "WHERE s.semester = ? AND s.year = ? " +
+                     "ORDER BY c.code, s.section_code";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, semester);
+            stmt.setInt(2, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sections.add(mapCatalogRow(rs));
+                }
+            }
+        }
+        return sections;
+    }
+
+    /** One section as findBySemester returns it; used to patch a catalog snapshot after an edit. */
+    public Section findCatalogEntry(int sectionId) throws SQLException {
+        String sql = CATALOG_SELECT + "WHERE s.section_id = ?";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapCatalogRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Seat counts only, keyed by section id; the cheap read behind CatalogCache's seat refresh. */
+    public Map<Integer, Integer> findEnrollmentCounts(String semester, int year) throws SQLException {
+        Map<Integer, Integer> counts = new HashMap<>();
+        String sql = "SELECT section_id, enrollment_count FROM sections WHERE semester = ? AND year = ?";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, semester);
+            stmt.setInt(2, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt("section_id"), rs.getInt("enrollment_count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /** Owning instructor of each section that exists, keyed by section id; missing sections are absent. */
+    public Map<Integer, Integer> findInstructorIds(int[] sectionIds) throws SQLException {
+        Map<Integer, Integer> owners = new HashMap<>();
+        if (sectionIds.length == 0) return owners;
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < sectionIds.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String sql = "SELECT section_id, instructor_id FROM sections WHERE section_id IN (" + placeholders + ")";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < sectionIds.length; i++) {
+                stmt.setInt(i + 1, sectionIds[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    owners.put(rs.getInt("section_id"), rs.getInt("instructor_id"));
+                }
+            }
+        }
+        return owners;
+    }
+
     public List<Section> findByCourse(int courseId) throws SQLException {
         List<Section> sections = new ArrayList<>();
         
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
                      "FROM sections s " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE s.course_id = ? " +
                      "ORDER BY s.semester, s.year DESC, s.section_code";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -130,6 +222,7 @@ public class SectionDAO {
     }
 
     public int create(Section section) throws SQLException {
+        WeeklySchedule.of(section.getDayTime());
         String sql = "INSERT INTO sections (course_id, instructor_id, section_code, day_time, room, capacity, semester, year, drop_deadline, add_deadline) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConfig.getERPConnection();
@@ -168,6 +261,7 @@ public class SectionDAO {
     }
 
     public boolean update(Section section) throws SQLException {
+        WeeklySchedule.of(section.getDayTime());
         String sql = "UPDATE sections SET course_id = ?, instructor_id = ?, section_code = ?, " +
                      "day_time = ?, room = ?, capacity = ?, semester = ?, year = ?, " +
                      "drop_deadline = ?, add_deadline = ? WHERE section_id = ?";
@@ -235,6 +329,15 @@ public class SectionDAO {
         return false;
     }
 
+    public boolean claimSeat(Connection conn, int sectionId) throws SQLException {
+        String sql = "UPDATE sections SET enrollment_count = enrollment_count + 1 " +
+                     "WHERE section_id = ? AND enrollment_count < capacity";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, sectionId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
     public boolean updateEnrollmentCount(Connection conn, int sectionId, int change) throws SQLException {
         if (change < 0) {
             String sql = "UPDATE sections SET enrollment_count = GREATEST(0, enrollment_count + ?) WHERE section_id = ?";
@@ -289,6 +392,12 @@ public class SectionDAO {
         return true;
     }
 
+    private Section mapCatalogRow(ResultSet rs) throws SQLException {
+        Section section = mapResultSetToSection(rs, true);
+        section.setCourseDescription(rs.getString("course_description"));
+        return section;
+    }
+
     private Section mapResultSetToSection(ResultSet rs, boolean includeJoinedData) throws SQLException {
         Section section = new Section(
             rs.getInt("section_id"),
@@ -316,7 +425,7 @@ public class SectionDAO {
         if (includeJoinedData) {
             section.setCourseCode(rs.getString("course_code"));
             section.setCourseTitle(rs.getString("course_title"));
-            section.setInstructorName(rs.getString("instructor_name"));
+            section.setInstructorName(UserDirectory.getInstance().nameOf(section.getInstructorId()));
         }
 
         return section;
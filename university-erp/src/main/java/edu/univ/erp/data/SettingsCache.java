@@ -0,0 +1,162 @@
+package edu.univ.erp.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-mostly cache over the settings table. Reads are served from an immutable snapshot
+ * without locking; the snapshot is revalidated against SettingsDAO.getVersion() at most
+ * once per check interval and reloaded only when the version changed or a write went
+ * through SettingsDAO.
+ */
+public class SettingsCache {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsCache.class);
+    private static final long DEFAULT_CHECK_INTERVAL_MS = 5000;
+    private static final SettingsCache INSTANCE = new SettingsCache(new SettingsDAO(), DEFAULT_CHECK_INTERVAL_MS);
+
+    private final SettingsDAO settingsDAO;
+    private final long checkIntervalMs;
+    private final Object refreshLock = new Object();
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong versionChecks = new AtomicLong();
+    private final AtomicLong dbQueries = new AtomicLong();
+
+    private static final class Snapshot {
+        final Map<String, String> values;
+        final String version;
+        final long checkedAt;
+
+        Snapshot(Map<String, String> values, String version, long checkedAt) {
+            this.values = values;
+            this.version = version;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    public SettingsCache(SettingsDAO settingsDAO, long checkIntervalMs) {
+        this.settingsDAO = settingsDAO;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    public static SettingsCache getInstance() {
+        return INSTANCE;
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = current().values.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = current().values.get(key);
+        return value != null ? "true".equalsIgnoreCase(value) : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = current().values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.error("Invalid integer value in settings for {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public long getReadCount() {
+        return reads.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getVersionCheckCount() {
+        return versionChecks.get();
+    }
+
+    public double getHitRate() {
+        long total = reads.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public long getQueriesSaved() {
+        // Without the cache every read is one SELECT against settings.
+        return Math.max(0, reads.get() - dbQueries.get());
+    }
+
+    public void logStats() {
+        logger.info("Settings cache: {} reads, hit rate {}%, {} loads, {} version checks, {} queries saved",
+            reads.get(), String.format("%.1f", getHitRate() * 100), loads.get(), versionChecks.get(), getQueriesSaved());
+    }
+
+    private Snapshot current() {
+        reads.incrementAndGet();
+        Snapshot snap = snapshot;
+        if (isFresh(snap)) {
+            hits.incrementAndGet();
+            return snap;
+        }
+
+        synchronized (refreshLock) {
+            snap = snapshot;
+            if (isFresh(snap)) {
+                hits.incrementAndGet();
+                return snap;
+            }
+            long now = System.currentTimeMillis();
+            long startGeneration = generation.get();
+            try {
+                String version = settingsDAO.getVersion();
+                dbQueries.incrementAndGet();
+                if (snap != null) {
+                    versionChecks.incrementAndGet();
+                    if (snap.version.equals(version) && generation.get() == startGeneration) {
+                        snapshot = new Snapshot(snap.values, snap.version, now);
+                        hits.incrementAndGet();
+                        return snapshot;
+                    }
+                }
+                Map<String, String> values = Collections.unmodifiableMap(new HashMap<>(settingsDAO.getAll()));
+                loads.incrementAndGet();
+                dbQueries.incrementAndGet();
+                Snapshot loaded = new Snapshot(values, version, now);
+                if (generation.get() == startGeneration) {
+                    // Only publish if no write invalidated the cache while this load was running.
+                    snapshot = loaded;
+                }
+                logger.debug("Settings cache loaded {} keys (version {})", values.size(), version);
+                return loaded;
+            } catch (SQLException e) {
+                logger.error("Error refreshing settings cache", e);
+                return snap != null ? snap : new Snapshot(Map.of(), "", now);
+            }
+        }
+    }
+
+    private boolean isFresh(Snapshot snap) {
+        return snap != null && System.currentTimeMillis() - snap.checkedAt < checkIntervalMs;
+    }
+}
@@ -42,7 +42,9 @@ public class SettingsDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, key);
             stmt.setString(2, value);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            SettingsCache.getInstance().invalidate();
+            return updated;
         }
     }
 
@@ -56,6 +58,7 @@ public class SettingsDAO {
                 stmt.addBatch();
             }
             int[] results = stmt.executeBatch();
+            SettingsCache.getInstance().invalidate();
             return results.length > 0;
         }
     }
@@ -78,10 +81,26 @@ public class SettingsDAO {
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, key);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            SettingsCache.getInstance().invalidate();
+            return deleted;
         }
     }
 
+    public String getVersion() throws SQLException {
+        String sql = "SELECT COUNT(*) AS total, MAX(updated_at) AS last_update, " +
+                     "COALESCE(SUM(CRC32(CONCAT(setting_key, '=', COALESCE(setting_value, '')))), 0) AS checksum " +
+                     "FROM settings";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt("total") + ":" + rs.getTimestamp("last_update") + ":" + rs.getLong("checksum");
+            }
+        }
+        return "";
+    }
+
     
 
     public boolean isMaintenanceMode() throws SQLException {
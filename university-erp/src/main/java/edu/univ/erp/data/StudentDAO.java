@@ -87,18 +87,8 @@ public class StudentDAO {
     }
 
     public String getFullNameById(int userId) throws SQLException {
-        
-        String sql = "SELECT full_name FROM university_auth.users_auth WHERE user_id = ?";
-        try (Connection conn = DatabaseConfig.getAuthConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("full_name");
-                }
-            }
-        }
-        return "Unknown";
+        String fullName = UserDirectory.getInstance().nameOf(userId);
+        return fullName != null ? fullName : "Unknown";
     }
 
     private Student mapResultSetToStudent(ResultSet rs) throws SQLException {
@@ -0,0 +1,130 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.domain.StudentTranscript;
+import edu.univ.erp.domain.TranscriptEntry;
+import edu.univ.erp.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads transcripts with their component grades in a single query. Each enrollment is
+ * joined to its grades, so one enrollment spans one row per graded component (or a
+ * single row with null component columns) and rows arrive grouped by enrollment_id.
+ */
+public class TranscriptDAO {
+
+    private static final String ENTRY_COLUMNS =
+        "e.enrollment_id, c.code, c.title, c.credits, s.semester, s.year, e.final_grade, " +
+        "gc.component_name, g.score, gc.max_score, gc.weight ";
+
+    private static final String ENTRY_JOINS =
+        "JOIN sections s ON e.section_id = s.section_id " +
+        "JOIN courses c ON s.course_id = c.course_id " +
+        "LEFT JOIN grades g ON g.enrollment_id = e.enrollment_id " +
+        "LEFT JOIN grade_components gc ON g.component_id = gc.component_id ";
+
+    private static final String TRANSCRIPT_SQL =
+        "SELECT " + ENTRY_COLUMNS +
+        "FROM enrollments e " + ENTRY_JOINS +
+        "WHERE e.student_id = ? AND (e.status = 'registered' OR e.status = 'completed') " +
+        "ORDER BY s.year, s.semester, c.code, e.enrollment_id, gc.component_id";
+
+    private static final String ALL_TRANSCRIPTS_SQL =
+        "SELECT st.user_id, st.roll_no, st.program, " + ENTRY_COLUMNS +
+        "FROM students st " +
+        "JOIN enrollments e ON e.student_id = st.user_id " + ENTRY_JOINS +
+        "WHERE e.status = 'registered' OR e.status = 'completed' " +
+        "ORDER BY st.user_id, s.year, s.semester, c.code, e.enrollment_id, gc.component_id";
+
+    public List<TranscriptEntry> findByStudent(int studentId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            return findByStudent(conn, studentId);
+        }
+    }
+
+    public List<TranscriptEntry> findByStudent(Connection conn, int studentId) throws SQLException {
+        List<TranscriptEntry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(TRANSCRIPT_SQL)) {
+            stmt.setInt(1, studentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int currentEnrollment = -1;
+                TranscriptEntry entry = null;
+                while (rs.next()) {
+                    int enrollmentId = rs.getInt("enrollment_id");
+                    if (entry == null || enrollmentId != currentEnrollment) {
+                        entry = mapEntry(rs);
+                        entries.add(entry);
+                        currentEnrollment = enrollmentId;
+                    }
+                    addComponent(entry, rs);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Streams every student's transcript from one ordered query, handing each one to the
+     * consumer as soon as its last row has been read. The driver is asked to stream rows
+     * rather than buffer the whole result, so only one transcript is held at a time.
+     */
+    public int streamAll(Consumer<StudentTranscript> consumer) throws SQLException {
+        int students = 0;
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(ALL_TRANSCRIPTS_SQL,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                StudentTranscript current = null;
+                int currentEnrollment = -1;
+                TranscriptEntry entry = null;
+                while (rs.next()) {
+                    int studentId = rs.getInt("user_id");
+                    if (current == null || studentId != current.studentId()) {
+                        if (current != null) {
+                            consumer.accept(current);
+                            students++;
+                        }
+                        String fullName = UserDirectory.getInstance().nameOf(studentId);
+                        current = new StudentTranscript(studentId, fullName != null ? fullName : "Unknown Student",
+                            rs.getString("roll_no"), rs.getString("program"), new ArrayList<>());
+                        entry = null;
+                    }
+                    int enrollmentId = rs.getInt("enrollment_id");
+                    if (entry == null || enrollmentId != currentEnrollment) {
+                        entry = mapEntry(rs);
+                        current.entries().add(entry);
+                        currentEnrollment = enrollmentId;
+                    }
+                    addComponent(entry, rs);
+                }
+                if (current != null) {
+                    consumer.accept(current);
+                    students++;
+                }
+            }
+        }
+        return students;
+    }
+
+    private static TranscriptEntry mapEntry(ResultSet rs) throws SQLException {
+        return new TranscriptEntry(
+            rs.getString("code"), rs.getString("title"), rs.getInt("credits"),
+            rs.getString("semester"), rs.getInt("year"), rs.getString("final_grade"));
+    }
+
+    private static void addComponent(TranscriptEntry entry, ResultSet rs) throws SQLException {
+        String componentName = rs.getString("component_name");
+        if (componentName != null) {
+            entry.getComponentGrades().add(formatComponent(componentName, rs.getDouble("score"),
+                rs.getDouble("max_score"), rs.getDouble("weight")));
+        }
+    }
+
+    static String formatComponent(String name, double score, double maxScore, double weight) {
+        return String.format("%s: %.1f/%.0f (%.0f%%)", name, score, maxScore, weight);
+    }
+}
@@ -0,0 +1,47 @@
+package edu.univ.erp.data;
+
+import edu.univ.erp.data.UserDirectory.Entry;
+import edu.univ.erp.util.DatabaseConfig;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class UserDAO {
+
+    /** Every user's display fields, read in one pass over users_auth. */
+    public Map<Integer, Entry> findAllDirectoryEntries() throws SQLException {
+        Map<Integer, Entry> entries = new HashMap<>();
+        String sql = "SELECT user_id, full_name, role, status FROM users_auth";
+        try (Connection conn = DatabaseConfig.getAuthConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Entry entry = mapResultSetToEntry(rs);
+                    entries.put(entry.userId(), entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    public Entry findDirectoryEntry(int userId) throws SQLException {
+        String sql = "SELECT user_id, full_name, role, status FROM users_auth WHERE user_id = ?";
+        try (Connection conn = DatabaseConfig.getAuthConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntry(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    private Entry mapResultSetToEntry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getInt("user_id"), rs.getString("full_name"), rs.getString("role"), rs.getString("status"));
+    }
+}
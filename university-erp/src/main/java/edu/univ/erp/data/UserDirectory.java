@@ -0,0 +1,209 @@
+package edu.univ.erp.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory directory of every user's display name, role and status, so ERP queries can
+ * return plain user ids and fill names in here instead of joining university_auth.users_auth.
+ * The directory loads in one pass on first use. AdminService keeps it current as users are
+ * created, edited and deleted. An id missing from the directory, such as a user created by
+ * another client, is looked up on its own and added. Once the refresh interval passes, the
+ * next read starts a background reload that picks up other clients' edits; reads keep
+ * using the current entries while it runs.
+ */
+public class UserDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+    private static final long DEFAULT_REFRESH_INTERVAL_MS = 10 * 60 * 1000;
+    private static final UserDirectory INSTANCE = new UserDirectory(new UserDAO(), DEFAULT_REFRESH_INTERVAL_MS,
+        Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }));
+
+    public record Entry(int userId, String fullName, String role, String status) {
+        Entry withStatus(String newStatus) {
+            return new Entry(userId, fullName, role, newStatus);
+        }
+    }
+
+    private final UserDAO userDAO;
+    private final long refreshIntervalMs;
+    private final Executor refresher;
+    private final Object loadLock = new Object();
+    private volatile Map<Integer, Entry> entries;
+    private volatile long loadedAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    /** Ids written locally while a background reload runs; their local entries win over the reload. */
+    private final Set<Integer> changedDuringRefresh = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong singleLookups = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong localUpdates = new AtomicLong();
+
+    public UserDirectory(UserDAO userDAO, long refreshIntervalMs, Executor refresher) {
+        this.userDAO = userDAO;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.refresher = refresher;
+    }
+
+    public static UserDirectory getInstance() {
+        return INSTANCE;
+    }
+
+    /** The user's full name, or null if no such user exists. */
+    public String nameOf(int userId) {
+        Entry entry = get(userId);
+        return entry != null ? entry.fullName() : null;
+    }
+
+    public Entry get(int userId) {
+        lookups.incrementAndGet();
+        Map<Integer, Entry> current = current();
+        Entry entry = current.get(userId);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        try {
+            singleLookups.incrementAndGet();
+            entry = userDAO.findDirectoryEntry(userId);
+            if (entry != null) {
+                current.putIfAbsent(userId, entry);
+            }
+        } catch (SQLException e) {
+            logger.error("Error looking up user {}", userId, e);
+        }
+        return entry;
+    }
+
+    public int size() {
+        return current().size();
+    }
+
+    public void put(int userId, String fullName, String role, String status) {
+        update(userId, new Entry(userId, fullName, role, status));
+    }
+
+    public void updateStatus(int userId, String status) {
+        Map<Integer, Entry> current = entries;
+        Entry existing = current != null ? current.get(userId) : null;
+        if (existing != null) {
+            update(userId, existing.withStatus(status));
+        }
+    }
+
+    public void remove(int userId) {
+        update(userId, null);
+    }
+
+    /** Drops everything; the next read reloads synchronously. */
+    public void invalidate() {
+        synchronized (loadLock) {
+            entries = null;
+        }
+    }
+
+    public long getLookupCount() { return lookups.get(); }
+    public long getSingleLookupCount() { return singleLookups.get(); }
+    public long getLoadCount() { return loads.get(); }
+
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public void logStats() {
+        Map<Integer, Entry> current = entries;
+        logger.info("User directory: {} users, {} lookups, hit rate {}%, {} single-user queries, {} bulk loads, {} local updates",
+            current != null ? current.size() : 0, lookups.get(), String.format("%.1f", getHitRate() * 100),
+            singleLookups.get(), loads.get(), localUpdates.get());
+    }
+
+    private void update(int userId, Entry entry) {
+        localUpdates.incrementAndGet();
+        synchronized (loadLock) {
+            Map<Integer, Entry> current = entries;
+            if (current == null) {
+                return;
+            }
+            if (entry != null) {
+                current.put(userId, entry);
+            } else {
+                current.remove(userId);
+            }
+            if (refreshing.get()) {
+                changedDuringRefresh.add(userId);
+            }
+        }
+    }
+
+    private Map<Integer, Entry> current() {
+        Map<Integer, Entry> current = entries;
+        if (current == null) {
+            synchronized (loadLock) {
+                current = entries;
+                if (current == null) {
+                    current = load();
+                    entries = current;
+                    loadedAt = System.currentTimeMillis();
+                }
+            }
+            return current;
+        }
+        if (System.currentTimeMillis() - loadedAt >= refreshIntervalMs && refreshing.compareAndSet(false, true)) {
+            refresher.execute(this::refresh);
+        }
+        return current;
+    }
+
+    private void refresh() {
+        try {
+            Map<Integer, Entry> fresh = load();
+            synchronized (loadLock) {
+                Map<Integer, Entry> current = entries;
+                if (current != null) {
+                    for (Integer userId : changedDuringRefresh) {
+                        Entry local = current.get(userId);
+                        if (local != null) {
+                            fresh.put(userId, local);
+                        } else {
+                            fresh.remove(userId);
+                        }
+                    }
+                }
+                entries = fresh;
+                loadedAt = System.currentTimeMillis();
+            }
+        } finally {
+            changedDuringRefresh.clear();
+            refreshing.set(false);
+        }
+    }
+
+    private Map<Integer, Entry> load() {
+        long start = System.nanoTime();
+        try {
+            Map<Integer, Entry> loaded = new ConcurrentHashMap<>(userDAO.findAllDirectoryEntries());
+            loads.incrementAndGet();
+            logger.debug("User directory loaded {} users in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (SQLException e) {
+            logger.error("Error loading user directory", e);
+            Map<Integer, Entry> current = entries;
+            return current != null ? current : new ConcurrentHashMap<>();
+        }
+    }
+}
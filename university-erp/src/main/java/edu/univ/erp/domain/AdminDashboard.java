@@ -0,0 +1,6 @@
+package edu.univ.erp.domain;
+
+public record AdminDashboard(int totalUsers, int totalStudents, int totalInstructors, int totalAdmins,
+                             int activeUsers, int totalCourses, int totalSections, int totalEnrollments,
+                             boolean maintenanceMode) {
+}
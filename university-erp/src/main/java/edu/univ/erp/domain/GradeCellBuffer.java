@@ -0,0 +1,52 @@
+package edu.univ.erp.domain;
+
+import java.util.Arrays;
+
+/**
+ * Growable column store of (section, enrollment, component, score) cells for a bulk grade load.
+ * Cells may span any number of sections; nothing is validated until the load reaches the database.
+ */
+public class GradeCellBuffer {
+    private int[] sectionIds;
+    private int[] enrollmentIds;
+    private int[] componentIds;
+    private double[] scores;
+    private int size;
+
+    public GradeCellBuffer() {
+        this(1024);
+    }
+
+    public GradeCellBuffer(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        sectionIds = new int[capacity];
+        enrollmentIds = new int[capacity];
+        componentIds = new int[capacity];
+        scores = new double[capacity];
+    }
+
+    public void add(int sectionId, int enrollmentId, int componentId, double score) {
+        if (size == sectionIds.length) {
+            int capacity = size * 2;
+            sectionIds = Arrays.copyOf(sectionIds, capacity);
+            enrollmentIds = Arrays.copyOf(enrollmentIds, capacity);
+            componentIds = Arrays.copyOf(componentIds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+        }
+        sectionIds[size] = sectionId;
+        enrollmentIds[size] = enrollmentId;
+        componentIds[size] = componentId;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size() { return size; }
+    public int getSectionId(int i) { return sectionIds[i]; }
+    public int getEnrollmentId(int i) { return enrollmentIds[i]; }
+    public int getComponentId(int i) { return componentIds[i]; }
+    public double getScore(int i) { return scores[i]; }
+
+    public int[] distinctSectionIds() {
+        return Arrays.stream(sectionIds, 0, size).distinct().sorted().toArray();
+    }
+}
@@ -0,0 +1,155 @@
+package edu.univ.erp.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A section's gradebook in columnar form: roster fields are parallel arrays indexed by row and
+ * each component's scores are one dense double[] over the rows, with NaN marking a missing score.
+ * Columns follow the order of the component list the gradebook was created with.
+ */
+public class Gradebook {
+    private final List<GradeComponent> components;
+    private final int[] componentIds;
+    private final double[] weights;
+    private final double[] maxScores;
+    private int rows;
+    private int[] studentIds;
+    private int[] enrollmentIds;
+    private String[] studentNames;
+    private String[] rollNos;
+    private String[] finalGrades;
+    private double[][] scores;
+
+    public Gradebook(List<GradeComponent> components) {
+        this(components, 32);
+    }
+
+    public Gradebook(List<GradeComponent> components, int expectedStudents) {
+        this.components = Collections.unmodifiableList(new ArrayList<>(components));
+        int count = components.size();
+        componentIds = new int[count];
+        weights = new double[count];
+        maxScores = new double[count];
+        for (int j = 0; j < count; j++) {
+            GradeComponent component = components.get(j);
+            componentIds[j] = component.getComponentId();
+            weights[j] = component.getWeight();
+            maxScores[j] = component.getMaxScore();
+        }
+        int capacity = Math.max(8, expectedStudents);
+        studentIds = new int[capacity];
+        enrollmentIds = new int[capacity];
+        studentNames = new String[capacity];
+        rollNos = new String[capacity];
+        finalGrades = new String[capacity];
+        scores = new double[count][capacity];
+        for (double[] column : scores) {
+            Arrays.fill(column, Double.NaN);
+        }
+    }
+
+    private Gradebook(Gradebook source) {
+        components = source.components;
+        componentIds = source.componentIds;
+        weights = source.weights;
+        maxScores = source.maxScores;
+        rows = source.rows;
+        studentIds = Arrays.copyOf(source.studentIds, rows);
+        enrollmentIds = Arrays.copyOf(source.enrollmentIds, rows);
+        studentNames = Arrays.copyOf(source.studentNames, rows);
+        rollNos = Arrays.copyOf(source.rollNos, rows);
+        finalGrades = Arrays.copyOf(source.finalGrades, rows);
+        scores = new double[source.scores.length][];
+        for (int j = 0; j < scores.length; j++) {
+            scores[j] = Arrays.copyOf(source.scores[j], rows);
+        }
+    }
+
+    public int addStudent(int studentId, int enrollmentId, String studentName, String rollNo, String finalGrade) {
+        if (rows == studentIds.length) {
+            grow(Math.max(8, rows * 2));
+        }
+        studentIds[rows] = studentId;
+        enrollmentIds[rows] = enrollmentId;
+        studentNames[rows] = studentName;
+        rollNos[rows] = rollNo;
+        finalGrades[rows] = finalGrade;
+        return rows++;
+    }
+
+    public Gradebook copy() {
+        return new Gradebook(this);
+    }
+
+    public List<GradeComponent> getComponents() { return components; }
+    public int getComponentCount() { return componentIds.length; }
+    public GradeComponent getComponent(int column) { return components.get(column); }
+    public int getStudentCount() { return rows; }
+
+    public int getStudentId(int row) { return studentIds[row]; }
+    public int getEnrollmentId(int row) { return enrollmentIds[row]; }
+    public String getStudentName(int row) { return studentNames[row]; }
+    public String getRollNo(int row) { return rollNos[row]; }
+    public String getFinalGrade(int row) { return finalGrades[row]; }
+    public void setFinalGrade(int row, String finalGrade) { finalGrades[row] = finalGrade; }
+
+    /** Column index of a component, or -1 when the component is not part of this gradebook. */
+    public int columnOf(int componentId) {
+        for (int j = 0; j < componentIds.length; j++) {
+            if (componentIds[j] == componentId) return j;
+        }
+        return -1;
+    }
+
+    public boolean hasScore(int row, int column) {
+        return !Double.isNaN(scores[column][row]);
+    }
+
+    /** The score, or NaN when the student has no score for this component. */
+    public double getScore(int row, int column) {
+        return scores[column][row];
+    }
+
+    public void setScore(int row, int column, double score) {
+        scores[column][row] = score;
+    }
+
+    public void clearScore(int row, int column) {
+        scores[column][row] = Double.NaN;
+    }
+
+    /** Weighted percentage over all components, or NaN if any component score is missing. */
+    public double computeFinalScore(int row) {
+        double finalScore = 0.0;
+        for (int j = 0; j < scores.length; j++) {
+            double score = scores[j][row];
+            if (Double.isNaN(score)) return Double.NaN;
+            finalScore += (score / maxScores[j]) * weights[j];
+        }
+        return finalScore;
+    }
+
+    public int[] getEnrollmentIds() {
+        return Arrays.copyOf(enrollmentIds, rows);
+    }
+
+    public int[] getComponentIds() {
+        return componentIds.clone();
+    }
+
+    private void grow(int capacity) {
+        studentIds = Arrays.copyOf(studentIds, capacity);
+        enrollmentIds = Arrays.copyOf(enrollmentIds, capacity);
+        studentNames = Arrays.copyOf(studentNames, capacity);
+        rollNos = Arrays.copyOf(rollNos, capacity);
+        finalGrades = Arrays.copyOf(finalGrades, capacity);
+        for (int j = 0; j < scores.length; j++) {
+            int old = scores[j].length;
+            scores[j] = Arrays.copyOf(scores[j], capacity);
+            Arrays.fill(scores[j], old, capacity, Double.NaN);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package edu.univ.erp.domain;
+
+public record InstructorDashboard(int totalSections, int totalStudents, int pendingGrades,
+                                  String actionCourse, String actionPending) {
+
+    public static InstructorDashboard empty() {
+        return new InstructorDashboard(0, 0, 0, "No Sections", "");
+    }
+}
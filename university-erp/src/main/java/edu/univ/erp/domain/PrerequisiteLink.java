@@ -0,0 +1,4 @@
+package edu.univ.erp.domain;
+
+public record PrerequisiteLink(int courseId, int requiresCourseId, String requiresCode) {
+}
@@ -18,6 +18,7 @@ public class Section {
 
     private String courseCode;
     private String courseTitle;
+    private String courseDescription;
     private String instructorName;
     
     public Section(int sectionId, int courseId, int instructorId, String sectionCode, 
@@ -46,6 +47,7 @@ public class Section {
     public int getEnrollmentCount() { return enrollmentCount; }
     public String getCourseCode() { return courseCode; }
     public String getCourseTitle() { return courseTitle; }
+    public String getCourseDescription() { return courseDescription; }
     public String getInstructorName() { return instructorName; }
     
     public LocalDate getDropDeadline() { return dropDeadline; }
@@ -53,6 +55,7 @@ public class Section {
 
     public void setCourseCode(String courseCode) { this.courseCode = courseCode; }
     public void setCourseTitle(String courseTitle) { this.courseTitle = courseTitle; }
+    public void setCourseDescription(String courseDescription) { this.courseDescription = courseDescription; }
     public void setInstructorName(String instructorName) { this.instructorName = instructorName; }
     public void setDropDeadline(LocalDate dropDeadline) { this.dropDeadline = dropDeadline; }
     public void setAddDeadline(LocalDate addDeadline) { this.addDeadline = addDeadline; }
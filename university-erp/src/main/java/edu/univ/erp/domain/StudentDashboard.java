@@ -0,0 +1,9 @@
+package edu.univ.erp.domain;
+
+public record StudentDashboard(int enrolledCourses, int pendingGrades, int completedCourses, String cgpa,
+                               int totalCredits, String nextCourse, String nextClassTime, String nextClassRoom) {
+
+    public static StudentDashboard empty() {
+        return new StudentDashboard(0, 0, 0, "N/A", 0, "No Classes", "Not enrolled in any courses", "");
+    }
+}
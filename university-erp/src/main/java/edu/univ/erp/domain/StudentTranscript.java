@@ -0,0 +1,7 @@
+package edu.univ.erp.domain;
+
+import java.util.List;
+
+public record StudentTranscript(int studentId, String fullName, String rollNo, String program,
+                                List<TranscriptEntry> entries) {
+}
@@ -0,0 +1,234 @@
+package edu.univ.erp.domain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-parsed form of a section's day_time string ("Mon/Wed 10:00-11:30"). Each schedule keeps
+ * a bitmask of its days and a minute-of-day bitset for its time range, so two schedules clash
+ * when their day masks intersect and their minute bits intersect. Parsed schedules are memoized
+ * by the source string; SectionDAO warms the cache whenever a section is written.
+ *
+ * Strings that do not fit the bitset form (times outside 00:00-24:00, empty ranges, more distinct
+ * day tokens than fit in a mask) keep the parsed interval and are compared the way the original
+ * string comparison did, so clash results are identical for every input.
+ */
+public final class WeeklySchedule {
+    private static final Logger logger = LoggerFactory.getLogger(WeeklySchedule.class);
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+    private static final int MAX_DAY_TOKENS = 64;
+    private static final int MAX_CACHED = 4096;
+
+    private static final Map<String, WeeklySchedule> CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> DAY_IDS = new ConcurrentHashMap<>();
+
+    public static final WeeklySchedule NONE = new WeeklySchedule("", new String[0], 0, 0, false);
+
+    private final String source;
+    private final String[] days;
+    private final int start;
+    private final int end;
+    private final boolean valid;
+    private final long dayMask;
+    private final long[] minutes;
+
+    private WeeklySchedule(String source, String[] days, int start, int end, boolean valid) {
+        this.source = source;
+        this.days = days;
+        this.start = start;
+        this.end = end;
+        this.valid = valid;
+
+        long mask = 0;
+        boolean regular = valid && start >= 0 && start < end && end <= MINUTES_PER_DAY;
+        for (String day : days) {
+            int id = dayId(day);
+            if (id < 0) {
+                regular = false;
+                break;
+            }
+            mask |= 1L << id;
+        }
+        this.dayMask = regular ? mask : 0;
+        this.minutes = regular ? minuteBits(start, end) : null;
+    }
+
+    public static WeeklySchedule of(String dayTime) {
+        if (dayTime == null || dayTime.trim().isEmpty()) {
+            return NONE;
+        }
+        WeeklySchedule cached = CACHE.get(dayTime);
+        if (cached != null) {
+            return cached;
+        }
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        WeeklySchedule parsed = parse(dayTime);
+        CACHE.put(dayTime, parsed);
+        return parsed;
+    }
+
+    static WeeklySchedule parse(String dayTime) {
+        String[] parts = dayTime.split(" ");
+        if (parts.length < 2) {
+            return new WeeklySchedule(dayTime, new String[0], 0, 0, false);
+        }
+        String[] tokens = parts[0].toLowerCase().split("/");
+        String[] days = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            days[i] = tokens[i].trim();
+        }
+        String time = parts[1];
+        try {
+            int start = parseTimeToMinutes(time.split("-")[0]);
+            int end = time.contains("-") ? parseTimeToMinutes(time.split("-")[1]) : start + 60;
+            return new WeeklySchedule(dayTime, days, start, end, true);
+        } catch (Exception e) {
+            logger.warn("Could not parse section time slot: {}", dayTime);
+            return new WeeklySchedule(dayTime, days, 0, 0, false);
+        }
+    }
+
+    public String getSource() { return source; }
+
+    public boolean isEmpty() { return !valid; }
+
+    public boolean overlaps(WeeklySchedule other) {
+        if (!valid || !other.valid) {
+            return false;
+        }
+        if (minutes != null && other.minutes != null) {
+            return (dayMask & other.dayMask) != 0 && intersects(minutes, other.minutes);
+        }
+        return sharesDay(other) && start < other.end && other.start < end;
+    }
+
+    private boolean sharesDay(WeeklySchedule other) {
+        for (String d1 : days) {
+            for (String d2 : other.days) {
+                if (d1.equalsIgnoreCase(d2)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] minuteBits(int start, int end) {
+        long[] bits = new long[WORDS_PER_DAY];
+        for (int minute = start; minute < end; minute++) {
+            bits[minute >>> 6] |= 1L << minute;
+        }
+        return bits;
+    }
+
+    private static int dayId(String day) {
+        Integer id = DAY_IDS.get(day);
+        if (id != null) {
+            return id;
+        }
+        synchronized (DAY_IDS) {
+            id = DAY_IDS.get(day);
+            if (id == null) {
+                if (DAY_IDS.size() >= MAX_DAY_TOKENS) {
+                    return -1;
+                }
+                id = DAY_IDS.size();
+                DAY_IDS.put(day, id);
+            }
+            return id;
+        }
+    }
+
+    private static int parseTimeToMinutes(String time) {
+        if (time == null || !time.contains(":")) return 0;
+        String[] parts = time.trim().split(":");
+        int hours = Integer.parseInt(parts[0]);
+        int minutes = Integer.parseInt(parts[1]);
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Union of a student's registered schedules, one minute bitset per day token. Checking a
+     * new section is one AND per occupied day word instead of a comparison per registration.
+     */
+    public static final class Occupancy {
+        private final long[][] byDay = new long[MAX_DAY_TOKENS][];
+        private final List<WeeklySchedule> schedules = new ArrayList<>();
+        private final List<WeeklySchedule> irregular = new ArrayList<>();
+
+        public void add(WeeklySchedule schedule) {
+            if (!schedule.valid) {
+                return;
+            }
+            schedules.add(schedule);
+            if (schedule.minutes == null) {
+                irregular.add(schedule);
+                return;
+            }
+            long mask = schedule.dayMask;
+            while (mask != 0) {
+                int day = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                long[] occupied = byDay[day];
+                if (occupied == null) {
+                    occupied = new long[WORDS_PER_DAY];
+                    byDay[day] = occupied;
+                }
+                for (int i = 0; i < WORDS_PER_DAY; i++) {
+                    occupied[i] |= schedule.minutes[i];
+                }
+            }
+        }
+
+        public boolean clashesWith(WeeklySchedule candidate) {
+            if (!candidate.valid) {
+                return false;
+            }
+            if (candidate.minutes == null) {
+                return findClash(candidate) != null;
+            }
+            long mask = candidate.dayMask;
+            while (mask != 0) {
+                int day = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                long[] occupied = byDay[day];
+                if (occupied != null && intersects(occupied, candidate.minutes)) {
+                    return true;
+                }
+            }
+            for (WeeklySchedule schedule : irregular) {
+                if (schedule.overlaps(candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Finds the registered schedule that clashes, for reporting; not on the hot path. */
+        public WeeklySchedule findClash(WeeklySchedule candidate) {
+            for (WeeklySchedule schedule : schedules) {
+                if (schedule.overlaps(candidate)) {
+                    return schedule;
+                }
+            }
+            return null;
+        }
+    }
+}
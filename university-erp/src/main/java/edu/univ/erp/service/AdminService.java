@@ -4,8 +4,12 @@ import edu.univ.erp.domain.Course;
 import edu.univ.erp.domain.Section;
 import edu.univ.erp.domain.Student;
 import edu.univ.erp.domain.User;
+import edu.univ.erp.domain.WeeklySchedule;
+import edu.univ.erp.data.CatalogCache;
 import edu.univ.erp.data.CourseDAO;
+import edu.univ.erp.data.GradebookCache;
 import edu.univ.erp.data.StudentDAO;
+import edu.univ.erp.data.UserDirectory;
 import edu.univ.erp.util.DatabaseConfig;
 import edu.univ.erp.auth.PasswordUtil;
 import edu.univ.erp.auth.SessionManager; 
@@ -82,6 +86,8 @@ public class AdminService {
                  throw new SQLException("Failed to create corresponding ERP profile.");
             }
 
+            DashboardCounters.getInstance().userCreated(role, true);
+            UserDirectory.getInstance().put(newUserId, fullName, role, "active");
             logger.info("Successfully created new user: {} (ID: {}) with role: {}", username, newUserId, role);
             return true;
 
@@ -120,6 +126,7 @@ public class AdminService {
         Connection erpConn = null;
         
         try {
+            String previousName = UserDirectory.getInstance().nameOf(userId);
             authConn = DatabaseConfig.getAuthConnection();
             authConn.setAutoCommit(false);
 
@@ -142,6 +149,12 @@ public class AdminService {
             }
             
             authConn.commit();
+            UserDirectory.getInstance().put(userId, fullName, role, status);
+            if (!fullName.equals(previousName)) {
+                // Catalog sections carry instructor names and gradebook rosters are sorted by student name.
+                if ("instructor".equals(role)) CatalogCache.getInstance().invalidate();
+                if ("student".equals(role)) GradebookCache.getInstance().invalidateAll();
+            }
 
             
             if ("student".equals(role)) {
@@ -162,6 +175,7 @@ public class AdminService {
                 erpConn.commit();
             }
             
+            DashboardCounters.getInstance().invalidate();
             return true;
 
         } catch (SQLException e) {
@@ -255,7 +269,12 @@ public class AdminService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, status);
             stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            DashboardCounters.getInstance().invalidate();
+            if (updated) {
+                UserDirectory.getInstance().updateStatus(userId, status);
+            }
+            return updated;
         } catch (SQLException e) {
             logger.error("Error updating status for user {}", userId, e);
             return false;
@@ -290,6 +309,8 @@ public class AdminService {
                  PreparedStatement stmt = erpConn.prepareStatement(deleteSectionsSql)) {
                 stmt.setInt(1, userIdToDelete);
                 stmt.executeUpdate();
+                DashboardCounters.getInstance().instructorSectionsRemoved(userIdToDelete);
+                CatalogCache.getInstance().invalidate();
             } catch (SQLException e) {
                 throw new AdminServiceException("Failed to clean up instructor sections.");
             }
@@ -316,11 +337,22 @@ public class AdminService {
 
         
         boolean authDeleted = false;
+        boolean wasActive = false;
+        String statusSql = "SELECT status FROM university_auth.users_auth WHERE user_id = ?";
         String authSql = "DELETE FROM university_auth.users_auth WHERE user_id = ?";
         try (Connection authConn = DatabaseConfig.getAuthConnection();
+             PreparedStatement statusStmt = authConn.prepareStatement(statusSql);
              PreparedStatement authStmt = authConn.prepareStatement(authSql)) {
+            statusStmt.setInt(1, userIdToDelete);
+            try (ResultSet rs = statusStmt.executeQuery()) {
+                wasActive = rs.next() && "active".equals(rs.getString("status"));
+            }
             authStmt.setInt(1, userIdToDelete);
             authDeleted = (authStmt.executeUpdate() > 0);
+            if (authDeleted) {
+                DashboardCounters.getInstance().userDeleted(userRole, wasActive);
+                UserDirectory.getInstance().remove(userIdToDelete);
+            }
         } catch (SQLException e) {
             throw new AdminServiceException("Failed to delete user from auth database.");
         }
@@ -331,6 +363,7 @@ public class AdminService {
     private void decrementEnrollmentCountsForStudent(int studentId) {
         String findSql = "SELECT section_id FROM enrollments WHERE student_id = ? AND status = 'registered'";
         String updateSql = "UPDATE sections SET enrollment_count = enrollment_count - 1 WHERE section_id = ? AND enrollment_count > 0";
+        List<Integer> sectionIds = new ArrayList<>();
 
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement findStmt = conn.prepareStatement(findSql);
@@ -344,10 +377,16 @@ public class AdminService {
                     int sectionId = rs.getInt("section_id");
                     updateStmt.setInt(1, sectionId);
                     updateStmt.executeUpdate();
+                    sectionIds.add(sectionId);
                 }
             }
 
             conn.commit();
+            for (int sectionId : sectionIds) {
+                DashboardCounters.getInstance().enrollmentChanged(sectionId, -1);
+                CatalogCache.getInstance().seatsChanged(sectionId, -1);
+                ErpEventBus.getInstance().publish(ErpEventBus.Event.enrollmentChanged(studentId, sectionId));
+            }
             logger.info("Decremented enrollment counts for deleted student ID: {}", studentId);
 
         } catch (SQLException e) {
@@ -356,16 +395,45 @@ public class AdminService {
     }
 
 
+    public GradePostingEngine.SemesterResult postFinalGradesForSemester(String semester, int year) throws SQLException {
+        if (!SessionManager.isAdmin()) {
+            throw new AdminServiceException("Only administrators can post grades for a whole semester.");
+        }
+        return new GradePostingEngine(notificationService).postSemester(semester, year);
+    }
+
+    public DepartmentAnalyticsEngine.SemesterReport getGradeAnalytics(String semester, int year) throws SQLException {
+        if (!SessionManager.isAdmin()) {
+            throw new AdminServiceException("Only administrators can view semester grade analytics.");
+        }
+        return new DepartmentAnalyticsEngine().analyzeSemester(semester, year);
+    }
+
+    public NotificationRetentionJob.RunResult archiveOldNotifications() throws SQLException {
+        if (!SessionManager.isAdmin()) {
+            throw new AdminServiceException("Only administrators can archive notifications.");
+        }
+        return NotificationRetentionJob.getInstance().runOnce();
+    }
+
+
     public boolean createAnnouncement(String targetRole, String message) {
         String announcementMessage = "Announcement: " + message;
-        if ("All".equals(targetRole)) return notificationService.createBroadcastNotificationToAll(announcementMessage);
-        else return notificationService.createBroadcastNotification(targetRole, announcementMessage);
+        boolean created = "All".equals(targetRole)
+            ? notificationService.createBroadcastNotificationToAll(announcementMessage)
+            : notificationService.createBroadcastNotification(targetRole, announcementMessage);
+        if (created) {
+            ErpEventBus.getInstance().publish(ErpEventBus.Event.announcementCreated("All".equals(targetRole) ? null : targetRole));
+        }
+        return created;
     }
 
     
     public boolean createCourse(String code, String title, int credits, String description) throws SQLException {
         Course course = new Course(0, code, title, credits, description, true);
-        return courseDAO.create(course) > 0;
+        boolean created = courseDAO.create(course) > 0;
+        DashboardCounters.getInstance().invalidate();
+        return created;
     }
 
     public List<Course> getAllCourses() {
@@ -375,11 +443,17 @@ public class AdminService {
 
     public boolean updateCourse(int courseId, String code, String title, int credits, String description) throws SQLException {
         Course course = new Course(courseId, code, title, credits, description, true);
-        return courseDAO.update(course);
+        boolean updated = courseDAO.update(course);
+        DashboardCounters.getInstance().invalidate();
+        CatalogCache.getInstance().invalidate();
+        return updated;
     }
 
     public boolean deleteCourse(int courseId) throws SQLException {
-        return courseDAO.delete(courseId);
+        boolean deleted = courseDAO.delete(courseId);
+        DashboardCounters.getInstance().invalidate();
+        CatalogCache.getInstance().invalidate();
+        return deleted;
     }
 
     public int getCourseEnrollmentCount(int courseId) {
@@ -414,21 +488,28 @@ public class AdminService {
 
     public boolean createSection(int courseId, int instructorId, String sectionCode, String dayTime, String room, int capacity, String semester, int year, LocalDate addDeadline, LocalDate dropDeadline) throws SQLException {
         String sql = "INSERT INTO sections (course_id, instructor_id, section_code, day_time, room, capacity, semester, year, enrollment_count, add_deadline, drop_deadline) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+        WeeklySchedule.of(dayTime);
         try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, courseId); stmt.setInt(2, instructorId); stmt.setString(3, sectionCode); stmt.setString(4, dayTime);
             stmt.setString(5, room); stmt.setInt(6, capacity); stmt.setString(7, semester); stmt.setInt(8, year);
             stmt.setDate(9, addDeadline != null ? java.sql.Date.valueOf(addDeadline) : null);
             stmt.setDate(10, dropDeadline != null ? java.sql.Date.valueOf(dropDeadline) : null);
-            return stmt.executeUpdate() > 0;
+            boolean created = stmt.executeUpdate() > 0;
+            DashboardCounters.getInstance().invalidate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (created && keys.next()) {
+                    CatalogCache.getInstance().sectionChanged(keys.getInt(1));
+                }
+            }
+            return created;
         }
     }
 
     public List<Section> getAllSections() {
         List<Section> sections = new ArrayList<>();
-        String sql = "SELECT s.*, c.code as course_code, c.title as course_title, u.full_name as instructor_name " +
-                     "FROM sections s JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id ORDER BY c.code, s.section_code";
+        String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
+                     "FROM sections s JOIN courses c ON s.course_id = c.course_id ORDER BY c.code, s.section_code";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
@@ -438,7 +519,7 @@ public class AdminService {
                     rs.getInt("capacity"), rs.getString("semester"), rs.getInt("year"), rs.getInt("enrollment_count"));
                 s.setCourseCode(rs.getString("course_code"));
                 s.setCourseTitle(rs.getString("course_title"));
-                s.setInstructorName(rs.getString("instructor_name"));
+                s.setInstructorName(UserDirectory.getInstance().nameOf(s.getInstructorId()));
                 Date ad = rs.getDate("add_deadline"); if(ad!=null) s.setAddDeadline(ad.toLocalDate());
                 Date dd = rs.getDate("drop_deadline"); if(dd!=null) s.setDropDeadline(dd.toLocalDate());
                 sections.add(s);
@@ -449,6 +530,7 @@ public class AdminService {
 
     public boolean updateSection(int sectionId, int courseId, int instructorId, String sectionCode, String dayTime, String room, int capacity, String semester, int year, LocalDate addDeadline, LocalDate dropDeadline) throws SQLException {
         String sql = "UPDATE sections SET course_id = ?, instructor_id = ?, section_code = ?, day_time = ?, room = ?, capacity = ?, semester = ?, year = ?, add_deadline = ?, drop_deadline = ? WHERE section_id = ?";
+        WeeklySchedule.of(dayTime);
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, courseId); stmt.setInt(2, instructorId); stmt.setString(3, sectionCode); stmt.setString(4, dayTime);
@@ -456,14 +538,27 @@ public class AdminService {
             stmt.setDate(9, addDeadline != null ? java.sql.Date.valueOf(addDeadline) : null);
             stmt.setDate(10, dropDeadline != null ? java.sql.Date.valueOf(dropDeadline) : null);
             stmt.setInt(11, sectionId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                SeatCounter.getInstance().invalidate(sectionId);
+                DashboardCounters.getInstance().invalidate();
+                CatalogCache.getInstance().sectionChanged(sectionId);
+            }
+            return updated;
         }
     }
 
     public boolean deleteSection(int sectionId) throws SQLException {
         String sql = "DELETE FROM sections WHERE section_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, sectionId); return stmt.executeUpdate() > 0;
+            stmt.setInt(1, sectionId);
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) {
+                SeatCounter.getInstance().invalidate(sectionId);
+                DashboardCounters.getInstance().invalidate();
+                CatalogCache.getInstance().sectionChanged(sectionId);
+            }
+            return deleted;
         }
     }
     
@@ -475,7 +570,9 @@ public class AdminService {
             stmt.setDate(2, dropDeadline != null ? java.sql.Date.valueOf(dropDeadline) : null);
             stmt.setString(3, semester);
             stmt.setInt(4, year);
-            return stmt.executeUpdate();
+            int updated = stmt.executeUpdate();
+            CatalogCache.getInstance().invalidate();
+            return updated;
         } catch (SQLException e) {
             logger.error("Error bulk updating deadlines: {}", e.getMessage());
             throw e;
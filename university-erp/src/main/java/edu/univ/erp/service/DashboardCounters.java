@@ -0,0 +1,371 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.util.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory registry of the counts shown on the admin and instructor dashboards.
+ * Services that change users, enrollments or final grades adjust the counters in place;
+ * anything else invalidates the registry so the next read rebuilds it. A background job
+ * periodically recomputes everything from the source tables and logs any drift, which
+ * also picks up changes made by other clients. A load only replaces the registry if no change
+ * or invalidation happened while it ran; otherwise its result is served once but not kept.
+ */
+public class DashboardCounters {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCounters.class);
+    private static final long RECONCILE_INTERVAL_MINUTES = 2;
+
+    public static final String TOTAL_USERS = "users.total";
+    public static final String STUDENTS = "users.student";
+    public static final String INSTRUCTORS = "users.instructor";
+    public static final String ADMINS = "users.admin";
+    public static final String ACTIVE_USERS = "users.active";
+    public static final String ACTIVE_COURSES = "courses.active";
+    public static final String TOTAL_SECTIONS = "sections.total";
+    public static final String TOTAL_ENROLLMENTS = "enrollments.total";
+
+    private static DashboardCounters instance;
+
+    /** Receives the counts read from the source tables. */
+    public interface Sink {
+        void total(String key, int value);
+        void section(int sectionId, int instructorId, String label, int enrolled, int pendingGrades);
+    }
+
+    /** Reads every count from the source tables; the default runs the SQL below, tests supply their own. */
+    public interface Loader {
+        void load(Sink sink) throws SQLException;
+    }
+
+    private final Loader loader;
+    private volatile State state;
+    /** Bumped by every in-place change and invalidation, so a load that raced one is not installed. */
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledExecutorService reconciler;
+
+    static final class SectionCounter {
+        final int sectionId;
+        final int instructorId;
+        final String label;
+        final AtomicInteger enrolled;
+        final AtomicInteger pendingGrades;
+
+        SectionCounter(int sectionId, int instructorId, String label, int enrolled, int pendingGrades) {
+            this.sectionId = sectionId;
+            this.instructorId = instructorId;
+            this.label = label;
+            this.enrolled = new AtomicInteger(enrolled);
+            this.pendingGrades = new AtomicInteger(pendingGrades);
+        }
+    }
+
+    private static final class State implements Sink {
+        final Map<String, AtomicInteger> totals = new ConcurrentHashMap<>();
+        final Map<Integer, SectionCounter> sections = new ConcurrentHashMap<>();
+        final Map<Integer, Set<Integer>> sectionsByInstructor = new ConcurrentHashMap<>();
+
+        AtomicInteger total(String key) {
+            return totals.computeIfAbsent(key, k -> new AtomicInteger());
+        }
+
+        @Override
+        public void total(String key, int value) {
+            total(key).set(value);
+        }
+
+        @Override
+        public void section(int sectionId, int instructorId, String label, int enrolled, int pendingGrades) {
+            sections.put(sectionId, new SectionCounter(sectionId, instructorId, label, enrolled, pendingGrades));
+            sectionsByInstructor.computeIfAbsent(instructorId, id -> ConcurrentHashMap.newKeySet()).add(sectionId);
+        }
+    }
+
+    private DashboardCounters() {
+        this(DashboardCounters::loadFromDatabase);
+    }
+
+    public DashboardCounters(Loader loader) {
+        this.loader = loader;
+    }
+
+    public static synchronized DashboardCounters getInstance() {
+        if (instance == null) {
+            instance = new DashboardCounters();
+        }
+        return instance;
+    }
+
+    public synchronized void startReconciliation() {
+        if (reconciler != null) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                logger.error("Dashboard counter reconciliation failed", e);
+            }
+        }, RECONCILE_INTERVAL_MINUTES, RECONCILE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null && instance.reconciler != null) {
+            instance.reconciler.shutdownNow();
+            instance.reconciler = null;
+        }
+    }
+
+    public int get(String key) {
+        State current = current();
+        if (current == null) {
+            return 0;
+        }
+        AtomicInteger value = current.totals.get(key);
+        return value != null ? value.get() : 0;
+    }
+
+    List<SectionCounter> getSectionsForInstructor(int instructorId) {
+        List<SectionCounter> result = new ArrayList<>();
+        State current = current();
+        if (current == null) {
+            return result;
+        }
+        Set<Integer> ids = current.sectionsByInstructor.get(instructorId);
+        if (ids != null) {
+            for (Integer id : ids) {
+                SectionCounter section = current.sections.get(id);
+                if (section != null) {
+                    result.add(section);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void userCreated(String role, boolean active) {
+        State current = changing();
+        if (current == null) return;
+        current.total(TOTAL_USERS).incrementAndGet();
+        current.total("users." + role).incrementAndGet();
+        if (active) {
+            current.total(ACTIVE_USERS).incrementAndGet();
+        }
+        changed(current);
+    }
+
+    public void userDeleted(String role, boolean active) {
+        State current = changing();
+        if (current == null) return;
+        current.total(TOTAL_USERS).decrementAndGet();
+        current.total("users." + role).decrementAndGet();
+        if (active) {
+            current.total(ACTIVE_USERS).decrementAndGet();
+        }
+        changed(current);
+    }
+
+    public void enrollmentChanged(int sectionId, int delta) {
+        if (delta == 0) return;
+        State current = changing();
+        if (current == null) return;
+        current.total(TOTAL_ENROLLMENTS).addAndGet(delta);
+        SectionCounter section = current.sections.get(sectionId);
+        if (section == null) {
+            invalidate();
+            return;
+        }
+        section.enrolled.addAndGet(delta);
+        // A new registration has no final grade yet; a drop removes one ungraded row.
+        section.pendingGrades.updateAndGet(pending -> Math.max(0, pending + delta));
+        changed(current);
+    }
+
+    public void gradesPosted(int sectionId, int newlyGraded) {
+        if (newlyGraded == 0) return;
+        State current = changing();
+        if (current == null) return;
+        SectionCounter section = current.sections.get(sectionId);
+        if (section != null) {
+            section.pendingGrades.updateAndGet(pending -> Math.max(0, pending - newlyGraded));
+        }
+        changed(current);
+    }
+
+    public void instructorSectionsRemoved(int instructorId) {
+        State current = changing();
+        if (current == null) return;
+        Set<Integer> ids = current.sectionsByInstructor.remove(instructorId);
+        if (ids == null) return;
+        for (Integer id : ids) {
+            SectionCounter section = current.sections.remove(id);
+            if (section != null) {
+                current.total(TOTAL_SECTIONS).decrementAndGet();
+                current.total(TOTAL_ENROLLMENTS).addAndGet(-section.enrolled.get());
+            }
+        }
+        changed(current);
+    }
+
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        state = null;
+    }
+
+    public Map<String, Integer> reconcile() throws SQLException {
+        long startGeneration = generation.get();
+        State fresh = load();
+        State previous;
+        synchronized (this) {
+            if (generation.get() != startGeneration) {
+                // A change landed on the current registry while loading; the next run catches up.
+                logger.debug("Dashboard counters changed during reconciliation, keeping the current registry");
+                return new LinkedHashMap<>();
+            }
+            previous = state;
+            state = fresh;
+        }
+
+        Map<String, Integer> drift = new LinkedHashMap<>();
+        if (previous == null) {
+            return drift;
+        }
+        for (Map.Entry<String, AtomicInteger> entry : fresh.totals.entrySet()) {
+            AtomicInteger old = previous.totals.get(entry.getKey());
+            int diff = entry.getValue().get() - (old != null ? old.get() : 0);
+            if (diff != 0) drift.put(entry.getKey(), diff);
+        }
+        for (SectionCounter section : fresh.sections.values()) {
+            SectionCounter old = previous.sections.get(section.sectionId);
+            int enrolledDiff = section.enrolled.get() - (old != null ? old.enrolled.get() : 0);
+            int pendingDiff = section.pendingGrades.get() - (old != null ? old.pendingGrades.get() : 0);
+            if (enrolledDiff != 0) drift.put("section." + section.sectionId + ".enrolled", enrolledDiff);
+            if (pendingDiff != 0) drift.put("section." + section.sectionId + ".pending", pendingDiff);
+        }
+
+        if (drift.isEmpty()) {
+            logger.debug("Dashboard counters reconciled with no drift");
+        } else {
+            logger.warn("Dashboard counters drifted from source tables, corrected: {}", drift);
+        }
+        return drift;
+    }
+
+    private State current() {
+        State current = state;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (state != null) {
+                return state;
+            }
+            long startGeneration = generation.get();
+            State loaded;
+            try {
+                loaded = load();
+            } catch (SQLException e) {
+                logger.error("Error loading dashboard counters", e);
+                return null;
+            }
+            if (generation.get() == startGeneration) {
+                state = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    /** Every in-place change starts here, so a load running concurrently will not be installed. */
+    private State changing() {
+        generation.incrementAndGet();
+        return state;
+    }
+
+    /**
+     * A reload that passed its generation check just before changing() may have been installed
+     * while the change was applied to the registry it replaced; drop it rather than lose the change.
+     */
+    private void changed(State applied) {
+        if (state != applied) {
+            invalidate();
+        }
+    }
+
+    private State load() throws SQLException {
+        State fresh = new State();
+        loader.load(fresh);
+        return fresh;
+    }
+
+    private static void loadFromDatabase(Sink fresh) throws SQLException {
+        String userSql = "SELECT COUNT(*) as total, " +
+            "SUM(CASE WHEN role = 'student' THEN 1 ELSE 0 END) as students, " +
+            "SUM(CASE WHEN role = 'instructor' THEN 1 ELSE 0 END) as instructors, " +
+            "SUM(CASE WHEN role = 'admin' THEN 1 ELSE 0 END) as admins, " +
+            "SUM(CASE WHEN status = 'active' THEN 1 ELSE 0 END) as active " +
+            "FROM users_auth";
+        // Runs on a background or reconciler thread, so the two pools are queried one after the other.
+        try (Connection authConn = DatabaseConfig.getAuthConnection();
+             PreparedStatement stmt = authConn.prepareStatement(userSql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                fresh.total(TOTAL_USERS, rs.getInt("total"));
+                fresh.total(STUDENTS, rs.getInt("students"));
+                fresh.total(INSTRUCTORS, rs.getInt("instructors"));
+                fresh.total(ADMINS, rs.getInt("admins"));
+                fresh.total(ACTIVE_USERS, rs.getInt("active"));
+            }
+        }
+
+        String courseSql = "SELECT COUNT(*) as total FROM courses WHERE is_active = true";
+        String sectionSql = "SELECT s.section_id, s.instructor_id, s.enrollment_count, c.code, s.section_code, " +
+            "COALESCE(p.pending, 0) as pending " +
+            "FROM sections s " +
+            "JOIN courses c ON s.course_id = c.course_id " +
+            "LEFT JOIN (SELECT section_id, COUNT(*) as pending FROM enrollments " +
+            "           WHERE status = 'registered' AND final_grade IS NULL GROUP BY section_id) p " +
+            "ON p.section_id = s.section_id";
+        try (Connection erpConn = DatabaseConfig.getERPConnection()) {
+            try (PreparedStatement stmt = erpConn.prepareStatement(courseSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) fresh.total(ACTIVE_COURSES, rs.getInt("total"));
+            }
+            int sections = 0;
+            int enrollments = 0;
+            try (PreparedStatement stmt = erpConn.prepareStatement(sectionSql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int enrolled = rs.getInt("enrollment_count");
+                    fresh.section(rs.getInt("section_id"), rs.getInt("instructor_id"),
+                        rs.getString("code") + " Section " + rs.getString("section_code"),
+                        enrolled, rs.getInt("pending"));
+                    sections++;
+                    enrollments += enrolled;
+                }
+            }
+            fresh.total(TOTAL_SECTIONS, sections);
+            fresh.total(TOTAL_ENROLLMENTS, enrollments);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package edu.univ.erp.service;
+
+import com.opencsv.CSVWriter;
+import edu.univ.erp.data.UserDirectory;
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import edu.univ.erp.util.DatabaseConfig;
+import edu.univ.erp.util.StreamingStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Grade analytics for a whole semester. Component definitions and section metadata are read
+ * up front, then every enrolled student's scores are streamed in one forward-only query ordered
+ * by section; each section's gradebook is handed to a fork-join pool as soon as its last row has
+ * been read, so analysis overlaps with the stream. Section results are rolled up per department
+ * (course code prefix), course, instructor and component, and sections whose mean final score is
+ * far from their peers' are flagged as outliers.
+ */
+public class DepartmentAnalyticsEngine {
+    private static final Logger logger = LoggerFactory.getLogger(DepartmentAnalyticsEngine.class);
+    static final String[] LETTERS = {"A", "B", "C", "D", "F"};
+    static final double OUTLIER_Z = 2.0;
+    static final int MIN_PEER_SECTIONS = 5;
+
+    /** Per-section result; {@code zScore} is NaN when the section has no graded students or no usable peers. */
+    public record SectionSummary(int sectionId, String courseCode, String sectionCode, int instructorId,
+                                 String instructorName, int students, int graded, long[] letters,
+                                 GradeStatisticsEngine.SectionStatistics statistics, double zScore) {
+        public String label() {
+            return courseCode + " - " + sectionCode;
+        }
+
+        public double passRate() {
+            return graded == 0 ? Double.NaN : (double) (graded - letters[4]) / graded;
+        }
+
+        public double meanFinalScore() {
+            return statistics.finalScores().getMean();
+        }
+
+        public boolean isOutlier() {
+            return !Double.isNaN(zScore) && Math.abs(zScore) >= OUTLIER_Z;
+        }
+
+        SectionSummary withZScore(double z) {
+            return new SectionSummary(sectionId, courseCode, sectionCode, instructorId, instructorName,
+                students, graded, letters, statistics, z);
+        }
+    }
+
+    /** A roll-up of sections; {@code scores} holds final scores, or raw component scores for component groups. */
+    public record GroupSummary(String key, int sections, int students, int graded, long[] letters,
+                               StreamingStats scores) {
+        /** Share of lettered students above F; NaN for component groups, which carry no letters. */
+        public double passRate() {
+            long lettered = 0;
+            for (long count : letters) lettered += count;
+            return lettered == 0 ? Double.NaN : (double) (lettered - letters[4]) / lettered;
+        }
+    }
+
+    public record SemesterReport(String semester, int year, List<GroupSummary> departments, List<GroupSummary> courses,
+                                 List<GroupSummary> instructors, List<GroupSummary> components,
+                                 List<SectionSummary> sections, long rowsStreamed, long elapsedMs) {
+        public List<SectionSummary> outliers() {
+            return sections.stream().filter(SectionSummary::isOutlier).toList();
+        }
+    }
+
+    private static final class SectionInfo {
+        int sectionId;
+        String courseCode;
+        String sectionCode;
+        int instructorId;
+        String instructorName;
+        final List<GradeComponent> components = new ArrayList<>();
+    }
+
+    private final ForkJoinPool pool;
+
+    public DepartmentAnalyticsEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public DepartmentAnalyticsEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public SemesterReport analyzeSemester(String semester, int year) throws SQLException {
+        long start = System.nanoTime();
+        String sectionSql = "SELECT s.section_id, s.section_code, s.instructor_id, c.code AS course_code " +
+                            "FROM sections s JOIN courses c ON s.course_id = c.course_id " +
+                            "WHERE s.semester = ? AND s.year = ?";
+        String componentSql = "SELECT gc.* FROM grade_components gc " +
+                              "JOIN sections s ON gc.section_id = s.section_id " +
+                              "WHERE s.semester = ? AND s.year = ? ORDER BY gc.section_id, gc.component_id";
+        String scoreSql = "SELECT e.section_id, e.enrollment_id, e.student_id, e.final_grade, g.component_id, g.score " +
+                          "FROM sections s " +
+                          "JOIN enrollments e ON e.section_id = s.section_id AND e.status IN ('registered', 'completed') " +
+                          "LEFT JOIN grades g ON g.enrollment_id = e.enrollment_id " +
+                          "WHERE s.semester = ? AND s.year = ? " +
+                          "ORDER BY e.section_id, e.enrollment_id, g.component_id";
+
+        Map<Integer, SectionInfo> infos = new HashMap<>();
+        List<ForkJoinTask<SectionSummary>> tasks = new ArrayList<>();
+        long rows = 0;
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sectionSql)) {
+                stmt.setString(1, semester);
+                stmt.setInt(2, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        SectionInfo info = new SectionInfo();
+                        info.sectionId = rs.getInt("section_id");
+                        info.sectionCode = rs.getString("section_code");
+                        info.courseCode = rs.getString("course_code");
+                        info.instructorId = rs.getInt("instructor_id");
+                        String name = UserDirectory.getInstance().nameOf(info.instructorId);
+                        info.instructorName = name != null ? name : "Instructor " + info.instructorId;
+                        infos.put(info.sectionId, info);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(componentSql)) {
+                stmt.setString(1, semester);
+                stmt.setInt(2, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        SectionInfo info = infos.get(rs.getInt("section_id"));
+                        if (info == null) continue;
+                        info.components.add(new GradeComponent(rs.getInt("component_id"), info.sectionId,
+                            rs.getString("component_name"), rs.getDouble("weight"), rs.getDouble("max_score")));
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(scoreSql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                stmt.setString(1, semester);
+                stmt.setInt(2, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    SectionInfo current = null;
+                    Gradebook gradebook = null;
+                    int currentEnrollment = -1;
+                    int row = -1;
+                    while (rs.next()) {
+                        rows++;
+                        int sectionId = rs.getInt("section_id");
+                        if (current == null || sectionId != current.sectionId) {
+                            if (current != null) tasks.add(submit(current, gradebook));
+                            current = infos.get(sectionId);
+                            if (current == null) {
+                                throw new SQLException("Section " + sectionId + " disappeared while streaming grades");
+                            }
+                            gradebook = new Gradebook(current.components);
+                            currentEnrollment = -1;
+                        }
+                        int enrollmentId = rs.getInt("enrollment_id");
+                        if (enrollmentId != currentEnrollment) {
+                            row = gradebook.addStudent(rs.getInt("student_id"), enrollmentId, null, null,
+                                rs.getString("final_grade"));
+                            currentEnrollment = enrollmentId;
+                        }
+                        int componentId = rs.getInt("component_id");
+                        if (rs.wasNull()) continue;
+                        int column = gradebook.columnOf(componentId);
+                        if (column >= 0) gradebook.setScore(row, column, rs.getDouble("score"));
+                    }
+                    if (current != null) tasks.add(submit(current, gradebook));
+                }
+            }
+        }
+
+        List<SectionSummary> sections = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<SectionSummary> task : tasks) {
+            sections.add(task.join());
+        }
+        SemesterReport report = buildReport(semester, year, sections, rows, toMs(System.nanoTime() - start));
+        logger.info("Grade analytics for {} {}: {} sections, {} score rows streamed, {} outliers in {} ms",
+            semester, year, sections.size(), rows, report.outliers().size(), report.elapsedMs());
+        return report;
+    }
+
+    private ForkJoinTask<SectionSummary> submit(SectionInfo info, Gradebook gradebook) {
+        return pool.submit(() -> summarize(info.sectionId, info.courseCode, info.sectionCode,
+            info.instructorId, info.instructorName, gradebook));
+    }
+
+    /**
+     * Letter counts use the posted final grade where there is one and otherwise the grade the
+     * posting engine would assign; students with neither a posted grade nor every score are ungraded.
+     */
+    public static SectionSummary summarize(int sectionId, String courseCode, String sectionCode, int instructorId,
+                                           String instructorName, Gradebook gradebook) {
+        GradeStatisticsEngine.SectionStatistics statistics =
+            GradeStatisticsEngine.analyze(courseCode + " - " + sectionCode, gradebook);
+        long[] letters = new long[LETTERS.length];
+        int graded = 0;
+        for (int row = 0; row < gradebook.getStudentCount(); row++) {
+            int letter = postedLetter(gradebook.getFinalGrade(row));
+            if (letter < 0 && gradebook.getComponentCount() > 0) {
+                double finalScore = gradebook.computeFinalScore(row);
+                if (!Double.isNaN(finalScore)) letter = GradePostingEngine.letterIndex(finalScore);
+            }
+            if (letter < 0) continue;
+            letters[letter]++;
+            graded++;
+        }
+        return new SectionSummary(sectionId, courseCode, sectionCode, instructorId, instructorName,
+            gradebook.getStudentCount(), graded, letters, statistics, Double.NaN);
+    }
+
+    /** Scores outliers and builds the roll-ups; pure in-memory work over already summarized sections. */
+    public static SemesterReport buildReport(String semester, int year, List<SectionSummary> sections,
+                                             long rowsStreamed, long elapsedMs) {
+        List<SectionSummary> scored = scoreOutliers(sections);
+        scored.sort(Comparator.comparing(SectionSummary::courseCode).thenComparing(SectionSummary::sectionCode));
+
+        List<GroupSummary> departments = rollUp(scored, s -> department(s.courseCode()));
+        List<GroupSummary> courses = rollUp(scored, SectionSummary::courseCode);
+        List<GroupSummary> instructors = rollUp(scored, SectionSummary::instructorName);
+
+        Map<String, Accumulator> byComponent = new LinkedHashMap<>();
+        for (SectionSummary section : scored) {
+            for (GradeStatisticsEngine.ComponentStatistics component : section.statistics().components()) {
+                String key = section.courseCode() + " / " + component.name();
+                Accumulator acc = byComponent.computeIfAbsent(key, k ->
+                    new Accumulator(new StreamingStats(0, Math.max(component.maxScore(), 1))));
+                acc.sections++;
+                acc.students += section.students();
+                acc.graded += (int) component.scores().getCount();
+                acc.scores.merge(component.scores());
+            }
+        }
+        List<GroupSummary> components = new ArrayList<>(byComponent.size());
+        byComponent.forEach((key, acc) -> components.add(acc.toSummary(key)));
+
+        return new SemesterReport(semester, year, departments, courses, instructors, components,
+            scored, rowsStreamed, elapsedMs);
+    }
+
+    /**
+     * A section's mean final score is compared with the means of the other sections of the same
+     * course; courses with too few sections are compared against every other section in the semester.
+     */
+    static List<SectionSummary> scoreOutliers(List<SectionSummary> sections) {
+        Map<String, List<SectionSummary>> byCourse = new HashMap<>();
+        List<SectionSummary> graded = new ArrayList<>();
+        for (SectionSummary section : sections) {
+            if (section.statistics().finalScores().getCount() == 0) continue;
+            byCourse.computeIfAbsent(section.courseCode(), k -> new ArrayList<>()).add(section);
+            graded.add(section);
+        }
+
+        List<SectionSummary> result = new ArrayList<>(sections.size());
+        for (SectionSummary section : sections) {
+            if (section.statistics().finalScores().getCount() == 0) {
+                result.add(section);
+                continue;
+            }
+            List<SectionSummary> course = byCourse.get(section.courseCode());
+            List<SectionSummary> peers = course.size() > MIN_PEER_SECTIONS ? course : graded;
+            result.add(section.withZScore(zScore(section, peers)));
+        }
+        return result;
+    }
+
+    private static double zScore(SectionSummary section, List<SectionSummary> peers) {
+        StreamingStats means = new StreamingStats(0, 100);
+        for (SectionSummary peer : peers) {
+            if (peer.sectionId() != section.sectionId()) means.add(peer.meanFinalScore());
+        }
+        if (means.getCount() < MIN_PEER_SECTIONS) return Double.NaN;
+        double sd = means.getStdDev();
+        if (sd == 0) return Double.NaN;
+        return (section.meanFinalScore() - means.getMean()) / sd;
+    }
+
+    /** Department code is the alphabetic prefix of the course code ("CSE" for "CSE201"). */
+    static String department(String courseCode) {
+        int end = 0;
+        while (end < courseCode.length() && Character.isLetter(courseCode.charAt(end))) end++;
+        return end == 0 ? courseCode : courseCode.substring(0, end).toUpperCase();
+    }
+
+    public void exportToCsv(SemesterReport report, File file) throws IOException {
+        try (CSVWriter writer = new CSVWriter(new FileWriter(file))) {
+            writer.writeNext(new String[]{"Level", "Name", "Sections", "Students", "Graded",
+                "A", "B", "C", "D", "F", "Pass Rate %", "Mean", "Median", "Std Dev", "Z Score", "Outlier"});
+            writeGroups(writer, "Department", report.departments());
+            writeGroups(writer, "Course", report.courses());
+            writeGroups(writer, "Instructor", report.instructors());
+            writeGroups(writer, "Component", report.components());
+            for (SectionSummary section : report.sections()) {
+                StreamingStats scores = section.statistics().finalScores();
+                writer.writeNext(row("Section", section.label() + " (" + section.instructorName() + ")", 1,
+                    section.students(), section.graded(), section.letters(), section.passRate(), scores,
+                    format(section.zScore()), section.isOutlier() ? "Yes" : "No"));
+            }
+        }
+        logger.info("Exported grade analytics for {} {} to {}", report.semester(), report.year(), file.getAbsolutePath());
+    }
+
+    private static void writeGroups(CSVWriter writer, String level, List<GroupSummary> groups) {
+        for (GroupSummary group : groups) {
+            writer.writeNext(row(level, group.key(), group.sections(), group.students(), group.graded(),
+                group.letters(), group.passRate(), group.scores(), "", ""));
+        }
+    }
+
+    private static String[] row(String level, String name, int sections, int students, int graded, long[] letters,
+                                double passRate, StreamingStats scores, String zScore, String outlier) {
+        return new String[]{level, name, String.valueOf(sections), String.valueOf(students), String.valueOf(graded),
+            String.valueOf(letters[0]), String.valueOf(letters[1]), String.valueOf(letters[2]),
+            String.valueOf(letters[3]), String.valueOf(letters[4]), format(passRate * 100),
+            format(scores.getMean()), format(scores.getMedian()), format(scores.getStdDev()), zScore, outlier};
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format("%.2f", value);
+    }
+
+    private static List<GroupSummary> rollUp(List<SectionSummary> sections, Function<SectionSummary, String> keyOf) {
+        Map<String, Accumulator> groups = new LinkedHashMap<>();
+        for (SectionSummary section : sections) {
+            Accumulator acc = groups.computeIfAbsent(keyOf.apply(section), k -> new Accumulator(new StreamingStats(0, 100)));
+            acc.sections++;
+            acc.students += section.students();
+            acc.graded += section.graded();
+            for (int i = 0; i < LETTERS.length; i++) acc.letters[i] += section.letters()[i];
+            acc.scores.merge(section.statistics().finalScores());
+        }
+        List<GroupSummary> result = new ArrayList<>(groups.size());
+        groups.forEach((key, acc) -> result.add(acc.toSummary(key)));
+        result.sort(Comparator.comparing(GroupSummary::key));
+        return result;
+    }
+
+    private static int postedLetter(String finalGrade) {
+        if (finalGrade == null) return -1;
+        for (int i = 0; i < LETTERS.length; i++) {
+            if (LETTERS[i].equals(finalGrade)) return i;
+        }
+        return -1;
+    }
+
+    private static final class Accumulator {
+        int sections;
+        int students;
+        int graded;
+        final long[] letters = new long[LETTERS.length];
+        final StreamingStats scores;
+
+        Accumulator(StreamingStats scores) {
+            this.scores = scores;
+        }
+
+        GroupSummary toSummary(String key) {
+            return new GroupSummary(key, sections, students, graded, letters, scores);
+        }
+    }
+
+    private static long toMs(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
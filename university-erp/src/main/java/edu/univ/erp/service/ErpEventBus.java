@@ -0,0 +1,167 @@
+package edu.univ.erp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe for changes that panels display. Services publish from any
+ * thread after their write commits; events queue up and are delivered in one coalesced batch
+ * per dispatch on the Swing event thread, so a burst of identical events (a group commit of
+ * registrations, a whole semester of postings) reaches each subscriber once. Subscribers only
+ * receive the event types they asked for.
+ */
+public class ErpEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(ErpEventBus.class);
+    private static final ErpEventBus INSTANCE = new ErpEventBus(SwingUtilities::invokeLater);
+
+    public enum EventType {
+        ENROLLMENT_CHANGED,
+        GRADES_POSTED,
+        MAINTENANCE_TOGGLED,
+        ANNOUNCEMENT_CREATED,
+        NOTIFICATIONS_DELIVERED
+    }
+
+    /** One change; userId, role and sectionId are null when the event is not scoped to them. */
+    public record Event(EventType type, Integer userId, String role, Integer sectionId) {
+        public static Event enrollmentChanged(int studentId, int sectionId) {
+            return new Event(EventType.ENROLLMENT_CHANGED, studentId, null, sectionId);
+        }
+
+        public static Event gradesPosted(int sectionId) {
+            return new Event(EventType.GRADES_POSTED, null, null, sectionId);
+        }
+
+        public static Event maintenanceToggled() {
+            return new Event(EventType.MAINTENANCE_TOGGLED, null, null, null);
+        }
+
+        public static Event announcementCreated(String role) {
+            return new Event(EventType.ANNOUNCEMENT_CREATED, null, role, null);
+        }
+
+        public static Event notificationsDelivered(Integer userId, String role) {
+            return new Event(EventType.NOTIFICATIONS_DELIVERED, userId, role, null);
+        }
+
+        /** True if the event concerns this user: addressed to them, their role, or nobody in particular. */
+        public boolean concerns(int currentUserId, String currentRole) {
+            if (userId != null) return userId == currentUserId;
+            if (role != null) return role.equals(currentRole);
+            return true;
+        }
+    }
+
+    public final class Subscription {
+        private final Set<EventType> types;
+        private final Consumer<List<Event>> listener;
+
+        private Subscription(Set<EventType> types, Consumer<List<Event>> listener) {
+            this.types = types;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+    }
+
+    private final Consumer<Runnable> dispatcher;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dispatches = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong reloadsAvoided = new AtomicLong();
+
+    /** @param dispatcher runs a dispatch pass; the shared bus uses the Swing event thread */
+    public ErpEventBus(Consumer<Runnable> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public static ErpEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    public Subscription subscribe(Set<EventType> types, Consumer<List<Event>> listener) {
+        Subscription subscription = new Subscription(EnumSet.copyOf(types), listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void publish(Event event) {
+        published.incrementAndGet();
+        pending.offer(event);
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.accept(this::dispatch);
+        }
+    }
+
+    /** Panels report whether a visit or event made them query the database. */
+    public void recordReload() {
+        reloads.incrementAndGet();
+    }
+
+    public void recordReloadAvoided() {
+        reloadsAvoided.incrementAndGet();
+    }
+
+    public long getPublishedCount() { return published.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public long getDispatchCount() { return dispatches.get(); }
+    public long getDeliveryCount() { return deliveries.get(); }
+    public long getReloadCount() { return reloads.get(); }
+    public long getReloadsAvoidedCount() { return reloadsAvoided.get(); }
+
+    public void logStats() {
+        logger.info("Event bus: {} events published, {} coalesced, {} dispatches, {} deliveries; panels reloaded {} times, avoided {} reloads",
+            published.get(), coalesced.get(), dispatches.get(), deliveries.get(), reloads.get(), reloadsAvoided.get());
+    }
+
+    private void dispatch() {
+        // Clear the flag before draining so an event published mid-dispatch schedules another pass.
+        dispatchScheduled.set(false);
+        Set<Event> batch = new LinkedHashSet<>();
+        Event event;
+        int drained = 0;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+            drained++;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        coalesced.addAndGet(drained - batch.size());
+        dispatches.incrementAndGet();
+
+        for (Subscription subscription : subscriptions) {
+            List<Event> matching = new ArrayList<>();
+            for (Event e : batch) {
+                if (subscription.types.contains(e.type())) matching.add(e);
+            }
+            if (matching.isEmpty()) continue;
+            deliveries.incrementAndGet();
+            try {
+                subscription.listener.accept(matching);
+            } catch (RuntimeException e) {
+                logger.error("Event subscriber failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.PrerequisiteGraph;
+import edu.univ.erp.util.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes and posts final grades for a section. Scores are loaded into a flat
+ * student x component array and reduced in a primitive loop, final grades go out as one
+ * JDBC batch in a single transaction, and student notifications are written after commit
+ * as multi-row inserts. A whole semester can be posted with sections running in parallel.
+ */
+public class GradePostingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(GradePostingEngine.class);
+    private static final int SEMESTER_PARALLELISM = 4;
+    private static final String[] LETTERS = {"A", "B", "C", "D", "F"};
+
+    private final NotificationService notificationService;
+
+    public record SectionResult(int sectionId, String label, int graded, int incomplete, int newlyGraded,
+                                long loadMs, long computeMs, long writeMs, long notifyMs, String error) {
+        public long totalMs() {
+            return loadMs + computeMs + writeMs + notifyMs;
+        }
+
+        public boolean succeeded() {
+            return error == null;
+        }
+
+        static SectionResult failed(int sectionId, String label, String error) {
+            return new SectionResult(sectionId, label, 0, 0, 0, 0, 0, 0, 0, error);
+        }
+    }
+
+    public record SemesterResult(String semester, int year, List<SectionResult> sections, long elapsedMs) {
+        public int totalGraded() {
+            return sections.stream().mapToInt(SectionResult::graded).sum();
+        }
+
+        public int failedSections() {
+            return (int) sections.stream().filter(s -> !s.succeeded()).count();
+        }
+    }
+
+    /** Scores for one section laid out row-major: scores[student * components + component], NaN when missing. */
+    private static final class SectionScores {
+        String courseCode;
+        String label;
+        double[] weights;
+        double[] maxScores;
+        int students;
+        int[] enrollmentIds = new int[64];
+        int[] studentIds = new int[64];
+        boolean[] previouslyGraded = new boolean[64];
+        double[] scores = new double[0];
+
+        int addStudent(int enrollmentId, int studentId, boolean graded) {
+            if (students == enrollmentIds.length) {
+                int capacity = students * 2;
+                enrollmentIds = Arrays.copyOf(enrollmentIds, capacity);
+                studentIds = Arrays.copyOf(studentIds, capacity);
+                previouslyGraded = Arrays.copyOf(previouslyGraded, capacity);
+            }
+            int components = weights.length;
+            if ((students + 1) * components > scores.length) {
+                int old = scores.length;
+                scores = Arrays.copyOf(scores, Math.max(64, enrollmentIds.length) * components);
+                Arrays.fill(scores, old, scores.length, Double.NaN);
+            }
+            enrollmentIds[students] = enrollmentId;
+            studentIds[students] = studentId;
+            previouslyGraded[students] = graded;
+            return students++;
+        }
+    }
+
+    public GradePostingEngine() {
+        this(new NotificationService());
+    }
+
+    public GradePostingEngine(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    public SectionResult postSection(int sectionId) throws SQLException {
+        long start = System.nanoTime();
+        SectionScores section;
+        int[] letterIndex;
+        int graded = 0;
+        int newlyGraded = 0;
+        long loadNs;
+        long computeNs;
+        long writeNs;
+
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            section = load(conn, sectionId);
+            if (section == null) {
+                return SectionResult.failed(sectionId, "Section " + sectionId, "Section not found.");
+            }
+            String weightError = checkWeights(section.weights);
+            if (weightError != null) {
+                return SectionResult.failed(sectionId, section.label, weightError);
+            }
+            long loaded = System.nanoTime();
+            loadNs = loaded - start;
+
+            letterIndex = letterIndexes(section.weights, section.maxScores, section.scores, section.students);
+            for (int i = 0; i < section.students; i++) {
+                if (letterIndex[i] < 0) continue;
+                graded++;
+                if (!section.previouslyGraded[i]) newlyGraded++;
+            }
+            long computed = System.nanoTime();
+            computeNs = computed - loaded;
+
+            String updateSql = "UPDATE enrollments SET final_grade = ? WHERE enrollment_id = ?";
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                for (int i = 0; i < section.students; i++) {
+                    if (letterIndex[i] < 0) continue;
+                    stmt.setString(1, LETTERS[letterIndex[i]]);
+                    stmt.setInt(2, section.enrollmentIds[i]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            writeNs = System.nanoTime() - computed;
+        }
+
+        DashboardCounters.getInstance().gradesPosted(sectionId, newlyGraded);
+        ErpEventBus.getInstance().publish(ErpEventBus.Event.gradesPosted(sectionId));
+        GradebookCache.getInstance().invalidateSection(sectionId);
+        PrerequisiteGraph.getInstance().invalidateCompletedCourses();
+
+        long notifyStart = System.nanoTime();
+        int[] userIds = new int[graded];
+        String[] messages = new String[graded];
+        for (int i = 0, n = 0; i < section.students; i++) {
+            if (letterIndex[i] < 0) continue;
+            userIds[n] = section.studentIds[i];
+            messages[n++] = "Your final grade for " + section.courseCode + " has been posted: " + LETTERS[letterIndex[i]];
+        }
+        notificationService.createUserNotifications(userIds, messages);
+        notificationService.createBroadcastNotification("admin",
+            "Final grades for section " + section.label + " have been computed and saved.");
+        long notifyNs = System.nanoTime() - notifyStart;
+
+        int incomplete = section.students - graded;
+        if (incomplete > 0) {
+            logger.warn("Skipped final grade for {} students in {} with missing component scores", incomplete, section.label);
+        }
+        SectionResult result = new SectionResult(sectionId, section.label, graded, incomplete, newlyGraded,
+            toMs(loadNs), toMs(computeNs), toMs(writeNs), toMs(notifyNs), null);
+        logger.info("Posted final grades for {}: {} graded, {} incomplete in {} ms (load {}, compute {}, write {}, notify {})",
+            result.label(), graded, incomplete, result.totalMs(), result.loadMs(), result.computeMs(),
+            result.writeMs(), result.notifyMs());
+        return result;
+    }
+
+    public SemesterResult postSemester(String semester, int year) throws SQLException {
+        long start = System.nanoTime();
+        List<Integer> sectionIds = new ArrayList<>();
+        String sql = "SELECT section_id FROM sections WHERE semester = ? AND year = ? ORDER BY section_id";
+        try (Connection conn = DatabaseConfig.getERPConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, semester);
+            stmt.setInt(2, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) sectionIds.add(rs.getInt("section_id"));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(SEMESTER_PARALLELISM, runnable -> {
+            Thread thread = new Thread(runnable, "grade-posting");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<SectionResult> results = new ArrayList<>();
+        try {
+            List<Future<SectionResult>> futures = new ArrayList<>();
+            for (Integer sectionId : sectionIds) {
+                futures.add(pool.submit(() -> postSection(sectionId)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    logger.error("Failed to post final grades for section {}", sectionIds.get(i), e.getCause());
+                    results.add(SectionResult.failed(sectionIds.get(i), "Section " + sectionIds.get(i),
+                        String.valueOf(e.getCause().getMessage())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        SemesterResult result = new SemesterResult(semester, year, results, toMs(System.nanoTime() - start));
+        logger.info("Posted final grades for {} {}: {} sections, {} students graded, {} sections failed in {} ms",
+            semester, year, results.size(), result.totalGraded(), result.failedSections(), result.elapsedMs());
+        return result;
+    }
+
+    /** Null when the component weights add up to 100, otherwise why the section cannot be posted. */
+    public static String checkWeights(double[] weights) {
+        double totalWeight = 0;
+        for (double weight : weights) totalWeight += weight;
+        if (Math.abs(totalWeight - 100.0) > 0.01) {
+            return "Component weights do not add up to 100 (Current: " + totalWeight + ")";
+        }
+        return null;
+    }
+
+    /**
+     * Index into the letter grades for each student of a row-major score array, or -1 for a
+     * student missing any component score (NaN), who is left without a final grade.
+     */
+    public static int[] letterIndexes(double[] weights, double[] maxScores, double[] scores, int students) {
+        int components = weights.length;
+        int[] letterIndex = new int[students];
+        for (int i = 0; i < students; i++) {
+            double finalScore = 0.0;
+            int base = i * components;
+            int j = 0;
+            for (; j < components; j++) {
+                double score = scores[base + j];
+                if (Double.isNaN(score)) break;
+                finalScore += (score / maxScores[j]) * weights[j];
+            }
+            letterIndex[i] = j < components ? -1 : letterIndex(finalScore);
+        }
+        return letterIndex;
+    }
+
+    public static String letter(int index) {
+        return LETTERS[index];
+    }
+
+    public static int letterIndex(double score) {
+        if (score >= 90) return 0;
+        if (score >= 80) return 1;
+        if (score >= 70) return 2;
+        if (score >= 60) return 3;
+        return 4;
+    }
+
+    private SectionScores load(Connection conn, int sectionId) throws SQLException {
+        SectionScores section = new SectionScores();
+        String sectionSql = "SELECT c.code, s.section_code FROM sections s " +
+                            "JOIN courses c ON s.course_id = c.course_id WHERE s.section_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sectionSql)) {
+            stmt.setInt(1, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                section.courseCode = rs.getString("code");
+                section.label = section.courseCode + " - " + rs.getString("section_code");
+            }
+        }
+
+        Map<Integer, Integer> column = new HashMap<>();
+        List<double[]> componentRows = new ArrayList<>();
+        String componentSql = "SELECT component_id, weight, max_score FROM grade_components " +
+                              "WHERE section_id = ? ORDER BY component_id";
+        try (PreparedStatement stmt = conn.prepareStatement(componentSql)) {
+            stmt.setInt(1, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    column.put(rs.getInt("component_id"), componentRows.size());
+                    componentRows.add(new double[]{rs.getDouble("weight"), rs.getDouble("max_score")});
+                }
+            }
+        }
+        section.weights = new double[componentRows.size()];
+        section.maxScores = new double[componentRows.size()];
+        for (int j = 0; j < componentRows.size(); j++) {
+            section.weights[j] = componentRows.get(j)[0];
+            section.maxScores[j] = componentRows.get(j)[1];
+        }
+
+        String scoreSql = "SELECT e.enrollment_id, e.student_id, e.final_grade, g.component_id, g.score " +
+                          "FROM enrollments e LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id " +
+                          "WHERE e.section_id = ? AND e.status = 'registered' ORDER BY e.enrollment_id";
+        try (PreparedStatement stmt = conn.prepareStatement(scoreSql)) {
+            stmt.setInt(1, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int currentEnrollment = -1;
+                int row = -1;
+                while (rs.next()) {
+                    int enrollmentId = rs.getInt("enrollment_id");
+                    if (row < 0 || enrollmentId != currentEnrollment) {
+                        row = section.addStudent(enrollmentId, rs.getInt("student_id"), rs.getString("final_grade") != null);
+                        currentEnrollment = enrollmentId;
+                    }
+                    int componentId = rs.getInt("component_id");
+                    if (rs.wasNull()) continue;
+                    Integer j = column.get(componentId);
+                    if (j != null) {
+                        section.scores[row * section.weights.length + j] = rs.getDouble("score");
+                    }
+                }
+            }
+        }
+        return section;
+    }
+
+    private static long toMs(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,80 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import edu.univ.erp.util.StreamingStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds score distributions for every component and for the weighted final score in one pass
+ * over a gradebook. Section results combine by component name, so the same numbers can be
+ * reported for one section, all of an instructor's sections of a course, or a whole semester.
+ */
+public class GradeStatisticsEngine {
+
+    public record ComponentStatistics(String name, double weight, double maxScore, StreamingStats scores) {
+    }
+
+    public record SectionStatistics(String label, int students, int incomplete,
+                                    List<ComponentStatistics> components, StreamingStats finalScores) {
+        public boolean isEmpty() {
+            return components.stream().allMatch(c -> c.scores().getCount() == 0);
+        }
+    }
+
+    public static SectionStatistics analyze(String label, Gradebook gradebook) {
+        int columns = gradebook.getComponentCount();
+        StreamingStats[] perComponent = new StreamingStats[columns];
+        for (int c = 0; c < columns; c++) {
+            GradeComponent component = gradebook.getComponent(c);
+            perComponent[c] = new StreamingStats(0, Math.max(component.getMaxScore(), 1));
+        }
+        StreamingStats finalScores = new StreamingStats(0, 100);
+
+        int incomplete = 0;
+        for (int row = 0; row < gradebook.getStudentCount(); row++) {
+            for (int c = 0; c < columns; c++) {
+                perComponent[c].add(gradebook.getScore(row, c));
+            }
+            double finalScore = gradebook.computeFinalScore(row);
+            if (Double.isNaN(finalScore) || columns == 0) {
+                incomplete++;
+            } else {
+                finalScores.add(finalScore);
+            }
+        }
+
+        List<ComponentStatistics> components = new ArrayList<>(columns);
+        for (int c = 0; c < columns; c++) {
+            GradeComponent component = gradebook.getComponent(c);
+            components.add(new ComponentStatistics(component.getComponentName(), component.getWeight(),
+                component.getMaxScore(), perComponent[c]));
+        }
+        return new SectionStatistics(label, gradebook.getStudentCount(), incomplete, components, finalScores);
+    }
+
+    /** Merges section results; components with the same name are pooled, in order of first appearance. */
+    public static SectionStatistics combine(String label, Collection<SectionStatistics> sections) {
+        Map<String, ComponentStatistics> byName = new LinkedHashMap<>();
+        StreamingStats finalScores = new StreamingStats(0, 100);
+        int students = 0;
+        int incomplete = 0;
+        for (SectionStatistics section : sections) {
+            students += section.students();
+            incomplete += section.incomplete();
+            finalScores.merge(section.finalScores());
+            for (ComponentStatistics component : section.components()) {
+                ComponentStatistics pooled = byName.computeIfAbsent(component.name(), name ->
+                    new ComponentStatistics(name, component.weight(), component.maxScore(),
+                        new StreamingStats(component.scores().getLower(), component.scores().getUpper())));
+                pooled.scores().merge(component.scores());
+            }
+        }
+        return new SectionStatistics(label, students, incomplete, new ArrayList<>(byName.values()), finalScores);
+    }
+}
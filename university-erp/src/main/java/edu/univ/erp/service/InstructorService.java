@@ -2,23 +2,32 @@ package edu.univ.erp.service;
 
 import edu.univ.erp.access.AccessControlService;
 import edu.univ.erp.auth.SessionManager;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.SectionDAO;
+import edu.univ.erp.domain.GradeCellBuffer;
 import edu.univ.erp.domain.GradeComponent;
 import edu.univ.erp.domain.Section;
-import edu.univ.erp.domain.StudentGradeEntry;
+import edu.univ.erp.domain.Gradebook;
 import edu.univ.erp.util.DatabaseConfig;
+import edu.univ.erp.util.GradeCsvHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Objects;
 
 public class InstructorService {
 
     private static final Logger logger = LoggerFactory.getLogger(InstructorService.class);
     private NotificationService notificationService;
+    private GradePostingEngine gradePostingEngine;
+    private BulkGradeLoader bulkGradeLoader;
+    private GradebookCache gradebookCache;
+    private SectionDAO sectionDAO;
 
     public static class InstructorServiceException extends Exception {
         public InstructorServiceException(String message) {
@@ -27,7 +36,15 @@ public class InstructorService {
     }
 
     public InstructorService() {
+        this(new BulkGradeLoader(), GradebookCache.getInstance(), new SectionDAO());
+    }
+
+    public InstructorService(BulkGradeLoader bulkGradeLoader, GradebookCache gradebookCache, SectionDAO sectionDAO) {
         this.notificationService = new NotificationService();
+        this.gradePostingEngine = new GradePostingEngine(notificationService);
+        this.bulkGradeLoader = bulkGradeLoader;
+        this.gradebookCache = gradebookCache;
+        this.sectionDAO = sectionDAO;
     }
 
     
@@ -55,6 +72,29 @@ public class InstructorService {
         }
     }
 
+    private void verifySectionOwnership(int[] sectionIds) throws InstructorServiceException {
+        if (sectionIds.length == 0) return;
+        int currentUserId = SessionManager.getCurrentUserId();
+        Map<Integer, Integer> owners;
+        try {
+            owners = sectionDAO.findInstructorIds(sectionIds);
+        } catch (SQLException e) {
+            logger.error("Error verifying ownership of {} sections", sectionIds.length, e);
+            throw new InstructorServiceException("Database error verifying section ownership.");
+        }
+        for (int sectionId : sectionIds) {
+            Integer sectionInstructorId = owners.get(sectionId);
+            if (sectionInstructorId == null) {
+                throw new InstructorServiceException("Section not found.");
+            }
+            if (!SessionManager.isAdmin() && sectionInstructorId != currentUserId) {
+                logger.warn("Instructor {} attempted to load grades for section {} owned by instructor {}",
+                    currentUserId, sectionId, sectionInstructorId);
+                throw new InstructorServiceException("Access Denied: Section " + sectionId + " is not your section.");
+            }
+        }
+    }
+
     public List<Section> getMySections(int instructorId) {
         List<Section> sections = new ArrayList<>();
         String sql = "SELECT s.*, c.code as course_code, c.title as course_title " +
@@ -87,72 +127,21 @@ public class InstructorService {
     }
 
     public List<GradeComponent> getGradeComponents(int sectionId) {
-        List<GradeComponent> components = new ArrayList<>();
-        String sql = "SELECT * FROM grade_components WHERE section_id = ? ORDER BY component_id";
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    components.add(new GradeComponent(
-                        rs.getInt("component_id"), rs.getInt("section_id"),
-                        rs.getString("component_name"), rs.getDouble("weight"),
-                        rs.getDouble("max_score")
-                    ));
-                }
-            }
+        try {
+            return gradebookCache.getComponents(sectionId);
         } catch (SQLException e) {
             logger.error("Error fetching grade components for section {}", sectionId, e);
+            return new ArrayList<>();
         }
-        return components;
     }
 
-    public List<StudentGradeEntry> getGradesForSection(int sectionId) {
-        List<StudentGradeEntry> studentGrades = new ArrayList<>();
-        Map<Integer, StudentGradeEntry> studentMap = new HashMap<>();
-
-        String sql = "SELECT s.user_id as student_id, e.enrollment_id, u.full_name as student_name, s.roll_no, e.final_grade, " +
-                     "g.component_id, g.score " +
-                     "FROM enrollments e " +
-                     "JOIN students s ON e.student_id = s.user_id " +
-                     "JOIN university_auth.users_auth u ON s.user_id = u.user_id " +
-                     "LEFT JOIN grades g ON e.enrollment_id = g.enrollment_id " +
-                     "WHERE e.section_id = ? AND e.status = 'registered' " +
-                     "ORDER BY u.full_name, g.component_id";
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    int studentId = rs.getInt("student_id");
-                    StudentGradeEntry entry = studentMap.get(studentId);
-
-                    if (entry == null) {
-                        entry = new StudentGradeEntry(
-                            studentId,
-                            rs.getInt("enrollment_id"),
-                            rs.getString("student_name"),
-                            rs.getString("roll_no"),
-                            rs.getString("final_grade")
-                        );
-                        studentMap.put(studentId, entry);
-                        studentGrades.add(entry);
-                    }
-
-                    int componentId = rs.getInt("component_id");
-                    if (!rs.wasNull()) {
-                        entry.addScore(componentId, rs.getDouble("score"));
-                    }
-                }
-            }
+    public Gradebook getGradebook(int sectionId) {
+        try {
+            return gradebookCache.getGradebook(sectionId);
         } catch (SQLException e) {
             logger.error("Error fetching student grades for section {}", sectionId, e);
+            return new Gradebook(List.of());
         }
-        return studentGrades;
     }
 
     public boolean defineGradeComponent(int sectionId, String name, double weight, double maxScore) throws InstructorServiceException, SQLException {
@@ -172,7 +161,9 @@ public class InstructorService {
             stmt.setDouble(3, weight);
             stmt.setDouble(4, maxScore);
 
-            return stmt.executeUpdate() > 0;
+            boolean created = stmt.executeUpdate() > 0;
+            gradebookCache.invalidateSection(sectionId);
+            return created;
         }
     }
 
@@ -191,7 +182,9 @@ public class InstructorService {
             stmt.setDouble(3, maxScore);
             stmt.setInt(4, componentId);
 
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            gradebookCache.invalidateComponent(componentId);
+            return updated;
         }
     }
 
@@ -207,7 +200,9 @@ public class InstructorService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, componentId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            gradebookCache.invalidateComponent(componentId);
+            return deleted;
         }
     }
 
@@ -226,7 +221,9 @@ public class InstructorService {
              stmt.setInt(2, componentId);
              stmt.setDouble(3, score);
 
-             return stmt.executeUpdate() > 0;
+             boolean saved = stmt.executeUpdate() > 0;
+             gradebookCache.invalidateEnrollments(enrollmentId);
+             return saved;
          }
     }
 
@@ -264,6 +261,7 @@ public class InstructorService {
                 stmt.executeBatch();
             }
             conn.commit();
+            gradebookCache.invalidateEnrollments(scoresToUpdate.keySet().stream().mapToInt(Integer::intValue).toArray());
             return true;
         } catch (SQLException e) {
             logger.error("Error saving grades batch", e);
@@ -287,149 +285,93 @@ public class InstructorService {
         }
     }
 
-    public boolean computeFinalGrades(int sectionId) throws InstructorServiceException, SQLException {
+    public GradeCsvHandler.CsvImportResult importScoresFromCsv(int sectionId, File csvFile,
+                                                              List<GradeComponent> components,
+                                                              Map<String, Integer> rollToEnrollmentMap) throws InstructorServiceException {
         if (!AccessControlService.isActionAllowed(AccessControlService.MANAGE_GRADES)) {
             throw new InstructorServiceException("Access Denied or Maintenance Mode is ON.");
         }
-
-        
         verifySectionOwnership(sectionId);
-
-        List<GradeComponent> components = getGradeComponents(sectionId);
-        double totalWeight = components.stream().mapToDouble(GradeComponent::getWeight).sum();
-        if (Math.abs(totalWeight - 100.0) > 0.01) {
-            throw new InstructorServiceException("Cannot compute: Component weights do not add up to 100 (Current: " + totalWeight + ")");
+        try {
+            return GradeCsvHandler.importGradesStreaming(csvFile, components, rollToEnrollmentMap, this::upsertScoreChunk, false);
+        } finally {
+            gradebookCache.invalidateSection(sectionId);
         }
+    }
 
-        List<StudentGradeEntry> students = getGradesForSection(sectionId);
-
-        Connection conn = null;
-        String updateSql = "UPDATE enrollments SET final_grade = ? WHERE enrollment_id = ?";
-        Section sectionDetails = null;
-
+    public BulkGradeLoader.LoadResult bulkLoadScores(GradeCellBuffer cells) throws InstructorServiceException, SQLException {
+        if (!AccessControlService.isActionAllowed(AccessControlService.MANAGE_GRADES)) {
+            throw new InstructorServiceException("Access Denied or Maintenance Mode is ON.");
+        }
+        int[] sectionIds = cells.distinctSectionIds();
+        verifySectionOwnership(sectionIds);
         try {
-            conn = DatabaseConfig.getERPConnection();
-            conn.setAutoCommit(false);
-
-            sectionDetails = getSectionDetails(conn, sectionId);
-            String courseCode = (sectionDetails != null) ? sectionDetails.getCourseCode() : "Unknown Course";
-
-            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-                for (StudentGradeEntry student : students) {
-                    double finalScore = 0.0;
-                    boolean allGradesIn = true;
-
-                    for (GradeComponent comp : components) {
-                        Double score = student.getScores().get(comp.getComponentId());
-                        if (score == null) {
-                            allGradesIn = false;
-                            break;
-                        }
-                        finalScore += (score / comp.getMaxScore()) * comp.getWeight();
-                    }
-
-                    if (allGradesIn) {
-                        String letterGrade = scoreToLetterGrade(finalScore);
-                        stmt.setString(1, letterGrade);
-                        stmt.setInt(2, student.getEnrollmentId());
-                        stmt.addBatch();
-                        logger.info("Student {} ({}) final score: {} -> {}",
-                            student.getStudentName(), student.getEnrollmentId(), finalScore, letterGrade);
-                        
-                        notificationService.createUserNotification(student.getStudentId(), 
-                            "Your final grade for " + courseCode + " has been posted: " + letterGrade);
-
-                    } else {
-                        logger.warn("Skipping final grade for {} ({}), missing component scores.",
-                            student.getStudentName(), student.getEnrollmentId());
-                    }
-                }
-                stmt.executeBatch();
-            }
-
-            conn.commit();
-            
-            notificationService.createBroadcastNotification("admin", 
-                "Final grades for section " + courseCode + " - " + sectionDetails.getSectionCode() + " have been computed and saved.");
-
-            return true;
-
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw e;
+            return bulkGradeLoader.load(cells);
         } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                conn.close();
+            for (int sectionId : sectionIds) {
+                gradebookCache.invalidateSection(sectionId);
             }
         }
     }
-    
-    private Section getSectionDetails(Connection conn, int sectionId) {
-        String sql = "SELECT s.instructor_id, c.code as course_code, s.section_code " +
-                     "FROM sections s JOIN courses c ON s.course_id = c.course_id " +
-                     "WHERE s.section_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Section section = new Section(sectionId, 0, rs.getInt("instructor_id"), rs.getString("section_code"), null, null, 0, null, 0, 0);
-                    section.setCourseCode(rs.getString("course_code"));
-                    return section;
+
+    private int upsertScoreChunk(GradeCsvHandler.ScoreChunk chunk) throws SQLException {
+        String sql = "INSERT INTO grades (enrollment_id, component_id, score) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE score = VALUES(score)";
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(1, chunk.getEnrollmentId(i));
+                    stmt.setInt(2, chunk.getComponentId(i));
+                    stmt.setDouble(3, chunk.getScore(i));
+                    stmt.addBatch();
                 }
+                stmt.executeBatch();
+                conn.commit();
+                return chunk.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-        } catch (SQLException e) {
-            logger.error("Error fetching section details for {}: {}", sectionId, e.getMessage());
         }
-        return null;
     }
 
-    private String scoreToLetterGrade(double score) {
-        if (score >= 90) return "A";
-        if (score >= 80) return "B";
-        if (score >= 70) return "C";
-        if (score >= 60) return "D";
-        return "F";
-    }
-
-    public Map<String, Map<String, Double>> getSectionStatistics(int sectionId) {
-        Map<String, Map<String, Double>> componentStats = new HashMap<>();
-        List<GradeComponent> components = getGradeComponents(sectionId);
-        List<StudentGradeEntry> students = getGradesForSection(sectionId);
-
-        if (components.isEmpty() || students.isEmpty()) {
-            return componentStats;
+    public boolean computeFinalGrades(int sectionId) throws InstructorServiceException, SQLException {
+        if (!AccessControlService.isActionAllowed(AccessControlService.MANAGE_GRADES)) {
+            throw new InstructorServiceException("Access Denied or Maintenance Mode is ON.");
         }
 
-        for (GradeComponent comp : components) {
-            List<Double> scores = new ArrayList<>();
-            for (StudentGradeEntry student : students) {
-                Double score = student.getScores().get(comp.getComponentId());
-                if (score != null) {
-                    scores.add(score);
-                }
-            }
+        
+        verifySectionOwnership(sectionId);
 
-            if (!scores.isEmpty()) {
-                double sum = scores.stream().mapToDouble(Double::doubleValue).sum();
-                double average = sum / scores.size();
-                double highest = scores.stream().mapToDouble(Double::doubleValue).max().getAsDouble();
-                double lowest = scores.stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+        GradePostingEngine.SectionResult result = gradePostingEngine.postSection(sectionId);
+        if (!result.succeeded()) {
+            throw new InstructorServiceException("Cannot compute: " + result.error());
+        }
+        return true;
+    }
+    
 
-                Map<String, Double> stats = new HashMap<>();
-                stats.put("Average", average);
-                stats.put("Highest", highest);
-                stats.put("Lowest", lowest);
-                stats.put("MaxPossible", comp.getMaxScore());
-                stats.put("Count", (double) scores.size());
+    public GradeStatisticsEngine.SectionStatistics getSectionStatistics(Section section) {
+        return GradeStatisticsEngine.analyze(section.getCourseCode() + " - " + section.getSectionCode(),
+            getGradebook(section.getSectionId()));
+    }
 
-                componentStats.put(comp.getComponentName(), stats);
+    /** Pools every section of the same course the section's instructor teaches in the same term. */
+    public GradeStatisticsEngine.SectionStatistics getCourseStatistics(Section section) {
+        List<GradeStatisticsEngine.SectionStatistics> sections = new ArrayList<>();
+        for (Section other : getMySections(section.getInstructorId())) {
+            if (other.getCourseId() == section.getCourseId() && other.getYear() == section.getYear()
+                    && Objects.equals(other.getSemester(), section.getSemester())) {
+                sections.add(getSectionStatistics(other));
             }
         }
-        return componentStats;
+        return GradeStatisticsEngine.combine(section.getCourseCode() + " - " + sections.size() + " sections", sections);
     }
 
-    public List<StudentGradeEntry> generateClassReportData(int sectionId) {
-        return getGradesForSection(sectionId);
+    public Gradebook generateClassReportData(int sectionId) {
+        return getGradebook(sectionId);
     }
 }
\ No newline at end of file
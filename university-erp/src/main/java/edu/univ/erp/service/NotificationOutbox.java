@@ -0,0 +1,327 @@
+package edu.univ.erp.service;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import edu.univ.erp.data.NotificationDAO;
+import edu.univ.erp.domain.Notification;
+import edu.univ.erp.util.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process outbox for notifications. Producers append to a bounded lock-free queue and return
+ * immediately; one flusher thread wakes every few milliseconds, or as soon as a full batch is
+ * waiting, and writes what has queued up as multi-row INSERTs. When the queue is full the
+ * producer writes its own notification, so nothing is dropped under load. Batches that cannot
+ * be written, and anything still queued at shutdown that cannot be written, are appended to a
+ * spool file that is replayed the next time the outbox starts. Producers check the running flag
+ * and offer under a shared lock that shutdown takes exclusively, so nothing can be queued after
+ * the final drain.
+ */
+public class NotificationOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 5;
+    private static final long SHUTDOWN_WAIT_MS = 5_000;
+    private static final File DEFAULT_SPOOL_FILE = new File("spool", "notification-outbox.csv");
+
+    private static NotificationOutbox instance;
+
+    /** Destination for flushed batches; returns the number of rows written. */
+    public interface Sink {
+        int write(List<Notification> batch) throws SQLException;
+    }
+
+    private final Sink sink;
+    private final File spoolFile;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final ConcurrentLinkedQueue<Notification> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    /** Not the outbox monitor: shutdown holds that while it joins a flusher that may be spooling. */
+    private final Object spoolLock = new Object();
+    private volatile boolean running;
+    private Thread flusher;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong directWrites = new AtomicLong();
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public NotificationOutbox(Sink sink, File spoolFile, int capacity, int batchSize, long flushIntervalMs) {
+        this.sink = sink;
+        this.spoolFile = spoolFile;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    }
+
+    public static synchronized NotificationOutbox getInstance() {
+        if (instance == null) {
+            NotificationDAO notificationDAO = new NotificationDAO();
+            Sink sink = batch -> {
+                int written = notificationDAO.createBatch(batch);
+                publishDelivered(batch);
+                return written;
+            };
+            instance = new NotificationOutbox(sink, DEFAULT_SPOOL_FILE,
+                DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MS);
+            instance.start();
+            DatabaseConfig.addCloseHook(NotificationOutbox::shutdownIfStarted);
+        }
+        return instance;
+    }
+
+    /** Tells open panels which recipients have new rows; duplicates coalesce on the event bus. */
+    private static void publishDelivered(List<Notification> batch) {
+        ErpEventBus bus = ErpEventBus.getInstance();
+        for (Notification notification : batch) {
+            bus.publish(ErpEventBus.Event.notificationsDelivered(notification.getUserId(),
+                notification.getUserId() == null ? notification.getTargetRole() : null));
+        }
+    }
+
+    /** Drains the outbox before the connection pools close; a no-op if nothing was ever sent. */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        synchronized (spoolLock) {
+            replaySpool();
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "notification-outbox");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Stops the flusher and writes everything still queued, spooling whatever cannot be written. */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        gate.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(SHUTDOWN_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (!queue.isEmpty()) {
+            if (!flushBatch()) break;
+        }
+        if (!queue.isEmpty()) {
+            List<Notification> remaining = new ArrayList<>();
+            drainTo(remaining, Integer.MAX_VALUE);
+            spool(remaining);
+        }
+        logStats();
+    }
+
+    /** Queues one notification; returns false only if it could neither be queued nor written. */
+    public boolean enqueue(Notification notification) {
+        boolean queued = false;
+        gate.readLock().lock();
+        try {
+            if (running) {
+                if (depth.incrementAndGet() <= capacity) {
+                    queue.offer(notification);
+                    queued = true;
+                } else {
+                    depth.decrementAndGet();
+                }
+            }
+        } finally {
+            gate.readLock().unlock();
+        }
+        if (!queued) {
+            return writeDirect(notification);
+        }
+        enqueued.incrementAndGet();
+        maxDepth.accumulateAndGet(depth.get(), Math::max);
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    public boolean enqueue(Integer userId, String targetRole, String message) {
+        return enqueue(new Notification(0, userId, targetRole, message, false, LocalDateTime.now()));
+    }
+
+    public int getQueueDepth() { return depth.get(); }
+    public int getMaxQueueDepth() { return maxDepth.get(); }
+    public long getEnqueuedCount() { return enqueued.get(); }
+    public long getWrittenCount() { return written.get(); }
+    public long getBatchCount() { return batches.get(); }
+    public long getDirectWriteCount() { return directWrites.get(); }
+    public long getSpooledCount() { return spooled.get(); }
+    public long getFailedBatchCount() { return failedBatches.get(); }
+
+    public double getAverageFlushMs() {
+        long count = batches.get() + failedBatches.get();
+        return count == 0 ? 0.0 : flushNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxFlushMs() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    public void logStats() {
+        logger.info("Notification outbox: {} queued, {} written in {} batches (avg {} ms, max {} ms), " +
+                "{} written directly, {} failed batches, {} spooled, max depth {}, depth now {}",
+            enqueued.get(), written.get(), batches.get(), String.format("%.2f", getAverageFlushMs()),
+            String.format("%.2f", getMaxFlushMs()), directWrites.get(), failedBatches.get(), spooled.get(),
+            maxDepth.get(), depth.get());
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            while (depth.get() > 0 && running) {
+                flushBatch();
+                if (depth.get() < batchSize) break;
+            }
+        }
+    }
+
+    /** Writes one batch; a batch that fails is spooled. Returns false if the write failed. */
+    private boolean flushBatch() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            written.addAndGet(sink.write(batch));
+            batches.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            logger.error("Failed to write {} notifications; spooling them: {}", batch.size(), e.getMessage());
+            spool(batch);
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private void drainTo(List<Notification> batch, int max) {
+        Notification next;
+        while (batch.size() < max && (next = queue.poll()) != null) {
+            batch.add(next);
+            depth.decrementAndGet();
+        }
+    }
+
+    private boolean writeDirect(Notification notification) {
+        directWrites.incrementAndGet();
+        try {
+            written.addAndGet(sink.write(List.of(notification)));
+            return true;
+        } catch (Exception e) {
+            logger.error("Error creating notification: {}", e.getMessage());
+            spool(List.of(notification));
+            return false;
+        }
+    }
+
+    private void spool(List<Notification> notifications) {
+        synchronized (spoolLock) {
+            if (notifications.isEmpty()) {
+                return;
+            }
+            File dir = spoolFile.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                logger.error("Cannot create spool directory {}; {} notifications lost", dir, notifications.size());
+                return;
+            }
+            try (CSVWriter writer = new CSVWriter(new FileWriter(spoolFile, true))) {
+                for (Notification n : notifications) {
+                    writer.writeNext(new String[]{
+                        n.getUserId() == null ? "" : String.valueOf(n.getUserId()),
+                        n.getTargetRole() == null ? "" : n.getTargetRole(),
+                        n.getMessage(),
+                        n.getCreatedAt().toString()});
+                }
+                spooled.addAndGet(notifications.size());
+            } catch (IOException e) {
+                logger.error("Failed to spool {} notifications to {}", notifications.size(), spoolFile, e);
+            }
+        }
+    }
+
+    /**
+     * Queues anything spooled by an earlier run. The whole file is parsed first; if any row is
+     * malformed nothing is queued and the file is kept, so no row is written twice.
+     */
+    private void replaySpool() {
+        if (!spoolFile.exists()) {
+            return;
+        }
+        List<Notification> replayed = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new FileReader(spoolFile))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                if (row.length == 1 && row[0].isEmpty()) continue;
+                if (row.length < 4) {
+                    throw new IllegalArgumentException("Expected 4 fields, found " + row.length
+                        + " on line " + reader.getLinesRead());
+                }
+                replayed.add(new Notification(0, row[0].isEmpty() ? null : Integer.valueOf(row[0]),
+                    row[1].isEmpty() ? null : row[1], row[2], false, LocalDateTime.parse(row[3])));
+            }
+        } catch (IOException | CsvValidationException | RuntimeException e) {
+            logger.error("Failed to replay notification spool {}; nothing queued, file kept", spoolFile, e);
+            return;
+        }
+        if (!spoolFile.delete()) {
+            logger.error("Could not delete notification spool {}; not replaying it", spoolFile);
+            return;
+        }
+        queue.addAll(replayed);
+        depth.addAndGet(replayed.size());
+        logger.info("Replayed {} spooled notifications from {}", replayed.size(), spoolFile);
+    }
+}
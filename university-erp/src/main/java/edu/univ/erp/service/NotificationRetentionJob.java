@@ -0,0 +1,231 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.NotificationDAO;
+import edu.univ.erp.util.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves personal notifications past retention into notifications_archive. Rows are moved in
+ * small notification_id ranges, each in its own short transaction, with a pause after every
+ * chunk at least as long as the chunk took, so the job never holds row locks for long and
+ * leaves the table to interactive traffic at least half the time. The archive is partitioned
+ * by month: the job adds partitions ahead of the data and drops whole months once they pass
+ * archive retention. Role broadcasts are left alone because unread counts are computed from
+ * their sequence numbers.
+ */
+public class NotificationRetentionJob {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionJob.class);
+    private static final int RETENTION_DAYS = 180;
+    private static final int ARCHIVE_RETENTION_MONTHS = 24;
+    private static final int CHUNK_SIZE = 1_000;
+    private static final long MIN_PAUSE_MS = 50;
+    private static final long INITIAL_DELAY_MINUTES = 10;
+    private static final long RUN_INTERVAL_HOURS = 24;
+    /** MySQL named lock so only one client runs the job when several admins are logged in. */
+    private static final String RUN_LOCK = "erp.notification_retention";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p(\\d{4})(\\d{2})");
+
+    private static NotificationRetentionJob instance;
+
+    private final NotificationDAO notificationDAO = new NotificationDAO();
+    private ScheduledExecutorService scheduler;
+    private volatile RunResult lastResult;
+
+    /** Outcome of one run; maxLockMs is the longest single chunk transaction. */
+    public record RunResult(long rowsArchived, int chunks, long elapsedMs, long maxLockMs,
+                            int partitionsAdded, int partitionsDropped, boolean skipped) {
+        public double rowsPerSecond() {
+            return elapsedMs == 0 ? 0.0 : rowsArchived * 1000.0 / elapsedMs;
+        }
+
+        static RunResult skippedRun() {
+            return new RunResult(0, 0, 0, 0, 0, 0, true);
+        }
+    }
+
+    private NotificationRetentionJob() {
+    }
+
+    public static synchronized NotificationRetentionJob getInstance() {
+        if (instance == null) {
+            instance = new NotificationRetentionJob();
+        }
+        return instance;
+    }
+
+    public synchronized void startSchedule() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (Exception e) {
+                logger.error("Notification retention run failed", e);
+            }
+        }, INITIAL_DELAY_MINUTES, TimeUnit.HOURS.toMinutes(RUN_INTERVAL_HOURS), TimeUnit.MINUTES);
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null && instance.scheduler != null) {
+            instance.scheduler.shutdownNow();
+            instance.scheduler = null;
+        }
+    }
+
+    public RunResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Archives everything older than the retention window and maintains archive partitions.
+     * Returns a skipped result if another client is already running the job. Interrupting the
+     * calling thread stops the run after the current chunk.
+     */
+    public synchronized RunResult runOnce() throws SQLException {
+        try (Connection lockConn = DatabaseConfig.getERPConnection()) {
+            if (!acquireRunLock(lockConn)) {
+                logger.info("Notification retention already running on another client; skipping");
+                return RunResult.skippedRun();
+            }
+            try {
+                RunResult result = archiveAndPrune(LocalDateTime.now().minusDays(RETENTION_DAYS));
+                lastResult = result;
+                logger.info("Notification retention: archived {} rows in {} chunks in {} ms ({} rows/s), " +
+                        "longest lock {} ms; {} archive partitions added, {} dropped",
+                    result.rowsArchived(), result.chunks(), result.elapsedMs(),
+                    String.format("%.1f", result.rowsPerSecond()), result.maxLockMs(),
+                    result.partitionsAdded(), result.partitionsDropped());
+                return result;
+            } finally {
+                releaseRunLock(lockConn);
+            }
+        }
+    }
+
+    private RunResult archiveAndPrune(LocalDateTime cutoff) throws SQLException {
+        long start = System.nanoTime();
+        YearMonth cutoffMonth = YearMonth.from(cutoff);
+
+        // Partitions first, so archived rows never land in pmax and the split stays cheap.
+        List<String> partitions = notificationDAO.findArchivePartitions();
+        List<YearMonth> toAdd = planPartitionsToAdd(partitions, cutoffMonth, cutoffMonth.plusMonths(1));
+        notificationDAO.addArchivePartitions(toAdd);
+
+        long rowsArchived = 0;
+        int chunks = 0;
+        long maxLockNanos = 0;
+        long[] range = notificationDAO.findIdRangeCreatedBefore(cutoff);
+        if (range != null) {
+            for (long fromId = range[0]; fromId <= range[1]; fromId += CHUNK_SIZE) {
+                long chunkStart = System.nanoTime();
+                rowsArchived += notificationDAO.archiveChunk(fromId, fromId + CHUNK_SIZE, cutoff);
+                long lockNanos = System.nanoTime() - chunkStart;
+                maxLockNanos = Math.max(maxLockNanos, lockNanos);
+                chunks++;
+                if (fromId + CHUNK_SIZE <= range[1]) {
+                    try {
+                        Thread.sleep(pauseAfterChunk(TimeUnit.NANOSECONDS.toMillis(lockNanos)));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        logger.info("Notification retention interrupted after {} rows", rowsArchived);
+                        break;
+                    }
+                }
+            }
+        }
+
+        YearMonth oldestKept = YearMonth.from(LocalDate.now()).minusMonths(ARCHIVE_RETENTION_MONTHS);
+        List<String> toDrop = planPartitionsToDrop(notificationDAO.findArchivePartitions(), oldestKept);
+        notificationDAO.dropArchivePartitions(toDrop);
+
+        return new RunResult(rowsArchived, chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            TimeUnit.NANOSECONDS.toMillis(maxLockNanos), toAdd.size(), toDrop.size(), false);
+    }
+
+    /** Pause after a chunk: at least as long as the chunk held its locks, and never less than the minimum. */
+    public static long pauseAfterChunk(long chunkMs) {
+        return Math.max(MIN_PAUSE_MS, chunkMs);
+    }
+
+    /**
+     * Months to split out of pmax so that every month up to {@code through} has its own
+     * partition. Partitions can only be added after the last existing month; when there are
+     * none yet the first one starts at {@code firstMonth} and also holds anything older.
+     */
+    public static List<YearMonth> planPartitionsToAdd(List<String> existing, YearMonth firstMonth, YearMonth through) {
+        YearMonth last = null;
+        for (String name : existing) {
+            YearMonth month = partitionMonth(name);
+            if (month != null && (last == null || month.isAfter(last))) {
+                last = month;
+            }
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = last == null ? firstMonth : last.plusMonths(1); !month.isAfter(through); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /** Monthly partitions that hold only rows created before {@code oldestKept}. */
+    public static List<String> planPartitionsToDrop(List<String> existing, YearMonth oldestKept) {
+        List<String> drop = new ArrayList<>();
+        for (String name : existing) {
+            YearMonth month = partitionMonth(name);
+            if (month != null && month.isBefore(oldestKept)) {
+                drop.add(name);
+            }
+        }
+        return drop;
+    }
+
+    /** The month of a pYYYYMM partition, or null for pmax and anything not made by this job. */
+    static YearMonth partitionMonth(String partitionName) {
+        Matcher matcher = MONTH_PARTITION.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(matcher.group(1)), month) : null;
+    }
+
+    private static boolean acquireRunLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, RUN_LOCK);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseRunLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, RUN_LOCK);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            logger.warn("Failed to release notification retention lock: {}", e.getMessage());
+        }
+    }
+}
@@ -13,18 +13,29 @@ public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+    /**
+     * Unread notifications for a user, newest first: their own unread rows plus every broadcast
+     * to their role past their read cursor. Each half of the UNION is a range scan on its own
+     * index (idx_user_read, uk_role_seq) instead of an OR across both.
+     */
     public List<Notification> getNotificationsForUser(int userId, String userRole) {
         List<Notification> notifications = new ArrayList<>();
-        String sql = "SELECT * FROM notifications " +
-                     "WHERE (user_id = ? OR target_role = ?) AND is_read = false " +
-                     "ORDER BY created_at DESC " +
-                     "LIMIT 50";
+        String sql = "(SELECT n.notification_id, n.user_id, NULL AS target_role, n.message, n.created_at " +
+                     " FROM notifications n WHERE n.user_id = ? AND n.is_read = false " +
+                     " ORDER BY n.notification_id DESC LIMIT 50) " +
+                     "UNION ALL " +
+                     "(SELECT b.broadcast_id, NULL, b.target_role, b.message, b.created_at " +
+                     " FROM broadcast_notifications b WHERE b.target_role = ? AND b.role_seq > " +
+                     "   (SELECT COALESCE(MAX(c.last_seen_seq), 0) FROM notification_cursors c WHERE c.user_id = ?) " +
+                     " ORDER BY b.role_seq DESC LIMIT 50) " +
+                     "ORDER BY created_at DESC LIMIT 50";
 
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             stmt.setString(2, userRole);
+            stmt.setInt(3, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -33,7 +44,7 @@ public class NotificationService {
                             (Integer) rs.getObject("user_id"),
                             rs.getString("target_role"),
                             rs.getString("message"),
-                            rs.getBoolean("is_read"),
+                            false,
                             rs.getTimestamp("created_at").toLocalDateTime()
                     ));
                 }
@@ -44,42 +55,51 @@ public class NotificationService {
         return notifications;
     }
 
-    public boolean createNotification(Integer userId, String targetRole, String message) {
-        String sql = "INSERT INTO notifications (user_id, target_role, message) VALUES (?, ?, ?)";
+    /**
+     * Unread count without scanning broadcasts: the role's last broadcast sequence minus the
+     * user's cursor is two primary-key lookups; only the user's own unread rows are counted.
+     */
+    public int countUnread(int userId, String userRole) {
+        String sql = "SELECT (SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = false) + " +
+                     "GREATEST(0, COALESCE((SELECT last_seq FROM broadcast_sequences WHERE target_role = ?), 0) - " +
+                     "COALESCE((SELECT last_seen_seq FROM notification_cursors WHERE user_id = ?), 0)) AS unread";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            if (userId != null) {
-                stmt.setInt(1, userId);
-            } else {
-                stmt.setNull(1, java.sql.Types.INTEGER);
-            }
-
-            if (targetRole != null) {
-                stmt.setString(2, targetRole);
-            } else {
-                stmt.setNull(2, java.sql.Types.VARCHAR);
+            stmt.setInt(1, userId);
+            stmt.setString(2, userRole);
+            stmt.setInt(3, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("unread") : 0;
             }
-
-            stmt.setString(3, message);
-            
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
-
         } catch (SQLException e) {
-            logger.error("Error creating notification: {}", e.getMessage());
-            return false;
+            logger.error("Error counting unread notifications for user {}: {}", userId, e.getMessage());
+            return 0;
         }
     }
+
+    /** Queues the notification on the outbox; it is written within a few milliseconds. */
+    public boolean createNotification(Integer userId, String targetRole, String message) {
+        return NotificationOutbox.getInstance().enqueue(userId, targetRole, message);
+    }
     
-    public void markAsRead(int notificationId) {
-        String sql = "UPDATE notifications SET is_read = true WHERE notification_id = ?";
+    /**
+     * Marks a notification read for this user. A broadcast moves the user's cursor up to it, so
+     * older broadcasts to the role are read as well.
+     */
+    public void markAsRead(int userId, Notification notification) {
+        boolean broadcast = notification.getUserId() == null;
+        String sql = broadcast
+            ? "INSERT INTO notification_cursors (user_id, last_seen_seq) " +
+              "SELECT ?, role_seq FROM broadcast_notifications WHERE broadcast_id = ? " +
+              "ON DUPLICATE KEY UPDATE last_seen_seq = GREATEST(last_seen_seq, VALUES(last_seen_seq))"
+            : "UPDATE notifications SET is_read = true WHERE user_id = ? AND notification_id = ?";
         try (Connection conn = DatabaseConfig.getERPConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, notificationId);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, notification.getNotificationId());
             stmt.executeUpdate();
         } catch (SQLException e) {
-            logger.error("Error marking notification {} as read: {}", notificationId, e.getMessage());
+            logger.error("Error marking notification {} as read: {}", notification.getNotificationId(), e.getMessage());
         }
     }
 
@@ -91,6 +111,19 @@ public class NotificationService {
         return createNotification(userId, null, message);
     }
 
+    /**
+     * Queues one notification per user; the outbox writes them as multi-row INSERTs, so posting
+     * to a whole section costs a handful of round trips instead of one per student.
+     */
+    public int createUserNotifications(int[] userIds, String[] messages) {
+        NotificationOutbox outbox = NotificationOutbox.getInstance();
+        int queued = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            if (outbox.enqueue(userIds[i], null, messages[i])) queued++;
+        }
+        return queued;
+    }
+
     public boolean createBroadcastNotificationToAll(String message) {
         boolean studentSuccess = createNotification(null, "student", message);
         boolean instructorSuccess = createNotification(null, "instructor", message);
@@ -99,12 +132,20 @@ public class NotificationService {
 
     
     public boolean markAllAsRead(int userId, String userRole) {
-        String sql = "UPDATE notifications SET is_read = true WHERE (user_id = ? OR target_role = ?) AND is_read = false";
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            stmt.setString(2, userRole);
-            stmt.executeUpdate();
+        String directSql = "UPDATE notifications SET is_read = true WHERE user_id = ? AND is_read = false";
+        String cursorSql = "INSERT INTO notification_cursors (user_id, last_seen_seq) " +
+                           "SELECT ?, last_seq FROM broadcast_sequences WHERE target_role = ? " +
+                           "ON DUPLICATE KEY UPDATE last_seen_seq = GREATEST(last_seen_seq, VALUES(last_seen_seq))";
+        try (Connection conn = DatabaseConfig.getERPConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(directSql)) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(cursorSql)) {
+                stmt.setInt(1, userId);
+                stmt.setString(2, userRole);
+                stmt.executeUpdate();
+            }
             return true;
         } catch (SQLException e) {
             logger.error("Error marking all notifications as read for user {}: {}", userId, e.getMessage());
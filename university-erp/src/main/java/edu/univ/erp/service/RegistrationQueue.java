@@ -0,0 +1,491 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.access.AccessControlService;
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.SectionDAO;
+import edu.univ.erp.domain.Section;
+import edu.univ.erp.service.StudentService.StudentServiceException;
+import edu.univ.erp.util.DatabaseConfig;
+import edu.univ.erp.util.ScopedConnectionSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Funnels register/drop requests into per-section partitions. Each partition has a single
+ * writer thread that drains whatever has queued up and commits it per section in one
+ * transaction with one enrollment_count update.
+ */
+public class RegistrationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationQueue.class);
+
+    private static final int PARTITIONS = 8;
+    private static final int MAX_BATCH = 200;
+    private static final int VALIDATION_THREADS = 8;
+
+    private static RegistrationQueue instance;
+
+    /** Where the writers' connections come from, and the unit of work validation and notifications run in. */
+    public interface Connections {
+        Connection getERPConnection() throws SQLException;
+        <T, E extends Exception> T inUnitOfWork(ScopedConnectionSource.Work<T, E> work) throws SQLException, E;
+
+        Connections DATABASE = new Connections() {
+            @Override
+            public Connection getERPConnection() throws SQLException {
+                return DatabaseConfig.getERPConnection();
+            }
+
+            @Override
+            public <T, E extends Exception> T inUnitOfWork(ScopedConnectionSource.Work<T, E> work) throws SQLException, E {
+                return DatabaseConfig.inUnitOfWork(work);
+            }
+        };
+    }
+
+    private final StudentService studentService;
+    private final SectionDAO sectionDAO;
+    private final Connections connections;
+    private final ExecutorService validationPool;
+    private final ExecutorService notificationPool;
+    private final List<BlockingQueue<Request>> partitions = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong requestsProcessed = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+
+    private enum Type { REGISTER, DROP }
+
+    private static class Request {
+        final Type type;
+        final int studentId;
+        final int enrollmentId;
+        final Section section;
+        final String currentStatus;
+        final CompletableFuture<Void> result;
+
+        Request(Type type, int studentId, int enrollmentId, Section section, String currentStatus, CompletableFuture<Void> result) {
+            this.type = type;
+            this.studentId = studentId;
+            this.enrollmentId = enrollmentId;
+            this.section = section;
+            this.currentStatus = currentStatus;
+            this.result = result;
+        }
+    }
+
+    private RegistrationQueue() {
+        this(new StudentService(), new SectionDAO(), Connections.DATABASE);
+    }
+
+    /** A queue with its own writers; the shared instance comes from getInstance(). */
+    public RegistrationQueue(StudentService studentService, SectionDAO sectionDAO, Connections connections) {
+        this.studentService = studentService;
+        this.sectionDAO = sectionDAO;
+        this.connections = connections;
+        this.validationPool = Executors.newFixedThreadPool(VALIDATION_THREADS, daemonFactory("registration-validate"));
+        this.notificationPool = Executors.newSingleThreadExecutor(daemonFactory("registration-notify"));
+
+        for (int i = 0; i < PARTITIONS; i++) {
+            BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+            partitions.add(queue);
+            Thread writer = new Thread(() -> drain(queue), "registration-writer-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    public static synchronized RegistrationQueue getInstance() {
+        if (instance == null) {
+            instance = new RegistrationQueue();
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    public CompletableFuture<Void> submitRegistration(int studentId, int sectionId) {
+        if (!AccessControlService.isActionAllowed(AccessControlService.REGISTER_SECTION)) {
+            return CompletableFuture.failedFuture(
+                new StudentServiceException("Access Denied: You cannot register for courses right now."));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        validationPool.execute(() -> {
+            Section[] section = new Section[1];
+            try {
+                connections.inUnitOfWork(() -> {
+                    try (Connection conn = connections.getERPConnection()) {
+                        section[0] = studentService.loadSectionForRegistration(conn, sectionId);
+                        String currentStatus = studentService.checkRegistrationAllowed(conn, studentId, section[0]);
+                        if (section[0].getEnrollmentCount() >= section[0].getCapacity()) {
+                            throw new StudentServiceException("Section full.");
+                        }
+                        enqueue(new Request(Type.REGISTER, studentId, -1, section[0], currentStatus, result));
+                    }
+                    return null;
+                });
+            } catch (StudentServiceException e) {
+                reject(studentId, section[0], Type.REGISTER, result, e);
+            } catch (Exception e) {
+                logger.error("Error validating registration of student {} for section {}", studentId, sectionId, e);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> submitDrop(int studentId, int enrollmentId) {
+        if (!AccessControlService.isActionAllowed(AccessControlService.DROP_SECTION)) {
+            return CompletableFuture.failedFuture(
+                new StudentServiceException("Access Denied: You cannot drop courses right now."));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        validationPool.execute(() -> {
+            try {
+                Section section = studentService.checkDropAllowed(studentId, enrollmentId);
+                enqueue(new Request(Type.DROP, studentId, enrollmentId, section, "registered", result));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public long getRequestsProcessed() {
+        return requestsProcessed.get();
+    }
+
+    public long getCommits() {
+        return commits.get();
+    }
+
+    /** Requests validated and waiting for a writer. */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<Request> queue : partitions) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    private void enqueue(Request request) throws StudentServiceException {
+        if (!running) {
+            throw new StudentServiceException("Registration is shutting down. Please try again.");
+        }
+        int sectionId = request.section.getSectionId();
+        partitions.get(Math.floorMod(sectionId, PARTITIONS)).add(request);
+    }
+
+    private void drain(BlockingQueue<Request> queue) {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                Map<Integer, List<Request>> bySection = new LinkedHashMap<>();
+                for (Request request : batch) {
+                    bySection.computeIfAbsent(request.section.getSectionId(), id -> new ArrayList<>()).add(request);
+                }
+                for (Map.Entry<Integer, List<Request>> entry : bySection.entrySet()) {
+                    commitSection(entry.getKey(), entry.getValue());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Registration writer failed on a batch", e);
+                for (Request request : batch) {
+                    request.result.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+
+        Request leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result.completeExceptionally(
+                new StudentServiceException("Registration is shutting down. Please try again."));
+        }
+    }
+
+    private void commitSection(int sectionId, List<Request> requests) {
+        List<Request> succeeded = new ArrayList<>();
+        Map<Request, StudentServiceException> rejected = new LinkedHashMap<>();
+        Connection conn = null;
+        int capacity = 0;
+        int finalCount = 0;
+
+        try {
+            conn = connections.getERPConnection();
+            conn.setAutoCommit(false);
+
+            Section locked = sectionDAO.findByIdWithLock(conn, sectionId);
+            if (locked == null) {
+                throw new SQLException("Section " + sectionId + " disappeared while registration was queued");
+            }
+            capacity = locked.getCapacity();
+            int freeSeats = capacity - locked.getEnrollmentCount();
+            int delta = 0;
+            LocalDateTime now = LocalDateTime.now();
+
+            List<Request> drops = new ArrayList<>();
+            List<Request> inserts = new ArrayList<>();
+            List<Request> reRegistrations = new ArrayList<>();
+            Set<Integer> studentsSeen = new HashSet<>();
+            Set<Integer> enrollmentsSeen = new HashSet<>();
+
+            for (Request request : requests) {
+                if (request.type == Type.DROP) {
+                    if (enrollmentsSeen.add(request.enrollmentId)) {
+                        drops.add(request);
+                    } else {
+                        rejected.put(request, new StudentServiceException("Enrollment not found, already dropped, or does not belong to you."));
+                    }
+                }
+            }
+
+            if (!drops.isEmpty()) {
+                String dropSql = "UPDATE enrollments SET status = 'dropped', dropped_at = ? " +
+                                 "WHERE enrollment_id = ? AND student_id = ? AND status = 'registered'";
+                try (PreparedStatement stmt = conn.prepareStatement(dropSql)) {
+                    for (Request drop : drops) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(now));
+                        stmt.setInt(2, drop.enrollmentId);
+                        stmt.setInt(3, drop.studentId);
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            rejected.put(drops.get(i), new StudentServiceException("Enrollment not found, already dropped, or does not belong to you."));
+                        } else {
+                            succeeded.add(drops.get(i));
+                            freeSeats++;
+                            delta--;
+                        }
+                    }
+                }
+            }
+
+            for (Request request : requests) {
+                if (request.type != Type.REGISTER) {
+                    continue;
+                }
+                if (!studentsSeen.add(request.studentId)) {
+                    rejected.put(request, new StudentServiceException("You are already registered for this section."));
+                } else if (freeSeats <= 0) {
+                    rejected.put(request, new StudentServiceException("Section full."));
+                } else {
+                    freeSeats--;
+                    if ("dropped".equals(request.currentStatus)) {
+                        reRegistrations.add(request);
+                    } else {
+                        inserts.add(request);
+                    }
+                }
+            }
+
+            if (!reRegistrations.isEmpty()) {
+                String updateSql = "UPDATE enrollments SET status = 'registered', enrolled_at = ?, dropped_at = NULL " +
+                                   "WHERE student_id = ? AND section_id = ? AND status = 'dropped'";
+                try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                    for (Request request : reRegistrations) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(now));
+                        stmt.setInt(2, request.studentId);
+                        stmt.setInt(3, sectionId);
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            rejected.put(reRegistrations.get(i), new StudentServiceException("You are already registered for this section."));
+                        } else {
+                            succeeded.add(reRegistrations.get(i));
+                            delta++;
+                        }
+                    }
+                }
+            }
+
+            if (!inserts.isEmpty()) {
+                String insertSql = "INSERT INTO enrollments (student_id, section_id, status, enrolled_at) VALUES (?, ?, 'registered', ?)";
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                    for (Request request : inserts) {
+                        stmt.setInt(1, request.studentId);
+                        stmt.setInt(2, sectionId);
+                        stmt.setTimestamp(3, Timestamp.valueOf(now));
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                            succeeded.add(inserts.get(i));
+                            delta++;
+                        } else {
+                            rejected.put(inserts.get(i), new StudentServiceException("You are already registered for this section."));
+                        }
+                    }
+                }
+            }
+
+            if (delta != 0 && !sectionDAO.updateEnrollmentCount(conn, sectionId, delta)) {
+                throw new SQLException("Updating section count failed.");
+            }
+
+            conn.commit();
+            commits.incrementAndGet();
+            DashboardCounters.getInstance().enrollmentChanged(sectionId, delta);
+            GradebookCache.getInstance().invalidateSection(sectionId);
+            finalCount = locked.getEnrollmentCount() + delta;
+            logger.debug("Committed {} registration changes for section {} in one transaction (delta {})",
+                requests.size(), sectionId, delta);
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try { conn.rollback(); }
+                catch (SQLException ex) { logger.error("CRITICAL: Failed to rollback registration batch!", ex); }
+            }
+            logger.warn("Group commit for section {} failed ({}), retrying {} requests one by one",
+                sectionId, e.getMessage(), requests.size());
+            closeQuietly(conn);
+            conn = null;
+            processIndividually(requests);
+            return;
+        } finally {
+            closeQuietly(conn);
+        }
+
+        SeatCounter.getInstance().reconcile(sectionId, capacity, finalCount);
+        CatalogCache.getInstance().seatsReconciled(sectionId, finalCount);
+        requestsProcessed.addAndGet(requests.size());
+
+        for (Request request : succeeded) {
+            request.result.complete(null);
+            ErpEventBus.getInstance().publish(ErpEventBus.Event.enrollmentChanged(request.studentId, sectionId));
+        }
+        for (Map.Entry<Request, StudentServiceException> entry : rejected.entrySet()) {
+            entry.getKey().result.completeExceptionally(entry.getValue());
+        }
+
+        notificationPool.execute(() -> notifyOutcomes(succeeded, rejected));
+    }
+
+    /** Sends a batch's notifications in one unit of work, so the name lookups share one auth connection. */
+    private void notifyOutcomes(List<Request> succeeded, Map<Request, StudentServiceException> rejected) {
+        try {
+            connections.inUnitOfWork(() -> {
+                for (Request request : succeeded) {
+                    if (request.type == Type.REGISTER) {
+                        studentService.notifyRegistered(request.studentId, request.section);
+                    } else {
+                        studentService.notifyDropped(request.studentId, request.section);
+                    }
+                }
+                for (Map.Entry<Request, StudentServiceException> entry : rejected.entrySet()) {
+                    Request request = entry.getKey();
+                    if (request.type == Type.REGISTER) {
+                        studentService.notifyRegistrationFailed(request.studentId, request.section, entry.getValue().getMessage());
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            logger.error("Failed to send registration notifications", e);
+        }
+    }
+
+    private void processIndividually(List<Request> requests) {
+        for (Request request : requests) {
+            try {
+                if (request.type == Type.REGISTER) {
+                    studentService.registerForSection(request.studentId, request.section.getSectionId());
+                } else {
+                    studentService.dropSection(request.studentId, request.enrollmentId);
+                }
+                request.result.complete(null);
+            } catch (Exception e) {
+                request.result.completeExceptionally(e);
+            }
+            requestsProcessed.incrementAndGet();
+        }
+    }
+
+    private void reject(int studentId, Section section, Type type, CompletableFuture<Void> result, StudentServiceException e) {
+        result.completeExceptionally(e);
+        if (type == Type.REGISTER && section != null) {
+            notificationPool.execute(() -> studentService.notifyRegistrationFailed(studentId, section, e.getMessage()));
+        }
+    }
+
+    /** Stops taking requests, lets the writers drain what is queued, and waits for notifications to go out. */
+    public void shutdown() {
+        running = false;
+        validationPool.shutdown();
+        try {
+            validationPool.awaitTermination(5, TimeUnit.SECONDS);
+            for (Thread writer : writers) {
+                writer.join(5000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        notificationPool.shutdown();
+        try {
+            notificationPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Registration queue stopped after {} requests in {} commits", requestsProcessed.get(), commits.get());
+    }
+
+    private void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try { conn.setAutoCommit(true); conn.close(); }
+            catch (SQLException e) { logger.error("Failed to close connection", e); }
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package edu.univ.erp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory gate in front of the conditional seat UPDATE in SectionDAO.claimSeat.
+ * Rejects registrations for sections that are known to be full without touching the
+ * sections row. The database stays authoritative: a granted claim can still be refused
+ * by the UPDATE, in which case the counter for that section is dropped and reseeded.
+ */
+public class SeatCounter {
+    private static final Logger logger = LoggerFactory.getLogger(SeatCounter.class);
+    private static final SeatCounter INSTANCE = new SeatCounter();
+
+    private final ConcurrentHashMap<Integer, AtomicInteger> remainingSeats = new ConcurrentHashMap<>();
+
+    public static SeatCounter getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean tryClaim(int sectionId, int capacity, int enrollmentCount) {
+        if (claim(sectionId, capacity, enrollmentCount)) {
+            return true;
+        }
+        if (enrollmentCount < capacity) {
+            // Snapshot says seats are free (e.g. a drop committed by another client): reseed once.
+            reconcile(sectionId, capacity, enrollmentCount);
+            return claim(sectionId, capacity, enrollmentCount);
+        }
+        return false;
+    }
+
+    public void release(int sectionId) {
+        AtomicInteger seats = remainingSeats.get(sectionId);
+        if (seats != null) {
+            seats.incrementAndGet();
+        }
+    }
+
+    public void reconcile(int sectionId, int capacity, int enrollmentCount) {
+        int free = Math.max(0, capacity - enrollmentCount);
+        // Reseed the existing counter in place: a caller holding a claim on it must release into the same one.
+        remainingSeats.computeIfAbsent(sectionId, id -> new AtomicInteger()).set(free);
+        logger.debug("Seat counter for section {} reseeded with {} free seats", sectionId, free);
+    }
+
+    public void invalidate(int sectionId) {
+        remainingSeats.remove(sectionId);
+    }
+
+    public int getRemainingSeats(int sectionId) {
+        AtomicInteger seats = remainingSeats.get(sectionId);
+        return seats != null ? seats.get() : -1;
+    }
+
+    private boolean claim(int sectionId, int capacity, int enrollmentCount) {
+        AtomicInteger seats = remainingSeats.computeIfAbsent(sectionId,
+            id -> new AtomicInteger(Math.max(0, capacity - enrollmentCount)));
+        while (true) {
+            int current = seats.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (seats.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+}
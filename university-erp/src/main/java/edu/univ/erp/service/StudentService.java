@@ -3,9 +3,13 @@ package edu.univ.erp.service;
 import edu.univ.erp.domain.*; 
 import edu.univ.erp.util.DatabaseConfig;
 import edu.univ.erp.access.AccessControlService;
-import edu.univ.erp.data.CourseDAO;
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.PrerequisiteGraph;
 import edu.univ.erp.data.SectionDAO;
 import edu.univ.erp.data.StudentDAO; 
+import edu.univ.erp.data.TranscriptDAO;
+import edu.univ.erp.data.UserDirectory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,12 +18,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntPredicate;
 
 public class StudentService {
 
     private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
     private NotificationService notificationService;
     private StudentDAO studentDAO; 
+    private TranscriptDAO transcriptDAO;
 
     public static class StudentServiceException extends Exception {
         public StudentServiceException(String message) {
@@ -30,6 +36,7 @@ public class StudentService {
     public StudentService() {
         this.notificationService = new NotificationService();
         this.studentDAO = new StudentDAO(); 
+        this.transcriptDAO = new TranscriptDAO();
     }
 
     
@@ -64,142 +71,83 @@ public class StudentService {
     }
 
     
+    /** Served from the shared per-semester CatalogCache snapshot, filtered for the student. */
     public List<Section> getAvailableSectionsForStudent(String semester, int year, int studentId) {
-        List<Section> sections = new ArrayList<>();
-        
-        StringBuilder sqlBuilder = new StringBuilder();
-        sqlBuilder.append("SELECT s.section_id, s.course_id, s.instructor_id, s.section_code, ")
-                  .append("s.day_time, s.room, s.capacity, s.semester, s.year, s.enrollment_count, ")
-                  .append("s.add_deadline, s.drop_deadline, ")
-                  .append("c.code as course_code, c.title as course_title, u.full_name as instructor_name ")
-                  .append("FROM sections s ")
-                  .append("JOIN courses c ON s.course_id = c.course_id ")
-                  .append("JOIN university_auth.users_auth u ON s.instructor_id = u.user_id ")
-                  .append("WHERE s.enrollment_count < s.capacity AND s.semester = ? AND s.year = ? ");
-
-        
-        
-        if (studentId > 0) {
-            sqlBuilder.append("AND s.section_id NOT IN ")
-                      .append("(SELECT e.section_id FROM enrollments e WHERE e.student_id = ? AND e.status = 'registered') ")
-                      .append("AND s.course_id NOT IN ")
-                      .append("(SELECT sec.course_id FROM enrollments e2 ")
-                      .append(" JOIN sections sec ON e2.section_id = sec.section_id ")
-                      .append(" WHERE e2.student_id = ? AND e2.status = 'registered') ");
+        try {
+            return CatalogCache.getInstance().getAvailableSections(semester, year, studentId);
+        } catch (SQLException e) {
+            logger.error("Error fetching available sections", e);
+            return new ArrayList<>();
         }
-        sqlBuilder.append("ORDER BY c.code, s.section_code");
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sqlBuilder.toString())) {
-
-            stmt.setString(1, semester);
-            stmt.setInt(2, year);
-            if (studentId > 0) {
-                stmt.setInt(3, studentId);
-                stmt.setInt(4, studentId);
-            }
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Section section = new Section(
-                        rs.getInt("section_id"), rs.getInt("course_id"), rs.getInt("instructor_id"),
-                        rs.getString("section_code"), rs.getString("day_time"), rs.getString("room"),
-                        rs.getInt("capacity"), rs.getString("semester"), rs.getInt("year"),
-                        rs.getInt("enrollment_count")
-                    );
-                    section.setCourseCode(rs.getString("course_code"));
-                    section.setCourseTitle(rs.getString("course_title"));
-                    section.setInstructorName(rs.getString("instructor_name"));
+    }
 
-                    Date addDeadline = rs.getDate("add_deadline");
-                    if (addDeadline != null) {
-                        section.setAddDeadline(addDeadline.toLocalDate());
-                    }
-                    Date dropDeadline = rs.getDate("drop_deadline");
-                    if (dropDeadline != null) {
-                        section.setDropDeadline(dropDeadline.toLocalDate());
-                    }
+    /** Builds the catalog search index in the background so the first search does not pay for it. */
+    public void warmCatalogSearch(String semester, int year) {
+        try {
+            CatalogCache.getInstance().warmSearch(semester, year);
+        } catch (SQLException e) {
+            logger.error("Error preparing the catalog search index", e);
+        }
+    }
 
-                    sections.add(section);
-                }
-            }
-        } catch (SQLException e) { logger.error("Error fetching available sections", e); }
-        return sections;
+    /** Section ids matching a catalog search, best match first, among the sections include accepts. */
+    public List<Integer> searchCatalog(String semester, int year, String query, int limit, IntPredicate include) {
+        try {
+            return CatalogCache.getInstance().search(semester, year, query, limit, include);
+        } catch (SQLException e) {
+            logger.error("Error searching the catalog", e);
+            return new ArrayList<>();
+        }
     }
 
+    /**
+     * Registers in one unit of work, so validation, the enrollment transaction and the
+     * notifications that follow share one ERP and one auth connection.
+     */
     public void registerForSection(int studentId, int sectionId) throws SQLException, StudentServiceException {
         if (!AccessControlService.isActionAllowed(AccessControlService.REGISTER_SECTION)) {
             throw new StudentServiceException("Access Denied: You cannot register for courses right now.");
         }
+        DatabaseConfig.inUnitOfWork(() -> {
+            register(studentId, sectionId);
+            return null;
+        });
+    }
 
+    private void register(int studentId, int sectionId) throws SQLException, StudentServiceException {
         Connection conn = null;
         Section sectionDetails = null;
+        boolean seatClaimed = false;
+        boolean inTransaction = false;
+        SeatCounter seatCounter = SeatCounter.getInstance();
 
         try {
             conn = DatabaseConfig.getERPConnection();
-            conn.setAutoCommit(false);
 
+            // All validation runs on plain reads; no row lock is held until the final seat claim.
             SectionDAO sectionDAO = new SectionDAO();
-            sectionDetails = sectionDAO.findByIdWithLock(conn, sectionId);
-            if (sectionDetails == null) {
-                throw new StudentServiceException("Section details not found. Registration failed.");
-            }
-
-            CourseDAO courseDAO = new CourseDAO();
-            if (!courseDAO.hasCompletedPrerequisites(studentId, sectionDetails.getCourseId())) {
-                throw new StudentServiceException(
-                    "You have not completed the required prerequisites for this course. " +
-                    "Please check the course requirements."
-                );
-            }
-
-            // Deadline is now mandatory (NOT NULL in database)
-            if (LocalDate.now().isAfter(sectionDetails.getAddDeadline())) {
-                throw new StudentServiceException(
-                    "The add/registration deadline for this section has passed (" +
-                    sectionDetails.getAddDeadline() + "). Registration is no longer allowed."
-                );
-            }
+            sectionDetails = loadSectionForRegistration(conn, sectionId);
+            String currentStatus = checkRegistrationAllowed(conn, studentId, sectionDetails);
 
-            String checkSql = "SELECT status FROM enrollments WHERE student_id = ? AND section_id = ? FOR UPDATE";
-            String currentStatus = null;
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, studentId);
-                checkStmt.setInt(2, sectionId);
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentStatus = rs.getString("status");
-                    }
-                }
-            }
-
-            if ("registered".equals(currentStatus)) {
-                throw new StudentServiceException("You are already registered for this section.");
-            }
-
-            if (!hasAvailableSeats(conn, sectionId)) {
+            if (!seatCounter.tryClaim(sectionId, sectionDetails.getCapacity(), sectionDetails.getEnrollmentCount())) {
                 throw new StudentServiceException("Section full.");
             }
+            seatClaimed = true;
 
-            
-            if (hasTimeTableClash(conn, studentId, sectionDetails.getDayTime(), sectionId)) {
-                throw new StudentServiceException(
-                    "Timetable clash: This section's schedule conflicts with another course you're registered for."
-                );
-            }
+            conn.setAutoCommit(false);
+            inTransaction = true;
 
             if ("dropped".equals(currentStatus)) {
-                String updateSql = "UPDATE enrollments SET status = 'registered', enrolled_at = ?, dropped_at = NULL WHERE student_id = ? AND section_id = ?";
+                String updateSql = "UPDATE enrollments SET status = 'registered', enrolled_at = ?, dropped_at = NULL " +
+                                   "WHERE student_id = ? AND section_id = ? AND status = 'dropped'";
                 try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
                     stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
                     stmt.setInt(2, studentId);
                     stmt.setInt(3, sectionId);
                     if (stmt.executeUpdate() == 0) {
-                        throw new SQLException("Re-enrollment failed, no rows affected.");
+                        throw new StudentServiceException("You are already registered for this section.");
                     }
                 }
-                logger.info("Student {} successfully re-enrolled in section {}", studentId, sectionId);
-
             } else {
                 String insertSql = "INSERT INTO enrollments (student_id, section_id, status, enrolled_at) VALUES (?, ?, 'registered', ?)";
                 try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
@@ -209,40 +157,37 @@ public class StudentService {
                     if (stmt.executeUpdate() == 0) {
                         throw new SQLException("Creating enrollment failed, no rows affected.");
                     }
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    throw new StudentServiceException("You are already registered for this section.");
                 }
-                 logger.info("Student {} successfully registered for section {}", studentId, sectionId);
             }
 
-            if (!updateEnrollmentCount(conn, sectionId, 1)) {
-                 throw new SQLException("Updating section count failed.");
+            // Conditional increment is the last statement, so the sections row lock lasts only until commit.
+            if (!sectionDAO.claimSeat(conn, sectionId)) {
+                seatCounter.invalidate(sectionId);
+                seatClaimed = false;
+                throw new StudentServiceException("Section full.");
             }
 
             conn.commit();
-            
-            try {
-                String courseCode = sectionDetails.getCourseCode() != null ? sectionDetails.getCourseCode() : "Unknown Course";
-                String studentName = getStudentName(studentId); 
-                notificationService.createUserNotification(studentId, 
-                    "Successfully registered for " + courseCode + " - " + sectionDetails.getSectionCode());
-                notificationService.createUserNotification(sectionDetails.getInstructorId(), 
-                    "Student " + studentName + " (ID: " + studentId + ") has enrolled in your section " + courseCode + " - " + sectionDetails.getSectionCode());
-            } catch (Exception e) {
-                logger.error("Failed to create notifications for registration: {}", e.getMessage());
-            }
+            seatClaimed = false;
+            DashboardCounters.getInstance().enrollmentChanged(sectionId, 1);
+            CatalogCache.getInstance().seatsChanged(sectionId, 1);
+            GradebookCache.getInstance().invalidateSection(sectionId);
+            ErpEventBus.getInstance().publish(ErpEventBus.Event.enrollmentChanged(studentId, sectionId));
+            logger.info("Student {} successfully registered for section {}", studentId, sectionId);
 
         } catch (SQLException | StudentServiceException e) {
-            if (conn != null) {
+            if (conn != null && inTransaction) {
                 try { conn.rollback(); logger.warn("Transaction rolled back for student {} and section {}: {}", studentId, sectionId, e.getMessage()); }
                 catch (SQLException ex) { logger.error("CRITICAL: Failed to rollback transaction!", ex); }
             }
-            
+            if (seatClaimed) {
+                seatCounter.release(sectionId);
+            }
+
             if (e instanceof StudentServiceException && sectionDetails != null) {
-                 try {
-                     notificationService.createUserNotification(studentId, 
-                        "Failed to register for " + sectionDetails.getCourseCode() + ": " + e.getMessage());
-                 } catch (Exception ne) {
-                     logger.error("Failed to create failure notification: {}", ne.getMessage());
-                 }
+                notifyRegistrationFailed(studentId, sectionDetails, e.getMessage());
             }
             throw e;
         } finally {
@@ -251,6 +196,103 @@ public class StudentService {
                 catch (SQLException e) { logger.error("Failed to close connection", e); }
             }
         }
+
+        notifyRegistered(studentId, sectionDetails);
+    }
+
+    protected Section loadSectionForRegistration(Connection conn, int sectionId) throws SQLException, StudentServiceException {
+        Section section = new SectionDAO().findById(conn, sectionId);
+        if (section == null) {
+            throw new StudentServiceException("Section details not found. Registration failed.");
+        }
+        return section;
+    }
+
+    protected String checkRegistrationAllowed(Connection conn, int studentId, Section section) throws SQLException, StudentServiceException {
+        // Deadline is now mandatory (NOT NULL in database)
+        if (LocalDate.now().isAfter(section.getAddDeadline())) {
+            throw new StudentServiceException(
+                "The add/registration deadline for this section has passed (" +
+                section.getAddDeadline() + "). Registration is no longer allowed."
+            );
+        }
+
+        if (!PrerequisiteGraph.getInstance().hasCompletedPrerequisites(studentId, section.getCourseId())) {
+            throw new StudentServiceException(
+                "You have not completed the required prerequisites for this course. " +
+                "Please check the course requirements."
+            );
+        }
+
+        String currentStatus = getEnrollmentStatus(conn, studentId, section.getSectionId());
+        if ("registered".equals(currentStatus)) {
+            throw new StudentServiceException("You are already registered for this section.");
+        }
+
+        if (hasTimeTableClash(conn, studentId, section.getDayTime(), section.getSectionId())) {
+            throw new StudentServiceException(
+                "Timetable clash: This section's schedule conflicts with another course you're registered for."
+            );
+        }
+        return currentStatus;
+    }
+
+    protected void notifyRegistered(int studentId, Section section) {
+        try {
+            String courseCode = section.getCourseCode() != null ? section.getCourseCode() : "Unknown Course";
+            String studentName = getStudentName(studentId); 
+            notificationService.createUserNotification(studentId, 
+                "Successfully registered for " + courseCode + " - " + section.getSectionCode());
+            notificationService.createUserNotification(section.getInstructorId(), 
+                "Student " + studentName + " (ID: " + studentId + ") has enrolled in your section " + courseCode + " - " + section.getSectionCode());
+        } catch (Exception e) {
+            logger.error("Failed to create notifications for registration: {}", e.getMessage());
+        }
+    }
+
+    protected void notifyRegistrationFailed(int studentId, Section section, String reason) {
+        try {
+            notificationService.createUserNotification(studentId, 
+                "Failed to register for " + section.getCourseCode() + ": " + reason);
+        } catch (Exception e) {
+            logger.error("Failed to create failure notification: {}", e.getMessage());
+        }
+    }
+
+    protected void notifyDropped(int studentId, Section section) {
+        try {
+            String courseCode = section.getCourseCode() != null ? section.getCourseCode() : "Unknown Course";
+            String studentName = getStudentName(studentId);
+            notificationService.createUserNotification(studentId, 
+                "Successfully dropped " + courseCode + " - " + section.getSectionCode());
+            notificationService.createUserNotification(section.getInstructorId(), 
+                "Student " + studentName + " (ID: " + studentId + ") has dropped your section " + courseCode + " - " + section.getSectionCode());
+        } catch (Exception e) {
+            logger.error("Failed to create notifications for drop: {}", e.getMessage());
+        }
+    }
+
+    protected void notifyDropFailed(int studentId, Section section, String reason) {
+        try {
+            notificationService.createUserNotification(studentId, 
+                "Failed to drop " + section.getCourseCode() + ": " + reason);
+        } catch (Exception e) {
+            logger.error("Failed to create failure notification: {}", e.getMessage());
+        }
+    }
+
+    private String getEnrollmentStatus(Connection conn, int studentId, int sectionId) throws SQLException {
+        String sql = "SELECT status FROM enrollments WHERE student_id = ? AND section_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, sectionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("status");
+                }
+            }
+        }
+        return null;
     }
 
 
@@ -271,17 +313,6 @@ public class StudentService {
         return false;
     }
 
-    private boolean hasAvailableSeats(Connection conn, int sectionId) throws SQLException {
-        String sql = "SELECT capacity, enrollment_count FROM sections WHERE section_id = ? FOR UPDATE";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, sectionId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) return rs.getInt("enrollment_count") < rs.getInt("capacity");
-            }
-        }
-        return false;
-    }
-
     private boolean updateEnrollmentCount(Connection conn, int sectionId, int change) throws SQLException {
         if (change < 0) {
             String sql = "UPDATE sections SET enrollment_count = GREATEST(0, enrollment_count + ?) WHERE section_id = ?";
@@ -304,8 +335,62 @@ public class StudentService {
         if (!AccessControlService.isActionAllowed(AccessControlService.DROP_SECTION)) {
             throw new StudentServiceException("Access Denied: You cannot drop courses right now.");
         }
+        DatabaseConfig.inUnitOfWork(() -> {
+            drop(studentId, enrollmentId);
+            return null;
+        });
+    }
+
+    private void drop(int studentId, int enrollmentId) throws SQLException, StudentServiceException {
+        Section sectionDetails = checkDropAllowed(studentId, enrollmentId);
+        int sectionId = sectionDetails.getSectionId();
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConfig.getERPConnection();
+            conn.setAutoCommit(false);
+
+            String dropSql = "UPDATE enrollments SET status = 'dropped', dropped_at = ? WHERE enrollment_id = ? AND status = 'registered'";
+            try (PreparedStatement stmt = conn.prepareStatement(dropSql)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setInt(2, enrollmentId);
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Dropping enrollment failed, status may have changed or row not found.");
+                }
+            }
+
+            if (!updateEnrollmentCount(conn, sectionId, -1)) {
+                 throw new SQLException("Updating section count failed during drop.");
+            }
+
+            conn.commit();
+            SeatCounter.getInstance().release(sectionId);
+            DashboardCounters.getInstance().enrollmentChanged(sectionId, -1);
+            CatalogCache.getInstance().seatsChanged(sectionId, -1);
+            GradebookCache.getInstance().invalidateSection(sectionId);
+            ErpEventBus.getInstance().publish(ErpEventBus.Event.enrollmentChanged(studentId, sectionId));
+            logger.info("Student {} successfully dropped enrollment {}", studentId, enrollmentId);
+
+            notifyDropped(studentId, sectionDetails);
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try { conn.rollback(); logger.warn("Drop transaction rolled back for student {} enrollment {}: {}", studentId, enrollmentId, e.getMessage()); }
+                catch (SQLException ex) { logger.error("CRITICAL: Failed to rollback drop transaction!", ex); }
+            }
+            
+            notifyDropFailed(studentId, sectionDetails, e.getMessage());
+            throw e;
+        } finally {
+            if (conn != null) {
+                try { conn.setAutoCommit(true); conn.close(); }
+                catch (SQLException e) { logger.error("Failed to close connection after drop", e); }
+            }
+        }
+    }
 
-        int sectionId = -1;
+    protected Section checkDropAllowed(int studentId, int enrollmentId) throws StudentServiceException {
         Section sectionDetails = null;
         LocalDate dropDeadline = null;
 
@@ -321,7 +406,7 @@ public class StudentService {
             checkStmt.setInt(2, studentId);
             try (ResultSet rs = checkStmt.executeQuery()) {
                 if (rs.next()) {
-                    sectionId = rs.getInt("section_id");
+                    int sectionId = rs.getInt("section_id");
                     sectionDetails = new Section(sectionId, 0, rs.getInt("instructor_id"), rs.getString("section_code"), null, null, 0, null, 0, 0);
                     sectionDetails.setCourseCode(rs.getString("course_code"));
 
@@ -345,62 +430,7 @@ public class StudentService {
                 dropDeadline + "). You can no longer drop this course."
             );
         }
-
-
-        Connection conn = null;
-        try {
-            conn = DatabaseConfig.getERPConnection();
-            conn.setAutoCommit(false);
-
-            String dropSql = "UPDATE enrollments SET status = 'dropped', dropped_at = ? WHERE enrollment_id = ? AND status = 'registered'";
-            try (PreparedStatement stmt = conn.prepareStatement(dropSql)) {
-                stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                stmt.setInt(2, enrollmentId);
-                int rowsAffected = stmt.executeUpdate();
-                if (rowsAffected == 0) {
-                    throw new SQLException("Dropping enrollment failed, status may have changed or row not found.");
-                }
-            }
-
-            if (!updateEnrollmentCount(conn, sectionId, -1)) {
-                 throw new SQLException("Updating section count failed during drop.");
-            }
-
-            conn.commit();
-            logger.info("Student {} successfully dropped enrollment {}", studentId, enrollmentId);
-
-            try {
-                String courseCode = sectionDetails.getCourseCode() != null ? sectionDetails.getCourseCode() : "Unknown Course";
-                String studentName = getStudentName(studentId);
-                notificationService.createUserNotification(studentId, 
-                    "Successfully dropped " + courseCode + " - " + sectionDetails.getSectionCode());
-                notificationService.createUserNotification(sectionDetails.getInstructorId(), 
-                    "Student " + studentName + " (ID: " + studentId + ") has dropped your section " + courseCode + " - " + sectionDetails.getSectionCode());
-            } catch (Exception e) {
-                logger.error("Failed to create notifications for drop: {}", e.getMessage());
-            }
-
-        } catch (SQLException e) {
-            if (conn != null) {
-                try { conn.rollback(); logger.warn("Drop transaction rolled back for student {} enrollment {}: {}", studentId, enrollmentId, e.getMessage()); }
-                catch (SQLException ex) { logger.error("CRITICAL: Failed to rollback drop transaction!", ex); }
-            }
-            
-            if (sectionDetails != null) {
-                 try {
-                     notificationService.createUserNotification(studentId, 
-                        "Failed to drop " + sectionDetails.getCourseCode() + ": " + e.getMessage());
-                 } catch (Exception ne) {
-                     logger.error("Failed to create failure notification: {}", ne.getMessage());
-                 }
-            }
-            throw e;
-        } finally {
-            if (conn != null) {
-                try { conn.setAutoCommit(true); conn.close(); }
-                catch (SQLException e) { logger.error("Failed to close connection after drop", e); }
-            }
-        }
+        return sectionDetails;
     }
 
     public List<Enrollment> getMyRegisteredSections(int studentId) {
@@ -412,11 +442,10 @@ public class StudentService {
         int currentYear = SemesterService.getCurrentYear();
 
         String sql = "SELECT e.*, c.code as course_code, s.section_code, s.day_time, s.room, s.drop_deadline, " +
-                     "s.semester, s.year, u.full_name as instructor_name " +
+                     "s.semester, s.year, s.instructor_id " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
                      "JOIN courses c ON s.course_id = c.course_id " +
-                     "JOIN university_auth.users_auth u ON s.instructor_id = u.user_id " +
                      "WHERE e.student_id = ? AND e.status = 'registered' " +
                      "AND s.semester = ? AND s.year = ?";
 
@@ -441,7 +470,7 @@ public class StudentService {
                         sectionCode != null ? sectionCode : "N/A",
                         dayTime != null ? dayTime : "N/A",
                         room != null ? room : "N/A"));
-                    en.setStudentName(rs.getString("instructor_name")); 
+                    en.setStudentName(UserDirectory.getInstance().nameOf(rs.getInt("instructor_id")));
 
                     java.sql.Date dropDeadlineDate = rs.getDate("drop_deadline");
                     en.setDropDeadline(dropDeadlineDate != null ? dropDeadlineDate.toLocalDate() : null);
@@ -494,164 +523,48 @@ public class StudentService {
     }
 
     public List<TranscriptEntry> getTranscriptData(int studentId) {
-        List<TranscriptEntry> entries = new ArrayList<>();
-        String sql = "SELECT c.code, c.title, c.credits, s.semester, s.year, e.final_grade, e.enrollment_id " +
-                     "FROM enrollments e " +
-                     "JOIN sections s ON e.section_id = s.section_id " +
-                     "JOIN courses c ON s.course_id = c.course_id " +
-                     "WHERE e.student_id = ? AND (e.status = 'registered' OR e.status = 'completed') " + 
-                     "ORDER BY s.year, s.semester, c.code";
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, studentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    TranscriptEntry entry = new TranscriptEntry(
-                        rs.getString("code"), rs.getString("title"), rs.getInt("credits"),
-                        rs.getString("semester"), rs.getInt("year"), rs.getString("final_grade")
-                    );
-
-                    int enrollmentId = rs.getInt("enrollment_id");
-                    List<String> componentDetails = getComponentGradesForEnrollment(enrollmentId);
-                    entry.setComponentGrades(componentDetails);
-
-                    entries.add(entry);
-                }
-            }
+        try {
+            return transcriptDAO.findByStudent(studentId);
         } catch (SQLException e) {
             logger.error("Error fetching transcript data for student {}", studentId, e);
+            return new ArrayList<>();
         }
-        return entries;
     }
 
-    private List<String> getComponentGradesForEnrollment(int enrollmentId) {
-        List<String> components = new ArrayList<>();
-        String sql = "SELECT gc.component_name, g.score, gc.max_score, gc.weight " +
-                     "FROM grades g " +
-                     "JOIN grade_components gc ON g.component_id = gc.component_id " +
-                     "WHERE g.enrollment_id = ? " +
-                     "ORDER BY gc.component_id";
-
-        try (Connection conn = DatabaseConfig.getERPConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, enrollmentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String componentInfo = String.format("%s: %.1f/%.0f (%.0f%%)",
-                        rs.getString("component_name"),
-                        rs.getDouble("score"),
-                        rs.getDouble("max_score"),
-                        rs.getDouble("weight"));
-                    components.add(componentInfo);
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching component grades for enrollment {}", enrollmentId, e);
-        }
-        return components;
-    }
-    
     private String getStudentName(int studentId) {
-        String sql = "SELECT full_name FROM university_auth.users_auth WHERE user_id = ?";
-        try (Connection conn = DatabaseConfig.getAuthConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, studentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("full_name");
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching name for {}: {}", studentId, e.getMessage());
-        }
-        return "Unknown Student";
+        String name = UserDirectory.getInstance().nameOf(studentId);
+        return name != null ? name : "Unknown Student";
     }
 
     
     private boolean hasTimeTableClash(Connection conn, int studentId, String newSectionDayTime, int newSectionId) throws SQLException {
-        if (newSectionDayTime == null || newSectionDayTime.trim().isEmpty()) {
+        WeeklySchedule candidate = WeeklySchedule.of(newSectionDayTime);
+        if (candidate.isEmpty()) {
             return false; 
         }
 
-        String sql = "SELECT s.section_id, s.day_time, c.code as course_code " +
+        String sql = "SELECT s.day_time " +
                      "FROM enrollments e " +
                      "JOIN sections s ON e.section_id = s.section_id " +
-                     "JOIN courses c ON s.course_id = c.course_id " +
                      "WHERE e.student_id = ? AND e.status = 'registered' AND s.section_id != ?";
 
+        WeeklySchedule.Occupancy occupancy = new WeeklySchedule.Occupancy();
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, studentId);
             stmt.setInt(2, newSectionId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    String existingDayTime = rs.getString("day_time");
-                    if (existingDayTime != null && doTimeSlotsOverlap(newSectionDayTime, existingDayTime)) {
-                        logger.warn("Timetable clash detected for student {}: {} conflicts with {}",
-                            studentId, newSectionDayTime, existingDayTime);
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    
-    private boolean doTimeSlotsOverlap(String slot1, String slot2) {
-        if (slot1 == null || slot2 == null) return false;
-
-        
-        String[] parts1 = slot1.split(" ");
-        String[] parts2 = slot2.split(" ");
-
-        if (parts1.length < 2 || parts2.length < 2) return false;
-
-        String days1 = parts1[0].toLowerCase();
-        String days2 = parts2[0].toLowerCase();
-        String time1 = parts1[1];
-        String time2 = parts2[1];
-
-        
-        String[] dayList1 = days1.split("/");
-        String[] dayList2 = days2.split("/");
-
-        boolean daysOverlap = false;
-        for (String d1 : dayList1) {
-            for (String d2 : dayList2) {
-                if (d1.trim().equalsIgnoreCase(d2.trim())) {
-                    daysOverlap = true;
-                    break;
+                    occupancy.add(WeeklySchedule.of(rs.getString("day_time")));
                 }
             }
-            if (daysOverlap) break;
         }
 
-        if (!daysOverlap) return false;
-
-        
-        try {
-            int start1 = parseTimeToMinutes(time1.split("-")[0]);
-            int end1 = time1.contains("-") ? parseTimeToMinutes(time1.split("-")[1]) : start1 + 60; 
-
-            int start2 = parseTimeToMinutes(time2.split("-")[0]);
-            int end2 = time2.contains("-") ? parseTimeToMinutes(time2.split("-")[1]) : start2 + 60;
-
-            
-            return (start1 < end2) && (start2 < end1);
-        } catch (Exception e) {
-            logger.warn("Could not parse time slots for comparison: {} vs {}", slot1, slot2);
-            return false;
+        if (occupancy.clashesWith(candidate)) {
+            WeeklySchedule existing = occupancy.findClash(candidate);
+            logger.warn("Timetable clash detected for student {}: {} conflicts with {}",
+                studentId, newSectionDayTime, existing != null ? existing.getSource() : "an existing section");
+            return true;
         }
+        return false;
     }
-
-    
-    private int parseTimeToMinutes(String time) {
-        if (time == null || !time.contains(":")) return 0;
-        String[] parts = time.trim().split(":");
-        int hours = Integer.parseInt(parts[0]);
-        int minutes = Integer.parseInt(parts[1]);
-        return hours * 60 + minutes;
-    }
-}
\ No newline at end of file
+}
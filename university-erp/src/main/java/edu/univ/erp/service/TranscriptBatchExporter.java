@@ -0,0 +1,137 @@
+package edu.univ.erp.service;
+
+import edu.univ.erp.data.TranscriptDAO;
+import edu.univ.erp.domain.StudentTranscript;
+import edu.univ.erp.util.PdfExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Semester-end export of every student's transcript as a PDF. Transcripts are streamed from
+ * a single ordered query and rendered on a fixed worker pool whose queue is bounded; when the
+ * queue is full the reading thread renders the next transcript itself, so at most
+ * workers + queue capacity transcripts are in memory at any time, independent of cohort size.
+ */
+public class TranscriptBatchExporter {
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptBatchExporter.class);
+    private static final int QUEUE_PER_WORKER = 4;
+    private static final int MAX_RECORDED_FAILURES = 50;
+
+    private final TranscriptDAO transcriptDAO;
+    private final int workers;
+
+    public interface ProgressListener {
+        void onProgress(int exported, int failed);
+    }
+
+    public record Result(int exported, int failed, long elapsedMs, List<String> failures) {
+        public double transcriptsPerSecond() {
+            return elapsedMs == 0 ? exported : exported * 1000.0 / elapsedMs;
+        }
+    }
+
+    private interface Sink {
+        void write(String fileName, byte[] pdf) throws IOException;
+    }
+
+    public TranscriptBatchExporter() {
+        this(new TranscriptDAO(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TranscriptBatchExporter(TranscriptDAO transcriptDAO, int workers) {
+        this.transcriptDAO = transcriptDAO;
+        this.workers = workers;
+    }
+
+    public Result exportToZip(File zipFile, ProgressListener listener) throws SQLException, IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            Object zipLock = new Object();
+            return export((fileName, pdf) -> {
+                synchronized (zipLock) {
+                    zip.putNextEntry(new ZipEntry(fileName));
+                    zip.write(pdf);
+                    zip.closeEntry();
+                }
+            }, listener);
+        }
+    }
+
+    public Result exportToDirectory(File directory, ProgressListener listener) throws SQLException, IOException {
+        Files.createDirectories(directory.toPath());
+        return export((fileName, pdf) -> Files.write(new File(directory, fileName).toPath(), pdf), listener);
+    }
+
+    private Result export(Sink sink, ProgressListener listener) throws SQLException {
+        AtomicInteger exported = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER), runnable -> {
+                Thread thread = new Thread(runnable, "transcript-export");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        long start = System.nanoTime();
+        try {
+            transcriptDAO.streamAll(transcript -> pool.execute(() -> {
+                try {
+                    sink.write(fileNameFor(transcript), render(transcript));
+                    exported.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    if (failures.size() < MAX_RECORDED_FAILURES) {
+                        failures.add(transcript.rollNo() + ": " + e.getMessage());
+                    }
+                    logger.error("Failed to export transcript for student {}", transcript.studentId(), e);
+                }
+                if (listener != null) {
+                    listener.onProgress(exported.get(), failed.get());
+                }
+            }));
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Result result = new Result(exported.get(), failed.get(), elapsedMs, List.copyOf(failures));
+        logger.info("Transcript export finished: {} exported, {} failed in {} ms ({} transcripts/sec)",
+            result.exported(), result.failed(), elapsedMs, String.format("%.1f", result.transcriptsPerSecond()));
+        return result;
+    }
+
+    private static byte[] render(StudentTranscript transcript) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        PdfExporter.writeTranscript(transcript.entries(), transcript.fullName(),
+            transcript.rollNo(), transcript.program(), out);
+        return out.toByteArray();
+    }
+
+    private static String fileNameFor(StudentTranscript transcript) {
+        String rollNo = transcript.rollNo() != null ? transcript.rollNo() : String.valueOf(transcript.studentId());
+        return "Transcript_" + rollNo.replaceAll("[^A-Za-z0-9_-]", "_") + ".pdf";
+    }
+}
@@ -1,9 +1,8 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.auth.SessionManager;
-import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
 import edu.univ.erp.domain.Section;
-import edu.univ.erp.domain.StudentGradeEntry;
 import edu.univ.erp.service.InstructorService;
 import edu.univ.erp.util.PdfExporter;
 import net.miginfocom.swing.MigLayout;
@@ -13,7 +12,6 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
-import java.util.List;
 
 public class ClassReportPanel {
     private JPanel panel;
@@ -22,8 +20,7 @@ public class ClassReportPanel {
     private JLabel titleLabel;
     private InstructorService service;
     private Section currentSection;
-    private List<StudentGradeEntry> data;
-    private List<GradeComponent> components;
+    private Gradebook data;
 
     public ClassReportPanel() {
         service = new InstructorService();
@@ -69,24 +66,23 @@ public class ClassReportPanel {
         new SwingWorker<Void, Void>() {
             @Override protected Void doInBackground() {
                 data = service.generateClassReportData(s.getSectionId());
-                components = service.getGradeComponents(s.getSectionId());
                 return null;
             }
             @Override protected void done() {
                 model.setRowCount(0);
-                for (StudentGradeEntry e : data) {
-                    model.addRow(new Object[]{e.getRollNo(), e.getStudentName(), e.getFinalGrade()});
+                for (int r = 0; r < data.getStudentCount(); r++) {
+                    model.addRow(new Object[]{data.getRollNo(r), data.getStudentName(r), data.getFinalGrade(r)});
                 }
             }
         }.execute();
     }
 
     private void exportPdf() {
-        if (data == null || data.isEmpty()) { MainFrame.getInstance().showWarning("No data."); return; }
+        if (data == null || data.getStudentCount() == 0) { MainFrame.getInstance().showWarning("No data."); return; }
         JFileChooser fc = new JFileChooser();
         fc.setSelectedFile(new File("Report.pdf"));
         if (fc.showSaveDialog(panel) == JFileChooser.APPROVE_OPTION) {
-            PdfExporter.exportSectionGradeReport(data, components, currentSection.getCourseCode(), 
+            PdfExporter.exportSectionGradeReport(data, currentSection.getCourseCode(), 
                 currentSection.getSectionCode(), SessionManager.getCurrentUserFullName(), fc.getSelectedFile());
             MainFrame.getInstance().showSuccess("Exported.");
         }
@@ -1,7 +1,10 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.domain.Section;
+import edu.univ.erp.service.GradeStatisticsEngine.ComponentStatistics;
+import edu.univ.erp.service.GradeStatisticsEngine.SectionStatistics;
 import edu.univ.erp.service.InstructorService;
+import edu.univ.erp.util.StreamingStats;
 import net.miginfocom.swing.MigLayout;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -13,14 +16,15 @@ import org.jfree.data.category.DefaultCategoryDataset;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Map;
 
 
 public class ClassStatsPanel {
     private JPanel panel;
     private JPanel contentArea;
     private JLabel titleLabel;
+    private JCheckBox poolSectionsBox;
     private InstructorService service;
+    private Section currentSection;
 
     public ClassStatsPanel() {
         service = new InstructorService();
@@ -32,7 +36,7 @@ public class ClassStatsPanel {
         panel.setBackground(ThemeManager.COLOR_BACKGROUND);
 
         
-        JPanel header = new JPanel(new MigLayout("fillx, insets 20 30 10 30", "[]20[grow]", "[center]"));
+        JPanel header = new JPanel(new MigLayout("fillx, insets 20 30 10 30", "[]20[grow][]", "[center]"));
         header.setOpaque(false);
 
         
@@ -40,8 +44,13 @@ public class ClassStatsPanel {
             MainFrame.getInstance().showPanel(MainFrame.INSTRUCTOR_GRADEBOOK_PANEL));
 
         titleLabel = UIFactory.createHeader("Class Statistics");
+        poolSectionsBox = new JCheckBox("All my sections of this course");
+        poolSectionsBox.setOpaque(false);
+        poolSectionsBox.setFont(ThemeManager.FONT_BODY);
+        poolSectionsBox.addActionListener(e -> loadStats(currentSection));
         header.add(backBtn, "aligny center");
         header.add(titleLabel, "growx, aligny center");
+        header.add(poolSectionsBox, "aligny center");
         panel.add(header, BorderLayout.NORTH);
 
         
@@ -58,30 +67,34 @@ public class ClassStatsPanel {
 
     public void loadStats(Section s) {
         if (s == null) return;
-        titleLabel.setText("Statistics: " + s.getCourseCode() + " - " + s.getSectionCode());
+        this.currentSection = s;
+        boolean pooled = poolSectionsBox.isSelected();
+        titleLabel.setText("Statistics: " + s.getCourseCode() + (pooled ? " (all sections)" : " - " + s.getSectionCode()));
         contentArea.removeAll();
         contentArea.add(new SkeletonPanel(), "growx, h 300!"); 
         contentArea.revalidate();
         contentArea.repaint();
         
-        new SwingWorker<Map<String, Map<String, Double>>, Void>() {
-            @Override protected Map<String, Map<String, Double>> doInBackground() {
-                
-                
-                return service.getSectionStatistics(s.getSectionId());
+        new SwingWorker<SectionStatistics, Void>() {
+            @Override protected SectionStatistics doInBackground() {
+                return pooled ? service.getCourseStatistics(s) : service.getSectionStatistics(s);
             }
             @Override protected void done() {
                 try {
-                    Map<String, Map<String, Double>> stats = get();
+                    SectionStatistics stats = get();
                     contentArea.removeAll();
                     
                     if (stats.isEmpty()) {
                         contentArea.add(new JLabel("No grades recorded yet to analyze."), "align center");
                     } else {
-                        for (String comp : stats.keySet()) {
-                            
-                            
-                            contentArea.add(createChartCard(comp, stats.get(comp)), "growx, h 300!");
+                        if (stats.finalScores().getCount() > 0) {
+                            contentArea.add(createChartCard("Final Score (%)", stats.finalScores(),
+                                createStatLabel("Incomplete: " + stats.incomplete())), "growx, h 320!");
+                        }
+                        for (ComponentStatistics comp : stats.components()) {
+                            if (comp.scores().getCount() == 0) continue;
+                            contentArea.add(createChartCard(comp.name(), comp.scores(),
+                                createStatLabel("Max: " + String.format("%.0f", comp.maxScore()))), "growx, h 320!");
                         }
                     }
                     contentArea.revalidate();
@@ -94,7 +107,7 @@ public class ClassStatsPanel {
         }.execute();
     }
 
-    private JPanel createChartCard(String title, Map<String, Double> data) {
+    private JPanel createChartCard(String title, StreamingStats data, JLabel extra) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createLineBorder(ThemeManager.COLOR_BORDER));
@@ -102,17 +115,18 @@ public class ClassStatsPanel {
 
         
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        
-        
-        dataset.addValue(data.get("Average"), "Score", "Average");
-        dataset.addValue(data.get("Highest"), "Score", "Highest");
-        dataset.addValue(data.get("Lowest"), "Score", "Lowest");
+        long[] histogram = data.getHistogram(10);
+        double bucketWidth = data.getUpper() / histogram.length;
+        for (int i = 0; i < histogram.length; i++) {
+            String bucket = String.format("%.0f-%.0f", i * bucketWidth, (i + 1) * bucketWidth);
+            dataset.addValue(histogram[i], "Students", bucket);
+        }
 
         
         JFreeChart chart = ChartFactory.createBarChart(
-            title + " Performance", 
-            "Metric",               
-            "Score",                
+            title + " Distribution", 
+            "Score",               
+            "Students",                
             dataset,
             PlotOrientation.VERTICAL,
             false, true, false
@@ -138,9 +152,13 @@ public class ClassStatsPanel {
         
         JPanel footer = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
         footer.setBackground(new Color(248, 250, 252));
-        footer.add(createStatLabel("Avg: " + String.format("%.1f", data.get("Average"))));
-        footer.add(createStatLabel("Max: " + String.format("%.0f", data.get("MaxPossible"))));
-        footer.add(createStatLabel("Count: " + String.format("%.0f", data.get("Count"))));
+        footer.add(createStatLabel("Avg: " + String.format("%.1f", data.getMean())));
+        footer.add(createStatLabel("Median: " + String.format("%.1f", data.getMedian())));
+        footer.add(createStatLabel("Std Dev: " + String.format("%.1f", data.getStdDev())));
+        footer.add(createStatLabel("P25-P75: " + String.format("%.1f-%.1f", data.getPercentile(25), data.getPercentile(75))));
+        footer.add(createStatLabel("Range: " + String.format("%.1f-%.1f", data.getMin(), data.getMax())));
+        footer.add(createStatLabel("Count: " + data.getCount()));
+        footer.add(extra);
         
         card.add(footer, BorderLayout.SOUTH);
 
@@ -2,6 +2,7 @@ package edu.univ.erp.ui;
 
 import edu.univ.erp.domain.Course;
 import edu.univ.erp.data.CourseDAO;
+import edu.univ.erp.data.PrerequisiteGraph;
 import edu.univ.erp.service.AdminService;
 import net.miginfocom.swing.MigLayout;
 
@@ -214,10 +215,18 @@ public class CourseManagementPanel {
         new SwingWorker<Void, Void>() {
             List<Course> currentPrereqs;
             List<Course> allCourses;
+            java.util.Set<Integer> circularIds = new java.util.HashSet<>();
             @Override protected Void doInBackground() throws Exception {
                 
                 currentPrereqs = courseDAO.getPrerequisites(selected.getCourseId());
                 allCourses = adminService.getAllCourses();
+                // Courses that already depend on this one cannot become its prerequisite.
+                PrerequisiteGraph graph = PrerequisiteGraph.getInstance();
+                for (Course c : allCourses) {
+                    if (graph.wouldCreateCycle(selected.getCourseId(), c.getCourseId())) {
+                        circularIds.add(c.getCourseId());
+                    }
+                }
                 return null;
             }
             @Override protected void done() {
@@ -234,7 +243,8 @@ public class CourseManagementPanel {
 
                     
                     for (Course c : allCourses) {
-                        if (c.getCourseId() != selected.getCourseId() && !prereqIds.contains(c.getCourseId())) {
+                        if (c.getCourseId() != selected.getCourseId() && !prereqIds.contains(c.getCourseId())
+                                && !circularIds.contains(c.getCourseId())) {
                             availModel.addElement(c);
                         }
                     }
@@ -262,6 +272,10 @@ public class CourseManagementPanel {
                 private String errorMessage = null;
                 @Override protected Boolean doInBackground() throws Exception {
                     try {
+                        if (PrerequisiteGraph.getInstance().wouldCreateCycle(selected.getCourseId(), sel.getCourseId())) {
+                            errorMessage = sel.getCode() + " already requires " + selected.getCode() + "; this would create a circular prerequisite.";
+                            return false;
+                        }
                         return courseDAO.addPrerequisite(selected.getCourseId(), sel.getCourseId());
                     } catch (java.sql.SQLIntegrityConstraintViolationException e) {
                         errorMessage = "This course is already a prerequisite.";
@@ -454,6 +468,10 @@ public class CourseManagementPanel {
                 .map(p -> p.getCode())
                 .collect(java.util.stream.Collectors.joining(", "));
             addDetailRow(form, "Prerequisites", prereqStr);
+            List<String> chain = PrerequisiteGraph.getInstance().getPrerequisiteChainCodes(course.getCourseId());
+            if (chain.size() > prereqs.size()) {
+                addDetailRow(form, "Full Chain", String.join(", ", chain));
+            }
         } catch (SQLException e) {
             addDetailRow(form, "Prerequisites", "Error loading");
         }
@@ -1,8 +1,12 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.auth.SessionManager;
+import edu.univ.erp.domain.AdminDashboard;
+import edu.univ.erp.domain.InstructorDashboard;
 import edu.univ.erp.domain.Notification;
+import edu.univ.erp.domain.StudentDashboard;
 import edu.univ.erp.service.DashboardService;
+import edu.univ.erp.service.ErpEventBus;
 import edu.univ.erp.service.NotificationService;
 import edu.univ.erp.service.SemesterService;
 import net.miginfocom.swing.MigLayout;
@@ -13,12 +17,28 @@ import javax.swing.event.AncestorListener;
 import java.awt.*;
 import java.awt.geom.Arc2D;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 
 public class DashboardPanel extends JPanel {
     private final NotificationService notificationService;
     private final DashboardService dashboardService;
+    private final ErpEventBus eventBus = ErpEventBus.getInstance();
+
+    // Events only cover changes made by this client, so anything loaded longer ago than this is
+    // reloaded anyway to pick up what other clients changed.
+    private static final int MAX_STALENESS_MS = 60_000;
+
+    // Built once per signed-in user; later visits reload only the widgets an event has made stale
+    // or that have outlived MAX_STALENESS_MS.
+    private int loadedUserId = -1;
+    private String loadedRole;
+    private JPanel widgetSlot;
+    private JPanel notificationSlot;
+    private boolean widgetsStale;
+    private boolean notificationsStale;
+    private long widgetsLoadedAt;
+    private long notificationsLoadedAt;
 
     public DashboardPanel() {
         this.notificationService = new NotificationService();
@@ -37,9 +57,29 @@ public class DashboardPanel extends JPanel {
             @Override public void ancestorRemoved(AncestorEvent event) {}
             @Override public void ancestorMoved(AncestorEvent event) {}
         });
+
+        eventBus.subscribe(EnumSet.allOf(ErpEventBus.EventType.class), this::onEvents);
+
+        // While the dashboard stays on screen, expired widgets are refreshed without waiting for a visit.
+        Timer expiryTimer = new Timer(MAX_STALENESS_MS / 4, e -> {
+            if (loadedUserId < 0 || !isShowing()) return;
+            if (isExpired(widgetsLoadedAt)) reloadWidgets();
+            if (isExpired(notificationsLoadedAt)) reloadNotifications();
+        });
+        expiryTimer.start();
     }
 
     public void updateUserInfo() {
+        int userId = SessionManager.getCurrentUserId();
+        String role = SessionManager.getCurrentRole();
+        if (userId == loadedUserId && role != null && role.equals(loadedRole)) {
+            if (widgetsStale || isExpired(widgetsLoadedAt)) reloadWidgets(); else eventBus.recordReloadAvoided();
+            if (notificationsStale || isExpired(notificationsLoadedAt)) reloadNotifications(); else eventBus.recordReloadAvoided();
+            return;
+        }
+        loadedUserId = userId;
+        loadedRole = role;
+
         removeAll();
 
         // Left Panel (Widgets)
@@ -48,28 +88,88 @@ public class DashboardPanel extends JPanel {
 
         leftPanel.add(createHeaderSection(), "growx");
 
-        if (SessionManager.isStudent()) {
-            leftPanel.add(createStudentWidgets(), "growx");
-        } else if (SessionManager.isInstructor()) {
-            leftPanel.add(createInstructorWidgets(), "growx");
-        } else if (SessionManager.isAdmin()) {
-            leftPanel.add(createAdminWidgets(), "growx");
-        }
+        widgetSlot = new JPanel(new MigLayout("fillx, insets 0", "[grow, fill]"));
+        widgetSlot.setOpaque(false);
+        leftPanel.add(widgetSlot, "growx");
 
         add(leftPanel, "grow, aligny top");
 
         // Right Panel (Notifications)
-        JPanel rightPanel = new JPanel(new MigLayout("fill, insets 0", "[grow, fill]", "[grow, fill]"));
-        rightPanel.setOpaque(false);
+        notificationSlot = new JPanel(new MigLayout("fill, insets 0", "[grow, fill]", "[grow, fill]"));
+        notificationSlot.setOpaque(false);
+
+        add(notificationSlot, "growy, width 340!");
 
-        rightPanel.add(createNotificationWidget(), "grow");
+        reloadWidgets();
+        reloadNotifications();
+    }
+
+    /** Forgets the signed-in user so the next visit rebuilds the header and every widget. */
+    public void reset() {
+        loadedUserId = -1;
+        loadedRole = null;
+        widgetsStale = false;
+        notificationsStale = false;
+        removeAll();
+    }
+
+    private static boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt >= MAX_STALENESS_MS;
+    }
 
-        add(rightPanel, "growy, width 340!");
+    private void reloadWidgets() {
+        widgetsStale = false;
+        widgetsLoadedAt = System.currentTimeMillis();
+        widgetSlot.removeAll();
+        if (SessionManager.isStudent()) {
+            widgetSlot.add(createStudentWidgets(), "growx");
+        } else if (SessionManager.isInstructor()) {
+            widgetSlot.add(createInstructorWidgets(), "growx");
+        } else if (SessionManager.isAdmin()) {
+            widgetSlot.add(createAdminWidgets(), "growx");
+        }
+        eventBus.recordReload();
+        revalidate();
+        repaint();
+    }
 
+    private void reloadNotifications() {
+        notificationsStale = false;
+        notificationsLoadedAt = System.currentTimeMillis();
+        notificationSlot.removeAll();
+        notificationSlot.add(createNotificationWidget(), "grow");
+        eventBus.recordReload();
         revalidate();
         repaint();
     }
 
+    /**
+     * Runs on the EDT with a coalesced batch. Widgets the events touch are reloaded at once if
+     * the dashboard is on screen, otherwise on the next visit; the rest are left alone.
+     * Announcements show up through NOTIFICATIONS_DELIVERED, which fires once the outbox has
+     * written them, so ANNOUNCEMENT_CREATED needs no handling here.
+     */
+    private void onEvents(List<ErpEventBus.Event> events) {
+        if (loadedUserId < 0 || loadedUserId != SessionManager.getCurrentUserId()) return;
+        boolean widgets = false;
+        boolean notifications = false;
+        for (ErpEventBus.Event event : events) {
+            switch (event.type()) {
+                case ENROLLMENT_CHANGED ->
+                    widgets |= !SessionManager.isStudent() || event.concerns(loadedUserId, loadedRole);
+                case GRADES_POSTED -> widgets |= !SessionManager.isAdmin();
+                case MAINTENANCE_TOGGLED -> widgets |= SessionManager.isAdmin();
+                case NOTIFICATIONS_DELIVERED -> notifications |= event.concerns(loadedUserId, loadedRole);
+                default -> { }
+            }
+        }
+        widgetsStale |= widgets;
+        notificationsStale |= notifications;
+        if (!isShowing()) return;
+        if (widgetsStale) reloadWidgets();
+        if (notificationsStale) reloadNotifications();
+    }
+
     private JPanel createHeaderSection() {
         JPanel panel = new JPanel(new MigLayout("insets 0, gap 0"));
         panel.setOpaque(false);
@@ -105,30 +205,25 @@ public class DashboardPanel extends JPanel {
         container.add(new SkeletonPanel(), "grow, h 150!");
         container.add(new SkeletonPanel(), "grow, h 150!");
 
-        new SwingWorker<Map<String, Object>, Void>() {
+        new SwingWorker<StudentDashboard, Void>() {
             @Override
-            protected Map<String, Object> doInBackground() {
+            protected StudentDashboard doInBackground() {
                 return dashboardService.getStudentDashboardData(SessionManager.getCurrentUserId());
             }
 
             @Override
             protected void done() {
                 try {
-                    Map<String, Object> data = get();
+                    StudentDashboard data = get();
                     container.removeAll();
 
-                    String nextCourse = (String) data.getOrDefault("nextCourse", "No Classes");
-                    String nextTime = (String) data.getOrDefault("nextClassTime", "");
-                    String nextRoom = (String) data.getOrDefault("nextClassRoom", "");
+                    String nextTime = data.nextClassTime() != null ? data.nextClassTime() : "";
+                    String nextRoom = data.nextClassRoom() != null ? data.nextClassRoom() : "";
                     String subtitle = nextRoom.isEmpty() ? nextTime : nextRoom + " - " + nextTime;
 
-                    container.add(createCardWidget("Next Class", nextCourse, subtitle, ThemeManager.COLOR_INSTRUCTOR), "growx");
-
-                    String cgpa = (String) data.getOrDefault("cgpa", "N/A");
-                    int enrolled = (int) data.getOrDefault("enrolledCourses", 0);
-                    int pending = (int) data.getOrDefault("pendingGrades", 0);
+                    container.add(createCardWidget("Next Class", data.nextCourse(), subtitle, ThemeManager.COLOR_INSTRUCTOR), "growx");
 
-                    container.add(createProgressWidget(cgpa, enrolled, pending), "growx");
+                    container.add(createProgressWidget(data.cgpa(), data.enrolledCourses(), data.pendingGrades()), "growx");
                     container.revalidate();
                     container.repaint();
                 } catch (Exception e) {
@@ -216,30 +311,25 @@ public class DashboardPanel extends JPanel {
         container.add(new SkeletonPanel(), "grow, h 150!");
         container.add(new SkeletonPanel(), "grow, h 150!");
 
-        new SwingWorker<Map<String, Object>, Void>() {
+        new SwingWorker<InstructorDashboard, Void>() {
             @Override
-            protected Map<String, Object> doInBackground() {
+            protected InstructorDashboard doInBackground() {
                 return dashboardService.getInstructorDashboardData(SessionManager.getCurrentUserId());
             }
 
             @Override
             protected void done() {
                 try {
-                    Map<String, Object> data = get();
+                    InstructorDashboard data = get();
                     container.removeAll();
 
-                    String actionCourse = (String) data.getOrDefault("actionCourse", "No Sections");
-                    String actionPending = (String) data.getOrDefault("actionPending", "");
-                    int pending = (int) data.getOrDefault("pendingGrades", 0);
-
+                    int pending = data.pendingGrades();
                     Color actionColor = pending > 0 ? ThemeManager.COLOR_WARNING : ThemeManager.COLOR_SUCCESS;
-                    container.add(createCardWidget("Action Item", actionCourse, actionPending, actionColor), "growx");
+                    container.add(createCardWidget("Action Item", data.actionCourse(), data.actionPending(), actionColor), "growx");
 
-                    int sections = (int) data.getOrDefault("totalSections", 0);
-                    int students = (int) data.getOrDefault("totalStudents", 0);
                     container.add(createStatsCard("Teaching Overview",
                         new String[]{"Sections", "Students", "Pending"},
-                        new String[]{String.valueOf(sections), String.valueOf(students), String.valueOf(pending)}), "growx");
+                        new String[]{String.valueOf(data.totalSections()), String.valueOf(data.totalStudents()), String.valueOf(pending)}), "growx");
 
                     container.revalidate();
                     container.repaint();
@@ -261,38 +351,31 @@ public class DashboardPanel extends JPanel {
         container.add(new SkeletonPanel(), "grow, h 140!");
         container.add(new SkeletonPanel(), "grow, h 140!");
 
-        new SwingWorker<Map<String, Object>, Void>() {
+        new SwingWorker<AdminDashboard, Void>() {
             @Override
-            protected Map<String, Object> doInBackground() {
+            protected AdminDashboard doInBackground() {
                 return dashboardService.getAdminDashboardData();
             }
 
             @Override
             protected void done() {
                 try {
-                    Map<String, Object> data = get();
+                    AdminDashboard data = get();
                     container.removeAll();
 
-                    int totalUsers = (int) data.getOrDefault("totalUsers", 0);
-                    int students = (int) data.getOrDefault("totalStudents", 0);
-                    int instructors = (int) data.getOrDefault("totalInstructors", 0);
                     container.add(createHorizontalStatsPanel("User Statistics",
                         new String[]{"Total Users", "Students", "Instructors"},
-                        new String[]{String.valueOf(totalUsers), String.valueOf(students), String.valueOf(instructors)},
+                        new String[]{String.valueOf(data.totalUsers()), String.valueOf(data.totalStudents()), String.valueOf(data.totalInstructors())},
                         ThemeManager.COLOR_ADMIN), "growx");
 
-                    int courses = (int) data.getOrDefault("totalCourses", 0);
-                    int sections = (int) data.getOrDefault("totalSections", 0);
-                    int enrollments = (int) data.getOrDefault("totalEnrollments", 0);
                     container.add(createHorizontalStatsPanel("Academic Statistics",
                         new String[]{"Courses", "Sections", "Enrollments"},
-                        new String[]{String.valueOf(courses), String.valueOf(sections), String.valueOf(enrollments)},
+                        new String[]{String.valueOf(data.totalCourses()), String.valueOf(data.totalSections()), String.valueOf(data.totalEnrollments())},
                         ThemeManager.COLOR_INSTRUCTOR), "growx");
 
-                    boolean maintenance = (boolean) data.getOrDefault("maintenanceMode", false);
                     String lastBackup = getLastBackupTime();
-                    container.add(createSystemHealthPanel(maintenance,
-                        (int) data.getOrDefault("activeUsers", 0), lastBackup), "growx");
+                    container.add(createSystemHealthPanel(data.maintenanceMode(),
+                        data.activeUsers(), lastBackup), "growx");
 
                     container.revalidate();
                     container.repaint();
@@ -512,6 +595,7 @@ public class DashboardPanel extends JPanel {
         clearBtn.addActionListener(e -> {
             notificationService.markAllAsRead(SessionManager.getCurrentUserId(), SessionManager.getCurrentRole());
             listModel.clear();
+            title.setText("Notifications");
             MainFrame.getInstance().showSuccess("All notifications cleared.");
         });
 
@@ -530,8 +614,19 @@ public class DashboardPanel extends JPanel {
                     if (index >= 0 && index < listModel.size()) {
                         Notification n = listModel.getElementAt(index);
                         showNotificationDialog(n);
-                        notificationService.markAsRead(n.getNotificationId());
-                        listModel.removeElementAt(index);
+                        notificationService.markAsRead(SessionManager.getCurrentUserId(), n);
+                        if (n.getUserId() == null) {
+                            // Reading a broadcast moves the read cursor, which covers every older broadcast too.
+                            for (int i = listModel.size() - 1; i >= 0; i--) {
+                                Notification other = listModel.getElementAt(i);
+                                if (other.getUserId() == null && other.getNotificationId() <= n.getNotificationId()) {
+                                    listModel.removeElementAt(i);
+                                }
+                            }
+                        } else {
+                            listModel.removeElementAt(index);
+                        }
+                        refreshUnreadCount(title);
                     }
                 }
             }
@@ -552,6 +647,8 @@ public class DashboardPanel extends JPanel {
             }
         }.execute();
 
+        refreshUnreadCount(title);
+
         JScrollPane scroll = new JScrollPane(list);
         scroll.setBorder(null);
         // CHANGE 1: Enable horizontal scrolling
@@ -564,6 +661,22 @@ public class DashboardPanel extends JPanel {
         return card;
     }
 
+    private void refreshUnreadCount(JLabel title) {
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return notificationService.countUnread(SessionManager.getCurrentUserId(), SessionManager.getCurrentRole());
+            }
+            @Override
+            protected void done() {
+                try {
+                    int unread = get();
+                    title.setText(unread > 0 ? "Notifications (" + unread + ")" : "Notifications");
+                } catch (Exception e) { e.printStackTrace(); }
+            }
+        }.execute();
+    }
+
     private void showNotificationDialog(Notification notification) {
         JDialog dialog = new JDialog(MainFrame.getInstance(), "Notification", true);
         dialog.setLayout(new BorderLayout());
@@ -1,8 +1,8 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
 import edu.univ.erp.domain.Section;
-import edu.univ.erp.domain.StudentGradeEntry;
 import edu.univ.erp.service.InstructorService;
 import edu.univ.erp.service.InstructorService.InstructorServiceException;
 import edu.univ.erp.util.GradeCsvHandler;
@@ -38,7 +38,7 @@ public class GradebookPanel {
     private InstructorService instructorService;
     private Section currentSection;
     private List<GradeComponent> components = new ArrayList<>();
-    private List<StudentGradeEntry> students = new ArrayList<>();
+    private Gradebook gradebook = new Gradebook(new ArrayList<>());
 
     public GradebookPanel() {
         this.instructorService = new InstructorService();
@@ -153,7 +153,9 @@ public class GradebookPanel {
         if (section == null) {
             sectionTitle.setText("No Section Selected");
             statusLabel.setText("Select a section from the sidebar");
-            tableModel.setData(new ArrayList<>(), new ArrayList<>());
+            gradebook = new Gradebook(new ArrayList<>());
+            components = gradebook.getComponents();
+            tableModel.setData(gradebook);
             setActionsEnabled(false);
             return;
         }
@@ -166,15 +168,15 @@ public class GradebookPanel {
             @Override
             protected Void doInBackground() {
                 try {
-                    components = instructorService.getGradeComponents(section.getSectionId());
-                    students = instructorService.getGradesForSection(section.getSectionId());
+                    gradebook = instructorService.getGradebook(section.getSectionId());
+                    components = gradebook.getComponents();
                 } catch (Exception e) { e.printStackTrace(); }
                 return null;
             }
             @Override
             protected void done() {
-                tableModel.setData(components, students);
-                statusLabel.setText(students.size() + " Students • " + components.size() + " Assessments");
+                tableModel.setData(gradebook);
+                statusLabel.setText(gradebook.getStudentCount() + " Students • " + components.size() + " Assessments");
                 setActionsEnabled(true);
             }
         }.execute();
@@ -299,40 +301,29 @@ public class GradebookPanel {
         if (gradebookTable.isEditing()) gradebookTable.getCellEditor().stopCellEditing();
 
         
-        for (int r = 0; r < students.size(); r++) {
-            StudentGradeEntry student = students.get(r);
-            for (int c = 2; c < tableModel.getColumnCount() - 1; c++) {
-                int compIdx = c - 2;
-                if (compIdx < components.size()) {
-                    Object val = tableModel.getValueAt(r, c);
-                    if (val instanceof Double) {
-                        double score = (Double) val;
-                        GradeComponent comp = components.get(compIdx);
-                        if (score < 0) {
-                            MainFrame.getInstance().showError("Invalid score for " + student.getStudentName() + " in " + comp.getComponentName() + ": Score cannot be negative.");
-                            return;
-                        }
-                        if (score > comp.getMaxScore()) {
-                            MainFrame.getInstance().showError("Invalid score for " + student.getStudentName() + " in " + comp.getComponentName() + ": Score exceeds maximum (" + comp.getMaxScore() + ").");
-                            return;
-                        }
-                    }
+        for (int r = 0; r < gradebook.getStudentCount(); r++) {
+            for (int c = 0; c < gradebook.getComponentCount(); c++) {
+                if (!gradebook.hasScore(r, c)) continue;
+                double score = gradebook.getScore(r, c);
+                GradeComponent comp = gradebook.getComponent(c);
+                if (score < 0) {
+                    MainFrame.getInstance().showError("Invalid score for " + gradebook.getStudentName(r) + " in " + comp.getComponentName() + ": Score cannot be negative.");
+                    return;
+                }
+                if (score > comp.getMaxScore()) {
+                    MainFrame.getInstance().showError("Invalid score for " + gradebook.getStudentName(r) + " in " + comp.getComponentName() + ": Score exceeds maximum (" + comp.getMaxScore() + ").");
+                    return;
                 }
             }
         }
 
         Map<Integer, Map<Integer, Double>> scoresToUpdate = new HashMap<>();
-        for (int r = 0; r < students.size(); r++) {
-            StudentGradeEntry student = students.get(r);
+        for (int r = 0; r < gradebook.getStudentCount(); r++) {
             Map<Integer, Double> sScores = new HashMap<>();
-            for (int c = 2; c < tableModel.getColumnCount() - 1; c++) {
-                int compIdx = c - 2;
-                if (compIdx < components.size()) {
-                    Object val = tableModel.getValueAt(r, c);
-                    if (val instanceof Double) sScores.put(components.get(compIdx).getComponentId(), (Double)val);
-                }
+            for (int c = 0; c < gradebook.getComponentCount(); c++) {
+                if (gradebook.hasScore(r, c)) sScores.put(gradebook.getComponent(c).getComponentId(), gradebook.getScore(r, c));
             }
-            if (!sScores.isEmpty()) scoresToUpdate.put(student.getEnrollmentId(), sScores);
+            if (!sScores.isEmpty()) scoresToUpdate.put(gradebook.getEnrollmentId(r), sScores);
         }
 
         statusLabel.setText("Saving...");
@@ -408,28 +399,40 @@ public class GradebookPanel {
             File file = fc.getSelectedFile();
             
              Map<String, Integer> rollMap = new HashMap<>();
-             students.forEach(s -> rollMap.put(s.getRollNo(), s.getEnrollmentId()));
+             for (int r = 0; r < gradebook.getStudentCount(); r++) {
+                 rollMap.put(gradebook.getRollNo(r), gradebook.getEnrollmentId(r));
+             }
              
-             GradeCsvHandler.CsvImportResult result = GradeCsvHandler.importGradesFromCsv(file, components, rollMap);
-             if(result.isSuccess()) {
-                 
-                  new SwingWorker<Boolean, Void>() {
-                    @Override protected Boolean doInBackground() throws Exception {
-                        return instructorService.batchUpdateScores(result.getImportedScores());
-                    }
-                    @Override protected void done() {
-                        try { if(get()) { MainFrame.getInstance().showSuccess("Imported " + result.getRecordsProcessed() + " records."); loadSection(currentSection); } } 
-                        catch(Exception e) { e.printStackTrace(); }
+             statusLabel.setText("Importing grades...");
+             new SwingWorker<GradeCsvHandler.CsvImportResult, Void>() {
+                @Override protected GradeCsvHandler.CsvImportResult doInBackground() throws Exception {
+                    return instructorService.importScoresFromCsv(currentSection.getSectionId(), file, components, rollMap);
+                }
+                @Override protected void done() {
+                    try {
+                        GradeCsvHandler.CsvImportResult result = get();
+                        if (!result.isSuccess()) {
+                            MainFrame.getInstance().showError(result.getErrors().toString());
+                        } else if (result.hasErrors()) {
+                            MainFrame.getInstance().showWarning("Imported " + result.getRecordsProcessed() +
+                                " records with " + result.getErrors().size() + " warnings. First: " + result.getErrors().get(0));
+                        } else {
+                            MainFrame.getInstance().showSuccess("Imported " + result.getRecordsProcessed() + " records.");
+                        }
+                        statusLabel.setText(String.format("Imported %d rows (%.0f rows/sec)",
+                            result.getRowsRead(), result.getRowsPerSecond()));
+                        loadSection(currentSection);
+                    } catch (Exception e) {
+                        MainFrame.getInstance().showError(getCleanErrorMessage(e));
+                        statusLabel.setText("Import failed.");
                     }
-                  }.execute();
-             } else {
-                 MainFrame.getInstance().showError(result.getErrors().toString());
-             }
+                }
+             }.execute();
         }
     }
 
     private void exportGradesToCsv() {
-        if (students == null || students.isEmpty()) {
+        if (gradebook.getStudentCount() == 0) {
             MainFrame.getInstance().showWarning("No data to export.");
             return;
         }
@@ -440,9 +443,10 @@ public class GradebookPanel {
         
         if (fc.showSaveDialog(mainPanel) == JFileChooser.APPROVE_OPTION) {
             File file = fc.getSelectedFile();
+            Gradebook snapshot = gradebook.copy();
             new SwingWorker<Boolean, Void>() {
                 @Override protected Boolean doInBackground() {
-                    return GradeCsvHandler.exportGradesToCsv(students, components, file);
+                    return GradeCsvHandler.exportGradesToCsv(snapshot, file);
                 }
                 @Override protected void done() {
                     try {
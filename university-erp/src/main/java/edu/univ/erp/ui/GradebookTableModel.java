@@ -1,7 +1,7 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.domain.GradeComponent;
-import edu.univ.erp.domain.StudentGradeEntry;
+import edu.univ.erp.domain.Gradebook;
 
 import javax.swing.table.DefaultTableModel;
 import java.util.ArrayList;
@@ -10,20 +10,20 @@ import java.util.List;
 public class GradebookTableModel extends DefaultTableModel {
 
     private List<GradeComponent> components;
-    private List<StudentGradeEntry> students;
+    private Gradebook gradebook;
     private List<String> columnNames;
 
     public GradebookTableModel() {
-        this.students = new ArrayList<>();
+        this.gradebook = new Gradebook(new ArrayList<>());
         this.components = new ArrayList<>();
         this.columnNames = new ArrayList<>();
         updateColumnNames();
     }
 
     
-    public void setData(List<GradeComponent> components, List<StudentGradeEntry> students) {
-        this.components = (components != null) ? new ArrayList<>(components) : new ArrayList<>();
-        this.students = (students != null) ? new ArrayList<>(students) : new ArrayList<>();
+    public void setData(Gradebook gradebook) {
+        this.gradebook = (gradebook != null) ? gradebook : new Gradebook(new ArrayList<>());
+        this.components = this.gradebook.getComponents();
         updateColumnNames();
         fireTableStructureChanged();
     }
@@ -55,47 +55,44 @@ public class GradebookTableModel extends DefaultTableModel {
 
     @Override
     public int getRowCount() {
-        return (students != null) ? students.size() : 0;
+        return (gradebook != null) ? gradebook.getStudentCount() : 0;
     }
 
     @Override
     public Object getValueAt(int row, int col) {
         
-        if (students == null || row < 0 || row >= students.size()) {
+        if (gradebook == null || row < 0 || row >= gradebook.getStudentCount()) {
             return null;
         }
-        StudentGradeEntry student = students.get(row);
         if (col < 0 || col >= columnNames.size()) {
              return null;
         }
 
-        if (col == 0) return student.getRollNo();
-        if (col == 1) return student.getStudentName();
-        if (col == columnNames.size() - 1) return student.getFinalGrade();
+        if (col == 0) return gradebook.getRollNo(row);
+        if (col == 1) return gradebook.getStudentName(row);
+        if (col == columnNames.size() - 1) return gradebook.getFinalGrade(row);
 
         int componentIndex = col - 2;
         if (components != null && componentIndex >= 0 && componentIndex < components.size()) {
-            GradeComponent comp = components.get(componentIndex);
-            return student.getScores().get(comp.getComponentId());
+            return gradebook.hasScore(row, componentIndex) ? gradebook.getScore(row, componentIndex) : null;
         }
         return null;
     }
 
     @Override
     public void setValueAt(Object aValue, int row, int col) {
-        if (students == null || row < 0 || row >= students.size() ||
+        if (gradebook == null || row < 0 || row >= gradebook.getStudentCount() ||
             col < 2 || col >= columnNames.size() - 1) {
             return;
         }
 
-        StudentGradeEntry student = students.get(row);
         int componentIndex = col - 2;
 
         if (components != null && componentIndex >= 0 && componentIndex < components.size()) {
             GradeComponent comp = components.get(componentIndex);
             try {
                 if (aValue == null || aValue.toString().trim().isEmpty()) {
-                     student.getScores().remove(comp.getComponentId());
+                     gradebook.clearScore(row, componentIndex);
                      fireTableCellUpdated(row, col);
 
                 } else {
@@ -111,7 +108,7 @@ public class GradebookTableModel extends DefaultTableModel {
                             MainFrame.getInstance().showError("Score cannot exceed maximum (" + String.format("%.1f", comp.getMaxScore()) + ") for " + comp.getComponentName() + "."));
                         return;
                     }
-                    student.addScore(comp.getComponentId(), score);
+                    gradebook.setScore(row, componentIndex, score);
                     fireTableCellUpdated(row, col);
                 }
             } catch (NumberFormatException e) {
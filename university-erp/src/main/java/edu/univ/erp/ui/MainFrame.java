@@ -144,6 +144,7 @@ public class MainFrame extends JFrame {
     public void navigateToLogin() {
         SessionManager.logout();
         panelCache.clear();
+        if (dashboardPanelInstance != null) dashboardPanelInstance.reset();
         contentPanel.removeAll();
         rootLayout.show(rootPanel, LOGIN_VIEW);
     }
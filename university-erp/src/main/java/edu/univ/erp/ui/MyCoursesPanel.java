@@ -2,6 +2,7 @@ package edu.univ.erp.ui;
 
 import edu.univ.erp.auth.SessionManager;
 import edu.univ.erp.domain.Enrollment;
+import edu.univ.erp.service.RegistrationQueue;
 import edu.univ.erp.service.StudentService;
 import edu.univ.erp.util.TableUtils;
 import net.miginfocom.swing.MigLayout;
@@ -13,6 +14,7 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 public class MyCoursesPanel {
     private JPanel mainPanel;
@@ -162,23 +164,17 @@ public class MyCoursesPanel {
         Enrollment e = myEnrollments.get(coursesTable.convertRowIndexToModel(coursesTable.getSelectedRow()));
 
         if (ConfirmDialog.confirmAction(mainPanel, "Drop Course", "Are you sure you want to drop " + e.getCourseCode() + "?")) {
-            new SwingWorker<String, Void>() {
-                @Override protected String doInBackground() {
-                    try {
-                        studentService.dropSection(SessionManager.getCurrentUserId(), e.getEnrollmentId());
-                        return "Success";
-                    } catch (Exception ex) { return ex.getMessage(); }
-                }
-                @Override protected void done() {
-                    try {
-                        String res = get();
-                        if ("Success".equals(res)) {
-                            MainFrame.getInstance().showSuccess("Dropped successfully.");
-                            refreshData();
-                        } else MainFrame.getInstance().showError(res);
-                    } catch (Exception ex) { ex.printStackTrace(); }
-                }
-            }.execute();
+            RegistrationQueue.getInstance()
+                .submitDrop(SessionManager.getCurrentUserId(), e.getEnrollmentId())
+                .whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null) {
+                        MainFrame.getInstance().showSuccess("Dropped successfully.");
+                        refreshData();
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        MainFrame.getInstance().showError(cause.getMessage());
+                    }
+                }));
         }
     }
 
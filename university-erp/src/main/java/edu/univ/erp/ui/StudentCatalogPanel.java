@@ -2,6 +2,7 @@ package edu.univ.erp.ui;
 
 import edu.univ.erp.auth.SessionManager;
 import edu.univ.erp.domain.Section;
+import edu.univ.erp.service.RegistrationQueue;
 import edu.univ.erp.service.SemesterService;
 import edu.univ.erp.service.StudentService;
 import net.miginfocom.swing.MigLayout;
@@ -10,15 +11,29 @@ import javax.swing.*;
 import javax.swing.event.AncestorEvent;
 import javax.swing.event.AncestorListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 public class StudentCatalogPanel {
+    private static final int CARD_HEIGHT = 270;
+    private static final String VIEW_MESSAGE = "message";
+    private static final String VIEW_GRID = "grid";
+
     private JPanel mainPanel;
     private JPanel cardsContainer;
+    private JPanel contentPanel;
+    private VirtualCardGrid<Section> cardGrid;
     private StudentService studentService;
     private JTextField searchField;
     private JComboBox<String> sortCombo;
     private List<Section> allSections; 
+    private String loadedSemester;
+    private int loadedYear;
+    // Bumped on every search so only the latest one's results are shown.
+    private int searchSeq;
 
     public StudentCatalogPanel() {
         this.studentService = new StudentService();
@@ -32,7 +47,7 @@ public class StudentCatalogPanel {
         
         mainPanel.addAncestorListener(new AncestorListener() {
             @Override public void ancestorAdded(AncestorEvent event) { refreshData(); }
-            @Override public void ancestorRemoved(AncestorEvent event) {}
+            @Override public void ancestorRemoved(AncestorEvent event) { cardGrid.logStats("Course catalog"); }
             @Override public void ancestorMoved(AncestorEvent event) {}
         });
 
@@ -46,24 +61,37 @@ public class StudentCatalogPanel {
         header.add(searchField, "growx, wmin 300");
         header.add(UIFactory.createSecondaryButton("Search", this::applySortAndFilter));
 
-        sortCombo = new JComboBox<>(new String[]{"Sort: Code", "Sort: Credits", "Sort: Availability"});
+        sortCombo = new JComboBox<>(new String[]{"Sort: Relevance", "Sort: Code", "Sort: Credits", "Sort: Availability"});
         sortCombo.setFont(ThemeManager.FONT_BODY);
         sortCombo.addActionListener(e -> applySortAndFilter());
         header.add(sortCombo, "w 180!");
 
         mainPanel.add(header, BorderLayout.NORTH);
 
-        
+        // Skeletons and the empty message are laid out normally; course cards go through the virtual grid
         cardsContainer = new JPanel(new MigLayout("wrap 3, fillx, insets 10 30 30 30, gap 20", "[grow][grow][grow]"));
         cardsContainer.setOpaque(false);
+        cardGrid = new VirtualCardGrid<>(3, CARD_HEIGHT, 20, new Insets(10, 30, 30, 30), CourseCard::new);
+
+        contentPanel = new JPanel(new CardLayout());
+        contentPanel.setOpaque(false);
+        contentPanel.add(createScrollPane(cardsContainer), VIEW_MESSAGE);
+        contentPanel.add(createScrollPane(cardGrid), VIEW_GRID);
+
+        mainPanel.add(contentPanel, BorderLayout.CENTER);
+    }
 
-        JScrollPane scrollPane = new JScrollPane(cardsContainer);
+    private JScrollPane createScrollPane(JComponent view) {
+        JScrollPane scrollPane = new JScrollPane(view);
         scrollPane.setBorder(null);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
+        return scrollPane;
+    }
 
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
+    private void showView(String view) {
+        ((CardLayout) contentPanel.getLayout()).show(contentPanel, view);
     }
 
     public void refreshData() {
@@ -77,6 +105,7 @@ public class StudentCatalogPanel {
         }
         cardsContainer.revalidate();
         cardsContainer.repaint();
+        showView(VIEW_MESSAGE);
 
         new SwingWorker<List<Section>, Void>() {
             @Override
@@ -84,9 +113,13 @@ public class StudentCatalogPanel {
                 try { Thread.sleep(400); } catch (Exception e) {}
                 String semester = SemesterService.getCurrentSemester();
                 int year = SemesterService.getCurrentYear();
+                loadedSemester = semester;
+                loadedYear = year;
 
                 int studentId = SessionManager.getCurrentUserId();
-                return studentService.getAvailableSectionsForStudent(semester, year, studentId);
+                List<Section> sections = studentService.getAvailableSectionsForStudent(semester, year, studentId);
+                studentService.warmCatalogSearch(semester, year);
+                return sections;
             }
 
             @Override
@@ -106,20 +139,42 @@ public class StudentCatalogPanel {
         if (allSections == null) return;
 
         String query = searchField.getText().trim().toLowerCase();
-        cardsContainer.removeAll();
+        int seq = ++searchSeq;
+        if (query.isEmpty()) {
+            showSections(new ArrayList<>(allSections), query);
+            return;
+        }
 
-        // Filter
-        List<Section> filtered = allSections.stream()
-            .filter(s -> {
-                if (query.isEmpty()) return true;
+        // Filter: ranked matches from the catalog's search index, restricted to this student's sections.
+        // The search may have to reload the catalog after an admin change, so it runs off the EDT.
+        Map<Integer, Section> byId = new HashMap<>();
+        for (Section s : allSections) byId.put(s.getSectionId(), s);
+        String semester = loadedSemester;
+        int year = loadedYear;
+        new SwingWorker<List<Integer>, Void>() {
+            @Override
+            protected List<Integer> doInBackground() {
+                return studentService.searchCatalog(semester, year, query, byId.size(), byId::containsKey);
+            }
 
-                String code = s.getCourseCode() != null ? s.getCourseCode().toLowerCase() : "";
-                String title = s.getCourseTitle() != null ? s.getCourseTitle().toLowerCase() : "";
-                String instructor = s.getInstructorName() != null ? s.getInstructorName().toLowerCase() : "";
-                return code.contains(query) || title.contains(query) || instructor.contains(query);
-            })
-            .collect(java.util.stream.Collectors.toList());
+            @Override
+            protected void done() {
+                if (seq != searchSeq) return;
+                try {
+                    List<Section> filtered = new ArrayList<>();
+                    for (int sectionId : get()) {
+                        filtered.add(byId.get(sectionId));
+                    }
+                    showSections(filtered, query);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    MainFrame.getInstance().showError("Failed to search the catalog.");
+                }
+            }
+        }.execute();
+    }
 
+    private void showSections(List<Section> filtered, String query) {
         // Sort
         String sortOption = (String) sortCombo.getSelectedItem();
         if ("Sort: Code".equals(sortOption)) {
@@ -140,92 +195,94 @@ public class StudentCatalogPanel {
             JLabel empty = new JLabel(msg);
             empty.setFont(ThemeManager.FONT_TITLE);
             empty.setForeground(ThemeManager.COLOR_TEXT_SECONDARY);
+            cardsContainer.removeAll();
             cardsContainer.add(empty, "span, align center, gaptop 50");
+            cardsContainer.revalidate();
+            cardsContainer.repaint();
+            showView(VIEW_MESSAGE);
         } else {
-            for (Section s : filtered) {
-                cardsContainer.add(createCourseCard(s), "grow");
-            }
+            // Only the cards in view are re-bound; the rest of the list is never turned into components
+            cardGrid.setItems(filtered);
+            showView(VIEW_GRID);
         }
-        cardsContainer.revalidate();
-        cardsContainer.repaint();
     }
 
-    private JPanel createCourseCard(Section section) {
-        JPanel card = new JPanel(new MigLayout("fill, insets 15, wrap 1"));
-        card.setBackground(Color.WHITE);
-        card.setBorder(BorderFactory.createLineBorder(ThemeManager.COLOR_BORDER));
-        card.putClientProperty("Component.arc", 12);
-
-        JLabel creditsTag = new JLabel(section.getCourseCode() + " • " + 4 + " Credits");
-        creditsTag.setFont(ThemeManager.FONT_LABEL);
-        creditsTag.setForeground(ThemeManager.getCurrentAccent());
-        
-        JLabel title = new JLabel("<html><body style='width: 200px'>" + section.getCourseTitle() + "</body></html>");
-        title.setFont(ThemeManager.FONT_TITLE.deriveFont(16f));
-        title.setForeground(ThemeManager.COLOR_TEXT_PRIMARY);
-        
-        JLabel details = new JLabel("<html>Sec " + section.getSectionCode() + "<br/>" + 
-                                    "Instr: " + section.getInstructorName() + "<br/>" + 
-                                    section.getDayTime() + " • " + section.getRoom() + "</html>");
-        details.setFont(ThemeManager.FONT_BODY);
-        details.setForeground(ThemeManager.COLOR_TEXT_SECONDARY);
-
-        int filled = section.getEnrollmentCount();
-        int capacity = section.getCapacity();
-        int percentage = (int) ((double) filled / capacity * 100);
-        
-        JProgressBar capacityBar = new JProgressBar(0, capacity);
-        capacityBar.setValue(filled);
-        capacityBar.setStringPainted(true);
-        capacityBar.setString(filled + "/" + capacity + " Seats Taken");
-        capacityBar.putClientProperty("JProgressBar.largeHeight", true);
-        
-        if (percentage >= 90) capacityBar.setForeground(ThemeManager.COLOR_DANGER);
-        else if (percentage >= 75) capacityBar.setForeground(ThemeManager.COLOR_WARNING);
-        else capacityBar.setForeground(ThemeManager.COLOR_SUCCESS);
-
-        JButton registerBtn = UIFactory.createPrimaryButton("Register", () -> registerAction(section));
-        if (percentage >= 100) {
-            registerBtn.setEnabled(false);
-            registerBtn.setText("Full");
-            registerBtn.setBackground(ThemeManager.COLOR_TEXT_SECONDARY);
+    /** One catalog card, built once and re-bound to whichever section scrolls into its slot. */
+    private class CourseCard implements VirtualCardGrid.Card<Section> {
+        private final JPanel card = new JPanel(new MigLayout("fill, insets 15, wrap 1"));
+        private final JLabel creditsTag = new JLabel();
+        private final JLabel title = new JLabel();
+        private final JLabel details = new JLabel();
+        private final JProgressBar capacityBar = new JProgressBar();
+        private final JButton registerBtn;
+        private Section section;
+
+        CourseCard() {
+            card.setBackground(Color.WHITE);
+            card.setBorder(BorderFactory.createLineBorder(ThemeManager.COLOR_BORDER));
+            card.putClientProperty("Component.arc", 12);
+
+            creditsTag.setFont(ThemeManager.FONT_LABEL);
+            creditsTag.setForeground(ThemeManager.getCurrentAccent());
+            title.setFont(ThemeManager.FONT_TITLE.deriveFont(16f));
+            title.setForeground(ThemeManager.COLOR_TEXT_PRIMARY);
+            details.setFont(ThemeManager.FONT_BODY);
+            details.setForeground(ThemeManager.COLOR_TEXT_SECONDARY);
+            capacityBar.setStringPainted(true);
+            capacityBar.putClientProperty("JProgressBar.largeHeight", true);
+            registerBtn = UIFactory.createPrimaryButton("Register", () -> registerAction(section));
+
+            card.add(creditsTag);
+            card.add(title, "gapbottom 10");
+            card.add(details, "gapbottom 15");
+            card.add(capacityBar, "growx, gapbottom 10");
+            card.add(registerBtn, "growx");
         }
 
-        card.add(creditsTag);
-        card.add(title, "gapbottom 10");
-        card.add(details, "gapbottom 15");
-        card.add(capacityBar, "growx, gapbottom 10");
-        card.add(registerBtn, "growx");
-
-        return card;
+        @Override
+        public JComponent getComponent() { return card; }
+
+        @Override
+        public void bind(Section section) {
+            this.section = section;
+            creditsTag.setText(section.getCourseCode() + " • " + 4 + " Credits");
+            title.setText("<html><body style='width: 200px'>" + section.getCourseTitle() + "</body></html>");
+            details.setText("<html>Sec " + section.getSectionCode() + "<br/>" +
+                            "Instr: " + section.getInstructorName() + "<br/>" +
+                            section.getDayTime() + " • " + section.getRoom() + "</html>");
+
+            int filled = section.getEnrollmentCount();
+            int capacity = section.getCapacity();
+            int percentage = (int) ((double) filled / capacity * 100);
+
+            capacityBar.setMaximum(capacity);
+            capacityBar.setValue(filled);
+            capacityBar.setString(filled + "/" + capacity + " Seats Taken");
+            if (percentage >= 90) capacityBar.setForeground(ThemeManager.COLOR_DANGER);
+            else if (percentage >= 75) capacityBar.setForeground(ThemeManager.COLOR_WARNING);
+            else capacityBar.setForeground(ThemeManager.COLOR_SUCCESS);
+
+            boolean full = percentage >= 100;
+            registerBtn.setEnabled(!full);
+            registerBtn.setText(full ? "Full" : "Register");
+            registerBtn.setBackground(full ? ThemeManager.COLOR_TEXT_SECONDARY : ThemeManager.getCurrentAccent());
+        }
     }
 
     private void registerAction(Section section) {
         if (ConfirmDialog.confirmAction(mainPanel, "Register for Course",
             "Register for " + section.getCourseCode() + " - " + section.getSectionCode() + "?")) {
-            new SwingWorker<String, Void>() {
-                @Override
-                protected String doInBackground() {
-                    try {
-                        studentService.registerForSection(SessionManager.getCurrentUserId(), section.getSectionId());
-                        return "Success";
-                    } catch (Exception e) {
-                        return e.getMessage();
+            RegistrationQueue.getInstance()
+                .submitRegistration(SessionManager.getCurrentUserId(), section.getSectionId())
+                .whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null) {
+                        MainFrame.getInstance().showSuccess("Successfully registered!");
+                        refreshData();
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        MainFrame.getInstance().showError(cause.getMessage());
                     }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        String result = get();
-                        if ("Success".equals(result)) {
-                            MainFrame.getInstance().showSuccess("Successfully registered!");
-                            refreshData();
-                        } else {
-                            MainFrame.getInstance().showError(result);
-                        }
-                    } catch (Exception e) { e.printStackTrace(); }
-                }
-            }.execute();
+                }));
         }
     }
 
@@ -1,18 +1,24 @@
 package edu.univ.erp.ui;
 
 import edu.univ.erp.service.AdminService;
+import edu.univ.erp.service.DepartmentAnalyticsEngine;
+import edu.univ.erp.service.GradePostingEngine;
 import edu.univ.erp.service.MaintenanceService;
+import edu.univ.erp.service.NotificationRetentionJob;
 import edu.univ.erp.service.SemesterService;
+import edu.univ.erp.service.TranscriptBatchExporter;
 import edu.univ.erp.util.DatabaseBackupRestore;
 import net.miginfocom.swing.MigLayout;
 import com.github.lgooddatepicker.components.DatePicker;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
 import java.time.LocalDate;
 import java.time.Year;
+import java.util.List;
 
 public class SystemSettingsPanel {
     private JPanel mainPanel;
@@ -101,12 +107,167 @@ public class SystemSettingsPanel {
             }.execute();
         });
 
+        JButton postGrades = UIFactory.createSecondaryButton("Post Final Grades", () -> {
+            String semester = (String) sem.getSelectedItem();
+            int termYear = (int) year.getValue();
+            if (!ConfirmDialog.confirmAction(mainPanel, "Post Final Grades",
+                    "Compute and post final grades for every " + semester + " " + termYear + " section?")) return;
+            LoadingDialog loadingDialog = new LoadingDialog(mainPanel, "Posting final grades...");
+            new SwingWorker<GradePostingEngine.SemesterResult, Void>() {
+                @Override protected GradePostingEngine.SemesterResult doInBackground() throws Exception {
+                    loadingDialog.showLoading();
+                    return adminService.postFinalGradesForSemester(semester, termYear);
+                }
+                @Override protected void done() {
+                    loadingDialog.hideLoading();
+                    try {
+                        GradePostingEngine.SemesterResult result = get();
+                        String summary = String.format("Graded %d students across %d sections in %d ms",
+                            result.totalGraded(), result.sections().size(), result.elapsedMs());
+                        if (result.failedSections() > 0) {
+                            MainFrame.getInstance().showError(summary + "; " + result.failedSections() + " sections skipped. See log for details.");
+                        } else {
+                            MainFrame.getInstance().showSuccess(summary + ".");
+                        }
+                    } catch (Exception e) {
+                        MainFrame.getInstance().showError("Failed to post final grades.");
+                    }
+                }
+            }.execute();
+        });
+
+        JButton analytics = UIFactory.createSecondaryButton("Grade Analytics", () ->
+            loadGradeAnalytics((String) sem.getSelectedItem(), (int) year.getValue()));
+
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        actions.setOpaque(false);
+        actions.add(save);
+        actions.add(postGrades);
+        actions.add(analytics);
+
         p.add(UIFactory.createLabel("Semester")); p.add(sem, "growx");
         p.add(UIFactory.createLabel("Year")); p.add(year, "growx");
-        p.add(save, "gaptop 10");
+        p.add(actions, "gaptop 10");
         return p;
     }
 
+    private void loadGradeAnalytics(String semester, int termYear) {
+        LoadingDialog loadingDialog = new LoadingDialog(mainPanel, "Analyzing " + semester + " " + termYear + " grades...");
+        new SwingWorker<DepartmentAnalyticsEngine.SemesterReport, Void>() {
+            @Override protected DepartmentAnalyticsEngine.SemesterReport doInBackground() throws Exception {
+                loadingDialog.showLoading();
+                return adminService.getGradeAnalytics(semester, termYear);
+            }
+            @Override protected void done() {
+                loadingDialog.hideLoading();
+                try {
+                    DepartmentAnalyticsEngine.SemesterReport report = get();
+                    if (report.sections().isEmpty()) {
+                        MainFrame.getInstance().showWarning("No enrolled sections for " + semester + " " + termYear + ".");
+                        return;
+                    }
+                    showGradeAnalytics(report);
+                } catch (Exception e) {
+                    MainFrame.getInstance().showError("Failed to compute grade analytics.");
+                }
+            }
+        }.execute();
+    }
+
+    private void showGradeAnalytics(DepartmentAnalyticsEngine.SemesterReport report) {
+        JDialog dialog = new JDialog(MainFrame.getInstance(),
+            "Grade Analytics - " + report.semester() + " " + report.year(), true);
+        dialog.setLayout(new BorderLayout());
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Departments", groupTable(report.departments()));
+        tabs.addTab("Courses", groupTable(report.courses()));
+        tabs.addTab("Instructors", groupTable(report.instructors()));
+        tabs.addTab("Components", groupTable(report.components()));
+        tabs.addTab("Outlier Sections (" + report.outliers().size() + ")", outlierTable(report.outliers()));
+
+        JLabel summary = UIFactory.createLabel(String.format("%d sections, %d score rows analyzed in %d ms",
+            report.sections().size(), report.rowsStreamed(), report.elapsedMs()));
+        JButton export = UIFactory.createPrimaryButton("Export CSV", () -> exportGradeAnalytics(report));
+        JButton close = UIFactory.createSecondaryButton("Close", dialog::dispose);
+
+        JPanel footer = new JPanel(new MigLayout("fillx, insets 10 20 10 20", "[grow][][]"));
+        footer.setBackground(Color.WHITE);
+        footer.add(summary);
+        footer.add(export);
+        footer.add(close);
+
+        dialog.add(tabs, BorderLayout.CENTER);
+        dialog.add(footer, BorderLayout.SOUTH);
+        dialog.setSize(1000, 600);
+        dialog.setLocationRelativeTo(MainFrame.getInstance());
+        dialog.setVisible(true);
+    }
+
+    private JScrollPane groupTable(List<DepartmentAnalyticsEngine.GroupSummary> groups) {
+        DefaultTableModel model = readOnlyModel("Name", "Sections", "Students", "Graded", "A", "B", "C", "D", "F",
+            "Pass %", "Mean", "Median", "Std Dev");
+        for (DepartmentAnalyticsEngine.GroupSummary g : groups) {
+            long[] l = g.letters();
+            model.addRow(new Object[]{g.key(), g.sections(), g.students(), g.graded(), l[0], l[1], l[2], l[3], l[4],
+                formatStat(g.passRate() * 100), formatStat(g.scores().getMean()),
+                formatStat(g.scores().getMedian()), formatStat(g.scores().getStdDev())});
+        }
+        return analyticsScroll(model);
+    }
+
+    private JScrollPane outlierTable(List<DepartmentAnalyticsEngine.SectionSummary> sections) {
+        DefaultTableModel model = readOnlyModel("Section", "Instructor", "Students", "Graded", "Pass %",
+            "Mean", "Median", "Z Score");
+        for (DepartmentAnalyticsEngine.SectionSummary s : sections) {
+            model.addRow(new Object[]{s.label(), s.instructorName(), s.students(), s.graded(),
+                formatStat(s.passRate() * 100), formatStat(s.meanFinalScore()),
+                formatStat(s.statistics().finalScores().getMedian()), formatStat(s.zScore())});
+        }
+        return analyticsScroll(model);
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+    }
+
+    private static JScrollPane analyticsScroll(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setRowHeight(28);
+        table.setAutoCreateRowSorter(true);
+        table.setFont(ThemeManager.FONT_BODY);
+        table.getTableHeader().setFont(ThemeManager.FONT_BODY_BOLD);
+        return new JScrollPane(table);
+    }
+
+    private static String formatStat(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
+
+    private void exportGradeAnalytics(DepartmentAnalyticsEngine.SemesterReport report) {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new File("GradeAnalytics_" + report.semester() + "_" + report.year() + ".csv"));
+        fc.setFileFilter(new FileNameExtensionFilter("CSV", "csv"));
+        if (fc.showSaveDialog(mainPanel) != JFileChooser.APPROVE_OPTION) return;
+        File file = fc.getSelectedFile();
+        new SwingWorker<Void, Void>() {
+            @Override protected Void doInBackground() throws Exception {
+                new DepartmentAnalyticsEngine().exportToCsv(report, file);
+                return null;
+            }
+            @Override protected void done() {
+                try {
+                    get();
+                    MainFrame.getInstance().showSuccess("Grade analytics exported to " + file.getName() + ".");
+                } catch (Exception e) {
+                    MainFrame.getInstance().showError("Failed to export grade analytics.");
+                }
+            }
+        }.execute();
+    }
+
     private JPanel createAnnouncementCard() {
         JPanel p = createCard("Announcements");
         JTextArea msg = new JTextArea(3, 30);
@@ -155,14 +316,85 @@ public class SystemSettingsPanel {
             }
         });
 
+        JButton transcripts = UIFactory.createPrimaryButton("Export All Transcripts", this::exportAllTranscripts);
+
+        JButton archive = UIFactory.createSecondaryButton("Archive Old Notifications", this::archiveOldNotifications);
+
         JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
         row.setOpaque(false);
         row.add(backup);
         row.add(restore);
+        row.add(transcripts);
+        row.add(archive);
         p.add(row);
         return p;
     }
 
+    private void archiveOldNotifications() {
+        LoadingDialog loadingDialog = new LoadingDialog(mainPanel, "Archiving old notifications...");
+        new SwingWorker<NotificationRetentionJob.RunResult, Void>() {
+            @Override protected NotificationRetentionJob.RunResult doInBackground() throws Exception {
+                loadingDialog.showLoading();
+                return adminService.archiveOldNotifications();
+            }
+            @Override protected void done() {
+                loadingDialog.hideLoading();
+                try {
+                    NotificationRetentionJob.RunResult result = get();
+                    if (result.skipped()) {
+                        MainFrame.getInstance().showWarning("Notification archiving is already running on another client.");
+                        return;
+                    }
+                    MainFrame.getInstance().showSuccess(String.format(
+                        "Archived %d notifications (%.0f/sec, longest lock %d ms).",
+                        result.rowsArchived(), result.rowsPerSecond(), result.maxLockMs()));
+                } catch (Exception e) {
+                    MainFrame.getInstance().showError("Failed to archive notifications.");
+                }
+            }
+        }.execute();
+    }
+
+    private void exportAllTranscripts() {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new File("Transcripts_" + LocalDate.now() + ".zip"));
+        fc.setFileFilter(new FileNameExtensionFilter("ZIP", "zip"));
+        if (fc.showSaveDialog(mainPanel) != JFileChooser.APPROVE_OPTION) return;
+        File file = fc.getSelectedFile();
+
+        LoadingDialog loadingDialog = new LoadingDialog(mainPanel, "Exporting transcripts...");
+        new SwingWorker<TranscriptBatchExporter.Result, int[]>() {
+            @Override
+            protected TranscriptBatchExporter.Result doInBackground() throws Exception {
+                loadingDialog.showLoading();
+                return new TranscriptBatchExporter().exportToZip(file,
+                    (exported, failed) -> publish(new int[]{exported, failed}));
+            }
+            @Override
+            protected void process(java.util.List<int[]> chunks) {
+                int[] latest = chunks.get(chunks.size() - 1);
+                loadingDialog.setMessage("Exported " + latest[0] + " transcripts" +
+                    (latest[1] > 0 ? " (" + latest[1] + " failed)" : "") + "...");
+            }
+            @Override
+            protected void done() {
+                loadingDialog.hideLoading();
+                try {
+                    TranscriptBatchExporter.Result result = get();
+                    String summary = String.format("Exported %d transcripts (%.1f/sec)",
+                        result.exported(), result.transcriptsPerSecond());
+                    if (result.failed() > 0) {
+                        MainFrame.getInstance().showError(summary + ", " + result.failed() + " failed. See log for details.");
+                    } else {
+                        MainFrame.getInstance().showSuccess(summary + ".");
+                    }
+                } catch (Exception e) {
+                    MainFrame.getInstance().showError("Transcript export failed.");
+                }
+            }
+        }.execute();
+    }
+
     private void loadData() {
         maintenanceToggle.setSelected(MaintenanceService.isMaintenanceMode());
     }
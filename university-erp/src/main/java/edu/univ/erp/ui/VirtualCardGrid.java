@@ -0,0 +1,222 @@
+package edu.univ.erp.ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Grid of fixed-height cards for a JScrollPane that only creates components for the rows in
+ * view. Cards come from a pool; as the viewport scrolls, cards that leave the view are re-bound
+ * to the items coming into it, so thousands of items need a few dozen components. The item list
+ * is the whole model: filtering or sorting hands over a new list and only the visible cards are
+ * re-bound. Time spent on the EDT per refresh and per scroll step is recorded.
+ */
+public class VirtualCardGrid<T> extends JPanel implements Scrollable {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualCardGrid.class);
+    /** Rows bound beyond each edge of the view, so a small scroll never shows an empty slot. */
+    private static final int OVERSCAN_ROWS = 1;
+    private static final int SCROLL_UNIT = 16;
+
+    /** A reusable card component, re-bound to whichever item currently occupies its slot. */
+    public interface Card<T> {
+        JComponent getComponent();
+        void bind(T item);
+    }
+
+    private static final class Slot<T> {
+        final Card<T> card;
+        T item;
+
+        Slot(Card<T> card) {
+            this.card = card;
+        }
+    }
+
+    private final int columns;
+    private final int rowHeight;
+    private final int gap;
+    private final Insets padding;
+    private final Supplier<Card<T>> cardFactory;
+
+    private List<T> items = List.of();
+    private final Map<Integer, Slot<T>> slotsByIndex = new HashMap<>();
+    private final Deque<Slot<T>> freeSlots = new ArrayDeque<>();
+    private int cardsCreated;
+
+    private long refreshes;
+    private long lastRefreshNanos;
+    private long maxRefreshNanos;
+    private long scrollLayouts;
+    private long totalScrollNanos;
+    private long maxScrollNanos;
+    private long binds;
+
+    public VirtualCardGrid(int columns, int rowHeight, int gap, Insets padding, Supplier<Card<T>> cardFactory) {
+        super(null);
+        this.columns = columns;
+        this.rowHeight = rowHeight;
+        this.gap = gap;
+        this.padding = padding;
+        this.cardFactory = cardFactory;
+        setOpaque(false);
+    }
+
+    /** Shows a new item list from the top, re-binding only the cards in view. */
+    public void setItems(List<T> newItems) {
+        long start = System.nanoTime();
+        items = new ArrayList<>(newItems);
+        if (getParent() instanceof JViewport viewport) {
+            viewport.setViewPosition(new Point(0, 0));
+        }
+        revalidate();
+        layoutVisibleCards();
+
+        lastRefreshNanos = System.nanoTime() - start;
+        maxRefreshNanos = Math.max(maxRefreshNanos, lastRefreshNanos);
+        refreshes++;
+        logger.debug("Card grid refresh: {} items, {} ms on the EDT, {} cards in use, {} created",
+            items.size(), String.format("%.2f", lastRefreshNanos / 1e6), slotsByIndex.size(), cardsCreated);
+    }
+
+    public int getItemCount() { return items.size(); }
+    public int getCardsCreated() { return cardsCreated; }
+    public int getCardsInUse() { return slotsByIndex.size(); }
+    public long getBindCount() { return binds; }
+    public long getLastRefreshNanos() { return lastRefreshNanos; }
+    public long getMaxScrollNanos() { return maxScrollNanos; }
+
+    public double getAverageScrollNanos() {
+        return scrollLayouts == 0 ? 0.0 : (double) totalScrollNanos / scrollLayouts;
+    }
+
+    public void logStats(String name) {
+        logger.info("{} grid: {} refreshes (last {} ms, max {} ms on the EDT), {} scroll steps (avg {} ms, max {} ms), {} cards created, {} binds",
+            name, refreshes, String.format("%.2f", lastRefreshNanos / 1e6), String.format("%.2f", maxRefreshNanos / 1e6),
+            scrollLayouts, String.format("%.3f", getAverageScrollNanos() / 1e6), String.format("%.3f", maxScrollNanos / 1e6),
+            cardsCreated, binds);
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        boolean scrolled = width == getWidth() && height == getHeight() && (x != getX() || y != getY());
+        super.setBounds(x, y, width, height);
+        // The viewport scrolls by moving this panel, so a move is the cue to re-bind.
+        long start = System.nanoTime();
+        layoutVisibleCards();
+        if (scrolled) {
+            long elapsed = System.nanoTime() - start;
+            scrollLayouts++;
+            totalScrollNanos += elapsed;
+            maxScrollNanos = Math.max(maxScrollNanos, elapsed);
+        }
+    }
+
+    @Override
+    public void doLayout() {
+        layoutVisibleCards();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (items.size() + columns - 1) / columns;
+        int height = padding.top + padding.bottom + rows * rowHeight + Math.max(0, rows - 1) * gap;
+        return new Dimension(getWidth(), height);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return SCROLL_UNIT;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? Math.max(SCROLL_UNIT, visibleRect.height - rowHeight) : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    private void layoutVisibleCards() {
+        Rectangle view = getVisibleRect();
+        int first = 0;
+        int last = -1;
+        if (!items.isEmpty() && view.height > 0 && getWidth() > 0) {
+            int rowStride = rowHeight + gap;
+            int rows = (items.size() + columns - 1) / columns;
+            int firstRow = Math.max(0, (view.y - padding.top) / rowStride - OVERSCAN_ROWS);
+            int lastRow = Math.min(rows - 1, (view.y + view.height - padding.top) / rowStride + OVERSCAN_ROWS);
+            first = firstRow * columns;
+            last = Math.min(items.size() - 1, (lastRow + 1) * columns - 1);
+        }
+
+        Iterator<Map.Entry<Integer, Slot<T>>> it = slotsByIndex.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Slot<T>> entry = it.next();
+            int index = entry.getKey();
+            if (index < first || index > last) {
+                freeSlots.push(entry.getValue());
+                it.remove();
+            }
+        }
+
+        int cardWidth = (getWidth() - padding.left - padding.right - (columns - 1) * gap) / columns;
+        for (int index = first; index <= last; index++) {
+            T item = items.get(index);
+            Slot<T> slot = slotsByIndex.get(index);
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? createSlot() : freeSlots.pop();
+                slotsByIndex.put(index, slot);
+            }
+            JComponent component = slot.card.getComponent();
+            if (slot.item != item) {
+                slot.item = item;
+                slot.card.bind(item);
+                binds++;
+            }
+            int row = index / columns;
+            int column = index % columns;
+            int x = padding.left + column * (cardWidth + gap);
+            int y = padding.top + row * (rowHeight + gap);
+            if (component.getX() != x || component.getY() != y || component.getWidth() != cardWidth || component.getHeight() != rowHeight) {
+                component.setBounds(x, y, cardWidth, rowHeight);
+            }
+            if (!component.isVisible()) {
+                component.setVisible(true);
+            }
+            component.validate();
+        }
+
+        for (Slot<T> slot : freeSlots) {
+            slot.card.getComponent().setVisible(false);
+        }
+    }
+
+    private Slot<T> createSlot() {
+        Slot<T> slot = new Slot<>(cardFactory.get());
+        add(slot.card.getComponent());
+        cardsCreated++;
+        return slot;
+    }
+}
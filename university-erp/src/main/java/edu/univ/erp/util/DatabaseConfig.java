@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 public class DatabaseConfig {
@@ -14,6 +16,9 @@ public class DatabaseConfig {
     
     private static HikariDataSource authDataSource;
     private static HikariDataSource erpDataSource;
+    private static ScopedConnectionSource authConnections;
+    private static ScopedConnectionSource erpConnections;
+    private static final List<Runnable> closeHooks = new CopyOnWriteArrayList<>();
     
     static {
         initializeDataSources();
@@ -37,10 +42,11 @@ public class DatabaseConfig {
             authConfig.setPoolName("AuthDB-Pool");
             
             authDataSource = new HikariDataSource(authConfig);
+            authConnections = new ScopedConnectionSource("AuthDB-Pool", authDataSource::getConnection);
             
             
             HikariConfig erpConfig = new HikariConfig();
-            erpConfig.setJdbcUrl("jdbc:mysql://localhost:3306/university_erp");
+            erpConfig.setJdbcUrl("jdbc:mysql://localhost:3306/university_erp?rewriteBatchedStatements=true");
             erpConfig.setUsername("root");
             erpConfig.setPassword("agrim2006");
             erpConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
@@ -53,6 +59,7 @@ public class DatabaseConfig {
             erpConfig.setPoolName("ERP-DB-Pool");
             
             erpDataSource = new HikariDataSource(erpConfig);
+            erpConnections = new ScopedConnectionSource("ERP-DB-Pool", erpDataSource::getConnection);
             
             logger.info("Database connection pools initialized successfully");
             
@@ -63,14 +70,41 @@ public class DatabaseConfig {
     }
     
     public static Connection getAuthConnection() throws SQLException {
-        return authDataSource.getConnection();
+        return authConnections.getConnection();
     }
     
     public static Connection getERPConnection() throws SQLException {
-        return erpDataSource.getConnection();
+        return erpConnections.getConnection();
+    }
+
+    /**
+     * Runs a service operation as one unit of work: every connection it asks for, directly or
+     * through a DAO, is the same connection per database, taken on first use and returned when
+     * the operation finishes. Nested calls join the outermost unit.
+     */
+    public static <T, E extends Exception> T inUnitOfWork(ScopedConnectionSource.Work<T, E> work) throws SQLException, E {
+        return ScopedConnectionSource.runInScope(work, erpConnections, authConnections);
+    }
+
+    public static void logStats() {
+        erpConnections.logStats();
+        authConnections.logStats();
     }
     
+    /** Registers work that must run while the pools are still open, such as flushing buffered writes. */
+    public static void addCloseHook(Runnable hook) {
+        closeHooks.add(hook);
+    }
+
     public static void closeDataSources() {
+        for (Runnable hook : closeHooks) {
+            try {
+                hook.run();
+            } catch (Exception e) {
+                logger.error("Close hook failed", e);
+            }
+        }
+        closeHooks.clear();
         if (authDataSource != null && !authDataSource.isClosed()) {
             authDataSource.close();
         }
@@ -3,21 +3,30 @@ package edu.univ.erp.util;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import edu.univ.erp.domain.GradeComponent;
-import edu.univ.erp.domain.StudentGradeEntry;
+import edu.univ.erp.domain.Gradebook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 
 public class GradeCsvHandler {
     private static final Logger logger = LoggerFactory.getLogger(GradeCsvHandler.class);
+    private static final int CHUNK_SIZE = 1000;
+    private static final int VALIDATION_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int MAX_IN_FLIGHT_CHUNKS = VALIDATION_THREADS * 2;
+    private static final int MAX_REPORTED_ERRORS = 1000;
 
     
-    public static boolean exportGradesToCsv(List<StudentGradeEntry> students,
-                                           List<GradeComponent> components,
-                                           File outputFile) {
+    public static boolean exportGradesToCsv(Gradebook gradebook, File outputFile) {
+        List<GradeComponent> components = gradebook.getComponents();
         try (CSVWriter writer = new CSVWriter(new FileWriter(outputFile))) {
 
             
@@ -35,19 +44,18 @@ public class GradeCsvHandler {
             writer.writeNext(header.toArray(new String[0]));
 
             
-            for (StudentGradeEntry student : students) {
+            for (int r = 0; r < gradebook.getStudentCount(); r++) {
                 List<String> row = new ArrayList<>();
-                row.add(student.getRollNo());
-                row.add(student.getStudentName());
+                row.add(gradebook.getRollNo(r));
+                row.add(gradebook.getStudentName(r));
 
                 
-                for (GradeComponent component : components) {
-                    Double score = student.getScores().get(component.getComponentId());
-                    row.add(score != null ? String.valueOf(score) : "");
+                for (int c = 0; c < gradebook.getComponentCount(); c++) {
+                    row.add(gradebook.hasScore(r, c) ? String.valueOf(gradebook.getScore(r, c)) : "");
                 }
 
                 
-                row.add(student.getFinalGrade() != null ? student.getFinalGrade() : "");
+                row.add(gradebook.getFinalGrade(r) != null ? gradebook.getFinalGrade(r) : "");
 
                 writer.writeNext(row.toArray(new String[0]));
             }
@@ -66,8 +74,33 @@ public class GradeCsvHandler {
                                                       List<GradeComponent> components,
                                                       Map<String, Integer> rollToEnrollmentMap) {
         Map<Integer, Map<Integer, Double>> importedScores = new HashMap<>();
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
+        CsvImportResult result = importGradesStreaming(inputFile, components, rollToEnrollmentMap, chunk -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                importedScores.computeIfAbsent(chunk.enrollmentIds[i], id -> new HashMap<>())
+                    .put(chunk.componentIds[i], chunk.scores[i]);
+            }
+            return chunk.size();
+        }, true);
+        return new CsvImportResult(result.isSuccess(), result.getRecordsProcessed(), result.getErrors(), importedScores);
+    }
+
+    /**
+     * Streams a grade CSV into the given writer. The header is resolved to component slots once;
+     * lines are cut into chunks that are validated on a worker pool and handed to the writer in file
+     * order on a single thread, each chunk as its own unit of work. At most MAX_IN_FLIGHT_CHUNKS
+     * chunks are held at a time, so reading blocks while validation or writing falls behind.
+     * A chunk the writer rejects is reported and skipped, or stops the import when stopOnChunkFailure is set.
+     */
+    public static CsvImportResult importGradesStreaming(File inputFile,
+                                                        List<GradeComponent> components,
+                                                        Map<String, Integer> rollToEnrollmentMap,
+                                                        ScoreChunkWriter writer,
+                                                        boolean stopOnChunkFailure) {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        ExecutorService validators = Executors.newFixedThreadPool(VALIDATION_THREADS, daemonFactory("csv-validate"));
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(daemonFactory("csv-write"));
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_CHUNKS);
 
         try (CSVReader reader = new CSVReader(new FileReader(inputFile))) {
 
@@ -75,107 +108,249 @@ public class GradeCsvHandler {
             if (header == null || header.length < 2) {
                 return new CsvImportResult(false, 0, Collections.singletonList("Invalid CSV format: missing headers"));
             }
+            ColumnMapping mapping = ColumnMapping.resolve(header, components);
 
-            
-            
-            Map<Integer, Integer> columnToComponentId = new HashMap<>();
-
-            for (int i = 2; i < header.length; i++) { 
-                String columnName = header[i];
-                if ("Final Grade".equalsIgnoreCase(columnName.trim())) continue; 
+            CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+            List<String[]> lines = new ArrayList<>(CHUNK_SIZE);
+            int lineNumber = 1;
+            int chunkFirstLine = 2;
+            String[] line;
+            while (!progress.aborted && (line = reader.readNext()) != null) {
+                lineNumber++;
+                lines.add(line);
+                progress.rowsRead++;
+                if (lines.size() == CHUNK_SIZE) {
+                    tail = submitChunk(tail, lines, chunkFirstLine, mapping, rollToEnrollmentMap,
+                        writer, stopOnChunkFailure, progress, validators, writerThread, inFlight);
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    chunkFirstLine = lineNumber + 1;
+                }
+            }
+            if (!lines.isEmpty() && !progress.aborted) {
+                tail = submitChunk(tail, lines, chunkFirstLine, mapping, rollToEnrollmentMap,
+                    writer, stopOnChunkFailure, progress, validators, writerThread, inFlight);
+            }
+            tail.join();
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            progress.sampleHeap();
+            boolean success = !progress.aborted && progress.chunksRolledBack == 0;
+            CsvImportResult result = new CsvImportResult(success, progress.studentsProcessed, progress.errors,
+                new HashMap<>(), progress.rowsRead, progress.scoresWritten, progress.chunksCommitted,
+                progress.chunksRolledBack, elapsedMs, progress.peakHeapBytes);
+            logger.info("CSV import completed: {} rows, {} students, {} scores written, {} errors, {} rows/sec, peak heap {} MB",
+                progress.rowsRead, progress.studentsProcessed, progress.scoresWritten, progress.errors.size(),
+                String.format("%.0f", result.getRowsPerSecond()), progress.peakHeapBytes / (1024 * 1024));
+            return result;
 
-                
-                String componentName = columnName.replaceAll("\\s*\\(/.*\\)$", "").trim();
+        } catch (Exception e) {
+            logger.error("Error importing grades from CSV", e);
+            return new CsvImportResult(false, 0, Collections.singletonList("Error reading file: " + e.getMessage()));
+        } finally {
+            validators.shutdownNow();
+            writerThread.shutdownNow();
+        }
+    }
 
-                
-                boolean found = false;
-                for (GradeComponent comp : components) {
-                    if (comp.getComponentName().equalsIgnoreCase(componentName)) {
-                        columnToComponentId.put(i, comp.getComponentId());
-                        found = true;
-                        break;
-                    }
+    private static CompletableFuture<Void> submitChunk(CompletableFuture<Void> tail, List<String[]> lines, int firstLine,
+                                                       ColumnMapping mapping, Map<String, Integer> rollToEnrollmentMap,
+                                                       ScoreChunkWriter writer, boolean stopOnChunkFailure,
+                                                       ImportProgress progress, ExecutorService validators,
+                                                       ExecutorService writerThread, Semaphore inFlight)
+            throws InterruptedException {
+        inFlight.acquire();
+        progress.sampleHeap();
+        CompletableFuture<ScoreChunk> validated = CompletableFuture.supplyAsync(
+            () -> mapping.validate(lines, firstLine, rollToEnrollmentMap), validators);
+        return tail.<ScoreChunk, Void>thenCombineAsync(validated, (ignored, chunk) -> {
+            // Runs on the single writer thread, in file order.
+            progress.addErrors(chunk.errors);
+            progress.studentsProcessed += chunk.students;
+            if (progress.aborted) {
+                return null;
+            }
+            try {
+                progress.scoresWritten += writer.write(chunk);
+                progress.chunksCommitted++;
+            } catch (Exception e) {
+                progress.chunksRolledBack++;
+                progress.addErrors(List.of("Lines " + chunk.firstLine + "-" + chunk.lastLine +
+                    " were not saved: " + e.getMessage()));
+                if (stopOnChunkFailure) {
+                    progress.aborted = true;
                 }
-                
             }
+            return null;
+        }, writerThread).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.error("Unexpected error writing CSV chunk at line {}", firstLine, error);
+                progress.aborted = true;
+            }
+            inFlight.release();
+        });
+    }
 
-            
-            String[] line;
-            int lineNumber = 1;
+    private static ThreadFactory daemonFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 
-            while ((line = reader.readNext()) != null) {
-                lineNumber++;
+    /** Receives validated scores one chunk at a time; returns the number of scores stored. */
+    public interface ScoreChunkWriter {
+        int write(ScoreChunk chunk) throws Exception;
+    }
+
+    /** Validated (enrollment, component, score) triples for a range of CSV lines. */
+    public static class ScoreChunk {
+        public final int firstLine;
+        public final int lastLine;
+        final int[] enrollmentIds;
+        final int[] componentIds;
+        final double[] scores;
+        private int size;
+        private int students;
+        private final List<String> errors = new ArrayList<>();
+
+        ScoreChunk(int firstLine, int lastLine, int capacity) {
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.enrollmentIds = new int[capacity];
+            this.componentIds = new int[capacity];
+            this.scores = new double[capacity];
+        }
+
+        public int size() { return size; }
+        public int getEnrollmentId(int i) { return enrollmentIds[i]; }
+        public int getComponentId(int i) { return componentIds[i]; }
+        public double getScore(int i) { return scores[i]; }
+    }
+
+    /** CSV column index to component slot, resolved once from the header. */
+    private static final class ColumnMapping {
+        final int[] columns;
+        final int[] componentIds;
+        final double[] maxScores;
+        final String[] names;
+
+        private ColumnMapping(int[] columns, int[] componentIds, double[] maxScores, String[] names) {
+            this.columns = columns;
+            this.componentIds = componentIds;
+            this.maxScores = maxScores;
+            this.names = names;
+        }
+
+        static ColumnMapping resolve(String[] header, List<GradeComponent> components) {
+            Map<String, GradeComponent> byName = new HashMap<>();
+            for (GradeComponent comp : components) {
+                byName.putIfAbsent(comp.getComponentName().toLowerCase(), comp);
+            }
+            List<Integer> columns = new ArrayList<>();
+            List<GradeComponent> mapped = new ArrayList<>();
+            for (int i = 2; i < header.length; i++) {
+                String columnName = header[i];
+                if ("Final Grade".equalsIgnoreCase(columnName.trim())) continue;
+                String componentName = columnName.replaceAll("\\s*\\(/.*\\)$", "").trim();
+                GradeComponent comp = byName.get(componentName.toLowerCase());
+                if (comp != null) {
+                    columns.add(i);
+                    mapped.add(comp);
+                }
+            }
+            int n = columns.size();
+            int[] columnIndexes = new int[n];
+            int[] componentIds = new int[n];
+            double[] maxScores = new double[n];
+            String[] names = new String[n];
+            for (int k = 0; k < n; k++) {
+                columnIndexes[k] = columns.get(k);
+                componentIds[k] = mapped.get(k).getComponentId();
+                maxScores[k] = mapped.get(k).getMaxScore();
+                names[k] = mapped.get(k).getComponentName();
+            }
+            return new ColumnMapping(columnIndexes, componentIds, maxScores, names);
+        }
 
+        ScoreChunk validate(List<String[]> lines, int firstLine, Map<String, Integer> rollToEnrollmentMap) {
+            ScoreChunk chunk = new ScoreChunk(firstLine, firstLine + lines.size() - 1, lines.size() * columns.length);
+            for (int row = 0; row < lines.size(); row++) {
+                String[] line = lines.get(row);
+                int lineNumber = firstLine + row;
                 if (line.length < 2) {
-                    
                     continue;
                 }
 
-                
                 String rollNo = line[0].trim();
-                
-                
                 Integer enrollmentId = rollToEnrollmentMap.get(rollNo);
-                
                 if (enrollmentId == null) {
-                    
-                    errors.add("Line " + lineNumber + ": Student '" + rollNo + "' is not enrolled in this section.");
+                    chunk.errors.add("Line " + lineNumber + ": Student '" + rollNo + "' is not enrolled in this section.");
                     continue;
                 }
 
-                Map<Integer, Double> studentScores = new HashMap<>();
-
-                
-                for (Map.Entry<Integer, Integer> entry : columnToComponentId.entrySet()) {
-                    int columnIndex = entry.getKey();
-                    int componentId = entry.getValue();
-
-                    if (columnIndex < line.length && !line[columnIndex].trim().isEmpty()) {
-                        try {
-                            double score = Double.parseDouble(line[columnIndex].trim());
-
-                            
-                            GradeComponent component = components.stream()
-                                .filter(c -> c.getComponentId() == componentId)
-                                .findFirst()
-                                .orElse(null);
-
-                            if (component != null) {
-                                if (score < 0) {
-                                    errors.add("Line " + lineNumber + ": Negative score not allowed");
-                                    continue;
-                                }
-                                if (score > component.getMaxScore()) {
-                                    errors.add("Line " + lineNumber + ": Score " + score +
-                                             " exceeds max score " + component.getMaxScore() +
-                                             " for " + component.getComponentName());
-                                    continue;
-                                }
-                                studentScores.put(componentId, score);
-                            }
-
-                        } catch (NumberFormatException e) {
-                            errors.add("Line " + lineNumber + ": Invalid score value: " + line[columnIndex]);
+                int before = chunk.size;
+                for (int k = 0; k < columns.length; k++) {
+                    int columnIndex = columns[k];
+                    if (columnIndex >= line.length || line[columnIndex].trim().isEmpty()) continue;
+                    try {
+                        double score = Double.parseDouble(line[columnIndex].trim());
+                        if (score < 0) {
+                            chunk.errors.add("Line " + lineNumber + ": Negative score not allowed");
+                            continue;
+                        }
+                        if (score > maxScores[k]) {
+                            chunk.errors.add("Line " + lineNumber + ": Score " + score +
+                                " exceeds max score " + maxScores[k] + " for " + names[k]);
+                            continue;
                         }
+                        chunk.enrollmentIds[chunk.size] = enrollmentId;
+                        chunk.componentIds[chunk.size] = componentIds[k];
+                        chunk.scores[chunk.size] = score;
+                        chunk.size++;
+                    } catch (NumberFormatException e) {
+                        chunk.errors.add("Line " + lineNumber + ": Invalid score value: " + line[columnIndex]);
                     }
                 }
-
-                if (!studentScores.isEmpty()) {
-                    importedScores.put(enrollmentId, studentScores);
-                    successCount++;
+                if (chunk.size > before) {
+                    chunk.students++;
                 }
             }
+            return chunk;
+        }
+    }
 
-            logger.info("CSV import completed: {} students processed, {} errors", successCount, errors.size());
-            return new CsvImportResult(true, successCount, errors, importedScores);
+    /** Counters owned by the writer thread; rowsRead and the heap sample are only touched by the reader. */
+    private static final class ImportProgress {
+        final List<String> errors = new ArrayList<>();
+        volatile boolean aborted;
+        int rowsRead;
+        int studentsProcessed;
+        int scoresWritten;
+        int chunksCommitted;
+        int chunksRolledBack;
+        long peakHeapBytes;
+
+        void addErrors(List<String> newErrors) {
+            for (String error : newErrors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                } else if (errors.size() == MAX_REPORTED_ERRORS) {
+                    errors.add("Further errors omitted.");
+                    return;
+                } else {
+                    return;
+                }
+            }
+        }
 
-        } catch (Exception e) {
-            logger.error("Error importing grades from CSV", e);
-            return new CsvImportResult(false, 0, Collections.singletonList("Error reading file: " + e.getMessage()));
+        void sampleHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            peakHeapBytes = Math.max(peakHeapBytes, runtime.totalMemory() - runtime.freeMemory());
         }
     }
 
-    public static boolean exportRosterToCsv(List<StudentGradeEntry> students, File outputFile) {
+    public static boolean exportRosterToCsv(Gradebook gradebook, File outputFile) {
          
          
          return false; 
@@ -187,6 +362,12 @@ public class GradeCsvHandler {
         private final int recordsProcessed;
         private final List<String> errors;
         private final Map<Integer, Map<Integer, Double>> importedScores;
+        private final int rowsRead;
+        private final int scoresWritten;
+        private final int chunksCommitted;
+        private final int chunksRolledBack;
+        private final long elapsedMs;
+        private final long peakHeapBytes;
 
         public CsvImportResult(boolean success, int recordsProcessed, List<String> errors) {
             this(success, recordsProcessed, errors, new HashMap<>());
@@ -194,10 +375,22 @@ public class GradeCsvHandler {
 
         public CsvImportResult(boolean success, int recordsProcessed, List<String> errors,
                              Map<Integer, Map<Integer, Double>> importedScores) {
+            this(success, recordsProcessed, errors, importedScores, 0, 0, 0, 0, 0, 0);
+        }
+
+        public CsvImportResult(boolean success, int recordsProcessed, List<String> errors,
+                             Map<Integer, Map<Integer, Double>> importedScores, int rowsRead, int scoresWritten,
+                             int chunksCommitted, int chunksRolledBack, long elapsedMs, long peakHeapBytes) {
             this.success = success;
             this.recordsProcessed = recordsProcessed;
             this.errors = errors;
             this.importedScores = importedScores;
+            this.rowsRead = rowsRead;
+            this.scoresWritten = scoresWritten;
+            this.chunksCommitted = chunksCommitted;
+            this.chunksRolledBack = chunksRolledBack;
+            this.elapsedMs = elapsedMs;
+            this.peakHeapBytes = peakHeapBytes;
         }
 
         public boolean isSuccess() {
@@ -220,9 +413,41 @@ public class GradeCsvHandler {
             return importedScores;
         }
 
+        public int getRowsRead() {
+            return rowsRead;
+        }
+
+        public int getScoresWritten() {
+            return scoresWritten;
+        }
+
+        public int getChunksCommitted() {
+            return chunksCommitted;
+        }
+
+        public int getChunksRolledBack() {
+            return chunksRolledBack;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMs == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMs;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
         public String getSummary() {
             StringBuilder sb = new StringBuilder();
             sb.append("Records processed: ").append(recordsProcessed).append("\n");
+            if (rowsRead > 0) {
+                sb.append(String.format("Rows read: %d (%.0f rows/sec), peak heap %d MB%n",
+                    rowsRead, getRowsPerSecond(), peakHeapBytes / (1024 * 1024)));
+            }
             if (hasErrors()) {
                 sb.append("Errors/Warnings: ").append(errors.size()).append("\n");
                 sb.append("Details:\n");
@@ -3,7 +3,7 @@ package edu.univ.erp.util;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
 import edu.univ.erp.domain.GradeComponent;
-import edu.univ.erp.domain.StudentGradeEntry;
+import edu.univ.erp.domain.Gradebook;
 import edu.univ.erp.domain.TranscriptEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.Color;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -26,10 +27,24 @@ public class PdfExporter {
     
     public static boolean exportTranscript(List<TranscriptEntry> entries, String username,
                                           String rollNo, String program, File outputFile) {
+        try (OutputStream out = new FileOutputStream(outputFile)) {
+            writeTranscript(entries, username, rollNo, program, out);
+            logger.info("PDF transcript generated successfully: {}", outputFile.getAbsolutePath());
+            return true;
+
+        } catch (Exception e) {
+            logger.error("Error generating PDF transcript", e);
+            return false;
+        }
+    }
+
+    
+    public static void writeTranscript(List<TranscriptEntry> entries, String username,
+                                       String rollNo, String program, OutputStream out) throws DocumentException {
         Document document = new Document(PageSize.A4, 50, 50, 50, 50);
 
         try {
-            PdfWriter.getInstance(document, new FileOutputStream(outputFile));
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
 
             addHeader(document, "UNIVERSITY ERP SYSTEM");
@@ -38,13 +53,6 @@ public class PdfExporter {
             document.add(new Paragraph("\n"));
             addTranscriptTable(document, entries);
             addFooter(document);
-
-            logger.info("PDF transcript generated successfully: {}", outputFile.getAbsolutePath());
-            return true;
-
-        } catch (Exception e) {
-            logger.error("Error generating PDF transcript", e);
-            return false;
         } finally {
             if (document.isOpen()) {
                 document.close();
@@ -53,14 +61,14 @@ public class PdfExporter {
     }
 
     
-    public static boolean exportSectionGradeReport(List<StudentGradeEntry> students,
-                                                   List<GradeComponent> components,
+    public static boolean exportSectionGradeReport(Gradebook gradebook,
                                                    String courseCode,
                                                    String sectionCode,
                                                    String instructorName,
                                                    File outputFile) {
         
         Document document = new Document(PageSize.A4.rotate(), 30, 30, 30, 30);
+        List<GradeComponent> components = gradebook.getComponents();
 
         try {
             PdfWriter.getInstance(document, new FileOutputStream(outputFile));
@@ -83,7 +91,7 @@ public class PdfExporter {
             
             
             metaTable.addCell(createNoBorderCell("Date: " + LocalDate.now().toString(), valueFont));
-            metaTable.addCell(createNoBorderCell("Total Students: " + students.size(), valueFont));
+            metaTable.addCell(createNoBorderCell("Total Students: " + gradebook.getStudentCount(), valueFont));
             
             metaTable.setSpacingAfter(15);
             document.add(metaTable);
@@ -125,22 +133,21 @@ public class PdfExporter {
             Font rowFont = FontFactory.getFont(FontFactory.HELVETICA, 10);
             int rowCount = 0;
 
-            for (StudentGradeEntry student : students) {
+            for (int r = 0; r < gradebook.getStudentCount(); r++) {
                 Color bgColor = (rowCount % 2 == 0) ? Color.WHITE : ALT_ROW_BG;
                 
                 addTableCell(table, String.valueOf(rowCount + 1), rowFont, bgColor, Element.ALIGN_CENTER);
-                addTableCell(table, student.getRollNo(), rowFont, bgColor, Element.ALIGN_CENTER);
-                addTableCell(table, student.getStudentName(), rowFont, bgColor, Element.ALIGN_LEFT);
+                addTableCell(table, gradebook.getRollNo(r), rowFont, bgColor, Element.ALIGN_CENTER);
+                addTableCell(table, gradebook.getStudentName(r), rowFont, bgColor, Element.ALIGN_LEFT);
                 
                 
-                for (GradeComponent comp : components) {
-                    Double score = student.getScores().get(comp.getComponentId());
-                    String scoreText = (score != null) ? String.format("%.1f", score) : "-";
+                for (int c = 0; c < numComponents; c++) {
+                    String scoreText = gradebook.hasScore(r, c) ? String.format("%.1f", gradebook.getScore(r, c)) : "-";
                     addTableCell(table, scoreText, rowFont, bgColor, Element.ALIGN_CENTER);
                 }
                 
                 
-                String finalGrade = student.getFinalGrade() != null ? student.getFinalGrade() : "-";
+                String finalGrade = gradebook.getFinalGrade(r) != null ? gradebook.getFinalGrade(r) : "-";
                 addTableCell(table, finalGrade, rowFont, bgColor, Element.ALIGN_CENTER);
                 
                 rowCount++;
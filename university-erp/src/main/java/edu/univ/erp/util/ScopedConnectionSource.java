@@ -0,0 +1,256 @@
+package edu.univ.erp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out connections for one database and lets a thread share a single connection across
+ * a unit of work. Inside a unit, every getConnection() returns a handle on the same pooled
+ * connection, so DAOs that open and close their own connection join the caller's instead of
+ * taking another pool slot. The physical connection is taken on first use and returned when
+ * the outermost unit ends.
+ *
+ * <p>A handle taken while the shared connection is already in a transaction joins that
+ * transaction: its commit and setAutoCommit calls are ignored, and its rollback marks the
+ * transaction rollback-only so the owner's commit fails instead of committing partial work.
+ *
+ * <p>Every handle is counted, in or out of a unit, so the stats show how many connections a
+ * single thread held at once and how many checkouts were served by an existing unit.
+ */
+public class ScopedConnectionSource {
+    private static final Logger logger = LoggerFactory.getLogger(ScopedConnectionSource.class);
+
+    /** Where physical connections come from, normally a pool. */
+    public interface Source {
+        Connection open() throws SQLException;
+    }
+
+    /** Body of a unit of work; E lets callers keep their own checked exception. */
+    public interface Work<T, E extends Exception> {
+        T run() throws SQLException, E;
+    }
+
+    private static final class Scope {
+        int depth;
+        Connection physical;
+        boolean rollbackOnly;
+    }
+
+    private final String name;
+    private final Source source;
+    private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+    private final ThreadLocal<int[]> heldByThread = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong physicalCheckouts = new AtomicLong();
+    private final AtomicLong joinedCheckouts = new AtomicLong();
+    private final AtomicLong units = new AtomicLong();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicInteger peakHeldByOneThread = new AtomicInteger();
+
+    public ScopedConnectionSource(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    /** Runs work with every source sharing one connection per database for its duration. */
+    public static <T, E extends Exception> T runInScope(Work<T, E> work, ScopedConnectionSource... sources) throws SQLException, E {
+        int begun = 0;
+        try {
+            for (ScopedConnectionSource source : sources) {
+                source.begin();
+                begun++;
+            }
+            return work.run();
+        } finally {
+            SQLException failure = null;
+            for (int i = begun - 1; i >= 0; i--) {
+                try {
+                    sources[i].end();
+                } catch (SQLException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                logger.error("Failed to release unit-of-work connection", failure);
+            }
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        requests.incrementAndGet();
+        Scope current = scope.get();
+        if (current == null) {
+            Connection physical = checkout();
+            return wrap(new StandaloneHandler(physical));
+        }
+        if (current.physical == null) {
+            current.physical = checkout();
+            return wrap(new ScopedHandler(current, false));
+        }
+        joinedCheckouts.incrementAndGet();
+        return wrap(new ScopedHandler(current, !current.physical.getAutoCommit()));
+    }
+
+    public boolean inScope() {
+        return scope.get() != null;
+    }
+
+    void begin() {
+        Scope current = scope.get();
+        if (current == null) {
+            current = new Scope();
+            scope.set(current);
+            units.incrementAndGet();
+        }
+        current.depth++;
+    }
+
+    void end() throws SQLException {
+        Scope current = scope.get();
+        if (current == null || --current.depth > 0) {
+            return;
+        }
+        scope.remove();
+        Connection physical = current.physical;
+        if (physical == null) {
+            return;
+        }
+        try {
+            if (!physical.getAutoCommit()) {
+                logger.warn("{} unit of work ended inside a transaction; rolling it back", name);
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } finally {
+            release(physical);
+        }
+    }
+
+    public long getRequestCount() { return requests.get(); }
+    public long getPhysicalCheckoutCount() { return physicalCheckouts.get(); }
+    public long getJoinedCheckoutCount() { return joinedCheckouts.get(); }
+    public long getUnitCount() { return units.get(); }
+    public int getInUse() { return inUse.get(); }
+    public int getPeakInUse() { return peakInUse.get(); }
+    public int getPeakHeldByOneThread() { return peakHeldByOneThread.get(); }
+
+    public void logStats() {
+        logger.info("{}: {} connection requests, {} pool checkouts, {} joined an open unit of work ({} units); " +
+                "peak {} in use, at most {} held by one thread",
+            name, requests.get(), physicalCheckouts.get(), joinedCheckouts.get(), units.get(),
+            peakInUse.get(), peakHeldByOneThread.get());
+    }
+
+    private Connection checkout() throws SQLException {
+        Connection physical = source.open();
+        physicalCheckouts.incrementAndGet();
+        peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+        int[] held = heldByThread.get();
+        peakHeldByOneThread.accumulateAndGet(++held[0], Math::max);
+        return physical;
+    }
+
+    private void release(Connection physical) throws SQLException {
+        inUse.decrementAndGet();
+        heldByThread.get()[0]--;
+        physical.close();
+    }
+
+    private static Connection wrap(InvocationHandler handler) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object delegate(Connection physical, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** A connection outside any unit of work: closing it returns it to the pool. */
+    private final class StandaloneHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean closed;
+
+        StandaloneHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                default:
+                    return delegate(physical, method, args);
+            }
+        }
+    }
+
+    /** A handle on a unit's shared connection; close() leaves it open for the rest of the unit. */
+    private static final class ScopedHandler implements InvocationHandler {
+        private final Scope scope;
+        private final boolean participant;
+        private boolean closed;
+
+        ScopedHandler(Scope scope, boolean participant) {
+            this.scope = scope;
+            this.participant = participant;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            int argCount = args == null ? 0 : args.length;
+            switch (methodName) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed || scope.physical.isClosed();
+                case "setAutoCommit":
+                    if (participant) return null;
+                    break;
+                case "commit":
+                    if (participant) return null;
+                    if (scope.rollbackOnly) {
+                        scope.rollbackOnly = false;
+                        scope.physical.rollback();
+                        throw new SQLException("Transaction rolled back: a joined operation failed");
+                    }
+                    break;
+                case "rollback":
+                    if (argCount == 0) {
+                        if (participant) {
+                            scope.rollbackOnly = true;
+                            return null;
+                        }
+                        scope.rollbackOnly = false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return delegate(scope.physical, method, args);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package edu.univ.erp.util;
+
+/**
+ * Single-pass accumulator for score distributions. Count, mean and variance use Welford's update
+ * and are exact; median and percentiles come from a fixed-range histogram sketch of
+ * {@value #SKETCH_BINS} bins, so they are accurate to one bin width ((upper - lower) / bins).
+ * Values outside the range are counted in the edge bins. Two accumulators can be merged, which is
+ * how per-section results roll up to a course or semester.
+ */
+public class StreamingStats {
+    static final int SKETCH_BINS = 1000;
+
+    private final double lower;
+    private final double upper;
+    private final long[] bins = new long[SKETCH_BINS];
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public StreamingStats(double lower, double upper) {
+        if (!(upper > lower)) {
+            throw new IllegalArgumentException("Invalid range [" + lower + ", " + upper + "]");
+        }
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /** Adds one value; NaN (a missing score) is ignored. */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) min = value;
+        if (value > max) max = value;
+        bins[binOf(value)]++;
+    }
+
+    /** Folds another accumulator into this one. Histograms over a different range are re-binned by bin midpoint. */
+    public void merge(StreamingStats other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (other.lower == lower && other.upper == upper) {
+            for (int i = 0; i < SKETCH_BINS; i++) bins[i] += other.bins[i];
+        } else {
+            double width = (other.upper - other.lower) / SKETCH_BINS;
+            for (int i = 0; i < SKETCH_BINS; i++) {
+                if (other.bins[i] > 0) bins[binOf(other.lower + (i + 0.5) * width)] += other.bins[i];
+            }
+        }
+    }
+
+    public long getCount() { return count; }
+    public double getLower() { return lower; }
+    public double getUpper() { return upper; }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** Sample variance (n - 1 denominator); 0 for a single value. */
+    public double getVariance() {
+        if (count == 0) return Double.NaN;
+        return count == 1 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    /** Estimated value at percentile p (0-100), interpolated inside the bin that holds the rank. */
+    public double getPercentile(double p) {
+        if (count == 0) return Double.NaN;
+        if (p <= 0) return min;
+        if (p >= 100) return max;
+        double rank = p / 100.0 * count;
+        double width = (upper - lower) / SKETCH_BINS;
+        long seen = 0;
+        for (int i = 0; i < SKETCH_BINS; i++) {
+            long inBin = bins[i];
+            if (inBin == 0) continue;
+            if (seen + inBin >= rank) {
+                double estimate = lower + (i + (rank - seen) / inBin) * width;
+                return Math.max(min, Math.min(max, estimate));
+            }
+            seen += inBin;
+        }
+        return max;
+    }
+
+    /** Counts over {@code buckets} equal-width buckets spanning [lower, upper]. */
+    public long[] getHistogram(int buckets) {
+        long[] histogram = new long[buckets];
+        for (int i = 0; i < SKETCH_BINS; i++) {
+            histogram[(int) ((long) i * buckets / SKETCH_BINS)] += bins[i];
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f sd=%.2f min=%.2f median=%.2f max=%.2f",
+            count, getMean(), getStdDev(), getMin(), getMedian(), getMax());
+    }
+
+    private int binOf(double value) {
+        int bin = (int) ((value - lower) / (upper - lower) * SKETCH_BINS);
+        return Math.max(0, Math.min(SKETCH_BINS - 1, bin));
+    }
+}
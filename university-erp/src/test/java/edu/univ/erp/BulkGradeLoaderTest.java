@@ -0,0 +1,295 @@
+package edu.univ.erp;
+
+import edu.univ.erp.auth.SessionManager;
+import edu.univ.erp.data.GradeDAO;
+import edu.univ.erp.data.GradeStagingDAO;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.data.SectionDAO;
+import edu.univ.erp.domain.GradeCellBuffer;
+import edu.univ.erp.domain.User;
+import edu.univ.erp.service.BulkGradeLoader;
+import edu.univ.erp.service.InstructorService;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BulkGradeLoaderTest {
+
+    @AfterEach
+    void tearDown() {
+        SessionManager.logout();
+    }
+
+    @Test
+    @DisplayName("Validation counts unknown and foreign components, unregistered students and bad scores")
+    @Order(1)
+    void testValidationCounts() throws Exception {
+        StubStagingDAO staging = new StubStagingDAO();
+        GradeCellBuffer cells = new GradeCellBuffer();
+        cells.add(1, 100, 10, 15);
+        cells.add(1, 100, 11, 40);
+        cells.add(1, 100, 20, 5);            // component of section 2
+        cells.add(1, 100, 99, 5);            // no such component
+        cells.add(1, 101, 10, 5);            // dropped
+        cells.add(1, 200, 10, 5);            // enrolled in section 2
+        cells.add(2, 200, 20, -1);           // below zero
+        cells.add(2, 200, 20, Double.NaN);   // cannot be staged
+        cells.add(2, 200, 20, 1e7);          // beyond DECIMAL(8,2)
+        cells.add(2, 200, 20, 88);
+
+        BulkGradeLoader.LoadResult result = new BulkGradeLoader(staging).load(cells);
+
+        assertEquals(10, result.cells());
+        assertEquals(3, result.merged());
+        assertEquals(2, result.unknownComponent());
+        assertEquals(2, result.notEnrolled());
+        assertEquals(3, result.outOfRange(), "Unstageable scores are counted as out of range");
+        assertEquals(7, result.rejected());
+        assertEquals(8, staging.stagedRows, "NaN and oversized scores never reach the staging table");
+        assertEquals(Map.of("100:10", 15.0, "100:11", 40.0, "200:20", 88.0), staging.grades);
+        assertEquals(List.of(result.loadId()), staging.cleared);
+        assertTrue(staging.rows.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A cell loaded twice keeps the later valid score")
+    @Order(2)
+    void testLaterDuplicateWins() throws Exception {
+        StubStagingDAO staging = new StubStagingDAO();
+        staging.grades.put("100:10", 1.0);
+        GradeCellBuffer cells = new GradeCellBuffer();
+        cells.add(1, 100, 10, 5);
+        cells.add(1, 100, 10, 18);
+        cells.add(1, 100, 10, 25);           // out of range, must not overwrite 18
+
+        BulkGradeLoader.LoadResult result = new BulkGradeLoader(staging).load(cells);
+
+        assertEquals(2, result.merged());
+        assertEquals(1, result.outOfRange());
+        assertEquals(18.0, staging.grades.get("100:10"));
+    }
+
+    @Test
+    @DisplayName("Nothing is merged when no staged row is valid")
+    @Order(3)
+    void testNoValidRowsSkipsMerge() throws Exception {
+        StubStagingDAO staging = new StubStagingDAO();
+        GradeCellBuffer cells = new GradeCellBuffer();
+        cells.add(1, 101, 10, 5);
+        cells.add(1, 100, 99, 5);
+
+        BulkGradeLoader.LoadResult result = new BulkGradeLoader(staging).load(cells);
+
+        assertEquals(0, result.merged());
+        assertEquals(0, staging.merges);
+        assertEquals(1, staging.cleared.size());
+        assertTrue(staging.rows.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Staging rows are cleared when a phase fails and the error reaches the caller")
+    @Order(4)
+    void testCleanupOnFailure() {
+        GradeCellBuffer cells = new GradeCellBuffer();
+        cells.add(1, 100, 10, 15);
+        cells.add(2, 200, 20, 88);
+
+        StubStagingDAO failingMerge = new StubStagingDAO();
+        failingMerge.failMerge = true;
+        SQLException mergeError = assertThrows(SQLException.class, () -> new BulkGradeLoader(failingMerge).load(cells));
+        assertEquals("merge failed", mergeError.getMessage());
+        assertEquals(1, failingMerge.cleared.size());
+        assertTrue(failingMerge.rows.isEmpty(), "Rows staged before the failure are deleted");
+        assertTrue(failingMerge.grades.isEmpty());
+
+        StubStagingDAO failingStage = new StubStagingDAO();
+        failingStage.failStageAfter = 1;
+        assertThrows(SQLException.class, () -> new BulkGradeLoader(failingStage).load(cells));
+        assertEquals(1, failingStage.cleared.size());
+        assertTrue(failingStage.rows.isEmpty());
+        assertEquals(0, failingStage.merges);
+    }
+
+    @Test
+    @DisplayName("A load spanning sections is refused unless the instructor owns every one")
+    @Order(5)
+    void testMultiSectionOwnership() throws Exception {
+        StubStagingDAO staging = new StubStagingDAO();
+        StubSectionDAO sections = new StubSectionDAO();
+        sections.owners.put(1, 7);
+        sections.owners.put(2, 8);
+        RecordingCache cache = new RecordingCache();
+        InstructorService service = new InstructorService(new BulkGradeLoader(staging), cache, sections);
+        SessionManager.login(new User(7, "inst1", "Instructor", "instructor", "active", null, null));
+
+        GradeCellBuffer cells = new GradeCellBuffer();
+        cells.add(1, 100, 10, 15);
+        cells.add(2, 200, 20, 88);
+        InstructorService.InstructorServiceException denied =
+            assertThrows(InstructorService.InstructorServiceException.class, () -> service.bulkLoadScores(cells));
+        assertTrue(denied.getMessage().contains("Section 2"), denied.getMessage());
+
+        cells.add(3, 300, 30, 10);
+        sections.owners.put(2, 7);
+        InstructorService.InstructorServiceException missing =
+            assertThrows(InstructorService.InstructorServiceException.class, () -> service.bulkLoadScores(cells));
+        assertEquals("Section not found.", missing.getMessage());
+        assertEquals(0, staging.loadIds, "Nothing is staged before ownership is settled");
+        assertTrue(cache.invalidated.isEmpty());
+
+        GradeCellBuffer owned = new GradeCellBuffer();
+        owned.add(1, 100, 10, 15);
+        owned.add(2, 200, 20, 88);
+        assertEquals(2, service.bulkLoadScores(owned).merged());
+        assertEquals(List.of(1, 2), cache.invalidated, "Both sections are invalidated after the load");
+        assertEquals(2, sections.lookups.get(sections.lookups.size() - 1).length);
+    }
+
+    /**
+     * grades_staging, grade_components, enrollments and grades in memory. Validation and merge apply
+     * the same rules as the SQL in GradeStagingDAO: component and enrollment must belong to the staged
+     * section, the enrollment must be registered and the score must lie in 0..max_score.
+     */
+    private static class StubStagingDAO extends GradeStagingDAO {
+        final Map<Integer, double[]> components = new HashMap<>();   // id -> {section, max_score}
+        final Map<Integer, Object[]> enrollments = new HashMap<>();  // id -> {section, status}
+        final List<Object[]> rows = new ArrayList<>();               // {load, section, enrollment, component, score}
+        final Map<String, Double> grades = new LinkedHashMap<>();
+        final List<Long> cleared = new ArrayList<>();
+        int loadIds;
+        int stagedRows;
+        int merges;
+        int failStageAfter = -1;
+        boolean failMerge;
+
+        StubStagingDAO() {
+            components.put(10, new double[]{1, 20});
+            components.put(11, new double[]{1, 50});
+            components.put(20, new double[]{2, 100});
+            enrollments.put(100, new Object[]{1, "registered"});
+            enrollments.put(101, new Object[]{1, "dropped"});
+            enrollments.put(200, new Object[]{2, "registered"});
+        }
+
+        @Override
+        public long newLoadId() {
+            return 9000 + ++loadIds;
+        }
+
+        @Override
+        public int stage(long loadId, GradeCellBuffer cells) throws SQLException {
+            int staged = 0;
+            for (int i = 0; i < cells.size(); i++) {
+                double score = cells.getScore(i);
+                if (Double.isNaN(score) || Math.abs(score) > 999_999.99) continue;
+                if (staged == failStageAfter) {
+                    throw new SQLException("stage failed");
+                }
+                rows.add(new Object[]{loadId, cells.getSectionId(i), cells.getEnrollmentId(i), cells.getComponentId(i), score});
+                staged++;
+            }
+            stagedRows += staged;
+            return staged;
+        }
+
+        @Override
+        public Validation validate(long loadId) {
+            int staged = 0, valid = 0, unknownComponent = 0, notEnrolled = 0, outOfRange = 0;
+            for (Object[] row : rowsFor(loadId)) {
+                staged++;
+                boolean componentOk = componentOk(row);
+                boolean enrolledOk = enrolledOk(row);
+                boolean scoreOk = componentOk && scoreOk(row);
+                if (!componentOk) unknownComponent++;
+                if (!enrolledOk) notEnrolled++;
+                if (componentOk && !scoreOk) outOfRange++;
+                if (componentOk && enrolledOk && scoreOk) valid++;
+            }
+            return new Validation(staged, valid, unknownComponent, notEnrolled, outOfRange);
+        }
+
+        @Override
+        public int merge(long loadId) throws SQLException {
+            merges++;
+            if (failMerge) {
+                throw new SQLException("merge failed");
+            }
+            int affected = 0;
+            for (Object[] row : rowsFor(loadId)) {
+                if (componentOk(row) && enrolledOk(row) && scoreOk(row)) {
+                    grades.put(row[2] + ":" + row[3], (Double) row[4]);
+                    affected++;
+                }
+            }
+            return affected;
+        }
+
+        @Override
+        public int clear(long loadId) {
+            cleared.add(loadId);
+            List<Object[]> mine = rowsFor(loadId);
+            rows.removeAll(mine);
+            return mine.size();
+        }
+
+        private List<Object[]> rowsFor(long loadId) {
+            List<Object[]> result = new ArrayList<>();
+            for (Object[] row : rows) {
+                if ((Long) row[0] == loadId) result.add(row);
+            }
+            return result;
+        }
+
+        private boolean componentOk(Object[] row) {
+            double[] component = components.get((Integer) row[3]);
+            return component != null && (int) component[0] == (Integer) row[1];
+        }
+
+        private boolean enrolledOk(Object[] row) {
+            Object[] enrollment = enrollments.get((Integer) row[2]);
+            return enrollment != null && enrollment[0].equals(row[1]) && "registered".equals(enrollment[1]);
+        }
+
+        private boolean scoreOk(Object[] row) {
+            double score = (Double) row[4];
+            return score >= 0 && score <= components.get((Integer) row[3])[1];
+        }
+    }
+
+    private static class RecordingCache extends GradebookCache {
+        final List<Integer> invalidated = new ArrayList<>();
+
+        RecordingCache() {
+            super(new GradeDAO(), 8, 60_000);
+        }
+
+        @Override
+        public void invalidateSection(int sectionId) {
+            invalidated.add(sectionId);
+            super.invalidateSection(sectionId);
+        }
+    }
+
+    private static class StubSectionDAO extends SectionDAO {
+        final Map<Integer, Integer> owners = new HashMap<>();
+        final List<int[]> lookups = new ArrayList<>();
+
+        @Override
+        public Map<Integer, Integer> findInstructorIds(int[] sectionIds) {
+            lookups.add(sectionIds);
+            Map<Integer, Integer> found = new HashMap<>();
+            for (int sectionId : sectionIds) {
+                if (owners.containsKey(sectionId)) found.put(sectionId, owners.get(sectionId));
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.CatalogCache;
+import edu.univ.erp.data.EnrollmentDAO;
+import edu.univ.erp.data.SectionDAO;
+import edu.univ.erp.domain.Section;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CatalogCacheTest {
+
+    private static final String SEMESTER = "Monsoon";
+    private static final int YEAR = 2025;
+
+    @Test
+    @DisplayName("One snapshot serves every student, filtered by their own registrations")
+    @Order(1)
+    void testPerStudentFilter() throws Exception {
+        StubSectionDAO sections = new StubSectionDAO(2000, 4);
+        StubEnrollmentDAO enrollments = new StubEnrollmentDAO();
+        CatalogCache cache = new CatalogCache(sections, enrollments, 60_000, 60_000);
+
+        // Student 1 is in section 1 of course 1; section 2 is the other section of that course.
+        enrollments.registered.put(1, Map.of(1, 1));
+        List<Section> forStudent = cache.getAvailableSections(SEMESTER, YEAR, 1);
+        assertTrue(forStudent.stream().noneMatch(s -> s.getCourseId() == 1), "Every section of a course already taken is hidden");
+        assertEquals(2000 - 4, forStudent.size());
+        assertEquals("CSE0002", forStudent.get(0).getCourseCode(), "Catalog order is kept");
+
+        List<Section> anonymous = cache.getAvailableSections(SEMESTER, YEAR, -1);
+        assertEquals(2000, anonymous.size());
+        assertEquals(1, enrollments.lookups, "Anonymous reads do not query enrollments");
+
+        int students = 1000;
+        for (int studentId = 2; studentId < 2 + students; studentId++) {
+            enrollments.registered.put(studentId, Map.of(studentId % 2000 + 1, (studentId % 2000) / 4 + 1));
+            assertEquals(2000 - 4, cache.getAvailableSections(SEMESTER, YEAR, studentId).size());
+        }
+
+        assertEquals(1, sections.snapshotLoads, "The four-table query ran once for everyone");
+        assertEquals(0, sections.seatReads);
+    }
+
+    @Test
+    @DisplayName("Seat counts follow local deltas and a seat-only refresh without reloading the catalog")
+    @Order(2)
+    void testLiveSeatCounts() throws Exception {
+        StubSectionDAO sections = new StubSectionDAO(8, 2);
+        CatalogCache cache = new CatalogCache(sections, new StubEnrollmentDAO(), 60_000, 60_000);
+        available(cache);
+
+        // Section 3 has capacity 30 and 29 students; one more registration fills it.
+        cache.seatsChanged(3, 1);
+        assertTrue(available(cache).stream().noneMatch(s -> s.getSectionId() == 3));
+        cache.seatsChanged(3, -1);
+        cache.seatsReconciled(4, 12);
+        assertEquals(29, find(available(cache), 3).getEnrollmentCount());
+        assertEquals(12, find(available(cache), 4).getEnrollmentCount());
+        assertEquals(0, sections.seatReads, "Local changes need no query");
+
+        // Another client fills section 5; the seat-only refresh picks it up.
+        CatalogCache polling = new CatalogCache(sections, new StubEnrollmentDAO(), 60_000, 0);
+        available(polling);
+        sections.counts.put(5, 30);
+        assertTrue(available(polling).stream().noneMatch(s -> s.getSectionId() == 5));
+        assertEquals(2, sections.snapshotLoads, "One catalog load per cache");
+        assertTrue(sections.seatReads > 0);
+    }
+
+    @Test
+    @DisplayName("Admin edits and sections added elsewhere produce a new snapshot version")
+    @Order(3)
+    void testVersionedInvalidation() throws Exception {
+        StubSectionDAO sections = new StubSectionDAO(8, 2);
+        CatalogCache cache = new CatalogCache(sections, new StubEnrollmentDAO(), 60_000, 0);
+        available(cache);
+        long first = cache.getVersion();
+
+        cache.invalidate();
+        available(cache);
+        assertTrue(cache.getVersion() > first);
+        assertEquals(2, sections.snapshotLoads);
+
+        // A seat refresh that sees an unknown section drops the snapshot.
+        sections.add(new Section(9, 5, 100, "A", "Mon 10:00-11:00", "R9", 30, SEMESTER, YEAR, 0));
+        available(cache);
+        List<Section> reloaded = available(cache);
+        assertEquals(9, reloaded.size());
+        assertEquals(3, sections.snapshotLoads);
+
+        cache.getAvailableSections("Winter", YEAR + 1, -1);
+        assertEquals(4, sections.snapshotLoads, "Another semester has its own snapshot");
+    }
+
+    @Test
+    @DisplayName("A single section edit patches the snapshot and its search index")
+    @Order(4)
+    void testIncrementalSectionUpdate() throws Exception {
+        StubSectionDAO sections = new StubSectionDAO(8, 2);
+        CatalogCache cache = new CatalogCache(sections, new StubEnrollmentDAO(), 60_000, 60_000);
+        assertEquals(List.of(5, 6), cache.search(SEMESTER, YEAR, "course 3", 10, id -> true));
+        long version = cache.getVersion();
+
+        Section edited = StubSectionDAO.decorate(new Section(5, 3, 103, "S5", "Fri 09:00-10:00", "Hall", 30, SEMESTER, YEAR, 10));
+        edited.setInstructorName("Guest Lecturer");
+        sections.rows.set(4, edited);
+        cache.sectionChanged(5);
+        sections.rows.removeIf(s -> s.getSectionId() == 8);
+        cache.sectionChanged(8);
+
+        assertEquals(version + 2, cache.getVersion());
+        assertEquals(List.of(5), cache.search(SEMESTER, YEAR, "guest", 10, id -> true));
+        List<Section> catalog = available(cache);
+        assertEquals("Fri 09:00-10:00", find(catalog, 5).getDayTime());
+        assertEquals(7, catalog.size());
+        assertEquals(List.of(7), cache.search(SEMESTER, YEAR, "course 4", 10, id -> true));
+        assertEquals(1, sections.snapshotLoads, "No full reload");
+    }
+
+    private static List<Section> available(CatalogCache cache) throws Exception {
+        return cache.getAvailableSections(SEMESTER, YEAR, -1);
+    }
+
+    private static Section find(List<Section> sections, int sectionId) {
+        return sections.stream().filter(s -> s.getSectionId() == sectionId).findFirst().orElseThrow();
+    }
+
+    private static class StubSectionDAO extends SectionDAO {
+        final List<Section> rows = new ArrayList<>();
+        final Map<Integer, Integer> counts = new HashMap<>();
+        int snapshotLoads;
+        int seatReads;
+
+        StubSectionDAO(int sectionCount, int sectionsPerCourse) {
+            for (int id = 1; id <= sectionCount; id++) {
+                int courseId = (id - 1) / sectionsPerCourse + 1;
+                add(new Section(id, courseId, 100 + courseId, "S" + id, "Mon 10:00-11:00", "R" + id,
+                    30, SEMESTER, YEAR, id == 3 ? 29 : 10));
+            }
+        }
+
+        static Section decorate(Section section) {
+            section.setCourseCode(String.format("CSE%04d", section.getCourseId()));
+            section.setCourseTitle("Course " + section.getCourseId());
+            section.setInstructorName("Instructor " + section.getInstructorId());
+            section.setAddDeadline(LocalDate.of(YEAR, 8, 15));
+            return section;
+        }
+
+        void add(Section section) {
+            rows.add(decorate(section));
+            counts.put(section.getSectionId(), section.getEnrollmentCount());
+        }
+
+        @Override
+        public List<Section> findBySemester(String semester, int year) {
+            snapshotLoads++;
+            List<Section> result = new ArrayList<>();
+            for (Section row : rows) {
+                if (row.getSemester().equals(semester) && row.getYear() == year) result.add(row);
+            }
+            return result;
+        }
+
+        @Override
+        public Section findCatalogEntry(int sectionId) {
+            return rows.stream().filter(s -> s.getSectionId() == sectionId).findFirst().orElse(null);
+        }
+
+        @Override
+        public Map<Integer, Integer> findEnrollmentCounts(String semester, int year) {
+            seatReads++;
+            return new HashMap<>(counts);
+        }
+    }
+
+    private static class StubEnrollmentDAO extends EnrollmentDAO {
+        final Map<Integer, Map<Integer, Integer>> registered = new HashMap<>();
+        int lookups;
+
+        @Override
+        public Map<Integer, Integer> findRegisteredCourseIdsBySection(int studentId) {
+            lookups++;
+            return registered.getOrDefault(studentId, Map.of());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.CatalogCache.Offering;
+import edu.univ.erp.data.CatalogSearchIndex;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+
+/**
+ * Build time and per-query cost of the catalog search index against the stream filter it
+ * replaced, over the same 10k-section catalog as CatalogSearchIndexTest. Not part of the unit
+ * suite; run it by hand after a test-compile:
+ * <pre>
+ * java -cp target/test-classes:target/classes edu.univ.erp.CatalogSearchIndexBenchmark
+ * </pre>
+ */
+public class CatalogSearchIndexBenchmark {
+
+    private static final int SECTIONS = 10_000;
+    private static final int ROUNDS = 200;
+    private static final String[] QUERIES = {"data", "algo", "cse3", "learning", "sharma", "quantum mech", "gorithm",
+        "ph", "design thinking", "sec"};
+
+    public static void main(String[] args) {
+        List<Offering> offerings = CatalogSearchIndexTest.catalog(SECTIONS, 42);
+        // One predicate for warm-up and timing, so the JIT does not recompile search between them.
+        IntPredicate everySection = id -> true;
+
+        long start = System.nanoTime();
+        CatalogSearchIndex index = new CatalogSearchIndex(offerings);
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+        for (int warmup = 0; warmup < 50; warmup++) {
+            for (String query : QUERIES) CatalogSearchIndexTest.streamFilter(offerings, query);
+        }
+        for (int warmup = 0; warmup < 2000; warmup++) {
+            for (String query : QUERIES) index.search(query, 20, everySection);
+        }
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String query : QUERIES) CatalogSearchIndexTest.streamFilter(offerings, query);
+        }
+        double streamUs = (System.nanoTime() - start) / 1000.0 / (ROUNDS * QUERIES.length);
+
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String query : QUERIES) index.search(query, 20, everySection);
+        }
+        double indexUs = (System.nanoTime() - start) / 1000.0 / (ROUNDS * QUERIES.length);
+
+        System.out.printf("Catalog search over %d sections: index built in %d ms; stream filter %.0f us/query, index top-20 %.0f us/query%n",
+            offerings.size(), buildMs, streamUs, indexUs);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.CatalogCache.Offering;
+import edu.univ.erp.data.CatalogSearchIndex;
+import edu.univ.erp.domain.Section;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CatalogSearchIndexTest {
+
+    private static final String[] DEPARTMENTS = {"CSE", "ECE", "MTH", "PHY", "BIO", "DES", "SSH", "ENG"};
+    private static final String[] WORDS = {"Introduction", "Advanced", "Data", "Structures", "Algorithms", "Linear",
+        "Algebra", "Signals", "Systems", "Quantum", "Mechanics", "Molecular", "Biology", "Design", "Thinking",
+        "Machine", "Learning", "Networks", "Databases", "Operating", "Compilers", "Probability", "Statistics",
+        "Economics", "Philosophy", "Optimization", "Graphics", "Security", "Cryptography", "Robotics"};
+    private static final String[] NAMES = {"Asha", "Rahul", "Meera", "Vikram", "Priya", "Arjun", "Kavya", "Rohan",
+        "Sneha", "Aditya", "Nisha", "Karan"};
+    private static final String[] SURNAMES = {"Sharma", "Verma", "Iyer", "Reddy", "Gupta", "Nair", "Singh", "Das"};
+
+    static List<Offering> catalog(int count, long seed) {
+        Random random = new Random(seed);
+        List<Offering> offerings = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String code = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)] + (100 + random.nextInt(500));
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + (random.nextBoolean() ? " " + WORDS[random.nextInt(WORDS.length)] : "");
+            String description = "Covers " + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " and "
+                + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " with weekly labs.";
+            String instructor = NAMES[random.nextInt(NAMES.length)] + " " + SURNAMES[random.nextInt(SURNAMES.length)];
+            offerings.add(offering(id, code, title, description, instructor));
+        }
+        return offerings;
+    }
+
+    private static Offering offering(int sectionId, String code, String title, String description, String instructor) {
+        Section section = new Section(sectionId, sectionId, 1, "S" + sectionId, "Mon 10:00-11:00", "R1", 60, "Monsoon", 2025, 0);
+        section.setCourseCode(code);
+        section.setCourseTitle(title);
+        section.setCourseDescription(description);
+        section.setInstructorName(instructor);
+        return Offering.of(section);
+    }
+
+    /** The filter StudentCatalogPanel ran before the index: lowercase every field and test contains. */
+    static List<Integer> streamFilter(List<Offering> offerings, String query) {
+        String q = query.toLowerCase();
+        return offerings.stream()
+            .filter(o -> o.courseCode().toLowerCase().contains(q) || o.courseTitle().toLowerCase().contains(q)
+                || o.instructorName().toLowerCase().contains(q))
+            .sorted((a, b) -> a.courseCode().compareToIgnoreCase(b.courseCode()))
+            .map(Offering::sectionId)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Matches whole words, prefixes and inside words, ranked by field")
+    @Order(1)
+    void testMatchingAndRanking() {
+        CatalogSearchIndex index = new CatalogSearchIndex(List.of(
+            offering(1, "CSE201", "Data Structures", "Lists, trees and graphs.", "Asha Sharma"),
+            offering(2, "CSE301", "Algorithms", "Uses data structures heavily.", "Rahul Verma"),
+            offering(3, "MTH201", "Linear Algebra", "Matrices and vector spaces.", "Meera Iyer"),
+            offering(4, "DES101", "Design Thinking", "Studio course on data visualisation.", "Data Dasgupta")));
+
+        assertEquals(List.of(1, 4, 2), index.search("data", 10, id -> true),
+            "Title beats instructor beats description");
+        assertEquals(List.of(1, 2), index.search("cse", 10, id -> true), "The letter half of a code is a term");
+        assertEquals(List.of(1, 3), index.search("201", 10, id -> true), "The number half of a code is a term");
+        assertEquals(List.of(1), index.search("CSE2", 10, id -> true), "Prefix of a code");
+        assertEquals(List.of(2), index.search("gorith", 10, id -> true), "Inside a word, through trigrams");
+        assertEquals(List.of(1), index.search("struct asha", 10, id -> true), "Every token must match");
+        assertEquals(List.of(3), index.search("alg lin", 10, id -> true));
+        assertEquals(List.of(4), index.search("data", 10, id -> id == 4), "Sections outside the student's view are skipped");
+        assertEquals(List.of(1), index.search("data", 1, id -> true), "Top-k keeps the best");
+        assertTrue(index.search("  ", 10, id -> true).isEmpty());
+        assertTrue(index.search("zzz", 10, id -> true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sections are added, replaced and removed without rebuilding")
+    @Order(2)
+    void testIncrementalUpdates() {
+        CatalogSearchIndex index = new CatalogSearchIndex(catalog(500, 7));
+        index.add(offering(501, "CSE999", "Quantum Computing", "New this year.", "Kavya Nair"));
+        assertEquals(List.of(501), index.search("computing", 10, id -> true));
+
+        index.add(offering(501, "CSE999", "Quantum Information", "Renamed.", "Kavya Nair"));
+        assertTrue(index.search("computing", 10, id -> true).isEmpty(), "The old title is gone");
+        assertEquals(List.of(501), index.search("information", 10, id -> true));
+
+        index.remove(501);
+        assertTrue(index.search("information", 10, id -> true).isEmpty());
+
+        // Removing most of the catalog compacts it; what is left still searches correctly.
+        for (int id = 1; id <= 400; id++) index.remove(id);
+        assertEquals(100, index.size());
+        index.add(offering(2000, "PHY777", "Quantum Optics", "Lasers.", "Rohan Das"));
+        assertTrue(index.search("quantum", 200, id -> true).contains(2000));
+        assertTrue(index.search("quantum", 200, id -> true).stream().allMatch(id -> id > 400));
+    }
+
+    @Test
+    @DisplayName("10k sections: the index finds everything the old stream filter found")
+    @Order(3)
+    void testMatchesStreamFilterAtScale() {
+        List<Offering> offerings = catalog(10_000, 42);
+        CatalogSearchIndex index = new CatalogSearchIndex(offerings);
+        assertEquals(offerings.size(), index.size());
+
+        // Every section the old filter finds for a one-word query of 3+ letters is found by the index too.
+        for (String query : new String[]{"data", "algo", "cse3", "learning", "sharma", "gorithm", "sec"}) {
+            List<Integer> old = streamFilter(offerings, query);
+            List<Integer> found = index.search(query, offerings.size(), id -> true);
+            assertFalse(old.isEmpty(), "No sections contain " + query);
+            assertTrue(found.containsAll(old), "Index misses matches for " + query);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package edu.univ.erp;
+
+import edu.univ.erp.service.DashboardCounters;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DashboardCountersTest {
+
+    @Test
+    @DisplayName("Reconcile corrects drift and reports it per counter")
+    @Order(1)
+    void testReconcileReportsDrift() throws Exception {
+        StubLoader source = new StubLoader();
+        source.users(10, 7);
+        source.section(1, 100, 20, 5);
+        DashboardCounters counters = new DashboardCounters(source);
+
+        assertEquals(10, counters.get(DashboardCounters.TOTAL_USERS));
+        assertTrue(counters.reconcile().isEmpty(), "Nothing changed since the load");
+
+        // Another client adds a user and registers two students; this process only saw one registration.
+        counters.enrollmentChanged(1, 1);
+        source.users(11, 8);
+        source.section(1, 100, 22, 7);
+        Map<String, Integer> drift = counters.reconcile();
+
+        assertEquals(Map.of(
+            DashboardCounters.TOTAL_USERS, 1,
+            DashboardCounters.ACTIVE_USERS, 1,
+            DashboardCounters.TOTAL_ENROLLMENTS, 1,
+            "section.1.enrolled", 1,
+            "section.1.pending", 1), drift);
+        assertEquals(22, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+        assertEquals(11, counters.get(DashboardCounters.TOTAL_USERS));
+        assertEquals(3, source.loads);
+    }
+
+    @Test
+    @DisplayName("An enrollment change in a section the registry does not know invalidates it")
+    @Order(2)
+    void testUnknownSectionInvalidates() {
+        StubLoader source = new StubLoader();
+        source.section(1, 100, 20, 5);
+        DashboardCounters counters = new DashboardCounters(source);
+        assertEquals(20, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+
+        counters.enrollmentChanged(1, 1);
+        assertEquals(21, counters.get(DashboardCounters.TOTAL_ENROLLMENTS), "A known section is adjusted in place");
+        assertEquals(1, source.loads);
+
+        source.section(1, 100, 21, 6);
+        source.section(2, 100, 1, 1);
+        counters.enrollmentChanged(2, 1);
+        assertEquals(22, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+        assertEquals(2, counters.get(DashboardCounters.TOTAL_SECTIONS), "The new section came from a reload");
+        assertEquals(2, source.loads);
+    }
+
+    @Test
+    @DisplayName("Pending grades never go below zero")
+    @Order(3)
+    void testPendingGradesClampAtZero() throws Exception {
+        StubLoader source = new StubLoader();
+        source.section(1, 100, 3, 1);
+        DashboardCounters counters = new DashboardCounters(source);
+        counters.get(DashboardCounters.TOTAL_SECTIONS);
+
+        counters.gradesPosted(1, 3);
+        counters.enrollmentChanged(1, -2);
+
+        // The source agrees: one enrolled, nothing pending. An unclamped counter would show drift here.
+        source.section(1, 100, 1, 0);
+        Map<String, Integer> drift = counters.reconcile();
+        assertTrue(drift.isEmpty(), "Drift: " + drift);
+    }
+
+    @Test
+    @DisplayName("Removing an instructor's sections takes their sections and enrollments off the totals")
+    @Order(4)
+    void testInstructorSectionsRemoved() throws Exception {
+        StubLoader source = new StubLoader();
+        source.section(1, 100, 20, 5);
+        source.section(2, 100, 15, 0);
+        source.section(3, 200, 30, 10);
+        DashboardCounters counters = new DashboardCounters(source);
+        assertEquals(3, counters.get(DashboardCounters.TOTAL_SECTIONS));
+        assertEquals(65, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+
+        counters.instructorSectionsRemoved(100);
+        assertEquals(1, counters.get(DashboardCounters.TOTAL_SECTIONS));
+        assertEquals(30, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+
+        counters.instructorSectionsRemoved(100);
+        counters.instructorSectionsRemoved(999);
+        assertEquals(1, counters.get(DashboardCounters.TOTAL_SECTIONS), "Repeating the removal changes nothing");
+
+        source.sections.remove(1);
+        source.sections.remove(2);
+        assertTrue(counters.reconcile().isEmpty(), "The in-place removal matches the source");
+        assertEquals(2, source.loads, "One load plus the reconcile");
+    }
+
+    @Test
+    @DisplayName("A load that raced a change or an invalidation is not installed")
+    @Order(5)
+    void testRacingLoadIsNotInstalled() throws Exception {
+        StubLoader source = new StubLoader();
+        source.section(1, 100, 20, 5);
+        DashboardCounters counters = new DashboardCounters(source);
+        assertEquals(20, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+
+        // The registration commits after the reconcile query read the section, so the load misses it.
+        source.duringLoad = () -> counters.enrollmentChanged(1, 1);
+        assertTrue(counters.reconcile().isEmpty(), "A raced reconcile reports nothing");
+        source.duringLoad = null;
+        assertEquals(21, counters.get(DashboardCounters.TOTAL_ENROLLMENTS), "The change is kept");
+        assertEquals(2, source.loads);
+
+        source.section(1, 100, 21, 6);
+        source.duringLoad = counters::invalidate;
+        counters.reconcile();
+        source.duringLoad = null;
+        assertEquals(21, counters.get(DashboardCounters.TOTAL_ENROLLMENTS));
+        assertEquals(4, source.loads, "The invalidation wins over the stale load, so the next read reloads");
+
+        counters.invalidate();
+        source.duringLoad = () -> counters.userCreated("student", true);
+        assertEquals(21, counters.get(DashboardCounters.TOTAL_ENROLLMENTS), "The raced load is still served once");
+        source.duringLoad = null;
+        counters.get(DashboardCounters.TOTAL_ENROLLMENTS);
+        assertEquals(6, source.loads, "but not kept");
+    }
+
+    /** Source tables in memory: user totals and one row per section. */
+    private static class StubLoader implements DashboardCounters.Loader {
+        final Map<Integer, int[]> sections = new LinkedHashMap<>();
+        int users;
+        int activeUsers;
+        int loads;
+        Runnable duringLoad;
+
+        void users(int total, int active) {
+            users = total;
+            activeUsers = active;
+        }
+
+        void section(int sectionId, int instructorId, int enrolled, int pending) {
+            sections.put(sectionId, new int[]{instructorId, enrolled, pending});
+        }
+
+        @Override
+        public void load(DashboardCounters.Sink sink) {
+            loads++;
+            if (duringLoad != null) duringLoad.run();
+            sink.total(DashboardCounters.TOTAL_USERS, users);
+            sink.total(DashboardCounters.ACTIVE_USERS, activeUsers);
+            int enrollments = 0;
+            for (Map.Entry<Integer, int[]> entry : sections.entrySet()) {
+                int[] row = entry.getValue();
+                sink.section(entry.getKey(), row[0], "CSE101 Section " + entry.getKey(), row[1], row[2]);
+                enrollments += row[1];
+            }
+            sink.total(DashboardCounters.TOTAL_SECTIONS, sections.size());
+            sink.total(DashboardCounters.TOTAL_ENROLLMENTS, enrollments);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import edu.univ.erp.service.DepartmentAnalyticsEngine;
+import edu.univ.erp.service.DepartmentAnalyticsEngine.GroupSummary;
+import edu.univ.erp.service.DepartmentAnalyticsEngine.SectionSummary;
+import edu.univ.erp.service.DepartmentAnalyticsEngine.SemesterReport;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DepartmentAnalyticsTest {
+
+    private static List<GradeComponent> components(int sectionId) {
+        return List.of(new GradeComponent(sectionId * 10, sectionId, "Midterm", 40, 50),
+                       new GradeComponent(sectionId * 10 + 1, sectionId, "Final", 60, 100));
+    }
+
+    /** A section whose students all score {@code percent} on every component, plus one missing a score. */
+    private static Gradebook uniformSection(int sectionId, int students, double percent) {
+        Gradebook gradebook = new Gradebook(components(sectionId));
+        for (int i = 0; i < students; i++) {
+            int row = gradebook.addStudent(i, sectionId * 1000 + i, null, null, null);
+            gradebook.setScore(row, 0, 50 * percent / 100);
+            gradebook.setScore(row, 1, percent);
+        }
+        int row = gradebook.addStudent(999, sectionId * 1000 + 999, null, null, null);
+        gradebook.setScore(row, 0, 25);
+        return gradebook;
+    }
+
+    private static SectionSummary summarize(int sectionId, String course, String instructor, Gradebook gradebook) {
+        return DepartmentAnalyticsEngine.summarize(sectionId, course, "S" + sectionId, sectionId % 7,
+            instructor, gradebook);
+    }
+
+    private static SemesterReport report(List<SectionSummary> sections) {
+        return DepartmentAnalyticsEngine.buildReport("Monsoon", 2025, sections, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Letters come from posted grades first, then from complete scores")
+    @Order(1)
+    void testSectionLetters() {
+        Gradebook gradebook = uniformSection(1, 4, 85);
+        gradebook.setFinalGrade(0, "F");
+        gradebook.setFinalGrade(4, "A");
+        SectionSummary section = summarize(1, "CSE101", "Dr. A", gradebook);
+
+        assertEquals(5, section.students());
+        assertEquals(5, section.graded());
+        assertArrayEquals(new long[]{1, 3, 0, 0, 1}, section.letters());
+        assertEquals(0.8, section.passRate(), 1e-9);
+        assertEquals(85.0, section.meanFinalScore(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Roll-ups group by department prefix, course, instructor and component")
+    @Order(2)
+    void testRollUps() {
+        List<SectionSummary> sections = List.of(
+            summarize(1, "CSE101", "Dr. A", uniformSection(1, 10, 95)),
+            summarize(2, "CSE101", "Dr. B", uniformSection(2, 10, 55)),
+            summarize(3, "CSE201", "Dr. A", uniformSection(3, 10, 75)),
+            summarize(4, "MTH100", "Dr. C", uniformSection(4, 10, 65)));
+        SemesterReport report = report(sections);
+
+        assertEquals(List.of("CSE", "MTH"), report.departments().stream().map(GroupSummary::key).toList());
+        GroupSummary cse = report.departments().get(0);
+        assertEquals(3, cse.sections());
+        assertEquals(33, cse.students());
+        assertArrayEquals(new long[]{10, 0, 10, 0, 10}, cse.letters());
+        assertEquals(2.0 / 3, cse.passRate(), 1e-9);
+        assertEquals(75.0, cse.scores().getMean(), 1e-9);
+
+        assertEquals(3, report.courses().size());
+        GroupSummary drA = report.instructors().stream().filter(g -> g.key().equals("Dr. A")).findFirst().orElseThrow();
+        assertEquals(2, drA.sections());
+        assertEquals(85.0, drA.scores().getMean(), 1e-9);
+
+        GroupSummary midterm = report.components().stream()
+            .filter(g -> g.key().equals("CSE101 / Midterm")).findFirst().orElseThrow();
+        assertEquals(2, midterm.sections());
+        assertEquals(22, midterm.graded());
+        assertTrue(Double.isNaN(midterm.passRate()));
+    }
+
+    @Test
+    @DisplayName("A section far from its course peers is flagged; small courses use the semester")
+    @Order(3)
+    void testOutliers() {
+        List<SectionSummary> sections = new ArrayList<>();
+        double[] means = {70, 72, 74, 71, 73, 30};
+        for (int i = 0; i < means.length; i++) {
+            sections.add(summarize(i + 1, "CSE101", "Dr. " + i, uniformSection(i + 1, 5, means[i])));
+        }
+        sections.add(summarize(20, "PHY100", "Dr. P", uniformSection(20, 5, 72)));
+        SemesterReport report = report(sections);
+
+        List<SectionSummary> outliers = report.outliers();
+        assertEquals(1, outliers.size());
+        assertEquals(6, outliers.get(0).sectionId());
+        assertTrue(outliers.get(0).zScore() < -2);
+
+        SectionSummary physics = report.sections().stream().filter(s -> s.sectionId() == 20).findFirst().orElseThrow();
+        assertFalse(Double.isNaN(physics.zScore()));
+        assertFalse(physics.isOutlier());
+    }
+
+    @Test
+    @DisplayName("2,000 sections analyzed in parallel")
+    @Order(4)
+    void testSemesterScale() {
+        Random random = new Random(7);
+        List<Gradebook> books = new ArrayList<>();
+        for (int s = 0; s < 2000; s++) {
+            Gradebook gradebook = new Gradebook(List.of(
+                new GradeComponent(s * 10, s, "Quiz", 20, 10),
+                new GradeComponent(s * 10 + 1, s, "Midterm", 30, 50),
+                new GradeComponent(s * 10 + 2, s, "Final", 50, 100)), 60);
+            for (int i = 0; i < 60; i++) {
+                int row = gradebook.addStudent(i, s * 100 + i, null, null, null);
+                gradebook.setScore(row, 0, random.nextInt(11));
+                gradebook.setScore(row, 1, random.nextInt(51));
+                gradebook.setScore(row, 2, random.nextInt(101));
+            }
+            books.add(gradebook);
+        }
+
+        List<ForkJoinTask<SectionSummary>> tasks = new ArrayList<>();
+        for (int s = 0; s < books.size(); s++) {
+            int sectionId = s;
+            tasks.add(ForkJoinPool.commonPool().submit(() ->
+                summarize(sectionId, "C" + (sectionId % 40) + "X" + (sectionId % 400), "I" + (sectionId % 300),
+                    books.get(sectionId))));
+        }
+        List<SectionSummary> sections = new ArrayList<>();
+        for (ForkJoinTask<SectionSummary> task : tasks) sections.add(task.join());
+        SemesterReport report = report(sections);
+
+        assertEquals(2000, report.sections().size());
+        assertEquals(120_000, report.departments().stream().mapToInt(GroupSummary::students).sum());
+        assertEquals(400, report.courses().size());
+        assertEquals(300, report.instructors().size());
+    }
+}
@@ -0,0 +1,133 @@
+package edu.univ.erp;
+
+import edu.univ.erp.service.ErpEventBus;
+import edu.univ.erp.service.ErpEventBus.Event;
+import edu.univ.erp.service.ErpEventBus.EventType;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ErpEventBusTest {
+
+    /** Stands in for the EDT: dispatch passes run only when the test drains them. */
+    private static final class ManualDispatcher {
+        final Queue<Runnable> passes = new ArrayDeque<>();
+
+        synchronized void schedule(Runnable pass) {
+            passes.add(pass);
+        }
+
+        synchronized int runAll() {
+            int ran = 0;
+            Runnable pass;
+            while ((pass = passes.poll()) != null) {
+                pass.run();
+                ran++;
+            }
+            return ran;
+        }
+    }
+
+    @Test
+    @DisplayName("A burst of events is coalesced into one delivery per subscriber")
+    @Order(1)
+    void testCoalescedDelivery() {
+        ManualDispatcher edt = new ManualDispatcher();
+        ErpEventBus bus = new ErpEventBus(edt::schedule);
+        List<List<Event>> received = new ArrayList<>();
+        bus.subscribe(EnumSet.of(EventType.ENROLLMENT_CHANGED, EventType.GRADES_POSTED), received::add);
+
+        for (int i = 0; i < 60; i++) {
+            bus.publish(Event.enrollmentChanged(7, 101));
+        }
+        bus.publish(Event.gradesPosted(101));
+        bus.publish(Event.enrollmentChanged(8, 101));
+
+        assertEquals(1, edt.runAll(), "One dispatch pass is scheduled for the whole burst");
+        assertEquals(1, received.size());
+        assertEquals(List.of(Event.enrollmentChanged(7, 101), Event.gradesPosted(101), Event.enrollmentChanged(8, 101)),
+            received.get(0));
+        assertEquals(62, bus.getPublishedCount());
+        assertEquals(59, bus.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Subscribers only see the event types they asked for")
+    @Order(2)
+    void testTypeFiltering() {
+        ManualDispatcher edt = new ManualDispatcher();
+        ErpEventBus bus = new ErpEventBus(edt::schedule);
+        List<Event> notifications = new ArrayList<>();
+        List<Event> maintenance = new ArrayList<>();
+        bus.subscribe(EnumSet.of(EventType.NOTIFICATIONS_DELIVERED), notifications::addAll);
+        ErpEventBus.Subscription banner = bus.subscribe(EnumSet.of(EventType.MAINTENANCE_TOGGLED), maintenance::addAll);
+
+        bus.publish(Event.notificationsDelivered(null, "student"));
+        bus.publish(Event.announcementCreated("student"));
+        edt.runAll();
+        assertEquals(1, notifications.size());
+        assertTrue(maintenance.isEmpty());
+        assertEquals(1, bus.getDeliveryCount(), "Subscribers with nothing to see are not called");
+
+        banner.cancel();
+        bus.publish(Event.maintenanceToggled());
+        edt.runAll();
+        assertTrue(maintenance.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Events are scoped to a user, a role, or everyone")
+    @Order(3)
+    void testEventScope() {
+        assertTrue(Event.enrollmentChanged(7, 101).concerns(7, "student"));
+        assertFalse(Event.enrollmentChanged(7, 101).concerns(8, "student"));
+        assertTrue(Event.notificationsDelivered(null, "instructor").concerns(3, "instructor"));
+        assertFalse(Event.notificationsDelivered(null, "instructor").concerns(3, "student"));
+        assertTrue(Event.maintenanceToggled().concerns(3, "admin"));
+    }
+
+    @Test
+    @DisplayName("Events published from many threads are all delivered")
+    @Order(4)
+    void testConcurrentPublishers() throws Exception {
+        ErpEventBus bus = new ErpEventBus(Runnable::run);
+        List<Event> received = new ArrayList<>();
+        bus.subscribe(EnumSet.allOf(EventType.class), events -> {
+            synchronized (received) {
+                received.addAll(events);
+            }
+        });
+
+        int threads = 8;
+        int perThread = 1_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    bus.publish(Event.enrollmentChanged(thread * perThread + i, 1));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, received.size());
+        assertEquals(0, bus.getCoalescedCount());
+    }
+}
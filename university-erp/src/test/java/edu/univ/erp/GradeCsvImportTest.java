@@ -0,0 +1,90 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.util.GradeCsvHandler;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GradeCsvImportTest {
+
+    private static final List<GradeComponent> COMPONENTS = List.of(
+        new GradeComponent(1, 7, "Quiz", 20, 20),
+        new GradeComponent(2, 7, "Midterm", 30, 50),
+        new GradeComponent(3, 7, "Final", 50, 100));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Large import streams every row through the chunk writer")
+    @Order(1)
+    void testStreamingImport() throws Exception {
+        int rows = 50_000;
+        Map<String, Integer> rollMap = new HashMap<>();
+        File csv = tempDir.resolve("grades.csv").toFile();
+        try (PrintWriter out = new PrintWriter(csv)) {
+            out.println("Roll Number,Student Name,Quiz (/20.0),Midterm (/50.0),Final (/100.0),Final Grade");
+            for (int i = 0; i < rows; i++) {
+                rollMap.put("R" + i, i);
+                out.println("R" + i + ",Student " + i + "," + (i % 21) + "," + (i % 51) + "," + (i % 101) + ",");
+            }
+        }
+
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger lastEnrollment = new AtomicInteger(-1);
+        GradeCsvHandler.CsvImportResult result = GradeCsvHandler.importGradesStreaming(csv, COMPONENTS, rollMap, chunk -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                assertTrue(chunk.getEnrollmentId(i) >= lastEnrollment.get(), "Chunks arrive in file order");
+                lastEnrollment.set(chunk.getEnrollmentId(i));
+            }
+            written.addAndGet(chunk.size());
+            return chunk.size();
+        }, false);
+
+        assertTrue(result.isSuccess());
+        assertEquals(rows, result.getRowsRead());
+        assertEquals(rows, result.getRecordsProcessed());
+        assertEquals(rows * 3, result.getScoresWritten());
+        assertEquals(rows * 3, written.get());
+        assertFalse(result.hasErrors());
+    }
+
+    @Test
+    @DisplayName("Invalid cells are reported and failed chunks are rolled back")
+    @Order(2)
+    void testValidationAndChunkFailure() throws Exception {
+        File csv = tempDir.resolve("bad.csv").toFile();
+        try (PrintWriter out = new PrintWriter(csv)) {
+            out.println("Roll Number,Student Name,Quiz,Midterm,Unknown");
+            out.println("R1,A,10,60,5");
+            out.println("R2,B,-1,abc,");
+            out.println("R9,C,10,10,10");
+        }
+        Map<String, Integer> rollMap = Map.of("R1", 1, "R2", 2);
+
+        GradeCsvHandler.CsvImportResult result = GradeCsvHandler.importGradesFromCsv(csv, COMPONENTS, rollMap);
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getRecordsProcessed());
+        assertEquals(Map.of(1, 10.0), result.getImportedScores().get(1));
+        assertEquals(4, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("Line 2: Score 60.0 exceeds max score 50.0"));
+        assertTrue(result.getErrors().get(3).contains("'R9' is not enrolled"));
+
+        GradeCsvHandler.CsvImportResult failed = GradeCsvHandler.importGradesStreaming(csv, COMPONENTS, rollMap,
+            chunk -> { throw new java.sql.SQLException("Deadlock found"); }, false);
+        assertFalse(failed.isSuccess());
+        assertEquals(1, failed.getChunksRolledBack());
+        assertTrue(failed.getErrors().get(failed.getErrors().size() - 1).contains("Lines 2-4 were not saved"));
+    }
+}
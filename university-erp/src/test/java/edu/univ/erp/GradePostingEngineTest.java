@@ -0,0 +1,61 @@
+package edu.univ.erp;
+
+import edu.univ.erp.service.GradePostingEngine;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GradePostingEngineTest {
+
+    @Test
+    @DisplayName("Letter cut-offs sit at 90, 80, 70 and 60 inclusive")
+    @Order(1)
+    void testLetterBoundaries() {
+        double[] cutoffs = {90, 80, 70, 60};
+        String[] letters = {"A", "B", "C", "D"};
+        for (int k = 0; k < cutoffs.length; k++) {
+            assertEquals(letters[k], GradePostingEngine.letter(GradePostingEngine.letterIndex(cutoffs[k])),
+                "Exactly " + cutoffs[k]);
+            assertEquals(k + 1, GradePostingEngine.letterIndex(Math.nextDown(cutoffs[k])), "Just below " + cutoffs[k]);
+        }
+        assertEquals("A", GradePostingEngine.letter(GradePostingEngine.letterIndex(100)));
+        assertEquals("F", GradePostingEngine.letter(GradePostingEngine.letterIndex(59.99)));
+        assertEquals("F", GradePostingEngine.letter(GradePostingEngine.letterIndex(0)));
+    }
+
+    @Test
+    @DisplayName("A section is graded per student, skipping anyone with a missing score")
+    @Order(2)
+    void testSectionCompute() {
+        // Quiz 20% out of 10, Midterm 30% out of 50, Final 50% out of 100.
+        double[] weights = {20, 30, 50};
+        double[] maxScores = {10, 50, 100};
+        double[] scores = {
+            8, 37.5, 90,          // 16 + 22.5 + 45 = 83.5 -> B
+            10, Double.NaN, 100,  // midterm not entered yet
+            9, 45, 90,            // 18 + 27 + 45 = 90 exactly -> A
+            5, 30, 60,            // 10 + 18 + 30 = 58 -> F
+        };
+        assertNull(GradePostingEngine.checkWeights(weights));
+
+        int[] letters = GradePostingEngine.letterIndexes(weights, maxScores, scores, 4);
+
+        assertEquals("B", GradePostingEngine.letter(letters[0]));
+        assertEquals(-1, letters[1], "A student missing a score gets no final grade");
+        assertEquals("A", GradePostingEngine.letter(letters[2]));
+        assertEquals("F", GradePostingEngine.letter(letters[3]));
+    }
+
+    @Test
+    @DisplayName("Weights that do not add up to 100 stop the section from posting")
+    @Order(3)
+    void testWeightCheck() {
+        String error = GradePostingEngine.checkWeights(new double[]{20, 30, 40});
+        assertNotNull(error);
+        assertTrue(error.contains("90.0"), error);
+        assertNotNull(GradePostingEngine.checkWeights(new double[]{20, 30, 50.5}));
+        assertNull(GradePostingEngine.checkWeights(new double[]{33.33, 33.33, 33.34}));
+        assertNotNull(GradePostingEngine.checkWeights(new double[0]), "A section without components cannot be posted");
+    }
+}
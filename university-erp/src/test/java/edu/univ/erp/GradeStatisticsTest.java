@@ -0,0 +1,103 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import edu.univ.erp.service.GradeStatisticsEngine;
+import edu.univ.erp.service.GradeStatisticsEngine.SectionStatistics;
+import edu.univ.erp.util.StreamingStats;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GradeStatisticsTest {
+
+    @Test
+    @DisplayName("Moments are exact and percentiles fall within one sketch bin")
+    @Order(1)
+    void testAgainstExactValues() {
+        Random random = new Random(5);
+        double[] values = new double[20_000];
+        StreamingStats stats = new StreamingStats(0, 50);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.min(50, Math.max(0, 35 + random.nextGaussian() * 8));
+            stats.add(values[i]);
+        }
+        stats.add(Double.NaN);
+
+        double mean = Arrays.stream(values).average().orElseThrow();
+        double variance = Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / (values.length - 1);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(values.length, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(Math.sqrt(variance), stats.getStdDev(), 1e-9);
+        assertEquals(sorted[0], stats.getMin());
+        assertEquals(sorted[sorted.length - 1], stats.getMax());
+        double binWidth = 50.0 / 1000;
+        for (double p : new double[]{10, 25, 50, 75, 90, 99}) {
+            double exact = sorted[(int) Math.ceil(p / 100 * sorted.length) - 1];
+            assertEquals(exact, stats.getPercentile(p), binWidth + 1e-9, "p" + p);
+        }
+        assertEquals(values.length, Arrays.stream(stats.getHistogram(10)).sum());
+    }
+
+    @Test
+    @DisplayName("Merged accumulators match a single pass over all values")
+    @Order(2)
+    void testMerge() {
+        Random random = new Random(9);
+        StreamingStats all = new StreamingStats(0, 100);
+        StreamingStats left = new StreamingStats(0, 100);
+        StreamingStats right = new StreamingStats(0, 100);
+        for (int i = 0; i < 5000; i++) {
+            double value = random.nextDouble() * 100;
+            all.add(value);
+            (i % 3 == 0 ? left : right).add(value);
+        }
+        left.merge(right);
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-6);
+        assertEquals(all.getMedian(), left.getMedian(), 1e-9);
+        assertArrayEquals(all.getHistogram(20), left.getHistogram(20));
+    }
+
+    @Test
+    @DisplayName("One pass over a gradebook covers components and final scores")
+    @Order(3)
+    void testSectionAnalysis() {
+        List<GradeComponent> components = List.of(
+            new GradeComponent(1, 7, "Quiz", 40, 20),
+            new GradeComponent(2, 7, "Final", 60, 100));
+        Gradebook gradebook = new Gradebook(components);
+        int a = gradebook.addStudent(1, 11, "A", "R1", null);
+        gradebook.setScore(a, 0, 20);
+        gradebook.setScore(a, 1, 90);
+        int b = gradebook.addStudent(2, 12, "B", "R2", null);
+        gradebook.setScore(b, 0, 10);
+        gradebook.setScore(b, 1, 50);
+        int c = gradebook.addStudent(3, 13, "C", "R3", null);
+        gradebook.setScore(c, 0, 15);
+
+        SectionStatistics stats = GradeStatisticsEngine.analyze("CS101 - A", gradebook);
+        assertEquals(3, stats.students());
+        assertEquals(1, stats.incomplete());
+        assertEquals(3, stats.components().get(0).scores().getCount());
+        assertEquals(15.0, stats.components().get(0).scores().getMean(), 1e-9);
+        assertEquals(2, stats.components().get(1).scores().getCount());
+        assertEquals(2, stats.finalScores().getCount());
+        assertEquals((94.0 + 50.0) / 2, stats.finalScores().getMean(), 1e-9);
+
+        SectionStatistics pooled = GradeStatisticsEngine.combine("CS101", List.of(stats, stats));
+        assertEquals(6, pooled.students());
+        assertEquals(2, pooled.components().size());
+        assertEquals(6, pooled.components().get(0).scores().getCount());
+        assertEquals(4, pooled.finalScores().getCount());
+    }
+}
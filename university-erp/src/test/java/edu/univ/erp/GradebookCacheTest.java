@@ -0,0 +1,94 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.GradeDAO;
+import edu.univ.erp.data.GradebookCache;
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GradebookCacheTest {
+
+    @Test
+    @DisplayName("Repeated reads hit the cache and return independent copies")
+    @Order(1)
+    void testHitsReturnCopies() throws Exception {
+        StubGradeDAO dao = new StubGradeDAO();
+        GradebookCache cache = new GradebookCache(dao, 8, 60_000);
+
+        Gradebook first = cache.getGradebook(1);
+        first.setScore(0, 0, 5.0);
+        first.setFinalGrade(0, "A");
+        assertEquals(1, cache.getComponents(1).size());
+
+        Gradebook again = cache.getGradebook(1);
+        assertFalse(again.hasScore(0, 0), "Edits to a returned gradebook must not leak into the cache");
+        assertNull(again.getFinalGrade(0));
+        assertEquals(1, dao.rosterQueries);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Writes invalidate the section by id, component or enrollment")
+    @Order(2)
+    void testInvalidation() throws Exception {
+        StubGradeDAO dao = new StubGradeDAO();
+        GradebookCache cache = new GradebookCache(dao, 8, 60_000);
+        cache.getGradebook(1);
+        cache.getGradebook(2);
+
+        cache.invalidateEnrollments(2001);
+        cache.getGradebook(1);
+        cache.getGradebook(2);
+        assertEquals(3, dao.rosterQueries, "Only section 2 holds enrollment 2001");
+
+        cache.invalidateComponent(100);
+        cache.getComponents(1);
+        assertEquals(4, dao.rosterQueries);
+
+        cache.invalidateSection(2);
+        cache.invalidateEnrollments(9999);
+        cache.getGradebook(2);
+        assertEquals(5, dao.rosterQueries);
+        assertEquals(3, cache.getInvalidationCount());
+    }
+
+    @Test
+    @DisplayName("Least recently used sections are evicted and expired entries reload")
+    @Order(3)
+    void testEvictionAndExpiry() throws Exception {
+        StubGradeDAO dao = new StubGradeDAO();
+        GradebookCache cache = new GradebookCache(dao, 2, 60_000);
+        cache.getGradebook(1);
+        cache.getGradebook(2);
+        cache.getGradebook(1);
+        cache.getGradebook(3);
+        assertEquals(1, cache.getEvictionCount());
+        cache.getGradebook(1);
+        assertEquals(3, dao.rosterQueries, "Section 1 was used more recently than section 2");
+        cache.getGradebook(2);
+        assertEquals(4, dao.rosterQueries);
+
+        GradebookCache expiring = new GradebookCache(dao, 2, 0);
+        expiring.getGradebook(1);
+        expiring.getGradebook(1);
+        assertEquals(6, dao.rosterQueries);
+    }
+
+    private static class StubGradeDAO extends GradeDAO {
+        int rosterQueries = 0;
+
+        @Override
+        public Gradebook getGradebook(int sectionId) {
+            rosterQueries++;
+            Gradebook gradebook = new Gradebook(List.of(new GradeComponent(sectionId * 100, sectionId, "Quiz", 100, 20)));
+            gradebook.addStudent(sectionId * 10, sectionId * 1000 + 1, "Student", "R" + sectionId, null);
+            return gradebook;
+        }
+    }
+}
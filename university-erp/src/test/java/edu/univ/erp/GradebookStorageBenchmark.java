@@ -0,0 +1,86 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Heap footprint and final-score timing of the map-based gradebook rows against the columnar
+ * Gradebook, built from the same data as GradebookStorageTest. Not part of the unit suite; run it
+ * by hand after a test-compile:
+ * <pre>
+ * java -cp target/test-classes:target/classes edu.univ.erp.GradebookStorageBenchmark
+ * </pre>
+ */
+public class GradebookStorageBenchmark {
+
+    private static final int COPIES = 40;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int TIMED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        List<GradeComponent> components = GradebookStorageTest.components();
+
+        long before = usedHeap();
+        List<List<GradebookStorageTest.LegacyEntry>> legacyBooks = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) legacyBooks.add(GradebookStorageTest.legacyRows(components, i));
+        long legacyBytes = (usedHeap() - before) / COPIES;
+
+        before = usedHeap();
+        List<Gradebook> columnarBooks = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) columnarBooks.add(GradebookStorageTest.columnar(components, i));
+        long columnarBytes = (usedHeap() - before) / COPIES;
+
+        double legacyTotal = 0;
+        double columnarTotal = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            legacyTotal = sumLegacy(legacyBooks, components);
+            columnarTotal = sumColumnar(columnarBooks);
+        }
+        if (Math.abs(legacyTotal - columnarTotal) > 1e-6) {
+            throw new IllegalStateException("Final score totals differ: " + legacyTotal + " vs " + columnarTotal);
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < TIMED_ROUNDS; round++) sumLegacy(legacyBooks, components);
+        long legacyNs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < TIMED_ROUNDS; round++) sumColumnar(columnarBooks);
+        long columnarNs = System.nanoTime() - start;
+
+        System.out.printf("%d x %d gradebook: maps ~%d KB, columns ~%d KB; final scores maps %d ms, columns %d ms (%.1fx)%n",
+            GradebookStorageTest.STUDENTS, GradebookStorageTest.COMPONENTS, legacyBytes / 1024, columnarBytes / 1024,
+            legacyNs / 1_000_000, columnarNs / 1_000_000, (double) legacyNs / Math.max(1, columnarNs));
+    }
+
+    private static double sumLegacy(List<List<GradebookStorageTest.LegacyEntry>> books, List<GradeComponent> components) {
+        double total = 0;
+        for (List<GradebookStorageTest.LegacyEntry> book : books) {
+            for (GradebookStorageTest.LegacyEntry entry : book) {
+                double score = GradebookStorageTest.legacyFinalScore(entry, components);
+                if (!Double.isNaN(score)) total += score;
+            }
+        }
+        return total;
+    }
+
+    private static double sumColumnar(List<Gradebook> books) {
+        double total = 0;
+        for (Gradebook book : books) {
+            for (int r = 0; r < book.getStudentCount(); r++) {
+                double score = book.computeFinalScore(r);
+                if (!Double.isNaN(score)) total += score;
+            }
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
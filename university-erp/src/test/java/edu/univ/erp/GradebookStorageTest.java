@@ -0,0 +1,105 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.GradeComponent;
+import edu.univ.erp.domain.Gradebook;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GradebookStorageTest {
+
+    static final int STUDENTS = 500;
+    static final int COMPONENTS = 12;
+
+    static List<GradeComponent> components() {
+        List<GradeComponent> components = new ArrayList<>();
+        for (int j = 0; j < COMPONENTS; j++) {
+            components.add(new GradeComponent(100 + j, 1, "C" + j, 100.0 / COMPONENTS, 10 + j * 5));
+        }
+        return components;
+    }
+
+    @Test
+    @DisplayName("Columnar gradebook matches the map-based rows cell for cell")
+    @Order(1)
+    void testEquivalence() {
+        List<GradeComponent> components = components();
+        List<LegacyEntry> legacy = legacyRows(components, 42);
+        Gradebook gradebook = columnar(components, 42);
+
+        assertEquals(legacy.size(), gradebook.getStudentCount());
+        for (int r = 0; r < legacy.size(); r++) {
+            for (int c = 0; c < COMPONENTS; c++) {
+                Double expected = legacy.get(r).scores.get(components.get(c).getComponentId());
+                assertEquals(expected != null, gradebook.hasScore(r, c));
+                if (expected != null) assertEquals(expected, gradebook.getScore(r, c));
+            }
+            double expectedFinal = legacyFinalScore(legacy.get(r), components);
+            double actualFinal = gradebook.computeFinalScore(r);
+            assertEquals(Double.isNaN(expectedFinal), Double.isNaN(actualFinal));
+            if (!Double.isNaN(expectedFinal)) assertEquals(expectedFinal, actualFinal, 0.0);
+        }
+
+        Gradebook copy = gradebook.copy();
+        copy.clearScore(0, 0);
+        copy.addStudent(9999, 9999, "New", "RN", null);
+        assertEquals(legacy.get(0).scores.containsKey(100), gradebook.hasScore(0, 0));
+        assertEquals(STUDENTS, gradebook.getStudentCount());
+    }
+
+    static List<LegacyEntry> legacyRows(List<GradeComponent> components, long seed) {
+        Random random = new Random(seed);
+        List<LegacyEntry> rows = new ArrayList<>();
+        for (int r = 0; r < STUDENTS; r++) {
+            LegacyEntry entry = new LegacyEntry("Student " + r, "R" + r);
+            for (GradeComponent component : components) {
+                if (random.nextInt(50) == 0) continue;
+                entry.scores.put(component.getComponentId(), (double) random.nextInt((int) component.getMaxScore() + 1));
+            }
+            rows.add(entry);
+        }
+        return rows;
+    }
+
+    static Gradebook columnar(List<GradeComponent> components, long seed) {
+        Random random = new Random(seed);
+        Gradebook gradebook = new Gradebook(components);
+        for (int r = 0; r < STUDENTS; r++) {
+            int row = gradebook.addStudent(r, r, "Student " + r, "R" + r, null);
+            for (int c = 0; c < components.size(); c++) {
+                if (random.nextInt(50) == 0) continue;
+                gradebook.setScore(row, c, random.nextInt((int) components.get(c).getMaxScore() + 1));
+            }
+        }
+        return gradebook;
+    }
+
+    /** The per-student computation used while scores lived in a HashMap. */
+    static double legacyFinalScore(LegacyEntry entry, List<GradeComponent> components) {
+        double finalScore = 0.0;
+        for (GradeComponent component : components) {
+            Double score = entry.scores.get(component.getComponentId());
+            if (score == null) return Double.NaN;
+            finalScore += (score / component.getMaxScore()) * component.getWeight();
+        }
+        return finalScore;
+    }
+
+    static final class LegacyEntry {
+        final String studentName;
+        final String rollNo;
+        final Map<Integer, Double> scores = new HashMap<>();
+
+        LegacyEntry(String studentName, String rollNo) {
+            this.studentName = studentName;
+            this.rollNo = rollNo;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.NotificationDAO;
+import edu.univ.erp.domain.Notification;
+import edu.univ.erp.service.NotificationOutbox;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class NotificationOutboxTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Collects written rows and records the size of each batch. */
+    private static final class RecordingSink implements NotificationOutbox.Sink {
+        final List<Notification> rows = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean failing;
+
+        @Override
+        public int write(List<Notification> batch) throws SQLException {
+            if (failing) throw new SQLException("Communications link failure");
+            rows.addAll(batch);
+            batchSizes.add(batch.size());
+            return batch.size();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent producers are flushed in multi-row batches without loss")
+    @Order(1)
+    void testBatchedDelivery() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        NotificationOutbox outbox = new NotificationOutbox(sink, tempDir.resolve("spool.csv").toFile(), 10_000, 200, 5);
+        outbox.start();
+
+        int producers = 8;
+        int perProducer = 2_500;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    outbox.enqueue(producer * perProducer + i, null, "Message " + i);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        outbox.shutdown();
+
+        int total = producers * perProducer;
+        assertEquals(total, sink.rows.size());
+        Set<Integer> userIds = new HashSet<>();
+        for (Notification n : sink.rows) userIds.add(n.getUserId());
+        assertEquals(total, userIds.size(), "Every notification is written exactly once");
+        assertEquals(0, outbox.getQueueDepth());
+        assertTrue(outbox.getBatchCount() < total / 10, "Rows should be grouped into batches");
+        assertTrue(sink.batchSizes.stream().allMatch(size -> size <= 200));
+    }
+
+    @Test
+    @DisplayName("A full queue makes the producer write its own notification")
+    @Order(2)
+    void testOverflowWritesDirectly() {
+        RecordingSink sink = new RecordingSink();
+        NotificationOutbox outbox = new NotificationOutbox(sink, tempDir.resolve("spool.csv").toFile(), 5, 1_000, 60_000);
+        outbox.start();
+        for (int i = 0; i < 12; i++) {
+            assertTrue(outbox.enqueue(i, null, "Overflow " + i));
+        }
+        assertEquals(7, outbox.getDirectWriteCount());
+        assertEquals(5, outbox.getQueueDepth());
+        outbox.shutdown();
+        assertEquals(12, sink.rows.size());
+    }
+
+    @Test
+    @DisplayName("Unwritable batches are spooled and replayed on the next start")
+    @Order(3)
+    void testSpoolAndReplay() throws Exception {
+        File spool = tempDir.resolve("outbox/spool.csv").toFile();
+        RecordingSink down = new RecordingSink();
+        down.failing = true;
+        NotificationOutbox outbox = new NotificationOutbox(down, spool, 1_000, 50, 5);
+        outbox.start();
+        outbox.enqueue(1, null, "Grade posted, with a comma");
+        outbox.enqueue(null, "student", "Line one\nline two");
+        AtomicInteger waited = new AtomicInteger();
+        while (outbox.getQueueDepth() > 0 && waited.incrementAndGet() < 200) Thread.sleep(5);
+        outbox.enqueue(3, null, "Queued at shutdown");
+        outbox.shutdown();
+
+        assertTrue(spool.exists());
+        assertEquals(3, outbox.getSpooledCount());
+        assertEquals(0, down.rows.size());
+
+        RecordingSink up = new RecordingSink();
+        NotificationOutbox restarted = new NotificationOutbox(up, spool, 1_000, 50, 5);
+        restarted.start();
+        assertFalse(spool.exists(), "Spool is consumed on start");
+        restarted.shutdown();
+
+        assertEquals(3, up.rows.size());
+        Notification broadcast = up.rows.stream().filter(n -> n.getUserId() == null).findFirst().orElseThrow();
+        assertEquals("student", broadcast.getTargetRole());
+        assertEquals("Line one\nline two", broadcast.getMessage());
+        assertTrue(up.rows.stream().anyMatch(n -> "Grade posted, with a comma".equals(n.getMessage())));
+    }
+
+    @Test
+    @DisplayName("A batch of direct rows and broadcasts commits or rolls back as one")
+    @Order(4)
+    void testBatchIsOneTransaction() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> batch = List.of(
+            new Notification(0, 1, null, "Grade posted", false, now),
+            new Notification(0, null, "student", "Registration opens Monday", false, now),
+            new Notification(0, null, "instructor", "Grades due Friday", false, now),
+            new Notification(0, 2, null, "Section dropped", false, now));
+        NotificationDAO dao = new NotificationDAO();
+
+        List<String> calls = new ArrayList<>();
+        assertEquals(4, dao.createBatch(fakeConnection(calls, null), batch));
+        assertEquals(List.of("setAutoCommit(false)", "INSERT INTO notifications", "INSERT INTO broadcast_sequences",
+            "INSERT INTO broadcast_notifications", "INSERT INTO broadcast_sequences", "INSERT INTO broadcast_notifications",
+            "commit", "setAutoCommit(true)"), calls);
+
+        calls.clear();
+        SQLException failure = assertThrows(SQLException.class,
+            () -> dao.createBatch(fakeConnection(calls, "INSERT INTO broadcast_notifications"), batch));
+        assertEquals("Deadlock found when trying to get lock", failure.getMessage());
+        assertFalse(calls.contains("commit"), "The direct rows must not be committed ahead of the broadcasts");
+        assertEquals(List.of("setAutoCommit(false)", "INSERT INTO notifications", "INSERT INTO broadcast_sequences",
+            "INSERT INTO broadcast_notifications", "rollback", "setAutoCommit(true)"), calls);
+    }
+
+    @Test
+    @DisplayName("A spool with a malformed row is kept whole and nothing from it is written")
+    @Order(5)
+    void testMalformedSpoolIsNotReplayed() throws Exception {
+        File spool = tempDir.resolve("spool.csv").toFile();
+        String contents = "\"1\",\"\",\"First\",\"2026-10-01T09:00\"\n"
+            + "\"\",\"student\",\"Second\",\"2026-10-01T09:01\"\n"
+            + "\"3\",\"\",\"Third\",\"not a timestamp\"\n";
+        Files.writeString(spool.toPath(), contents);
+
+        RecordingSink sink = new RecordingSink();
+        NotificationOutbox outbox = new NotificationOutbox(sink, spool, 1_000, 50, 5);
+        outbox.start();
+        outbox.shutdown();
+        assertEquals(0, sink.rows.size(), "Rows ahead of the bad one must not be written now and again later");
+        assertEquals(contents, Files.readString(spool.toPath()));
+
+        Files.writeString(spool.toPath(), contents.replace("not a timestamp", "2026-10-01T09:02"));
+        NotificationOutbox repaired = new NotificationOutbox(sink, spool, 1_000, 50, 5);
+        repaired.start();
+        repaired.shutdown();
+        assertEquals(List.of("First", "Second", "Third"), sink.rows.stream().map(Notification::getMessage).toList());
+        assertFalse(spool.exists());
+    }
+
+    @Test
+    @DisplayName("Producers racing shutdown lose nothing and leave the depth at zero")
+    @Order(6)
+    void testShutdownRacingProducers() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            RecordingSink sink = new RecordingSink();
+            NotificationOutbox outbox = new NotificationOutbox(sink, tempDir.resolve("race.csv").toFile(), 50, 20, 1);
+            outbox.start();
+            AtomicInteger accepted = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            for (int p = 0; p < 4; p++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (outbox.enqueue(i, null, "Racing " + i)) accepted.incrementAndGet();
+                    }
+                });
+            }
+            Thread.sleep(1);
+            outbox.shutdown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+            assertEquals(0, outbox.getQueueDepth(), "Round " + round);
+            assertEquals(2_000, accepted.get());
+            assertEquals(2_000, sink.rows.size(), "Round " + round);
+        }
+    }
+
+    /** Records transaction calls and the table of every INSERT; statements whose SQL starts with failOn throw. */
+    private static Connection fakeConnection(List<String> calls, String failOn) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit": calls.add("setAutoCommit(" + args[0] + ")"); return null;
+                    case "commit": calls.add("commit"); return null;
+                    case "rollback": calls.add("rollback"); return null;
+                    case "prepareStatement": return fakeStatement(calls, (String) args[0], failOn);
+                    case "createStatement": return fakeStatement(calls, "SELECT LAST_INSERT_ID()", failOn);
+                    default: return null;
+                }
+            });
+    }
+
+    private static Statement fakeStatement(List<String> calls, String sql, String failOn) {
+        int rows = sql.split("\\(\\?", -1).length - 1;
+        return (Statement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "executeUpdate":
+                        String table = sql.substring(0, sql.indexOf(" (", 12));
+                        calls.add(table);
+                        if (failOn != null && sql.startsWith(failOn)) {
+                            throw new SQLException("Deadlock found when trying to get lock");
+                        }
+                        return table.equals("INSERT INTO broadcast_sequences") ? 1 : rows;
+                    case "executeQuery": return fakeLastInsertId();
+                    default: return null;
+                }
+            });
+    }
+
+    private static ResultSet fakeLastInsertId() {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "next": return true;
+                    case "getInt": return 1;
+                    default: return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,52 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.NotificationDAO;
+import edu.univ.erp.service.NotificationRetentionJob;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class NotificationRetentionTest {
+
+    @Test
+    @DisplayName("The first run creates partitions from the cutoff month through the month ahead")
+    @Order(1)
+    void testFirstPartitionPlan() {
+        List<YearMonth> months = NotificationRetentionJob.planPartitionsToAdd(
+            List.of("pmax"), YearMonth.of(2025, 11), YearMonth.of(2026, 1));
+        assertEquals(List.of(YearMonth.of(2025, 11), YearMonth.of(2025, 12), YearMonth.of(2026, 1)), months);
+        assertEquals("p202511", NotificationDAO.archivePartitionName(months.get(0)));
+    }
+
+    @Test
+    @DisplayName("Later runs only add months after the last existing partition")
+    @Order(2)
+    void testIncrementalPartitionPlan() {
+        List<String> existing = List.of("p202511", "p202512", "p202601", "pmax");
+        assertEquals(List.of(), NotificationRetentionJob.planPartitionsToAdd(
+            existing, YearMonth.of(2025, 12), YearMonth.of(2026, 1)));
+        assertEquals(List.of(YearMonth.of(2026, 2), YearMonth.of(2026, 3)), NotificationRetentionJob.planPartitionsToAdd(
+            existing, YearMonth.of(2026, 2), YearMonth.of(2026, 3)));
+    }
+
+    @Test
+    @DisplayName("Only whole months before the archive retention are dropped")
+    @Order(3)
+    void testDropPlan() {
+        List<String> existing = List.of("p202310", "p202311", "p202312", "p202401", "pmax", "p_legacy");
+        assertEquals(List.of("p202310", "p202311"),
+            NotificationRetentionJob.planPartitionsToDrop(existing, YearMonth.of(2023, 12)));
+    }
+
+    @Test
+    @DisplayName("Chunks are followed by a pause at least as long as the chunk")
+    @Order(4)
+    void testThrottle() {
+        assertEquals(50, NotificationRetentionJob.pauseAfterChunk(3));
+        assertEquals(420, NotificationRetentionJob.pauseAfterChunk(420));
+    }
+}
@@ -0,0 +1,113 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.CourseDAO;
+import edu.univ.erp.data.PrerequisiteGraph;
+import edu.univ.erp.domain.PrerequisiteLink;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PrerequisiteGraphTest {
+
+    // 1 = CS101, 2 = CS201 (needs 1), 3 = CS301 (needs 2), 4 = MA101, 5 = CS401 (needs 3 and 4)
+    private static StubCourseDAO chain() {
+        StubCourseDAO dao = new StubCourseDAO();
+        dao.link(2, 1, "CS101");
+        dao.link(3, 2, "CS201");
+        dao.link(5, 3, "CS301");
+        dao.link(5, 4, "MA101");
+        return dao;
+    }
+
+    @Test
+    @DisplayName("Prerequisite check is a containment test over completed courses")
+    @Order(1)
+    void testHasCompletedPrerequisites() throws Exception {
+        StubCourseDAO dao = chain();
+        dao.completed.put(10, bits(1, 2));
+        PrerequisiteGraph graph = new PrerequisiteGraph(dao);
+
+        assertTrue(graph.hasCompletedPrerequisites(10, 1), "No prerequisites");
+        assertEquals(0, dao.completedQueries, "Courses without prerequisites need no student lookup");
+        assertTrue(graph.hasCompletedPrerequisites(10, 3));
+        assertFalse(graph.hasCompletedPrerequisites(10, 5), "MA101 and CS301 missing");
+        assertEquals(1, dao.completedQueries, "Completed courses are cached per student");
+        assertEquals(1, dao.linkQueries);
+
+        dao.completed.put(10, bits(1, 2, 3, 4));
+        graph.invalidateCompletedCourses();
+        assertTrue(graph.hasCompletedPrerequisites(10, 5));
+    }
+
+    @Test
+    @DisplayName("Transitive chains and cycle checks come from the cached graph")
+    @Order(2)
+    void testTransitiveClosureAndCycles() throws Exception {
+        StubCourseDAO dao = chain();
+        PrerequisiteGraph graph = new PrerequisiteGraph(dao);
+
+        assertEquals(bits(1, 2, 3, 4), graph.getTransitivePrerequisites(5));
+        assertEquals(List.of("CS101", "CS201", "CS301", "MA101"), graph.getPrerequisiteChainCodes(5));
+        assertTrue(graph.wouldCreateCycle(1, 5), "CS401 already depends on CS101");
+        assertTrue(graph.wouldCreateCycle(2, 2));
+        assertFalse(graph.wouldCreateCycle(4, 1));
+        assertTrue(graph.findCycle().isEmpty());
+        assertEquals(1, dao.linkQueries);
+    }
+
+    @Test
+    @DisplayName("Invalidation reloads the graph and existing cycles are reported")
+    @Order(3)
+    void testInvalidateAndCycleDetection() throws Exception {
+        StubCourseDAO dao = chain();
+        PrerequisiteGraph graph = new PrerequisiteGraph(dao);
+        assertTrue(graph.findCycle().isEmpty());
+
+        dao.link(1, 3, "CS301");
+        assertTrue(graph.findCycle().isEmpty(), "Still serving the cached graph");
+        graph.invalidate();
+
+        List<Integer> cycle = graph.findCycle();
+        assertFalse(cycle.isEmpty());
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+        assertTrue(cycle.containsAll(List.of(1, 2, 3)));
+        assertTrue(graph.getTransitivePrerequisites(1).get(1), "A course on a cycle reaches itself");
+        assertEquals(2, dao.linkQueries);
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) bits.set(id);
+        return bits;
+    }
+
+    private static class StubCourseDAO extends CourseDAO {
+        final List<PrerequisiteLink> links = new ArrayList<>();
+        final Map<Integer, BitSet> completed = new HashMap<>();
+        int linkQueries = 0;
+        int completedQueries = 0;
+
+        void link(int courseId, int requiresCourseId, String code) {
+            links.add(new PrerequisiteLink(courseId, requiresCourseId, code));
+        }
+
+        @Override
+        public List<PrerequisiteLink> findAllPrerequisiteLinks() {
+            linkQueries++;
+            return new ArrayList<>(links);
+        }
+
+        @Override
+        public BitSet findCompletedCourseIds(int studentId) {
+            completedQueries++;
+            return (BitSet) completed.getOrDefault(studentId, new BitSet()).clone();
+        }
+    }
+}
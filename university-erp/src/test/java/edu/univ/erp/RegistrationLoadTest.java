@@ -0,0 +1,141 @@
+package edu.univ.erp;
+
+import edu.univ.erp.service.SeatCounter;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class RegistrationLoadTest {
+
+    private static final int REGISTRANTS = 1000;
+    private static final int CAPACITY = 60;
+
+    @Test
+    @DisplayName("1000 concurrent registrants get exactly 60 seats")
+    @Order(1)
+    void testConcurrentRegistrantsFillSectionExactly() throws Exception {
+        SeatCounter counter = SeatCounter.getInstance();
+        int sectionId = 9001;
+        counter.invalidate(sectionId);
+
+        AtomicInteger enrollmentCount = new AtomicInteger(0);
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runRegistrants(() -> {
+            if (!counter.tryClaim(sectionId, CAPACITY, enrollmentCount.get())) {
+                rejected.incrementAndGet();
+                return;
+            }
+            if (claimSeat(enrollmentCount)) {
+                registered.incrementAndGet();
+            } else {
+                counter.invalidate(sectionId);
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(CAPACITY, registered.get(), "Exactly the section capacity should be registered");
+        assertEquals(REGISTRANTS - CAPACITY, rejected.get(), "Everyone else should be told the section is full");
+        assertEquals(CAPACITY, enrollmentCount.get(), "Enrollment count must never exceed capacity");
+        assertEquals(0, counter.getRemainingSeats(sectionId));
+    }
+
+    @Test
+    @DisplayName("Stale seat counter cannot oversell the section")
+    @Order(2)
+    void testStaleCounterIsCappedByConditionalUpdate() throws Exception {
+        SeatCounter counter = SeatCounter.getInstance();
+        int sectionId = 9002;
+        counter.invalidate(sectionId);
+        counter.reconcile(sectionId, CAPACITY, 0);
+
+        AtomicInteger enrollmentCount = new AtomicInteger(45);
+        AtomicInteger registered = new AtomicInteger();
+
+        runRegistrants(() -> {
+            if (counter.tryClaim(sectionId, CAPACITY, enrollmentCount.get()) && claimSeat(enrollmentCount)) {
+                registered.incrementAndGet();
+            } else {
+                counter.invalidate(sectionId);
+            }
+        });
+
+        assertEquals(CAPACITY - 45, registered.get());
+        assertEquals(CAPACITY, enrollmentCount.get());
+    }
+
+    @Test
+    @DisplayName("Released seats can be claimed again")
+    @Order(3)
+    void testReleaseAndReseed() {
+        SeatCounter counter = SeatCounter.getInstance();
+        int sectionId = 9003;
+        counter.invalidate(sectionId);
+
+        assertTrue(counter.tryClaim(sectionId, 1, 0));
+        assertFalse(counter.tryClaim(sectionId, 1, 1));
+        counter.release(sectionId);
+        assertTrue(counter.tryClaim(sectionId, 1, 0));
+
+        assertFalse(counter.tryClaim(sectionId, 1, 1));
+        assertTrue(counter.tryClaim(sectionId, 2, 1), "A fresh snapshot with free seats should reseed the counter");
+    }
+
+    @Test
+    @DisplayName("Reconcile reseeds the counter a pending claim will release into")
+    @Order(4)
+    void testReconcileKeepsCounter() {
+        SeatCounter counter = SeatCounter.getInstance();
+        int sectionId = 9004;
+        counter.invalidate(sectionId);
+
+        // A registration claims the last seat, the batch writer reseeds from the database, then the claim is undone.
+        assertTrue(counter.tryClaim(sectionId, 2, 1));
+        assertEquals(0, counter.getRemainingSeats(sectionId));
+        counter.reconcile(sectionId, 2, 2);
+        counter.release(sectionId);
+        assertEquals(1, counter.getRemainingSeats(sectionId));
+        assertTrue(counter.tryClaim(sectionId, 2, 1));
+        assertFalse(counter.tryClaim(sectionId, 2, 2), "The released seat is claimable exactly once");
+    }
+
+    private void runRegistrants(Runnable registration) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(REGISTRANTS);
+        for (int i = 0; i < REGISTRANTS; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    registration.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Registrants did not finish in time");
+        pool.shutdown();
+    }
+
+    // Mirrors SectionDAO.claimSeat: UPDATE ... SET enrollment_count = enrollment_count + 1 WHERE enrollment_count < capacity
+    private boolean claimSeat(AtomicInteger enrollmentCount) {
+        synchronized (enrollmentCount) {
+            if (enrollmentCount.get() < CAPACITY) {
+                enrollmentCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
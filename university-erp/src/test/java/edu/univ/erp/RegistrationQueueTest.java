@@ -0,0 +1,428 @@
+package edu.univ.erp;
+
+import edu.univ.erp.auth.SessionManager;
+import edu.univ.erp.data.SectionDAO;
+import edu.univ.erp.domain.Section;
+import edu.univ.erp.domain.User;
+import edu.univ.erp.service.RegistrationQueue;
+import edu.univ.erp.service.SeatCounter;
+import edu.univ.erp.service.StudentService;
+import edu.univ.erp.util.ScopedConnectionSource;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class RegistrationQueueTest {
+
+    private static final String ALREADY_REGISTERED = "You are already registered for this section.";
+    private static final String NOT_YOURS = "Enrollment not found, already dropped, or does not belong to you.";
+
+    private FakeErp db;
+    private RegistrationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        SessionManager.login(new User(1, "admin", "Admin", "admin", "active", null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+        SessionManager.logout();
+    }
+
+    @Test
+    @DisplayName("One group commit gives every caller their own outcome")
+    @Order(1)
+    void testOutcomesInOneBatch() throws Exception {
+        int sectionId = 7101;
+        db = new FakeErp(sectionId, 5);
+        db.row(100, 10, "registered");
+        db.row(101, 11, "dropped");
+        db.row(102, 12, "registered");
+        queue = new RegistrationQueue(new StubStudentService(db), new StubSectionDAO(db), db.connections());
+
+        CompletableFuture<Void> first = holdWriter(() -> queue.submitRegistration(1, sectionId));
+        CompletableFuture<Void> fresh = enqueue(1, () -> queue.submitRegistration(2, sectionId));
+        CompletableFuture<Void> twice = enqueue(2, () -> queue.submitRegistration(2, sectionId));
+        CompletableFuture<Void> again = enqueue(3, () -> queue.submitRegistration(11, sectionId));
+        CompletableFuture<Void> foreign = enqueue(4, () -> queue.submitDrop(20, 102));
+        CompletableFuture<Void> late = enqueue(5, () -> queue.submitRegistration(3, sectionId));
+        db.releaseWriter();
+
+        assertEquals("ok", outcome(first));
+        assertEquals("ok", outcome(fresh));
+        assertEquals(ALREADY_REGISTERED, outcome(twice), "A second request in the same batch is a duplicate");
+        assertEquals("ok", outcome(again), "A dropped enrollment is re-registered in place");
+        assertEquals(NOT_YOURS, outcome(foreign), "The drop is conditional on the student owning the enrollment");
+        assertEquals("Section full.", outcome(late));
+
+        assertEquals(2, queue.getCommits(), "One transaction per batch");
+        assertEquals(5, db.enrollmentCount);
+        assertEquals("registered", db.statusOf(11));
+        assertEquals("registered", db.statusOf(12));
+        assertNull(db.statusOf(3));
+        assertEquals(0, SeatCounter.getInstance().getRemainingSeats(sectionId), "The seat gate is reseeded from the commit");
+
+        queue.shutdown();
+        assertTrue(db.notifications.contains("failed 3: Section full."));
+        assertTrue(db.notifications.contains("registered 11"));
+    }
+
+    @Test
+    @DisplayName("Rewritten INSERT batches report SUCCESS_NO_INFO and still count as registered")
+    @Order(2)
+    void testSuccessNoInfo() throws Exception {
+        int sectionId = 7102;
+        db = new FakeErp(sectionId, 10);
+        db.rewriteBatches = true;
+        queue = new RegistrationQueue(new StubStudentService(db), new StubSectionDAO(db), db.connections());
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        results.add(holdWriter(() -> queue.submitRegistration(1, sectionId)));
+        for (int studentId = 2; studentId <= 4; studentId++) {
+            int student = studentId;
+            results.add(enqueue(studentId - 1, () -> queue.submitRegistration(student, sectionId)));
+        }
+        db.releaseWriter();
+
+        for (CompletableFuture<Void> result : results) {
+            assertEquals("ok", outcome(result));
+        }
+        assertEquals(Statement.SUCCESS_NO_INFO, db.lastInsertCounts[0]);
+        assertEquals(3, db.lastInsertCounts.length);
+        assertEquals(4, db.enrollmentCount);
+        assertEquals(2, queue.getCommits());
+        assertEquals(6, SeatCounter.getInstance().getRemainingSeats(sectionId));
+    }
+
+    @Test
+    @DisplayName("A batch that throws is rolled back and retried one request at a time")
+    @Order(3)
+    void testFallbackToIndividualRequests() throws Exception {
+        int sectionId = 7103;
+        db = new FakeErp(sectionId, 10);
+        db.row(101, 11, "dropped");
+        db.failInsertBatches = true;
+        StubStudentService students = new StubStudentService(db);
+        queue = new RegistrationQueue(students, new StubSectionDAO(db), db.connections());
+
+        CompletableFuture<Void> first = holdWriter(() -> queue.submitRegistration(1, sectionId));
+        CompletableFuture<Void> again = enqueue(1, () -> queue.submitRegistration(11, sectionId));
+        CompletableFuture<Void> fresh = enqueue(2, () -> queue.submitRegistration(2, sectionId));
+        CompletableFuture<Void> twice = enqueue(3, () -> queue.submitRegistration(2, sectionId));
+        db.releaseWriter();
+
+        assertEquals("ok", outcome(first));
+        assertEquals("ok", outcome(again));
+        assertEquals("ok", outcome(fresh));
+        assertEquals(ALREADY_REGISTERED, outcome(twice));
+
+        assertEquals(0, queue.getCommits(), "Nothing was group-committed");
+        assertEquals(2, db.rollbacks, "Each failed batch was rolled back");
+        assertEquals(List.of("register 1", "register 11", "register 2", "register 2"), students.fallbacks);
+        assertEquals("registered", db.statusOf(11), "The rolled-back re-registration went through on retry");
+        assertEquals(3, db.enrollmentCount);
+        queue.shutdown();
+        assertEquals(4, queue.getRequestsProcessed());
+    }
+
+    /** Submits a request and holds the writer inside its batch, so the next requests queue up behind it. */
+    private CompletableFuture<Void> holdWriter(Supplier<CompletableFuture<Void>> submit) throws InterruptedException {
+        db.holdNextLock = true;
+        CompletableFuture<Void> result = submit.get();
+        assertTrue(db.writerHeld.await(5, TimeUnit.SECONDS), "The writer never picked up the first request");
+        return result;
+    }
+
+    /** Submits a request and waits until validation has queued it, keeping submission order. */
+    private CompletableFuture<Void> enqueue(int depth, Supplier<CompletableFuture<Void>> submit) throws InterruptedException {
+        CompletableFuture<Void> result = submit.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.getQueueDepth() < depth && !result.isDone()) {
+            assertTrue(System.nanoTime() < deadline, "Request was never queued");
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    private static String outcome(CompletableFuture<Void> result) throws Exception {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            return "ok";
+        } catch (ExecutionException e) {
+            return e.getCause().getMessage();
+        }
+    }
+
+    /** One section and its enrollments, behind a fake JDBC connection that understands the writer's statements. */
+    private static final class FakeErp {
+        final int sectionId;
+        final int capacity;
+        int enrollmentCount;
+        final Map<Integer, int[]> enrollments = new HashMap<>();
+        final Map<Integer, String> statuses = new HashMap<>();
+        int nextEnrollmentId = 1000;
+        boolean rewriteBatches;
+        boolean failInsertBatches;
+        int[] lastInsertCounts = new int[0];
+        int rollbacks;
+        final List<String> notifications = Collections.synchronizedList(new ArrayList<>());
+
+        volatile boolean holdNextLock;
+        final CountDownLatch writerHeld = new CountDownLatch(1);
+        final CountDownLatch writerReleased = new CountDownLatch(1);
+
+        private Map<Integer, String> savedStatuses;
+        private Map<Integer, int[]> savedEnrollments;
+        private int savedCount;
+
+        FakeErp(int sectionId, int capacity) {
+            this.sectionId = sectionId;
+            this.capacity = capacity;
+        }
+
+        synchronized void row(int enrollmentId, int studentId, String status) {
+            enrollments.put(enrollmentId, new int[]{studentId});
+            statuses.put(enrollmentId, status);
+            if ("registered".equals(status)) enrollmentCount++;
+        }
+
+        synchronized String statusOf(int studentId) {
+            Integer id = enrollmentOf(studentId);
+            return id == null ? null : statuses.get(id);
+        }
+
+        Integer enrollmentOf(int studentId) {
+            for (Map.Entry<Integer, int[]> entry : enrollments.entrySet()) {
+                if (entry.getValue()[0] == studentId) return entry.getKey();
+            }
+            return null;
+        }
+
+        Section section() {
+            Section section = new Section(sectionId, 1, 7, "A", "Mon 10:00-11:00", "R1", capacity, "Monsoon", 2025, enrollmentCount);
+            section.setCourseCode("CSE101");
+            section.setAddDeadline(LocalDate.now().plusDays(7));
+            return section;
+        }
+
+        void releaseWriter() {
+            writerReleased.countDown();
+        }
+
+        RegistrationQueue.Connections connections() {
+            return new RegistrationQueue.Connections() {
+                @Override
+                public Connection getERPConnection() {
+                    return connection();
+                }
+
+                @Override
+                public <T, E extends Exception> T inUnitOfWork(ScopedConnectionSource.Work<T, E> work) throws SQLException, E {
+                    return work.run();
+                }
+            };
+        }
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (p, method, args) -> {
+                    synchronized (this) {
+                        switch (method.getName()) {
+                            case "setAutoCommit":
+                                if (!(Boolean) args[0] && savedStatuses == null) {
+                                    savedStatuses = new HashMap<>(statuses);
+                                    savedEnrollments = new HashMap<>(enrollments);
+                                    savedCount = enrollmentCount;
+                                } else if ((Boolean) args[0]) {
+                                    savedStatuses = null;
+                                }
+                                return null;
+                            case "commit": savedStatuses = null; return null;
+                            case "rollback":
+                                rollbacks++;
+                                statuses.clear(); statuses.putAll(savedStatuses);
+                                enrollments.clear(); enrollments.putAll(savedEnrollments);
+                                enrollmentCount = savedCount;
+                                return null;
+                            case "prepareStatement": return statement((String) args[0]);
+                            case "getAutoCommit": return savedStatuses == null;
+                            default: return null;
+                        }
+                    }
+                });
+        }
+
+        PreparedStatement statement(String sql) {
+            List<Object[]> batch = new ArrayList<>();
+            Object[] params = new Object[4];
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "setInt": case "setTimestamp": params[(Integer) args[0]] = args[1]; return null;
+                        case "addBatch": batch.add(params.clone()); return null;
+                        case "executeBatch":
+                            synchronized (this) {
+                                return executeBatch(sql, batch);
+                            }
+                        default: return null;
+                    }
+                });
+        }
+
+        private int[] executeBatch(String sql, List<Object[]> batch) throws SQLException {
+            int[] counts = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] row = batch.get(i);
+                if (sql.startsWith("UPDATE enrollments SET status = 'dropped'")) {
+                    int enrollmentId = (Integer) row[2];
+                    int[] owner = enrollments.get(enrollmentId);
+                    boolean owned = owner != null && owner[0] == (Integer) row[3] && "registered".equals(statuses.get(enrollmentId));
+                    if (owned) statuses.put(enrollmentId, "dropped");
+                    counts[i] = owned ? 1 : 0;
+                } else if (sql.startsWith("UPDATE enrollments SET status = 'registered'")) {
+                    Integer enrollmentId = enrollmentOf((Integer) row[2]);
+                    boolean dropped = enrollmentId != null && "dropped".equals(statuses.get(enrollmentId));
+                    if (dropped) statuses.put(enrollmentId, "registered");
+                    counts[i] = dropped ? 1 : 0;
+                } else if (sql.startsWith("INSERT INTO enrollments")) {
+                    if (failInsertBatches) {
+                        throw new BatchUpdateException("Deadlock found when trying to get lock", new int[0]);
+                    }
+                    int enrollmentId = nextEnrollmentId++;
+                    enrollments.put(enrollmentId, new int[]{(Integer) row[1]});
+                    statuses.put(enrollmentId, "registered");
+                    counts[i] = rewriteBatches ? Statement.SUCCESS_NO_INFO : 1;
+                } else {
+                    fail("Unexpected statement: " + sql);
+                }
+            }
+            if (sql.startsWith("INSERT")) lastInsertCounts = counts;
+            return counts;
+        }
+    }
+
+    private static class StubSectionDAO extends SectionDAO {
+        final FakeErp db;
+
+        StubSectionDAO(FakeErp db) {
+            this.db = db;
+        }
+
+        @Override
+        public Section findByIdWithLock(Connection conn, int sectionId) throws SQLException {
+            if (db.holdNextLock) {
+                db.holdNextLock = false;
+                db.writerHeld.countDown();
+                try {
+                    db.writerReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (db) {
+                return db.section();
+            }
+        }
+
+        @Override
+        public boolean updateEnrollmentCount(Connection conn, int sectionId, int change) {
+            synchronized (db) {
+                db.enrollmentCount += change;
+            }
+            return true;
+        }
+    }
+
+    private static class StubStudentService extends StudentService {
+        final FakeErp db;
+        final List<String> fallbacks = Collections.synchronizedList(new ArrayList<>());
+
+        StubStudentService(FakeErp db) {
+            this.db = db;
+        }
+
+        @Override
+        protected Section loadSectionForRegistration(Connection conn, int sectionId) {
+            synchronized (db) {
+                return db.section();
+            }
+        }
+
+        @Override
+        protected String checkRegistrationAllowed(Connection conn, int studentId, Section section) throws StudentServiceException {
+            String status = db.statusOf(studentId);
+            if ("registered".equals(status)) {
+                throw new StudentServiceException(ALREADY_REGISTERED);
+            }
+            return status;
+        }
+
+        /** Accepts any enrollment, as if it changed hands after validation; the writer must still refuse it. */
+        @Override
+        protected Section checkDropAllowed(int studentId, int enrollmentId) {
+            synchronized (db) {
+                return db.section();
+            }
+        }
+
+        @Override
+        public void registerForSection(int studentId, int sectionId) throws StudentServiceException {
+            fallbacks.add("register " + studentId);
+            synchronized (db) {
+                Integer enrollmentId = db.enrollmentOf(studentId);
+                if (enrollmentId != null && "registered".equals(db.statuses.get(enrollmentId))) {
+                    throw new StudentServiceException(ALREADY_REGISTERED);
+                }
+                if (enrollmentId == null) {
+                    enrollmentId = db.nextEnrollmentId++;
+                    db.enrollments.put(enrollmentId, new int[]{studentId});
+                }
+                db.statuses.put(enrollmentId, "registered");
+                db.enrollmentCount++;
+            }
+        }
+
+        @Override
+        public void dropSection(int studentId, int enrollmentId) {
+            fallbacks.add("drop " + enrollmentId);
+        }
+
+        @Override
+        protected void notifyRegistered(int studentId, Section section) {
+            db.notifications.add("registered " + studentId);
+        }
+
+        @Override
+        protected void notifyRegistrationFailed(int studentId, Section section, String reason) {
+            db.notifications.add("failed " + studentId + ": " + reason);
+        }
+
+        @Override
+        protected void notifyDropped(int studentId, Section section) {
+            db.notifications.add("dropped " + studentId);
+        }
+    }
+}
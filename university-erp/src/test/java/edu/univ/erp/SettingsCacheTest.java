@@ -0,0 +1,85 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.SettingsCache;
+import edu.univ.erp.data.SettingsDAO;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SettingsCacheTest {
+
+    @Test
+    @DisplayName("Repeated reads are served from one load")
+    @Order(1)
+    void testReadsServedFromSnapshot() {
+        StubSettingsDAO dao = new StubSettingsDAO();
+        dao.values.put(SettingsDAO.CURRENT_SEMESTER, "Winter");
+        dao.values.put(SettingsDAO.CURRENT_YEAR, "2025");
+        SettingsCache cache = new SettingsCache(dao, 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Winter", cache.get(SettingsDAO.CURRENT_SEMESTER, "Monsoon"));
+            assertEquals(2025, cache.getInt(SettingsDAO.CURRENT_YEAR, 0));
+        }
+
+        assertEquals(1, dao.loadCalls);
+        assertEquals(200, cache.getReadCount());
+        assertEquals(198, cache.getQueriesSaved(), "One version query and one load for 200 reads");
+        assertTrue(cache.getHitRate() > 0.99);
+    }
+
+    @Test
+    @DisplayName("Version check reloads only when settings changed")
+    @Order(2)
+    void testVersionCheck() {
+        StubSettingsDAO dao = new StubSettingsDAO();
+        dao.values.put(SettingsDAO.MAINTENANCE_MODE, "false");
+        SettingsCache cache = new SettingsCache(dao, 0);
+
+        assertFalse(cache.getBoolean(SettingsDAO.MAINTENANCE_MODE, true));
+        assertFalse(cache.getBoolean(SettingsDAO.MAINTENANCE_MODE, true));
+        assertEquals(1, dao.loadCalls, "Unchanged version must not reload");
+
+        dao.values.put(SettingsDAO.MAINTENANCE_MODE, "true");
+        dao.version++;
+        assertTrue(cache.getBoolean(SettingsDAO.MAINTENANCE_MODE, false));
+        assertEquals(2, dao.loadCalls);
+    }
+
+    @Test
+    @DisplayName("Invalidation forces a reload and defaults still apply")
+    @Order(3)
+    void testInvalidateAndDefaults() {
+        StubSettingsDAO dao = new StubSettingsDAO();
+        SettingsCache cache = new SettingsCache(dao, 60_000);
+
+        assertEquals("Monsoon", cache.get(SettingsDAO.CURRENT_SEMESTER, "Monsoon"));
+        dao.values.put(SettingsDAO.CURRENT_SEMESTER, "Summer");
+        assertEquals("Monsoon", cache.get(SettingsDAO.CURRENT_SEMESTER, "Monsoon"));
+
+        cache.invalidate();
+        assertEquals("Summer", cache.get(SettingsDAO.CURRENT_SEMESTER, "Monsoon"));
+        assertEquals(2, dao.loadCalls);
+    }
+
+    private static class StubSettingsDAO extends SettingsDAO {
+        final Map<String, String> values = new HashMap<>();
+        int version = 1;
+        int loadCalls = 0;
+
+        @Override
+        public Map<String, String> getAll() {
+            loadCalls++;
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public String getVersion() {
+            return String.valueOf(version);
+        }
+    }
+}
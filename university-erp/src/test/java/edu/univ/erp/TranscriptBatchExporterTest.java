@@ -0,0 +1,85 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.TranscriptDAO;
+import edu.univ.erp.domain.StudentTranscript;
+import edu.univ.erp.domain.TranscriptEntry;
+import edu.univ.erp.service.TranscriptBatchExporter;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipFile;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TranscriptBatchExporterTest {
+
+    private static final int COHORT = 300;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Whole cohort is written to a zip with progress reported")
+    @Order(1)
+    void testExportToZip() throws Exception {
+        File zip = tempDir.resolve("transcripts.zip").toFile();
+        AtomicInteger lastProgress = new AtomicInteger();
+        TranscriptBatchExporter exporter = new TranscriptBatchExporter(new StubTranscriptDAO(COHORT, -1), 4);
+
+        TranscriptBatchExporter.Result result = exporter.exportToZip(zip,
+            (exported, failed) -> lastProgress.accumulateAndGet(exported + failed, Math::max));
+
+        assertEquals(COHORT, result.exported());
+        assertEquals(0, result.failed());
+        assertEquals(COHORT, lastProgress.get());
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(COHORT, zipFile.size());
+            assertNotNull(zipFile.getEntry("Transcript_R0001.pdf"));
+        }
+    }
+
+    @Test
+    @DisplayName("A failing transcript is reported without stopping the batch")
+    @Order(2)
+    void testFailuresAreCounted() throws Exception {
+        File dir = tempDir.resolve("out").toFile();
+        TranscriptBatchExporter exporter = new TranscriptBatchExporter(new StubTranscriptDAO(50, 7), 2);
+
+        TranscriptBatchExporter.Result result = exporter.exportToDirectory(dir, null);
+
+        assertEquals(49, result.exported());
+        assertEquals(1, result.failed());
+        assertEquals(1, result.failures().size());
+        assertEquals(49, dir.listFiles().length);
+    }
+
+    private static class StubTranscriptDAO extends TranscriptDAO {
+        private final int students;
+        private final int brokenStudent;
+
+        StubTranscriptDAO(int students, int brokenStudent) {
+            this.students = students;
+            this.brokenStudent = brokenStudent;
+        }
+
+        @Override
+        public int streamAll(Consumer<StudentTranscript> consumer) {
+            for (int i = 1; i <= students; i++) {
+                List<TranscriptEntry> entries = new ArrayList<>();
+                entries.add(new TranscriptEntry("CS101", "Intro to Programming", 4, "Monsoon", 2024, "A"));
+                entries.add(new TranscriptEntry("MA101", "Calculus", 4, "Monsoon", 2024, null));
+                // A null entry list makes rendering throw for that one student.
+                consumer.accept(new StudentTranscript(i, "Student " + i, String.format("R%04d", i), "B.Tech",
+                    i == brokenStudent ? null : entries));
+            }
+            return students;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.TranscriptDAO;
+import edu.univ.erp.domain.TranscriptEntry;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TranscriptDAOTest {
+
+    private static final String[] COLUMNS = {"enrollment_id", "code", "title", "credits", "semester", "year",
+        "final_grade", "component_name", "score", "max_score", "weight"};
+
+    /** A transcript as the LEFT JOIN returns it: one row per graded component, ordered by enrollment. */
+    private static List<Object[]> transcriptRows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{11, "CSE101", "Intro to Programming", 4, "Monsoon", 2024, "A", "Quiz", 18.0, 20.0, 20.0});
+        rows.add(new Object[]{11, "CSE101", "Intro to Programming", 4, "Monsoon", 2024, "A", "Endsem", 72.0, 80.0, 80.0});
+        // Registered this term with nothing graded yet: the grade columns come back null.
+        rows.add(new Object[]{12, "MTH201", "Linear Algebra", 4, "Winter", 2025, null, null, null, null, null});
+        rows.add(new Object[]{13, "DES102", "Design Thinking", 2, "Winter", 2025, null, "Project", 45.5, 50.0, 100.0});
+        return rows;
+    }
+
+    @Test
+    @DisplayName("One query returns every enrollment with its component grades grouped under it")
+    @Order(1)
+    void testSingleQueryGroupsByEnrollment() throws Exception {
+        FakeConnection fake = new FakeConnection(transcriptRows());
+        List<TranscriptEntry> entries = new TranscriptDAO().findByStudent(fake.proxy(), 42);
+
+        assertEquals(1, fake.statements.size(), "Grades are joined in, not fetched per enrollment");
+        assertTrue(fake.statements.get(0).contains("LEFT JOIN grades"));
+        assertEquals(List.of(42), fake.parameters);
+        assertEquals(List.of("resultSet", "statement"), fake.closed, "Result set and statement are closed");
+
+        assertEquals(3, entries.size());
+        TranscriptEntry first = entries.get(0);
+        assertEquals("CSE101", first.getCourseCode());
+        assertEquals("A", first.getFinalGrade());
+        assertEquals(List.of("Quiz: 18.0/20 (20%)", "Endsem: 72.0/80 (80%)"), first.getComponentGrades());
+
+        TranscriptEntry ungraded = entries.get(1);
+        assertEquals("MTH201", ungraded.getCourseCode());
+        assertEquals("IP", ungraded.getFinalGrade());
+        assertTrue(ungraded.getComponentGrades().isEmpty(), "An enrollment with no grade rows still appears");
+
+        assertEquals(List.of("Project: 45.5/50 (100%)"), entries.get(2).getComponentGrades());
+    }
+
+    @Test
+    @DisplayName("A student with no enrollments gets an empty transcript")
+    @Order(2)
+    void testNoEnrollments() throws Exception {
+        FakeConnection fake = new FakeConnection(List.of());
+        assertTrue(new TranscriptDAO().findByStudent(fake.proxy(), 7).isEmpty());
+        assertEquals(1, fake.statements.size());
+    }
+
+    /** Serves fixed rows to whatever statement is prepared, recording the SQL and parameters. */
+    private static final class FakeConnection {
+        final List<Object[]> rows;
+        final List<String> statements = new ArrayList<>();
+        final List<Object> parameters = new ArrayList<>();
+        final List<String> closed = new ArrayList<>();
+
+        FakeConnection(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (p, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) {
+                        statements.add((String) args[0]);
+                        return statement();
+                    }
+                    return null;
+                });
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "setInt": parameters.add(args[1]); return null;
+                        case "executeQuery": return resultSet();
+                        case "close": closed.add("statement"); return null;
+                        default: return null;
+                    }
+                });
+        }
+
+        private ResultSet resultSet() {
+            Map<String, Integer> columnIndex = new HashMap<>();
+            for (int i = 0; i < COLUMNS.length; i++) columnIndex.put(COLUMNS[i], i);
+            int[] cursor = {-1};
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "next": return ++cursor[0] < rows.size();
+                        case "close": closed.add("resultSet"); return null;
+                        case "getInt":
+                        case "getDouble":
+                        case "getString": {
+                            Object value = rows.get(cursor[0])[columnIndex.get((String) args[0])];
+                            if (method.getName().equals("getString")) return value;
+                            if (value == null) return method.getName().equals("getInt") ? 0 : 0.0;
+                            return value;
+                        }
+                        default: return null;
+                    }
+                });
+        }
+    }
+}
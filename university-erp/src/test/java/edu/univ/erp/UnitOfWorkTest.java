@@ -0,0 +1,148 @@
+package edu.univ.erp;
+
+import edu.univ.erp.util.ScopedConnectionSource;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UnitOfWorkTest {
+
+    /** State behind a fake pooled connection: records transaction calls and whether it was returned. */
+    private static final class FakeConnection {
+        boolean autoCommit = true;
+        boolean closed;
+        final List<String> calls = new ArrayList<>();
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAutoCommit": return autoCommit;
+                        case "setAutoCommit": autoCommit = (Boolean) args[0]; calls.add("setAutoCommit(" + args[0] + ")"); return null;
+                        case "commit": calls.add("commit"); return null;
+                        case "rollback": calls.add("rollback"); return null;
+                        case "close": closed = true; return null;
+                        case "isClosed": return closed;
+                        default: return null;
+                    }
+                });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    private ScopedConnectionSource newSource() {
+        return new ScopedConnectionSource("Test-Pool", () -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.proxy();
+        });
+    }
+
+    /** The shape of a registration: the service holds a connection while helpers open their own. */
+    private static void registration(ScopedConnectionSource pool) throws SQLException {
+        try (Connection service = pool.getConnection()) {
+            for (int helper = 0; helper < 3; helper++) {
+                try (Connection dao = pool.getConnection()) {
+                    assertFalse(dao.isClosed());
+                }
+            }
+            service.setAutoCommit(false);
+            service.commit();
+            service.setAutoCommit(true);
+        }
+    }
+
+    @Test
+    @DisplayName("Inside a unit of work every checkout shares one pooled connection")
+    @Order(1)
+    void testOneConnectionPerUnit() throws Exception {
+        ScopedConnectionSource legacy = newSource();
+        registration(legacy);
+        assertEquals(4, legacy.getPhysicalCheckoutCount());
+        assertEquals(2, legacy.getPeakHeldByOneThread(), "Without a unit each helper takes a second pool slot");
+
+        opened.clear();
+        ScopedConnectionSource scoped = newSource();
+        ScopedConnectionSource.runInScope(() -> {
+            registration(scoped);
+            return null;
+        }, scoped);
+
+        assertEquals(1, opened.size());
+        assertEquals(1, scoped.getPeakHeldByOneThread());
+        assertEquals(1, scoped.getPhysicalCheckoutCount());
+        assertEquals(3, scoped.getJoinedCheckoutCount());
+        assertTrue(opened.get(0).closed, "The connection goes back to the pool when the unit ends");
+        assertEquals(0, scoped.getInUse());
+    }
+
+    @Test
+    @DisplayName("A DAO transaction inside a service transaction joins it instead of committing")
+    @Order(2)
+    void testJoinedTransaction() throws Exception {
+        ScopedConnectionSource pool = newSource();
+        ScopedConnectionSource.runInScope(() -> {
+            try (Connection service = pool.getConnection()) {
+                service.setAutoCommit(false);
+                try (Connection dao = pool.getConnection()) {
+                    dao.setAutoCommit(false);
+                    dao.commit();
+                    dao.setAutoCommit(true);
+                }
+                assertFalse(opened.get(0).autoCommit, "The joined DAO must not end the outer transaction");
+                service.commit();
+                service.setAutoCommit(true);
+            }
+            return null;
+        }, pool);
+        assertEquals(List.of("setAutoCommit(false)", "commit", "setAutoCommit(true)"), opened.get(0).calls);
+    }
+
+    @Test
+    @DisplayName("A rollback in a joined operation makes the outer commit fail")
+    @Order(3)
+    void testRollbackOnly() {
+        ScopedConnectionSource pool = newSource();
+        SQLException failure = assertThrows(SQLException.class, () -> ScopedConnectionSource.runInScope(() -> {
+            try (Connection service = pool.getConnection()) {
+                service.setAutoCommit(false);
+                try (Connection dao = pool.getConnection()) {
+                    dao.rollback();
+                }
+                service.commit();
+            }
+            return null;
+        }, pool));
+        assertTrue(failure.getMessage().contains("rolled back"));
+        assertFalse(opened.get(0).calls.contains("commit"));
+        assertTrue(opened.get(0).autoCommit, "The unit resets the connection before returning it");
+        assertTrue(opened.get(0).closed);
+    }
+
+    @Test
+    @DisplayName("Nested units join the outermost one")
+    @Order(4)
+    void testNestedUnits() throws Exception {
+        ScopedConnectionSource pool = newSource();
+        ScopedConnectionSource.runInScope(() -> {
+            pool.getConnection().close();
+            ScopedConnectionSource.runInScope(() -> {
+                pool.getConnection().close();
+                return null;
+            }, pool);
+            assertFalse(opened.get(0).closed, "The inner unit must not return the shared connection");
+            return null;
+        }, pool);
+        assertEquals(1, opened.size());
+        assertEquals(1, pool.getUnitCount());
+        assertTrue(opened.get(0).closed);
+    }
+}
@@ -0,0 +1,123 @@
+package edu.univ.erp;
+
+import edu.univ.erp.data.UserDAO;
+import edu.univ.erp.data.UserDirectory;
+import edu.univ.erp.data.UserDirectory.Entry;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UserDirectoryTest {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    @DisplayName("100k users load once and every lookup is served from memory")
+    @Order(1)
+    void testBulkLoadAndLookups() {
+        StubUserDAO dao = new StubUserDAO(USERS);
+        UserDirectory directory = new UserDirectory(dao, 60_000, Runnable::run);
+
+        assertEquals("User 1", directory.nameOf(1));
+
+        int found = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int id = 1; id <= USERS; id++) {
+                if (directory.nameOf(id) != null) found++;
+            }
+        }
+        assertEquals(10 * USERS, found);
+        assertEquals(1, dao.bulkLoads);
+        assertEquals(0, dao.singleLookups);
+    }
+
+    @Test
+    @DisplayName("Admin edits are applied in place without reloading")
+    @Order(2)
+    void testIncrementalUpdates() {
+        StubUserDAO dao = new StubUserDAO(10);
+        UserDirectory directory = new UserDirectory(dao, 60_000, Runnable::run);
+        assertEquals(10, directory.size());
+
+        directory.put(11, "New Instructor", "instructor", "active");
+        directory.put(3, "Renamed Student", "student", "active");
+        directory.updateStatus(4, "locked");
+        dao.users.remove(5);
+        directory.remove(5);
+
+        assertEquals("New Instructor", directory.nameOf(11));
+        assertEquals("Renamed Student", directory.nameOf(3));
+        assertEquals("locked", directory.get(4).status());
+        assertNull(directory.nameOf(5), "A deleted user is gone once the database no longer has it");
+        assertEquals(1, dao.bulkLoads);
+    }
+
+    @Test
+    @DisplayName("Users created by another client are looked up individually")
+    @Order(3)
+    void testMissFallsBackToSingleLookup() {
+        StubUserDAO dao = new StubUserDAO(10);
+        UserDirectory directory = new UserDirectory(dao, 60_000, Runnable::run);
+        directory.size();
+
+        dao.users.put(42, new Entry(42, "Other Client", "student", "active"));
+        assertEquals("Other Client", directory.nameOf(42));
+        assertEquals("Other Client", directory.nameOf(42));
+        assertEquals(1, dao.singleLookups, "The looked-up user is kept");
+    }
+
+    @Test
+    @DisplayName("A background refresh keeps edits made while it was running")
+    @Order(4)
+    void testRefreshKeepsLocalEdits() {
+        StubUserDAO dao = new StubUserDAO(10);
+        List<Runnable> pending = new ArrayList<>();
+        Executor deferred = pending::add;
+        UserDirectory directory = new UserDirectory(dao, 0, deferred);
+        directory.size();
+
+        dao.users.put(2, new Entry(2, "Renamed Elsewhere", "student", "active"));
+        assertEquals("User 1", directory.nameOf(1), "Reads keep using the current entries");
+        assertEquals(1, pending.size(), "Only one refresh is scheduled at a time");
+        directory.nameOf(1);
+        assertEquals(1, pending.size());
+
+        directory.put(7, "Renamed Here", "student", "active");
+        pending.remove(0).run();
+
+        assertEquals("Renamed Elsewhere", directory.nameOf(2));
+        assertEquals("Renamed Here", directory.nameOf(7));
+        assertEquals(2, dao.bulkLoads);
+    }
+
+    private static class StubUserDAO extends UserDAO {
+        final Map<Integer, Entry> users = new HashMap<>();
+        int bulkLoads;
+        int singleLookups;
+
+        StubUserDAO(int count) {
+            for (int id = 1; id <= count; id++) {
+                users.put(id, new Entry(id, "User " + id, id % 50 == 0 ? "instructor" : "student", "active"));
+            }
+        }
+
+        @Override
+        public Map<Integer, Entry> findAllDirectoryEntries() {
+            bulkLoads++;
+            return new HashMap<>(users);
+        }
+
+        @Override
+        public Entry findDirectoryEntry(int userId) {
+            singleLookups++;
+            return users.get(userId);
+        }
+    }
+}
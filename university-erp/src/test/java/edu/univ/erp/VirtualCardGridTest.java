@@ -0,0 +1,148 @@
+package edu.univ.erp;
+
+import edu.univ.erp.ui.VirtualCardGrid;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VirtualCardGridTest {
+
+    private static final int ROW_HEIGHT = 270;
+    private static final int GAP = 20;
+    private static final int VIEW_HEIGHT = 800;
+
+    private static class LabelCard implements VirtualCardGrid.Card<Integer> {
+        final JLabel label = new JLabel();
+        Integer item;
+
+        @Override public JComponent getComponent() { return label; }
+        @Override public void bind(Integer item) {
+            this.item = item;
+            label.setText("Section " + item);
+        }
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) items.add(i);
+        return items;
+    }
+
+    private static JScrollPane scrollPane(VirtualCardGrid<Integer> grid) {
+        JScrollPane scrollPane = new JScrollPane(grid);
+        scrollPane.setSize(1100, VIEW_HEIGHT);
+        layout(scrollPane);
+        return scrollPane;
+    }
+
+    /** No peer in a headless test, so the layout pass validate() would run is done by hand. */
+    private static void layout(JScrollPane scrollPane) {
+        scrollPane.doLayout();
+        scrollPane.getViewport().doLayout();
+    }
+
+    /** The item bound to the first-column card at the top of the view. */
+    private static Integer topLeftItem(VirtualCardGrid<Integer> grid) {
+        int viewTop = grid.getVisibleRect().y;
+        Component top = null;
+        for (Component c : grid.getComponents()) {
+            if (c.isVisible() && c.getX() == 30 && c.getY() + c.getHeight() > viewTop && (top == null || c.getY() < top.getY())) {
+                top = c;
+            }
+        }
+        return top == null ? null : Integer.parseInt(((JLabel) top).getText().substring("Section ".length()));
+    }
+
+    /** What the top-left card should show when the view starts at {@code viewTop}: the first row not yet scrolled past. */
+    private static int expectedTopLeft(int viewTop) {
+        return Math.max(0, (viewTop - 10 + GAP) / (ROW_HEIGHT + GAP)) * 3 + 1;
+    }
+
+    @Test
+    @DisplayName("10k items materialize only the rows in view")
+    @Order(1)
+    void testOnlyVisibleRowsMaterialize() {
+        VirtualCardGrid<Integer> grid = new VirtualCardGrid<>(3, ROW_HEIGHT, GAP, new Insets(10, 30, 30, 30), LabelCard::new);
+        JScrollPane scrollPane = scrollPane(grid);
+        grid.setItems(items(10_000));
+        layout(scrollPane);
+
+        int rows = (10_000 + 2) / 3;
+        assertEquals(10 + 30 + rows * ROW_HEIGHT + (rows - 1) * GAP, grid.getHeight(), "The grid is as tall as every row");
+        int maxRowsInView = VIEW_HEIGHT / (ROW_HEIGHT + GAP) + 2 + 2;
+        assertTrue(grid.getCardsCreated() <= maxRowsInView * 3, "Created " + grid.getCardsCreated() + " cards");
+        assertEquals(grid.getCardsCreated(), grid.getComponentCount());
+        assertEquals(1, topLeftItem(grid));
+    }
+
+    @Test
+    @DisplayName("Scrolling 10k items reuses cards and binds only the rows that come into view")
+    @Order(2)
+    void testScrollingReusesCards() {
+        VirtualCardGrid<Integer> grid = new VirtualCardGrid<>(3, ROW_HEIGHT, GAP, new Insets(10, 30, 30, 30), LabelCard::new);
+        JScrollPane scrollPane = scrollPane(grid);
+        grid.setItems(items(10_000));
+        layout(scrollPane);
+        JViewport viewport = scrollPane.getViewport();
+        int bottom = grid.getHeight() - VIEW_HEIGHT;
+
+        // A view below the first row also holds the overscan row above it, so fill the pool once first.
+        viewport.setViewPosition(new Point(0, bottom / 2));
+        viewport.setViewPosition(new Point(0, 0));
+        int created = grid.getCardsCreated();
+        long bindsAtTop = grid.getBindCount();
+
+        // Top to bottom at 48 px per step, about one fast wheel notch per frame.
+        for (int y = 0; y <= bottom; y += 48) {
+            long before = grid.getBindCount();
+            viewport.setViewPosition(new Point(0, y));
+            assertTrue(grid.getBindCount() - before <= 3, "A step shorter than a row brings in at most one row");
+            assertEquals(expectedTopLeft(grid.getVisibleRect().y), topLeftItem(grid), "The cards follow the view at " + y);
+        }
+
+        assertEquals(created, grid.getCardsCreated(), "Scrolling reuses the pool");
+        assertTrue(grid.getBindCount() - bindsAtTop <= 10_000, "Each item is bound at most once on the way down");
+        assertTrue(grid.getVisibleRect().y >= bottom - 48);
+        grid.logStats("Test");
+    }
+
+    @Test
+    @DisplayName("A new filter or sort order re-binds the visible cards without creating components")
+    @Order(3)
+    void testRefreshRebindsInPlace() {
+        VirtualCardGrid<Integer> grid = new VirtualCardGrid<>(3, ROW_HEIGHT, GAP, new Insets(10, 30, 30, 30), LabelCard::new);
+        JScrollPane scrollPane = scrollPane(grid);
+        List<Integer> all = items(10_000);
+        grid.setItems(all);
+        layout(scrollPane);
+        scrollPane.getViewport().setViewPosition(new Point(0, 50_000));
+        int created = grid.getCardsCreated();
+
+        List<Integer> reversed = new ArrayList<>(all);
+        Collections.reverse(reversed);
+        grid.setItems(reversed);
+        layout(scrollPane);
+        assertEquals(10_000, topLeftItem(grid), "A new list starts from the top");
+        assertEquals(created, grid.getCardsCreated());
+
+        List<Integer> filtered = all.subList(0, 4);
+        grid.setItems(filtered);
+        layout(scrollPane);
+        assertEquals(created, grid.getCardsCreated());
+        assertEquals(4, grid.getCardsInUse(), "Cards beyond the list are parked");
+        long visible = Arrays.stream(grid.getComponents()).filter(Component::isVisible).count();
+        assertEquals(4, visible);
+
+        long binds = grid.getBindCount();
+        grid.setItems(filtered);
+        assertEquals(binds, grid.getBindCount(), "Cards already showing their item are not re-bound");
+    }
+}
@@ -0,0 +1,163 @@
+package edu.univ.erp;
+
+import edu.univ.erp.domain.WeeklySchedule;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WeeklyScheduleTest {
+
+    private static final String[] EDGE_CASES = {
+        "Mon/Wed 10:00-11:30", "mon 11:30-12:30", "MON/Fri 11:29-11:31", "Tue/Thu 14:00",
+        "Tue 15:00-14:00", "Wed 23:30-24:30", "Thu 10:xx-11:00", "Fri 10:00-", "Sat TBA",
+        "Mon", "", " Mon 10:00-11:00", "Mon//Wed 09:00-10:00", "Mon/ Wed 09:30-09:45",
+        "Sun 00:00-00:01", "Sun 23:59-24:00", "Lab 08:00-10:00 (Room 4)", "Wed 10:00-11:30"
+    };
+
+    @Test
+    @DisplayName("Pairwise overlap matches the string-parsing comparison")
+    @Order(1)
+    void testPairwiseEquivalence() {
+        List<String> slots = slots(400, 11);
+        for (String a : slots) {
+            for (String b : slots) {
+                assertEquals(LegacyTimeSlots.overlap(a, b), WeeklySchedule.of(a).overlaps(WeeklySchedule.of(b)),
+                    a + " vs " + b);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Student occupancy matches checking every registration")
+    @Order(2)
+    void testOccupancyEquivalence() {
+        Random random = new Random(7);
+        List<String> slots = slots(200, 13);
+        for (int student = 0; student < 2000; student++) {
+            List<String> registered = new ArrayList<>();
+            WeeklySchedule.Occupancy occupancy = new WeeklySchedule.Occupancy();
+            for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                String slot = slots.get(random.nextInt(slots.size()));
+                registered.add(slot);
+                occupancy.add(WeeklySchedule.of(slot));
+            }
+            String candidate = slots.get(random.nextInt(slots.size()));
+            boolean expected = registered.stream().anyMatch(existing -> LegacyTimeSlots.overlap(candidate, existing));
+            assertEquals(expected, occupancy.clashesWith(WeeklySchedule.of(candidate)), candidate + " vs " + registered);
+            assertEquals(expected, occupancy.findClash(WeeklySchedule.of(candidate)) != null);
+        }
+    }
+
+    @Test
+    @DisplayName("String parsing and pre-parsed bitsets agree across 200k clash checks")
+    @Order(3)
+    void testClashChecksAtScale() {
+        List<String> slots = slots(300, 17);
+        Random random = new Random(3);
+        int checks = 200_000;
+        String[][] registrations = new String[checks][];
+        String[] candidates = new String[checks];
+        for (int i = 0; i < checks; i++) {
+            registrations[i] = new String[6];
+            for (int j = 0; j < 6; j++) {
+                registrations[i][j] = slots.get(random.nextInt(slots.size()));
+            }
+            candidates[i] = slots.get(random.nextInt(slots.size()));
+        }
+
+        int legacyClashes = runLegacy(registrations, candidates);
+        assertTrue(legacyClashes > 0);
+        assertEquals(legacyClashes, runBitset(registrations, candidates));
+    }
+
+    private static int runLegacy(String[][] registrations, String[] candidates) {
+        int clashes = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            for (String existing : registrations[i]) {
+                if (LegacyTimeSlots.overlap(candidates[i], existing)) {
+                    clashes++;
+                    break;
+                }
+            }
+        }
+        return clashes;
+    }
+
+    private static int runBitset(String[][] registrations, String[] candidates) {
+        int clashes = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            WeeklySchedule.Occupancy occupancy = new WeeklySchedule.Occupancy();
+            for (String existing : registrations[i]) {
+                occupancy.add(WeeklySchedule.of(existing));
+            }
+            if (occupancy.clashesWith(WeeklySchedule.of(candidates[i]))) {
+                clashes++;
+            }
+        }
+        return clashes;
+    }
+
+    private static List<String> slots(int generated, long seed) {
+        String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "mon", "Mon/Wed", "Tue/Thu", "Mon/Wed/Fri", "Sat"};
+        Random random = new Random(seed);
+        List<String> slots = new ArrayList<>(List.of(EDGE_CASES));
+        for (int i = 0; i < generated; i++) {
+            int startMinute = 8 * 60 + random.nextInt(10 * 60);
+            int length = 30 + random.nextInt(4) * 15;
+            String day = days[random.nextInt(days.length)];
+            slots.add(random.nextInt(10) == 0
+                ? String.format("%s %d:%02d", day, startMinute / 60, startMinute % 60)
+                : String.format("%s %02d:%02d-%02d:%02d", day, startMinute / 60, startMinute % 60,
+                    (startMinute + length) / 60, (startMinute + length) % 60));
+        }
+        return slots;
+    }
+
+    /** The comparison StudentService used before schedules were pre-parsed. */
+    private static final class LegacyTimeSlots {
+        static boolean overlap(String slot1, String slot2) {
+            if (slot1 == null || slot2 == null) return false;
+            if (slot1.trim().isEmpty() || slot2.trim().isEmpty()) return false;
+            String[] parts1 = slot1.split(" ");
+            String[] parts2 = slot2.split(" ");
+            if (parts1.length < 2 || parts2.length < 2) return false;
+
+            String[] dayList1 = parts1[0].toLowerCase().split("/");
+            String[] dayList2 = parts2[0].toLowerCase().split("/");
+            boolean daysOverlap = false;
+            for (String d1 : dayList1) {
+                for (String d2 : dayList2) {
+                    if (d1.trim().equalsIgnoreCase(d2.trim())) {
+                        daysOverlap = true;
+                        break;
+                    }
+                }
+                if (daysOverlap) break;
+            }
+            if (!daysOverlap) return false;
+
+            try {
+                String time1 = parts1[1];
+                String time2 = parts2[1];
+                int start1 = minutes(time1.split("-")[0]);
+                int end1 = time1.contains("-") ? minutes(time1.split("-")[1]) : start1 + 60;
+                int start2 = minutes(time2.split("-")[0]);
+                int end2 = time2.contains("-") ? minutes(time2.split("-")[1]) : start2 + 60;
+                return (start1 < end2) && (start2 < end1);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private static int minutes(String time) {
+            if (time == null || !time.contains(":")) return 0;
+            String[] parts = time.trim().split(":");
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        }
+    }
+}